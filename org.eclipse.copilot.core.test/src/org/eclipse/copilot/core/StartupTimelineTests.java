@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.copilot.core.StartupTimeline.Stage;
+
+class StartupTimelineTests {
+
+  private final AtomicLong now = new AtomicLong();
+  private final StartupTimeline timeline = new StartupTimeline(now::get);
+
+  @Test
+  void testStageEndsWhenItsFutureCompletes() {
+    CompletableFuture<String> initialize = new CompletableFuture<>();
+    advance(10);
+    CompletableFuture<String> stage = timeline.stage(StartupTimeline.INITIALIZE, () -> initialize);
+    advance(25);
+
+    assertEquals(-1, timeline.getStage(StartupTimeline.INITIALIZE).endMillis());
+    initialize.complete("OK");
+
+    assertEquals("OK", stage.join());
+    assertEquals(new Stage(StartupTimeline.INITIALIZE, 10, 35, false), timeline.getStage(StartupTimeline.INITIALIZE));
+    assertEquals(25, timeline.getStage(StartupTimeline.INITIALIZE).durationMillis());
+  }
+
+  @Test
+  void testFailedStagesAreFlagged() {
+    CompletableFuture<Object> stage = timeline.stage(StartupTimeline.LANGUAGE_SERVER_START, () -> {
+      throw new IllegalStateException("Language server definition not found");
+    });
+    assertTrue(stage.isCompletedExceptionally());
+    assertTrue(timeline.getStage(StartupTimeline.LANGUAGE_SERVER_START).failed());
+
+    assertThrows(IllegalStateException.class, () -> timeline.run(StartupTimeline.UI_SERVICES, () -> {
+      throw new IllegalStateException();
+    }));
+    assertTrue(timeline.getStage(StartupTimeline.UI_SERVICES).failed());
+  }
+
+  @Test
+  void testStagesAreListedInTheOrderTheyBegan() {
+    timeline.run(StartupTimeline.UI_SERVICES, () -> advance(5));
+    timeline.run(StartupTimeline.CHAT_SERVICES, () -> advance(7));
+    advance(3);
+    assertNull(timeline.getStage(StartupTimeline.FIRST_COMPLETION));
+
+    assertTrue(timeline.mark(StartupTimeline.FIRST_COMPLETION));
+    advance(3);
+    assertFalse(timeline.mark(StartupTimeline.FIRST_COMPLETION));
+
+    List<Stage> stages = timeline.getStages();
+    assertEquals(List.of(new Stage(StartupTimeline.UI_SERVICES, 0, 5, false),
+        new Stage(StartupTimeline.CHAT_SERVICES, 5, 12, false),
+        new Stage(StartupTimeline.FIRST_COMPLETION, 15, 15, false)), stages);
+  }
+
+  private void advance(long millis) {
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+}
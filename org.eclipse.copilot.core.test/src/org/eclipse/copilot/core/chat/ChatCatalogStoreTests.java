@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.eclipse.copilot.core.lsp.protocol.ConversationAgent;
+
+class ChatCatalogStoreTests {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testCatalogIsPersistedPerUser() {
+    Path file = tempDir.resolve("chat-catalog.json");
+    ChatCatalogStore store = new ChatCatalogStore(file);
+    ConversationAgent agent = new ConversationAgent();
+    agent.setSlug("project");
+    store.update("user1", catalog -> {
+      catalog.setAgents(new ConversationAgent[] { agent });
+      catalog.setChatModel("gpt-4.1");
+    });
+    // the persisted catalog is not affected by later updates of the caller.
+    agent.setSlug("workspace");
+
+    ChatCatalog catalog = new ChatCatalogStore(file).load(null);
+    assertNotNull(catalog);
+    assertEquals("user1", catalog.getUser());
+    assertEquals("gpt-4.1", catalog.getChatModel());
+    assertEquals("project", catalog.getAgents()[0].getSlug());
+    assertEquals("project", store.load("user1").getAgents()[0].getSlug());
+    assertNull(store.load("user2"));
+
+    store.update("user2", c -> c.setChatModeName("Ask"));
+    assertNull(store.load("user2").getChatModel());
+  }
+
+  @Test
+  void testCatalogOfAnotherSchemaVersionIsIgnored() throws Exception {
+    Path file = tempDir.resolve("chat-catalog.json");
+    Files.writeString(file, "{\"schemaVersion\": " + (ChatCatalogStore.SCHEMA_VERSION + 1) + ", \"user\": \"user1\"}",
+        StandardCharsets.UTF_8);
+    assertNull(new ChatCatalogStore(file).load("user1"));
+
+    Files.writeString(file, "{ not json", StandardCharsets.UTF_8);
+    assertNull(new ChatCatalogStore(file).load("user1"));
+  }
+
+  @Test
+  void testClear() {
+    Path file = tempDir.resolve("chat-catalog.json");
+    ChatCatalogStore store = new ChatCatalogStore(file);
+    store.update("user1", catalog -> catalog.setChatModel("gpt-4.1"));
+
+    store.clear();
+
+    assertNull(store.load(null));
+    assertFalse(Files.exists(file));
+  }
+}
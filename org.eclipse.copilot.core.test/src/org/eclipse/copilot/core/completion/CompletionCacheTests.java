@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
+
+class CompletionCacheTests {
+
+  private static final String URI = "file:///test.java";
+
+  @Test
+  void testHitAfterRetypingSameText() throws Exception {
+    CompletionCache cache = new CompletionCache();
+    IDocument document = new Document("int a = foo(\n");
+    Position position = new Position(0, 12);
+    cache.put(CompletionCache.createKey(URI, document, position), List.of(item("bar);", 1)));
+
+    // delete and retype the last character
+    document.replace(11, 1, "");
+    document.replace(11, 0, "(");
+
+    List<CompletionItem> cached = cache.get(CompletionCache.createKey(URI, document, position), 3);
+    assertNotNull(cached);
+    assertEquals("bar);", cached.get(0).getDisplayText());
+    assertEquals(3, cached.get(0).getDocVersion());
+    assertEquals(1L, cache.getHitCount());
+  }
+
+  @Test
+  void testMissWhenContextChanged() throws Exception {
+    CompletionCache cache = new CompletionCache();
+    IDocument document = new Document("int a = foo(\n");
+    Position position = new Position(0, 12);
+    CompletionCache.Key key = CompletionCache.createKey(URI, document, position);
+    cache.put(key, List.of(item("bar);", 1)));
+
+    document.replace(8, 3, "baz");
+    CompletionCache.Key newKey = CompletionCache.createKey(URI, document, position);
+
+    assertNotEquals(key, newKey);
+    assertNull(cache.get(newKey, 2));
+    assertEquals(1L, cache.getMissCount());
+    assertEquals(0.0, cache.getHitRate());
+  }
+
+  @Test
+  void testCachedItemsAreCopies() {
+    CompletionCache cache = new CompletionCache();
+    IDocument document = new Document("foo(\n");
+    CompletionCache.Key key = CompletionCache.createKey(URI, document, new Position(0, 4));
+    CompletionItem original = item("bar);", 1);
+    cache.put(key, List.of(original));
+
+    CompletionItem first = cache.get(key, 1).get(0);
+    first.getRange().setEnd(new Position(0, 10));
+    CompletionItem second = cache.get(key, 1).get(0);
+
+    assertNotSame(original, first);
+    assertEquals(new Position(0, 4), second.getRange().getEnd());
+  }
+
+  @Test
+  void testEvictsLeastRecentlyUsedEntry() {
+    CompletionCache cache = new CompletionCache(2, CompletionCache.DEFAULT_MAX_CHARS);
+    IDocument document = new Document("a\nb\nc\n");
+    CompletionCache.Key keyA = CompletionCache.createKey(URI, document, new Position(0, 1));
+    CompletionCache.Key keyB = CompletionCache.createKey(URI, document, new Position(1, 1));
+    CompletionCache.Key keyC = CompletionCache.createKey(URI, document, new Position(2, 1));
+    cache.put(keyA, List.of(item("1", 1)));
+    cache.put(keyB, List.of(item("2", 1)));
+    cache.get(keyA, 1);
+    cache.put(keyC, List.of(item("3", 1)));
+
+    assertNotNull(cache.get(keyA, 1));
+    assertNull(cache.get(keyB, 1));
+    assertNotNull(cache.get(keyC, 1));
+    assertEquals(1L, cache.getEvictionCount());
+  }
+
+  @Test
+  void testEvictsWhenOverCharacterBudget() {
+    CompletionCache cache = new CompletionCache(10, 15);
+    IDocument document = new Document("a\nb\n");
+    CompletionCache.Key keyA = CompletionCache.createKey(URI, document, new Position(0, 1));
+    CompletionCache.Key keyB = CompletionCache.createKey(URI, document, new Position(1, 1));
+    cache.put(keyA, List.of(item("12345", 1)));
+    cache.put(keyB, List.of(item("67890", 1)));
+
+    assertEquals(1, cache.size());
+    assertEquals(10L, cache.getTotalChars());
+    assertNull(cache.get(keyA, 1));
+  }
+
+  @Test
+  void testInvalidateDocument() {
+    CompletionCache cache = new CompletionCache();
+    IDocument document = new Document("foo(\n");
+    CompletionCache.Key key = CompletionCache.createKey(URI, document, new Position(0, 4));
+    CompletionCache.Key otherKey = CompletionCache.createKey("file:///other.java", document, new Position(0, 4));
+    cache.put(key, List.of(item("bar);", 1)));
+    cache.put(otherKey, List.of(item("bar);", 1)));
+
+    cache.invalidate(URI);
+
+    assertNull(cache.get(key, 1));
+    assertNotNull(cache.get(otherKey, 1));
+  }
+
+  private static CompletionItem item(String displayText, int version) {
+    return new CompletionItem("uuid", displayText, new Range(new Position(0, 0), new Position(0, 4)), displayText,
+        new Position(0, 4), version);
+  }
+}
@@ -10,13 +10,16 @@
 package org.eclipse.copilot.core.completion;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IStatus;
@@ -80,10 +83,8 @@ class CompletionJobTests {
   @Test
   void testShouldTimeoutWhenCompletionTakesTooLong() throws Exception {
     when(mockResource.exists()).thenReturn(true);
-    when(mockLsConnection.getCompletions(any())).thenAnswer(invocation -> {
-      TimeUnit.SECONDS.sleep(6); // completion will timeout after 5 seconds
-      return new CompletableFuture<>();
-    });
+    // the connection fails the request once its timeout elapses.
+    when(mockLsConnection.getCompletions(any())).thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
 
     Position position = new Position(0, 0);
     CompletionDocument completionDoc = new CompletionDocument("file://test.java", position);
@@ -102,6 +103,31 @@ class CompletionJobTests {
 
   }
 
+  @Test
+  void testCancelRunningJobCancelsPendingRequest() throws Exception {
+    when(mockResource.exists()).thenReturn(true);
+    CompletableFuture<CompletionResult> pendingRequest = new CompletableFuture<>();
+    when(mockLsConnection.getCompletions(any())).thenReturn(pendingRequest);
+
+    Position position = new Position(0, 0);
+    CompletionDocument completionDoc = new CompletionDocument("file://test.java", position);
+    completionDoc.setVersion(1);
+    CompletionJob job = new CompletionProvider(mockLsConnection, null).new CompletionJob(mockLsConnection);
+    job.setCompletionParams(new CompletionParams(completionDoc));
+    job.setFile(mockResource);
+    job.schedule();
+    verify(mockLsConnection, timeout(2000)).getCompletions(any());
+
+    long start = System.currentTimeMillis();
+    job.cancel();
+    job.join();
+
+    // the job should return without waiting for the completion timeout.
+    assertTrue(System.currentTimeMillis() - start < 2000);
+    assertTrue(pendingRequest.isCancelled());
+    assertEquals(Status.CANCEL_STATUS, job.getResult());
+  }
+
   @Test
   void testTriggerCompletionJobWhenCopilotIsSignedOutNotUsingEclipse() throws InterruptedException {
     CopilotStatusResult expectedResult = new CopilotStatusResult();
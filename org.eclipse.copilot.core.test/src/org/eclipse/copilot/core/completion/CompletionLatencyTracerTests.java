@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.eclipse.copilot.core.completion.CompletionLatencyTracer.Stage;
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
+
+class CompletionLatencyTracerTests {
+
+  private static final String URI = "file:///a.java";
+
+  @Test
+  void testSpansAreCorrelatedByRequest() {
+    CompletionLatencyTracer tracer = new CompletionLatencyTracer();
+    tracer.recordBeforeRequest(URI, Stage.DOCUMENT_VERSION, millis(1));
+
+    long requestId = tracer.beginRequest(URI);
+    tracer.record(requestId, Stage.DEBOUNCE, millis(30));
+    tracer.record(requestId, Stage.ROUND_TRIP, millis(200));
+    tracer.bindItems(requestId, List.of(new CompletionItem("uuid1", "text", null, "text", null, 1)));
+    tracer.recordForItem("uuid1", Stage.SUGGESTION_SETUP, millis(2));
+    tracer.recordForItem("uuid1", Stage.RENDER, millis(5));
+    tracer.recordForItem("unknown", Stage.RENDER, millis(7));
+
+    Map<Stage, Double> trace = tracer.getTrace(requestId);
+    assertEquals(1.0, trace.get(Stage.DOCUMENT_VERSION));
+    assertEquals(30.0, trace.get(Stage.DEBOUNCE));
+    assertEquals(200.0, trace.get(Stage.ROUND_TRIP));
+    assertEquals(2.0, trace.get(Stage.SUGGESTION_SETUP));
+    assertEquals(5.0, trace.get(Stage.RENDER));
+    assertTrue(trace.containsKey(Stage.TOTAL));
+    // the span of the unknown item only counts in the histogram.
+    assertEquals(2, tracer.getSampleCount(Stage.RENDER));
+    assertEquals(1, tracer.getSampleCount(Stage.TOTAL));
+    assertTrue(tracer.getTrace(tracer.beginRequest(URI)).isEmpty());
+  }
+
+  @Test
+  void testPercentilesOfRecentSamples() {
+    CompletionLatencyTracer tracer = new CompletionLatencyTracer();
+    assertEquals(0.0, tracer.getPercentileMillis(Stage.ROUND_TRIP, 50));
+    assertFalse(tracer.hasSamples());
+
+    for (int i = 1; i <= 100; i++) {
+      tracer.record(0, Stage.ROUND_TRIP, millis(i));
+    }
+
+    assertEquals(50.0, tracer.getPercentileMillis(Stage.ROUND_TRIP, 50));
+    assertEquals(95.0, tracer.getPercentileMillis(Stage.ROUND_TRIP, 95));
+    assertEquals(99.0, tracer.getPercentileMillis(Stage.ROUND_TRIP, 99));
+
+    // only the most recent samples are kept.
+    for (int i = 0; i < CompletionLatencyTracer.WINDOW_SIZE; i++) {
+      tracer.record(0, Stage.ROUND_TRIP, millis(1000));
+    }
+    assertEquals(1000.0, tracer.getPercentileMillis(Stage.ROUND_TRIP, 50));
+    assertEquals(100 + CompletionLatencyTracer.WINDOW_SIZE, tracer.getSampleCount(Stage.ROUND_TRIP));
+  }
+
+  @Test
+  void testDump(@TempDir Path tempDir) throws Exception {
+    CompletionLatencyTracer tracer = new CompletionLatencyTracer();
+    long requestId = tracer.beginRequest(URI);
+    tracer.record(requestId, Stage.ROUND_TRIP, millis(120));
+
+    Path file = tempDir.resolve("latency.txt");
+    tracer.dump(file);
+
+    String content = Files.readString(file, StandardCharsets.UTF_8);
+    assertTrue(content.startsWith("Completion latency (ms, p50/p95/p99): round_trip 120.0/120.0/120.0"));
+    assertTrue(content.contains("#" + requestId + " "));
+    assertTrue(content.contains(URI + " round_trip=120.0"));
+  }
+
+  private static long millis(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+}
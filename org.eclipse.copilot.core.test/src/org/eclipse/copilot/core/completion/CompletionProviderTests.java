@@ -10,9 +10,14 @@
 package org.eclipse.copilot.core.completion;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -22,6 +27,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -29,14 +36,21 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.jobs.IJobManager;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jface.text.Document;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.eclipse.copilot.core.AuthStatusManager;
+import org.eclipse.copilot.core.Constants;
+import org.eclipse.copilot.core.completion.CompletionLatencyTracer.Stage;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
 import org.eclipse.copilot.core.lsp.protocol.CompletionResult;
@@ -107,6 +121,20 @@ class CompletionProviderTests {
     verify(mockStatusManager, never()).setCopilotStatus(CopilotStatusResult.OK);
   }
 
+  @Test
+  void testShouldNotTriggerCompletionWhileTheCircuitIsOpen() throws InterruptedException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.isCircuitOpen("getCompletions")).thenReturn(true);
+
+    IFile mockFile = mock(IFile.class);
+    when(mockFile.getLocation()).thenReturn(new Path("file://test.java"));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    completionProvider.triggerCompletion(mockFile, new Position(0, 0), 1);
+    Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+    verify(mockLsConnection, never()).getCompletions(any());
+  }
+
   @Test
   void testTriggerCompletionJobWithParams() throws InterruptedException, URISyntaxException {
     when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
@@ -139,4 +167,273 @@ class CompletionProviderTests {
     verify(mockStatusManager, times(1)).setCopilotStatus(CopilotStatusResult.OK);
   }
 
+  @Test
+  void testShouldDispatchCompletionsOnlyToOwningDocument() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.getCompletions(any()))
+        .thenReturn(CompletableFuture.completedFuture(new CompletionResult(List.of(mock(CompletionItem.class)))));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile fileA = mockRemoteFile("file:///a.java");
+    IFile fileB = mockRemoteFile("file:///b.java");
+    CompletionListener listenerA = mock(CompletionListener.class);
+    CompletionListener listenerB = mock(CompletionListener.class);
+    completionProvider.addCompletionListener("file:///a.java", listenerA);
+    completionProvider.addCompletionListener("file:///b.java", listenerB);
+
+    // triggering a completion in the second document must not cancel the one of the first document.
+    completionProvider.triggerCompletion(fileA, new Position(0, 0), 1);
+    completionProvider.triggerCompletion(fileB, new Position(0, 0), 1);
+    Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+    verify(mockLsConnection, times(2)).getCompletions(any());
+    verify(listenerA, times(1)).onCompletionResolved(eq("file:///a.java"), any());
+    verify(listenerA, never()).onCompletionResolved(eq("file:///b.java"), any());
+    verify(listenerB, times(1)).onCompletionResolved(eq("file:///b.java"), any());
+    verify(listenerB, never()).onCompletionResolved(eq("file:///a.java"), any());
+  }
+
+  @Test
+  void testShouldNotNotifyRemovedDocumentListener() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.getCompletions(any()))
+        .thenReturn(CompletableFuture.completedFuture(new CompletionResult(List.of(mock(CompletionItem.class)))));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    completionProvider.addCompletionListener("file:///a.java", mockListener);
+    completionProvider.removeCompletionListener("file:///a.java", mockListener);
+
+    completionProvider.triggerCompletion(file, new Position(0, 0), 1);
+    Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+    verify(mockListener, never()).onCompletionResolved(any(), any());
+  }
+
+  @Test
+  void testPrefetchedCompletionServesMatchingTrigger() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.getCompletions(any()))
+        .thenReturn(CompletableFuture.completedFuture(new CompletionResult(List.of(mock(CompletionItem.class)))));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    completionProvider.addCompletionListener("file:///a.java", mockListener);
+    IEclipsePreferences uiPrefs = InstanceScope.INSTANCE.getNode("org.eclipse.copilot.ui");
+    uiPrefs.putBoolean(Constants.ENABLE_COMPLETION_PREFETCH, true);
+    try {
+      completionProvider.prefetchCompletion(file, new Position(1, 0), 2);
+      Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+      verify(mockListener, never()).onCompletionResolved(any(), any());
+
+      completionProvider.triggerCompletion(file, new Position(1, 0), 2);
+      Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+      verify(mockLsConnection, times(1)).getCompletions(any());
+      verify(mockListener, times(1)).onCompletionResolved(eq("file:///a.java"), any());
+      assertEquals(1L, completionProvider.getPrefetchStatistics().getHitCount());
+      assertEquals(0.0, completionProvider.getPrefetchStatistics().getWasteRatio());
+    } finally {
+      uiPrefs.remove(Constants.ENABLE_COMPLETION_PREFETCH);
+    }
+  }
+
+  @Test
+  void testPrefetchedCompletionIsDiscardedOnDivergentTrigger() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.getCompletions(any()))
+        .thenReturn(CompletableFuture.completedFuture(new CompletionResult(List.of(mock(CompletionItem.class)))));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    IEclipsePreferences uiPrefs = InstanceScope.INSTANCE.getNode("org.eclipse.copilot.ui");
+    uiPrefs.putBoolean(Constants.ENABLE_COMPLETION_PREFETCH, true);
+    try {
+      completionProvider.prefetchCompletion(file, new Position(1, 0), 2);
+      Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+      completionProvider.triggerCompletion(file, new Position(1, 1), 3);
+      Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+      verify(mockLsConnection, times(2)).getCompletions(any());
+      assertEquals(0L, completionProvider.getPrefetchStatistics().getHitCount());
+      assertEquals(1.0, completionProvider.getPrefetchStatistics().getWasteRatio());
+    } finally {
+      uiPrefs.remove(Constants.ENABLE_COMPLETION_PREFETCH);
+    }
+  }
+
+  @Test
+  void testAdoptedPrefetchIsCancelledWhenTheCaretMovesAway() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    CompletableFuture<CompletionResult> request = new CompletableFuture<>();
+    when(mockLsConnection.getCompletions(any())).thenReturn(request);
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    completionProvider.addCompletionListener("file:///a.java", mockListener);
+    IEclipsePreferences uiPrefs = InstanceScope.INSTANCE.getNode("org.eclipse.copilot.ui");
+    uiPrefs.putBoolean(Constants.ENABLE_COMPLETION_PREFETCH, true);
+    try {
+      completionProvider.prefetchCompletion(file, new Position(1, 0), 2);
+      verify(mockLsConnection, timeout(2000)).getCompletions(any());
+      // the trigger adopts the speculative request which is still in flight.
+      completionProvider.triggerCompletion(file, new Position(1, 0), 2);
+      assertEquals(1L, completionProvider.getPrefetchStatistics().getHitCount());
+
+      completionProvider.cancelPrefetch("file:///a.java");
+      Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+      assertTrue(request.isCancelled());
+      verify(mockListener, never()).onCompletionResolved(any(), any());
+    } finally {
+      uiPrefs.remove(Constants.ENABLE_COMPLETION_PREFETCH);
+    }
+  }
+
+  @Test
+  void testPrefetchIsDisabledByDefault() {
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+
+    completionProvider.prefetchCompletion(mock(IFile.class), new Position(1, 0), 2);
+
+    verify(mockLsConnection, never()).getCompletions(any());
+    assertEquals(0L, completionProvider.getPrefetchStatistics().getIssuedCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testLocalSuggestionIsShownUntilServerAnswers() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    CompletionItem serverItem = mock(CompletionItem.class);
+    when(mockLsConnection.getCompletions(any())).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+        () -> new CompletionResult(List.of(serverItem)), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    completionProvider.addCompletionListener("file:///a.java", mockListener);
+    Document document = new Document("  logger.info(\"started\");\n  logger.info(");
+
+    completionProvider.triggerCompletion(file, document, new Position(1, 14), 2, true);
+
+    // the local suggestion is dispatched before the trigger returns.
+    ArgumentCaptor<List<CompletionItem>> localCaptor = ArgumentCaptor.forClass(List.class);
+    verify(mockListener, times(1)).onCompletionResolved(eq("file:///a.java"), localCaptor.capture());
+    assertEquals("\"started\");", localCaptor.getValue().get(0).getDisplayText());
+
+    Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+    verify(mockListener, times(1)).onCompletionResolved("file:///a.java", List.of(serverItem));
+    LocalSuggestionProvider localSuggestionProvider = completionProvider.getLocalSuggestionProvider();
+    assertEquals(1.0, localSuggestionProvider.getHitRate());
+    assertTrue(localSuggestionProvider.getHiddenLatencyMillis() >= 50);
+  }
+
+  @Test
+  void testHiddenLatencyIsRecordedWhenServerAnswersWithoutSuggestion()
+      throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.getCompletions(any()))
+        .thenReturn(CompletableFuture.completedFuture(new CompletionResult(List.of())));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    completionProvider.addCompletionListener("file:///a.java", mockListener);
+    Document document = new Document("  logger.info(\"started\");\n  logger.info(");
+
+    completionProvider.triggerCompletion(file, document, new Position(1, 14), 2, true);
+    Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+    // the local suggestion is withdrawn, but the answer of the language server is still measured.
+    InOrder inOrder = inOrder(mockListener);
+    inOrder.verify(mockListener).onCompletionResolved(eq("file:///a.java"), argThat(items -> !items.isEmpty()));
+    inOrder.verify(mockListener).onCompletionResolved("file:///a.java", List.of());
+    assertEquals(1L, completionProvider.getLocalSuggestionProvider().getHiddenLatencyCount());
+  }
+
+  @Test
+  void testLocalSuggestionIsWithdrawnWhenServerDoesNotAnswer() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.getCompletions(any())).thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    completionProvider.addCompletionListener("file:///a.java", mockListener);
+    Document document = new Document("  logger.info(\"started\");\n  logger.info(");
+
+    completionProvider.triggerCompletion(file, document, new Position(1, 14), 2, true);
+    Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+
+    InOrder inOrder = inOrder(mockListener);
+    inOrder.verify(mockListener).onCompletionResolved(eq("file:///a.java"), argThat(items -> !items.isEmpty()));
+    inOrder.verify(mockListener).onCompletionResolved("file:///a.java", List.of());
+    // a request which is not answered tells nothing about the local suggestion.
+    assertEquals(0L, completionProvider.getLocalSuggestionProvider().getHiddenLatencyCount());
+  }
+
+  @Test
+  void testNoLocalSuggestionIsShownWhileTheCircuitIsOpen() throws URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    when(mockLsConnection.isCircuitOpen("getCompletions")).thenReturn(true);
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mockRemoteFile("file:///a.java");
+    completionProvider.addCompletionListener("file:///a.java", mockListener);
+    Document document = new Document("  logger.info(\"started\");\n  logger.info(");
+
+    completionProvider.triggerCompletion(file, document, new Position(1, 14), 2, true);
+
+    verify(mockListener, never()).onCompletionResolved(any(), any());
+    verify(mockLsConnection, never()).getCompletions(any());
+  }
+
+  @Test
+  void testCacheHitIsTracedAsARequestOfItsOwn() throws InterruptedException, URISyntaxException {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    CompletionItem serverItem = new CompletionItem("uuid-1", "class A {}", new Range(new Position(0, 0),
+        new Position(0, 0)), "class A {}", new Position(0, 0), 1);
+    when(mockLsConnection.getCompletions(any()))
+        .thenReturn(CompletableFuture.completedFuture(new CompletionResult(List.of(serverItem))));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    CompletionLatencyTracer latencyTracer = completionProvider.getLatencyTracer();
+    IFile file = mockRemoteFile("file:///a.java");
+    Document document = new Document("");
+
+    completionProvider.triggerCompletion(file, document, new Position(0, 0), 1, true);
+    Job.getJobManager().join(CompletionProvider.COMPLETION_JOB_FAMILY, new NullProgressMonitor());
+    completionProvider.recordLatency("file:///a.java", "uuid-1", Stage.RENDER, 1000L);
+    assertEquals(1L, latencyTracer.getSampleCount(Stage.TOTAL));
+
+    // the cached item is served again, with the same uuid.
+    completionProvider.triggerCompletion(file, document, new Position(0, 0), 2, true);
+    completionProvider.recordLatency("file:///a.java", "uuid-1", Stage.RENDER, 1000L);
+
+    verify(mockLsConnection, times(1)).getCompletions(any());
+    assertEquals(2L, latencyTracer.getSampleCount(Stage.TOTAL));
+    // the served item is reported as shown again.
+    verify(mockLsConnection).forgetShown(List.of("uuid-1"));
+  }
+
+  @Test
+  void testAlternativesAreRequestedOnceAndAtOnceWhenAsked() throws Exception {
+    when(mockStatusManager.isNotSignedInOrNotAuthorized()).thenReturn(false);
+    List<CompletionItem> alternatives = List.of(mock(CompletionItem.class));
+    when(mockLsConnection.getCompletionsCycling(any()))
+        .thenReturn(CompletableFuture.completedFuture(new CompletionResult(alternatives)));
+    CompletionProvider completionProvider = new CompletionProvider(mockLsConnection, mockStatusManager);
+    IFile file = mock(IFile.class);
+    when(file.getLocation()).thenReturn(null);
+    when(file.getLocationURI()).thenReturn(new URI("file:///a.java"));
+    CompletionItem item = new CompletionItem("uuid1", "foo();", null, "();", new Position(1, 3), 2);
+    CompletableFuture<List<CompletionItem>> resolved = new CompletableFuture<>();
+
+    completionProvider.requestAlternatives(file, item, false, resolved::complete);
+    verify(mockLsConnection, never()).getCompletionsCycling(any());
+    // asking for the next suggestion skips the dwell time of the pending request.
+    completionProvider.requestAlternatives(file, item, true, resolved::complete);
+
+    assertEquals(alternatives, resolved.get(CompletionProvider.ALTERNATIVES_DWELL_MILLIS / 2, TimeUnit.MILLISECONDS));
+    completionProvider.requestAlternatives(file, item, true, resolved::complete);
+    verify(mockLsConnection, times(1)).getCompletionsCycling(any());
+  }
+
+  private IFile mockRemoteFile(String uri) throws URISyntaxException {
+    IFile file = mock(IFile.class);
+    when(file.getLocation()).thenReturn(null);
+    when(file.getLocationURI()).thenReturn(new URI(uri));
+    when(file.exists()).thenReturn(true);
+    return file;
+  }
+
 }
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompletionSchedulerTests {
+
+  private static final String URI_A = "file:///a.java";
+  private static final String URI_B = "file:///b.java";
+
+  private AtomicLong nanos;
+  private CompletionScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    nanos = new AtomicLong(0);
+    scheduler = new CompletionScheduler(nanos::get);
+  }
+
+  @Test
+  void testFirstTriggerUsesDefaultDelay() {
+    assertEquals(CompletionScheduler.DEFAULT_DELAY_MILLIS, scheduler.nextDelay(URI_A, false));
+  }
+
+  @Test
+  void testImmediateTriggerHasNoDelay() {
+    scheduler.nextDelay(URI_A, false);
+    advance(50);
+    assertEquals(0L, scheduler.nextDelay(URI_A, true));
+  }
+
+  @Test
+  void testDelayAdaptsToTypingRhythm() {
+    scheduler.nextDelay(URI_A, false);
+    advance(100);
+    assertEquals(120L, scheduler.nextDelay(URI_A, false));
+
+    // a fast typist gets a shorter delay, bounded by the minimum
+    for (int i = 0; i < 20; i++) {
+      advance(10);
+      scheduler.nextDelay(URI_A, false);
+    }
+    assertEquals(CompletionScheduler.MIN_DELAY_MILLIS, scheduler.nextDelay(URI_A, false));
+  }
+
+  @Test
+  void testIdleGapDoesNotChangeTypingRhythm() {
+    scheduler.nextDelay(URI_A, false);
+    advance(100);
+    scheduler.nextDelay(URI_A, false);
+    advance(CompletionScheduler.IDLE_GAP_MILLIS + 1);
+    scheduler.nextDelay(URI_A, false);
+
+    assertEquals(100L, scheduler.getTypingIntervalMillis(URI_A));
+  }
+
+  @Test
+  void testTypingRhythmIsTrackedPerDocument() {
+    scheduler.nextDelay(URI_A, false);
+    advance(100);
+    scheduler.nextDelay(URI_A, false);
+
+    assertEquals(CompletionScheduler.DEFAULT_DELAY_MILLIS, scheduler.nextDelay(URI_B, false));
+    assertEquals(-1L, scheduler.getTypingIntervalMillis(URI_B));
+  }
+
+  @Test
+  void testDelayGrowsWithLatencyAndIsBounded() {
+    scheduler.nextDelay(URI_A, false);
+    advance(100);
+    scheduler.recordLatency(400);
+    assertEquals(160L, scheduler.nextDelay(URI_A, false));
+
+    scheduler.recordLatency(100000);
+    advance(100);
+    assertEquals(CompletionScheduler.MAX_DELAY_MILLIS, scheduler.nextDelay(URI_A, false));
+  }
+
+  @Test
+  void testCounters() {
+    scheduler.nextDelay(URI_A, false);
+    scheduler.nextDelay(URI_A, false);
+    scheduler.recordSuppressed();
+
+    assertEquals(2L, scheduler.getScheduledCount());
+    assertEquals(1L, scheduler.getSuppressedCount());
+  }
+
+  @Test
+  void testHighSignalCharacters() {
+    assertTrue(CompletionScheduler.isHighSignalCharacter('\r'));
+    assertTrue(CompletionScheduler.isHighSignalCharacter('{'));
+    assertTrue(CompletionScheduler.isHighSignalCharacter('('));
+    assertFalse(CompletionScheduler.isHighSignalCharacter('a'));
+  }
+
+  private void advance(long millis) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+}
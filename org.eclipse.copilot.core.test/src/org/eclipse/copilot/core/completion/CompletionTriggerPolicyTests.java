@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.core.runtime.content.IContentTypeManager;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.rules.EndOfLineRule;
+import org.eclipse.jface.text.rules.FastPartitioner;
+import org.eclipse.jface.text.rules.IPredicateRule;
+import org.eclipse.jface.text.rules.RuleBasedPartitionScanner;
+import org.eclipse.jface.text.rules.SingleLineRule;
+import org.eclipse.jface.text.rules.Token;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.copilot.core.completion.CompletionTriggerPolicy.Decision;
+
+class CompletionTriggerPolicyTests {
+
+  private static final String JAVA_URI = "file:///project/Test.java";
+  private static final String PROPERTIES_URI = "file:///project/messages.properties";
+  private static final String COMMENT_TYPE = "__test_singleline_comment";
+  private static final String STRING_TYPE = "__test_string";
+
+  @Test
+  void testCodeIsTriggered() {
+    CompletionTriggerPolicy policy = new CompletionTriggerPolicy(() -> CompletionTriggerPolicy.DEFAULT_RULES);
+    IDocument document = createDocument("int a = 1;\n");
+
+    assertEquals(Decision.TRIGGER, policy.evaluate(JAVA_URI, document, 5, 0));
+    assertEquals(1, policy.getEvaluatedCount());
+    assertEquals(0, policy.getDelayedCount());
+    assertEquals(0, policy.getSuppressedCount());
+  }
+
+  @Test
+  void testLineCommentIsDelayedAtTheEndOfTheLine() {
+    CompletionTriggerPolicy policy = new CompletionTriggerPolicy(() -> CompletionTriggerPolicy.DEFAULT_RULES);
+    String content = "int a = 1; // the answer\nint b;";
+    IDocument document = createDocument(content);
+
+    assertEquals(Decision.DELAY, policy.evaluate(JAVA_URI, document, content.indexOf('\n'), 0));
+    assertEquals(Decision.TRIGGER, policy.evaluate(JAVA_URI, document, content.length() - 1, 1));
+    assertEquals(1, policy.getDelayedCount());
+  }
+
+  @Test
+  void testRulesAreConfigurablePerLanguage() {
+    String content = "key = \"value\"\n";
+    IDocument document = createDocument(content);
+    int offset = content.indexOf('v') + 1;
+
+    CompletionTriggerPolicy defaultPolicy = new CompletionTriggerPolicy(() -> CompletionTriggerPolicy.DEFAULT_RULES);
+    assertEquals(Decision.DELAY, defaultPolicy.evaluate(PROPERTIES_URI, document, offset, 0));
+    assertEquals(Decision.DELAY, defaultPolicy.evaluate(JAVA_URI, document, offset, 0));
+
+    CompletionTriggerPolicy customPolicy = new CompletionTriggerPolicy(
+        () -> "*:string=suppress; java : string = trigger");
+    assertEquals(Decision.SUPPRESS, customPolicy.evaluate(PROPERTIES_URI, document, offset, 0));
+    assertEquals(Decision.TRIGGER, customPolicy.evaluate(JAVA_URI, document, offset, 0));
+    assertEquals(1, customPolicy.getSuppressedCount());
+  }
+
+  @Test
+  void testTriggersAreSuppressedOnTheDismissedLine() {
+    CompletionTriggerPolicy policy = new CompletionTriggerPolicy(() -> "");
+    IDocument document = createDocument("int a;\nint b;\n");
+    policy.recordDismissed(JAVA_URI, 0);
+
+    assertEquals(Decision.SUPPRESS, policy.evaluate(JAVA_URI, document, 3, 0));
+    assertEquals(Decision.SUPPRESS, policy.evaluate(JAVA_URI, document, 4, 0));
+    assertEquals(Decision.TRIGGER, policy.evaluate(JAVA_URI, document, 10, 1));
+    // the caret left the dismissed line, so coming back triggers again.
+    assertEquals(Decision.TRIGGER, policy.evaluate(JAVA_URI, document, 3, 0));
+    assertEquals(2, policy.getSuppressedCount());
+    assertEquals(4, policy.getEvaluatedCount());
+  }
+
+  @Test
+  void testDismissedLineIsForgottenWhenTheCaretLeavesItOrTheDocumentCloses() {
+    CompletionTriggerPolicy policy = new CompletionTriggerPolicy(() -> "");
+    IDocument document = createDocument("int a;\nint b;\n");
+    policy.recordDismissed(JAVA_URI, 0);
+
+    policy.caretMoved(JAVA_URI, 0);
+    assertEquals(Decision.SUPPRESS, policy.evaluate(JAVA_URI, document, 3, 0));
+    // the caret is moved to another line and back without triggering there.
+    policy.caretMoved(JAVA_URI, 1);
+    assertEquals(Decision.TRIGGER, policy.evaluate(JAVA_URI, document, 3, 0));
+
+    policy.recordDismissed(JAVA_URI, 0);
+    policy.removeDocument(JAVA_URI);
+    assertEquals(Decision.TRIGGER, policy.evaluate(JAVA_URI, document, 3, 0));
+  }
+
+  @Test
+  void testPropertyValuesAreCompletedButCommentsAreNotByDefault() {
+    CompletionTriggerPolicy policy = new CompletionTriggerPolicy(() -> CompletionTriggerPolicy.DEFAULT_RULES);
+    String content = "key = \"value\" // note\n";
+    IDocument document = createDocument(content);
+
+    // the property values are string partitions, the completion is only delayed there.
+    assertEquals(Decision.DELAY, policy.evaluate(PROPERTIES_URI, document, content.indexOf('v') + 1, 0));
+    assertEquals(Decision.SUPPRESS, policy.evaluate(PROPERTIES_URI, document, content.indexOf('\n'), 0));
+  }
+
+  @Test
+  void testLanguageIdIsDerivedFromTheContentType() {
+    IContentTypeManager contentTypeManager = Platform.getContentTypeManager();
+    IContentType propertiesType = contentTypeManager.getContentType("org.eclipse.core.runtime.properties");
+
+    assertEquals("properties", CompletionTriggerPolicy.getLanguageId(propertiesType));
+    assertNull(CompletionTriggerPolicy.getLanguageId(contentTypeManager.getContentType(IContentTypeManager.CT_TEXT)));
+    assertNull(CompletionTriggerPolicy.getLanguageId((IContentType) null));
+  }
+
+  @Test
+  void testLanguageIdIsDerivedFromTheFileExtension() {
+    assertEquals("java", CompletionTriggerPolicy.getLanguageId(JAVA_URI));
+    assertEquals("cpp", CompletionTriggerPolicy.getLanguageId("file:///project/main.CC"));
+    assertEquals("", CompletionTriggerPolicy.getLanguageId("file:///project.d/Makefile"));
+  }
+
+  private IDocument createDocument(String content) {
+    RuleBasedPartitionScanner scanner = new RuleBasedPartitionScanner();
+    scanner.setPredicateRules(new IPredicateRule[] { new EndOfLineRule("//", new Token(COMMENT_TYPE)),
+        new SingleLineRule("\"", "\"", new Token(STRING_TYPE), '\\') });
+    FastPartitioner partitioner = new FastPartitioner(scanner, new String[] { COMMENT_TYPE, STRING_TYPE });
+    Document document = new Document(content);
+    document.setDocumentPartitioner("__test_partitioning", partitioner);
+    partitioner.connect(document);
+    return document;
+  }
+}
@@ -10,13 +10,25 @@
 package org.eclipse.copilot.core.completion;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ProjectScope;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.content.IContentDescription;
+import org.eclipse.core.runtime.content.IContentTypeManager;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.lsp4j.FormattingOptions;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,6 +56,11 @@ class FormatOptionProviderTests {
     when(mockFile.getProject()).thenReturn(mockProject);
   }
 
+  @AfterEach
+  void tearDown() {
+    formatOptionProvider.dispose();
+  }
+
   @Test
   void testGetEclipseDefaultJavaTabCharAndSize() {
     when(mockProject.getName()).thenReturn("testProject");
@@ -74,4 +91,65 @@ class FormatOptionProviderTests {
     assertEquals(PREFERENCE_DEFAULT_TAB_SIZE, formatOptionProvider.getTabSize(mockFile));
   }
 
+  @Test
+  void testTextFileFollowsTextEditorPreferences() {
+    when(mockProject.getName()).thenReturn("testProject");
+    when(mockFile.getName()).thenReturn("notes.txt");
+    IEclipsePreferences editorPreferences = InstanceScope.INSTANCE.getNode("org.eclipse.ui.editors");
+    try {
+      editorPreferences.put("spacesForTabs", "false");
+      editorPreferences.put("tabWidth", "3");
+
+      assertFalse(formatOptionProvider.useSpace(mockFile));
+      assertEquals(3, formatOptionProvider.getTabSize(mockFile));
+
+      editorPreferences.put("tabWidth", "5");
+
+      assertEquals(5, formatOptionProvider.getTabSize(mockFile));
+    } finally {
+      editorPreferences.remove("spacesForTabs");
+      editorPreferences.remove("tabWidth");
+    }
+  }
+
+  @Test
+  void testContentDescriptionIsPreferredOverFileName() throws CoreException {
+    when(mockProject.getName()).thenReturn("testProject");
+    IContentDescription description = mock(IContentDescription.class);
+    when(description.getContentType())
+        .thenReturn(Platform.getContentTypeManager().getContentType(IContentTypeManager.CT_TEXT));
+    // e.g. a file associated with the text content type in the project settings only.
+    when(mockFile.getContentDescription()).thenReturn(description);
+    IEclipsePreferences editorPreferences = InstanceScope.INSTANCE.getNode("org.eclipse.ui.editors");
+    try {
+      editorPreferences.put("tabWidth", "3");
+
+      assertEquals(3, formatOptionProvider.getTabSize(mockFile));
+    } finally {
+      editorPreferences.remove("tabWidth");
+    }
+  }
+
+  @Test
+  void testReopenedProjectFollowsItsPreferences() throws CoreException {
+    IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("formatOptionProviderTests");
+    try {
+      project.create(null);
+      project.open(null);
+      IFile file = project.getFile("notes.txt");
+      file.create(new ByteArrayInputStream(new byte[0]), true, null);
+      new ProjectScope(project).getNode("org.eclipse.ui.editors").put("tabWidth", "3");
+      assertEquals(3, formatOptionProvider.getTabSize(file));
+
+      // the reader of the closed project is released, along with its listener of the discarded preferences.
+      project.close(null);
+      project.open(null);
+      new ProjectScope(project).getNode("org.eclipse.ui.editors").put("tabWidth", "6");
+
+      assertEquals(6, formatOptionProvider.getTabSize(file));
+    } finally {
+      project.delete(true, null);
+    }
+  }
+
 }
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
+
+class LocalSuggestionProviderTests {
+
+  private final LocalSuggestionProvider provider = new LocalSuggestionProvider();
+
+  @Test
+  void testSuggestsRestOfLineFromRecentDocumentLines() {
+    Document document = new Document("  list.add(item);\n  other();\n  list.add(");
+
+    List<CompletionItem> items = provider.suggest(document, new Position(2, 11), 3);
+
+    assertEquals(1, items.size());
+    CompletionItem item = items.get(0);
+    assertEquals("item);", item.getDisplayText());
+    assertEquals("  list.add(item);", item.getText());
+    assertEquals(new Position(2, 11), item.getRange().getEnd());
+    assertEquals(3, item.getDocVersion());
+    assertTrue(LocalSuggestionProvider.isLocal(item.getUuid()));
+  }
+
+  @Test
+  void testDifferentContinuationsAreNotSuggested() {
+    Document document = new Document("list.add(first);\nlist.add(second);\nlist.add(");
+
+    assertNull(provider.suggest(document, new Position(2, 9), 1));
+  }
+
+  @Test
+  void testShortPrefixIsNotSuggested() {
+    Document document = new Document("foo(bar);\nfoo(");
+
+    assertNull(provider.suggest(document, new Position(1, 4), 1));
+  }
+
+  @Test
+  void testSuggestsAcceptedText() {
+    provider.learn("    return builder.build();\n  }");
+    Document document = new Document("class A {\n  Object create() {\n    return builder.");
+
+    List<CompletionItem> items = provider.suggest(document, new Position(2, 19), 1);
+
+    assertEquals("build();", items.get(0).getDisplayText());
+  }
+
+  @Test
+  void testOldestAcceptedLinesAreForgotten() {
+    provider.learn("    return builder.build();");
+    for (int i = 0; i < LocalSuggestionProvider.MAX_ACCEPTED_LINES; i++) {
+      provider.learn("    counter" + i + ".increment();");
+    }
+    Document document = new Document("return builder.\ncounter7.");
+
+    assertNull(provider.suggest(document, new Position(0, 15), 1));
+    assertEquals("increment();", provider.suggest(document, new Position(1, 9), 1).get(0).getDisplayText());
+  }
+
+  @Test
+  void testHitRateIsMeasured() {
+    Document document = new Document("assertEquals(1, size);\nassertEquals(1, \nassertNotNull(");
+
+    provider.suggest(document, new Position(1, 16), 1);
+    provider.suggest(document, new Position(2, 14), 1);
+
+    assertEquals(2, provider.getLookupCount());
+    assertEquals(1, provider.getHitCount());
+    assertEquals(0.5, provider.getHitRate());
+  }
+}
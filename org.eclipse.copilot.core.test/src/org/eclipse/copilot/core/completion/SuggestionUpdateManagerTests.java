@@ -11,12 +11,17 @@ package org.eclipse.copilot.core.completion;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.stream.Stream;
 
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -105,6 +110,119 @@ class SuggestionUpdateManagerTests {
     assertFalse(manager.delete(10));
   }
 
+  @Test
+  void testInsertFiltersItemsAndUpdatesCurrentItem() {
+    IDocument document = new Document("foo(\n");
+    Position position = new Position(0, 4);
+    List<CompletionItem> completions = List.of(
+        new CompletionItem("uuid1", "foo(a, b);", new Range(position, position), "a, b);", position, 1),
+        new CompletionItem("uuid2", "foo(x);", new Range(position, position), "x);", position, 1));
+    SuggestionUpdateManager manager = new SuggestionUpdateManager(document);
+    manager.setCompletionItems(completions);
+
+    document.set("foo(a,\n");
+    assertTrue(manager.insert("a,"));
+
+    assertEquals(1, manager.getSize());
+    assertEquals(List.of("uuid1"), manager.getUuids());
+    assertEquals(" b);", manager.getText());
+    CompletionItem item = manager.getCurrentItem();
+    assertEquals(" b);", item.getDisplayText());
+    assertEquals(new Position(0, 6), item.getPosition());
+    assertEquals(new Position(0, 6), item.getRange().getEnd());
+    // the original items are left untouched
+    assertEquals(position, completions.get(0).getRange().getEnd());
+  }
+
+  @Test
+  void testDeleteRestoresItemsMatchingTheRemainingText() {
+    List<CompletionItem> completions = List.of(new CompletionItem("uuid1", "test", null, "abc", null, 0),
+        new CompletionItem("uuid2", "test", null, "axy", null, 0));
+    SuggestionUpdateManager manager = new SuggestionUpdateManager(null);
+    manager.setCompletionItems(completions);
+
+    assertTrue(manager.insert("ab"));
+    assertEquals(List.of("uuid1"), manager.getUuids());
+    assertTrue(manager.delete(1));
+    assertEquals(List.of("uuid1", "uuid2"), manager.getUuids());
+    assertTrue(manager.insert("x"));
+    assertEquals(List.of("uuid2"), manager.getUuids());
+    assertEquals("y", manager.getText());
+  }
+
+  @Test
+  void testInsertRejectsFullyTypedSuggestion() {
+    List<CompletionItem> completions = List.of(new CompletionItem("uuid1", "test", null, "ab", null, 0));
+    SuggestionUpdateManager manager = new SuggestionUpdateManager(null);
+    manager.setCompletionItems(completions);
+
+    assertFalse(manager.insert("ab"));
+    assertEquals(0, manager.getSize());
+  }
+
+  @Test
+  void testCycleThroughAlternatives() {
+    Position position = new Position(0, 4);
+    List<CompletionItem> completions = List.of(new CompletionItem("uuid1", "test", null, "abc", position, 1));
+    SuggestionUpdateManager manager = new SuggestionUpdateManager(null);
+    manager.setCompletionItems(completions);
+    int generation = manager.getGeneration();
+    assertFalse(manager.next());
+
+    assertEquals(2, manager.addAlternatives(generation,
+        List.of(new CompletionItem("uuid2", "test", null, "abc", position, 1),
+            new CompletionItem("uuid3", "test", null, "axy", position, 1),
+            new CompletionItem("uuid4", "test", null, "def", position, 1),
+            new CompletionItem("uuid5", "test", null, "other", new Position(0, 5), 1))));
+
+    assertEquals(List.of("uuid1", "uuid3", "uuid4"), manager.getUuids());
+    assertEquals("abc", manager.getText());
+    assertTrue(manager.next());
+    assertEquals("axy", manager.getText());
+    assertTrue(manager.next());
+    assertTrue(manager.next());
+    assertEquals("abc", manager.getText());
+    assertTrue(manager.previous());
+    assertEquals("uuid4", manager.getCurrentUuid());
+  }
+
+  @Test
+  void testAlternativesFollowTheTypedText() {
+    Position position = new Position(0, 4);
+    SuggestionUpdateManager manager = new SuggestionUpdateManager(null);
+    manager.setCompletionItems(List.of(new CompletionItem("uuid1", "test", null, "abc", position, 1),
+        new CompletionItem("uuid2", "test", null, "axy", position, 1)));
+    assertTrue(manager.next());
+    assertTrue(manager.insert("a"));
+
+    // alternatives resolved after the user typed through are matched against the typed text.
+    manager.addAlternatives(manager.getGeneration(),
+        List.of(new CompletionItem("uuid3", "test", null, "def", position, 1),
+            new CompletionItem("uuid4", "test", null, "ab1", position, 1)));
+
+    assertEquals(List.of("uuid1", "uuid2", "uuid4"), manager.getUuids());
+    // the displayed alternative is kept while typing through.
+    assertEquals("xy", manager.getText());
+    assertTrue(manager.delete(1));
+    assertEquals("axy", manager.getText());
+    assertTrue(manager.insert("ab"));
+    assertEquals(List.of("uuid1", "uuid4"), manager.getUuids());
+    assertEquals(0, manager.getIndex());
+  }
+
+  @Test
+  void testAlternativesOfPreviousItemsAreIgnored() {
+    Position position = new Position(0, 4);
+    SuggestionUpdateManager manager = new SuggestionUpdateManager(null);
+    manager.setCompletionItems(List.of(new CompletionItem("uuid1", "test", null, "abc", position, 1)));
+    int generation = manager.getGeneration();
+    manager.setCompletionItems(List.of(new CompletionItem("uuid2", "test", null, "xyz", position, 1)));
+
+    assertEquals(0, manager.addAlternatives(generation,
+        List.of(new CompletionItem("uuid3", "test", null, "def", position, 1))));
+    assertEquals(1, manager.getSize());
+  }
+
   static Stream<TestData> provideTestData() {
     return Stream.of(
         new TestData(new CompletionItem("uuid", "test", null, "public void quickSort(int[] a)", null, 0), "public"),
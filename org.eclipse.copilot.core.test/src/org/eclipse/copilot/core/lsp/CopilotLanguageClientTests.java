@@ -38,6 +38,7 @@ import org.eclipse.copilot.core.lsp.protocol.ConversationCapabilities;
 import org.eclipse.copilot.core.lsp.protocol.ConversationContextParams;
 import org.eclipse.copilot.core.lsp.protocol.CurrentEditorContext;
 import org.eclipse.copilot.core.lsp.protocol.DidChangeFeatureFlagsParams;
+import org.eclipse.copilot.core.lsp.protocol.DidChangeStatusParams;
 import org.eclipse.copilot.core.utils.FileUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -134,4 +135,20 @@ class CopilotLanguageClientTests {
       verify(mockFeatureFlags).setMcpEnabled(true);
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  void testOnDidChangeStatusIsForwardedToTheConnection() {
+    DidChangeStatusParams params = new DidChangeStatusParams();
+    params.setKind("Inactive");
+    CopilotLanguageServerConnection connection = mock(CopilotLanguageServerConnection.class);
+
+    try (MockedStatic<CopilotCore> copilotCoreMock = Mockito.mockStatic(CopilotCore.class)) {
+      copilotCoreMock.when(CopilotCore::getPlugin).thenReturn(plugin);
+      when(plugin.getCopilotLanguageServer()).thenReturn(connection);
+
+      client.onDidChangeStatus(params);
+
+      verify(connection).didChangeStatus(params);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.services.LanguageServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.eclipse.copilot.core.lsp.protocol.CompletionDocument;
+import org.eclipse.copilot.core.lsp.protocol.CompletionParams;
+import org.eclipse.copilot.core.lsp.protocol.CompletionResult;
+import org.eclipse.copilot.core.lsp.protocol.NotifyAcceptedParams;
+
+@SuppressWarnings({ "restriction" })
+@ExtendWith(MockitoExtension.class)
+class CopilotLanguageServerConnectionTests {
+
+  @Mock
+  private LanguageServerWrapper wrapper;
+
+  @Mock
+  private CopilotLanguageServer server;
+
+  private final AtomicLong now = new AtomicLong();
+  private final List<CompletableFuture<CompletionResult>> stalledRequests = new ArrayList<>();
+  private final AtomicBoolean stalling = new AtomicBoolean(true);
+  private CopilotLanguageServerConnection connection;
+
+  @BeforeEach
+  void setUp() {
+    // a language server which stalls on purpose, i.e. never answers the completions until told otherwise.
+    when(wrapper.execute(any())).thenAnswer(invocation -> {
+      Function<LanguageServer, CompletableFuture<?>> fn = invocation.getArgument(0);
+      return fn.apply(server);
+    });
+    lenient().when(server.getCompletions(any())).thenAnswer(invocation -> {
+      if (!stalling.get()) {
+        return CompletableFuture.completedFuture(new CompletionResult(List.of()));
+      }
+      CompletableFuture<CompletionResult> request = new CompletableFuture<>();
+      stalledRequests.add(request);
+      return request;
+    });
+    connection = new CopilotLanguageServerConnection(wrapper,
+        new ResiliencePolicy(() -> "getCompletions=50", now::get));
+  }
+
+  @Test
+  void testStalledRequestsTimeOutThenFailFastUntilTheProbeIsAnswered() throws Exception {
+    for (int i = 0; i < ResiliencePolicy.FAILURE_THRESHOLD; i++) {
+      ExecutionException e = assertThrows(ExecutionException.class, () -> connection.getCompletions(params()).get());
+      assertInstanceOf(TimeoutException.class, e.getCause());
+    }
+    // the timed out requests are cancelled, so the language server stops computing them.
+    awaitUntil(() -> stalledRequests.stream().allMatch(CompletableFuture::isCancelled));
+    awaitUntil(() -> connection.isCircuitOpen("getCompletions"));
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> connection.getCompletions(params()).get());
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    verify(server, times(ResiliencePolicy.FAILURE_THRESHOLD)).getCompletions(any());
+
+    stalling.set(false);
+    now.set(ResiliencePolicy.INITIAL_BACKOFF_MILLIS);
+    assertNotNull(connection.getCompletions(params()).get());
+    awaitUntil(() -> !connection.isCircuitOpen("getCompletions"));
+  }
+
+  @Test
+  void testLastTelemetryBatchIsSentBeforeTheLanguageServerStops() {
+    // the language server answers the telemetry late, e.g. while it is busy.
+    CompletableFuture<String> answer = CompletableFuture.supplyAsync(() -> "OK",
+        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+    when(server.notifyAccepted(any())).thenReturn(answer);
+    AtomicBoolean answeredBeforeStop = new AtomicBoolean();
+    doAnswer(invocation -> {
+      answeredBeforeStop.set(answer.isDone());
+      return null;
+    }).when(wrapper).stop();
+
+    CompletableFuture<String> result = connection.notifyAccepted(new NotifyAcceptedParams("uuid-1"));
+    connection.stop();
+
+    verify(server, times(1)).notifyAccepted(new NotifyAcceptedParams("uuid-1"));
+    assertTrue(answeredBeforeStop.get());
+    assertTrue(result.isDone());
+  }
+
+  /**
+   * Wait for the bookkeeping done when a request completes, which may run after the caller is woken up.
+   */
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 2000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+
+  private static CompletionParams params() {
+    CompletionDocument doc = new CompletionDocument("file://test.java", new Position(0, 0));
+    doc.setVersion(1);
+    return new CompletionParams(doc);
+  }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.junit.jupiter.api.Test;
+
+class DocumentChangeCoalescerTests {
+
+  private final List<Message> sentMessages = new CopyOnWriteArrayList<>();
+  private final DocumentChangeCoalescer coalescer = new DocumentChangeCoalescer(sentMessages::add);
+
+  @Test
+  void testMassEditIsSentAsOneNotificationBeforeCompletionRequest() {
+    int editCount = 200;
+    for (int i = 1; i <= editCount; i++) {
+      coalescer.consume(createDidChange("file:///Test.java", i, i - 1));
+    }
+    RequestMessage completionRequest = new RequestMessage();
+    completionRequest.setMethod("getCompletions");
+    coalescer.consume(completionRequest);
+
+    assertEquals(editCount, coalescer.getReceivedChangeCount());
+    assertEquals(1, coalescer.getSentChangeCount());
+    assertEquals(2, sentMessages.size());
+    DidChangeTextDocumentParams params = getParams(sentMessages.get(0));
+    assertEquals(editCount, params.getTextDocument().getVersion());
+    assertEquals(editCount, params.getContentChanges().size());
+    assertEquals(0, params.getContentChanges().get(0).getRange().getStart().getCharacter());
+    assertEquals(editCount - 1, params.getContentChanges().get(editCount - 1).getRange().getStart().getCharacter());
+    assertEquals(completionRequest, sentMessages.get(1));
+  }
+
+  @Test
+  void testChangesOfAnotherDocumentFlushPendingChanges() {
+    coalescer.consume(createDidChange("file:///A.java", 1, 0));
+    coalescer.consume(createDidChange("file:///A.java", 2, 1));
+    coalescer.consume(createDidChange("file:///B.java", 1, 0));
+    coalescer.flush();
+
+    assertEquals(2, sentMessages.size());
+    assertEquals("file:///A.java", getParams(sentMessages.get(0)).getTextDocument().getUri());
+    assertEquals(2, getParams(sentMessages.get(0)).getContentChanges().size());
+    assertEquals("file:///B.java", getParams(sentMessages.get(1)).getTextDocument().getUri());
+  }
+
+  @Test
+  void testFullContentChangeReplacesPendingChanges() {
+    coalescer.consume(createDidChange("file:///A.java", 1, 0));
+    NotificationMessage fullChange = createDidChange("file:///A.java", 2, 0);
+    getParams(fullChange).setContentChanges(List.of(new TextDocumentContentChangeEvent("new content")));
+    coalescer.consume(fullChange);
+    coalescer.flush();
+
+    DidChangeTextDocumentParams params = getParams(sentMessages.get(0));
+    assertEquals(1, params.getContentChanges().size());
+    assertEquals("new content", params.getContentChanges().get(0).getText());
+  }
+
+  @Test
+  void testPendingChangesAreSentAfterWindow() throws Exception {
+    coalescer.consume(createDidChange("file:///A.java", 1, 0));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (sentMessages.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, sentMessages.size());
+  }
+
+  @Test
+  void testSlowWriteDoesNotHoldBackDocumentChanges() throws Exception {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch written = new CountDownLatch(1);
+    DocumentChangeCoalescer slowCoalescer = new DocumentChangeCoalescer(message -> {
+      if (message instanceof RequestMessage) {
+        writing.countDown();
+        try {
+          written.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      sentMessages.add(message);
+    });
+    RequestMessage request = new RequestMessage();
+    request.setMethod("getCompletions");
+    CompletableFuture<Void> requestSent = CompletableFuture.runAsync(() -> slowCoalescer.consume(request));
+    assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      slowCoalescer.consume(createDidChange("file:///A.java", 1, 0));
+      slowCoalescer.consume(createDidChange("file:///A.java", 2, 1));
+    });
+
+    written.countDown();
+    requestSent.get(5, TimeUnit.SECONDS);
+    slowCoalescer.flush();
+    assertEquals(2, sentMessages.size());
+    assertEquals(request, sentMessages.get(0));
+    assertEquals(2, getParams(sentMessages.get(1)).getContentChanges().size());
+  }
+
+  private static NotificationMessage createDidChange(String uri, int version, int character) {
+    Position position = new Position(0, character);
+    TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(new Range(position, position), "a");
+    NotificationMessage message = new NotificationMessage();
+    message.setMethod(DocumentChangeCoalescer.DID_CHANGE_METHOD);
+    message.setParams(new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(uri, version),
+        List.of(change)));
+    return message;
+  }
+
+  private static DidChangeTextDocumentParams getParams(Message message) {
+    NotificationMessage notification = assertInstanceOf(NotificationMessage.class, message);
+    return (DidChangeTextDocumentParams) notification.getParams();
+  }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.copilot.core.lsp.ResiliencePolicy.State;
+
+class ResiliencePolicyTests {
+
+  private final AtomicLong now = new AtomicLong();
+  private final ResiliencePolicy policy = new ResiliencePolicy(() -> "getCompletions=100, checkStatus = 200, bad",
+      now::get);
+
+  @Test
+  void testTimeoutsArePerMethod() {
+    assertEquals(100, policy.getTimeoutMillis("getCompletions"));
+    assertEquals(200, policy.getTimeoutMillis("checkStatus"));
+    assertEquals(0, policy.getTimeoutMillis("createConversation"));
+    assertEquals(0, policy.getTimeoutMillis("bad"));
+  }
+
+  @Test
+  void testMissingOrDisabledTimeoutsFallBackToTheDefaults() {
+    ResiliencePolicy customPolicy = new ResiliencePolicy(() -> "getCompletions=0, checkStatus=oops", now::get);
+
+    assertEquals(5000, customPolicy.getTimeoutMillis("getCompletions"));
+    assertEquals(30000, customPolicy.getTimeoutMillis("checkStatus"));
+    assertEquals(5000, customPolicy.getTimeoutMillis("getCompletionsCycling"));
+    assertEquals(0, customPolicy.getTimeoutMillis("createConversation"));
+  }
+
+  @Test
+  void testCircuitOpensAfterConsecutiveTimeouts() {
+    policy.recordTimeout("getCompletions");
+    policy.recordSuccess();
+    for (int i = 0; i < ResiliencePolicy.FAILURE_THRESHOLD - 1; i++) {
+      policy.recordTimeout("getCompletions");
+    }
+    assertFalse(policy.isOpen("getCompletions"));
+
+    policy.recordTimeout("getCompletions");
+
+    assertTrue(policy.isOpen("getCompletions"));
+    assertFalse(policy.isOpen("createConversation"));
+    assertFalse(policy.tryAcquire("getCompletions"));
+    // the requests without a timeout are still sent.
+    assertTrue(policy.tryAcquire("createConversation"));
+    assertEquals(1, policy.getRejectedCount());
+    assertEquals(1, policy.getOpenedCount());
+  }
+
+  @Test
+  void testHalfOpenProbeClosesOrReopensWithBackoff() {
+    for (int i = 0; i < ResiliencePolicy.FAILURE_THRESHOLD; i++) {
+      policy.recordTimeout("getCompletions");
+    }
+
+    now.set(ResiliencePolicy.INITIAL_BACKOFF_MILLIS);
+    assertTrue(policy.tryAcquire("getCompletions"));
+    assertEquals(State.HALF_OPEN, policy.getState());
+    // a single probe of each method is in flight.
+    assertTrue(policy.isOpen("getCompletions"));
+    assertFalse(policy.tryAcquire("getCompletions"));
+
+    policy.recordTimeout("getCompletions");
+    now.set(ResiliencePolicy.INITIAL_BACKOFF_MILLIS * 3 - 1);
+    assertFalse(policy.tryAcquire("getCompletions"));
+    now.set(ResiliencePolicy.INITIAL_BACKOFF_MILLIS * 3);
+    assertTrue(policy.tryAcquire("getCompletions"));
+
+    policy.recordSuccess();
+    assertEquals(State.CLOSED, policy.getState());
+    assertTrue(policy.tryAcquire("getCompletions"));
+  }
+
+  @Test
+  void testCancelledProbeLetsTheNextRequestProbe() {
+    for (int i = 0; i < ResiliencePolicy.FAILURE_THRESHOLD; i++) {
+      policy.recordTimeout("getCompletions");
+    }
+    now.set(ResiliencePolicy.INITIAL_BACKOFF_MILLIS);
+    assertTrue(policy.tryAcquire("getCompletions"));
+
+    policy.recordCancelled("getCompletions");
+
+    assertFalse(policy.isOpen("getCompletions"));
+    assertTrue(policy.tryAcquire("getCompletions"));
+  }
+
+  @Test
+  void testProbeOfAnotherMethodDoesNotHoldBackTheCompletions() {
+    for (int i = 0; i < ResiliencePolicy.FAILURE_THRESHOLD; i++) {
+      policy.recordTimeout("getCompletions");
+    }
+    now.set(ResiliencePolicy.INITIAL_BACKOFF_MILLIS);
+    assertTrue(policy.tryAcquire("checkStatus"));
+
+    assertFalse(policy.isOpen("getCompletions"));
+    assertTrue(policy.tryAcquire("getCompletions"));
+    assertFalse(policy.tryAcquire("getCompletions"));
+
+    // the completion probe is cancelled while the other probe is still in flight.
+    policy.recordCancelled("getCompletions");
+    assertEquals(State.HALF_OPEN, policy.getState());
+    assertTrue(policy.tryAcquire("getCompletions"));
+
+    policy.recordTimeout("checkStatus");
+    assertEquals(State.OPEN, policy.getState());
+    assertTrue(policy.isOpen("getCompletions"));
+  }
+
+  @Test
+  void testBackoffIsCapped() {
+    for (int i = 0; i < ResiliencePolicy.FAILURE_THRESHOLD; i++) {
+      policy.recordTimeout("getCompletions");
+    }
+    for (int i = 0; i < 10; i++) {
+      now.addAndGet(ResiliencePolicy.MAX_BACKOFF_MILLIS);
+      assertTrue(policy.tryAcquire("getCompletions"));
+      policy.recordTimeout("getCompletions");
+    }
+
+    now.addAndGet(ResiliencePolicy.MAX_BACKOFF_MILLIS);
+    assertTrue(policy.tryAcquire("getCompletions"));
+  }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.eclipse.copilot.core.lsp.RuntimeDiscoveryCache.AgentMode;
+
+class RuntimeDiscoveryCacheTests {
+
+  @TempDir
+  Path tempDir;
+
+  private Path file;
+  private File node;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    file = tempDir.resolve("runtime-discovery.json");
+    node = Files.writeString(tempDir.resolve("node"), "#!/bin/sh", StandardCharsets.UTF_8).toFile();
+    node.setExecutable(true);
+  }
+
+  @Test
+  void testDiscoveryIsPersistedAcrossRestarts() {
+    RuntimeDiscoveryCache cache = new RuntimeDiscoveryCache(file, "1.0.0");
+    cache.putNodeJs(node, "v20.1.0", null);
+    cache.putAgentMode(AgentMode.JS);
+
+    RuntimeDiscoveryCache restarted = new RuntimeDiscoveryCache(file, "1.0.0");
+    assertEquals(node.getAbsoluteFile(), restarted.getNodeJs(null));
+    assertEquals("v20.1.0", restarted.getNodeJsVersion());
+    assertEquals(AgentMode.JS, restarted.getAgentMode());
+    // the Node.js discovered without a configured location is not used once a location is configured.
+    assertNull(restarted.getNodeJs("/opt/node/bin/node"));
+  }
+
+  @Test
+  void testChangedNodeJsIsNotUsed() throws Exception {
+    RuntimeDiscoveryCache cache = new RuntimeDiscoveryCache(file, "1.0.0");
+    cache.putNodeJs(node, "v20.1.0", null);
+
+    Files.writeString(node.toPath(), "#!/bin/sh\nexit 0", StandardCharsets.UTF_8);
+    assertNull(cache.getNodeJs(null));
+
+    Files.delete(node.toPath());
+    assertNull(cache.getNodeJs(null));
+  }
+
+  @Test
+  void testCacheOfAnotherPluginVersionIsIgnored() throws Exception {
+    new RuntimeDiscoveryCache(file, "1.0.0").putAgentMode(AgentMode.BINARY);
+    assertNull(new RuntimeDiscoveryCache(file, "1.1.0").getAgentMode());
+
+    Files.writeString(file, "{ not json", StandardCharsets.UTF_8);
+    assertNull(new RuntimeDiscoveryCache(file, "1.0.0").getAgentMode());
+  }
+
+  @Test
+  void testInvalidate() {
+    RuntimeDiscoveryCache cache = new RuntimeDiscoveryCache(file, "1.0.0");
+    cache.putAgentMode(AgentMode.JS);
+
+    cache.invalidate();
+
+    assertNull(cache.getAgentMode());
+    assertNull(new RuntimeDiscoveryCache(file, "1.0.0").getAgentMode());
+  }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightCacheTests {
+
+  private final AtomicLong now = new AtomicLong();
+  private final SingleFlightCache cache = new SingleFlightCache(now::get);
+
+  @Test
+  void testConcurrentCallersShareTheInFlightRequest() throws Exception {
+    CompletableFuture<String> request = new CompletableFuture<>();
+    AtomicInteger loads = new AtomicInteger();
+
+    CompletableFuture<String> first = cache.get("status", 0, () -> {
+      loads.incrementAndGet();
+      return request;
+    });
+    CompletableFuture<String> second = cache.get("status", 0, () -> {
+      loads.incrementAndGet();
+      return request;
+    });
+    // cancelling the copy of a caller does not cancel the shared request.
+    second.cancel(true);
+    request.complete("OK");
+
+    assertEquals("OK", first.get());
+    assertFalse(request.isCancelled());
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getSharedCount());
+    // without a time to live, the result is not kept.
+    cache.get("status", 0, () -> CompletableFuture.completedFuture("OK"));
+    assertEquals(2, cache.getLoadCount());
+  }
+
+  @Test
+  void testResultIsKeptForItsTimeToLive() throws Exception {
+    cache.get("quota", 1000, () -> CompletableFuture.completedFuture("a"));
+    now.set(999);
+    assertEquals("a", cache.get("quota", 1000, () -> CompletableFuture.completedFuture("b")).get());
+
+    now.set(1000);
+    assertEquals("c", cache.get("quota", 1000, () -> CompletableFuture.completedFuture("c")).get());
+    assertEquals(2, cache.getLoadCount());
+  }
+
+  @Test
+  void testFailuresAreNotKept() throws Exception {
+    CompletableFuture<String> failed = cache.get("models", 1000,
+        () -> CompletableFuture.failedFuture(new IllegalStateException()));
+    assertTrue(failed.isCompletedExceptionally());
+
+    assertEquals("a", cache.get("models", 1000, () -> CompletableFuture.completedFuture("a")).get());
+    assertEquals(2, cache.getLoadCount());
+  }
+
+  @Test
+  void testInvalidateForgetsTheQueryWhateverItsArguments() throws Exception {
+    cache.get(SingleFlightCache.key("checkStatus", true), 1000, () -> CompletableFuture.completedFuture("a"));
+    cache.get(SingleFlightCache.key("checkStatus", false), 1000, () -> CompletableFuture.completedFuture("b"));
+    cache.get("checkStatusOther", 1000, () -> CompletableFuture.completedFuture("c"));
+
+    cache.invalidate("checkStatus");
+
+    assertEquals("d", cache.get("checkStatus:true", 1000, () -> CompletableFuture.completedFuture("d")).get());
+    assertEquals("c", cache.get("checkStatusOther", 1000, () -> CompletableFuture.completedFuture("e")).get());
+  }
+}
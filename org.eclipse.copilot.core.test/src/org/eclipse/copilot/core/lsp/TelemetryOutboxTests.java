@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.eclipse.copilot.core.lsp.protocol.NotifyAcceptedParams;
+import org.eclipse.copilot.core.lsp.protocol.NotifyRejectedParams;
+import org.eclipse.copilot.core.lsp.protocol.NotifyShownParams;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryOutboxTests {
+
+  @Mock
+  private CopilotLanguageServerConnection connection;
+
+  private TelemetryOutbox outbox;
+
+  @BeforeEach
+  void setUp() {
+    outbox = new TelemetryOutbox(connection);
+  }
+
+  @Test
+  void testRepeatedShownIsSentOnce() {
+    when(connection.sendShown(any())).thenReturn(CompletableFuture.completedFuture("OK"));
+
+    CompletableFuture<String> first = outbox.offerShown(new NotifyShownParams("uuid-1"));
+    outbox.offerShown(new NotifyShownParams("uuid-1"));
+    outbox.offerShown(new NotifyShownParams("uuid-1"));
+    outbox.flush();
+
+    verify(connection, times(1)).sendShown(new NotifyShownParams("uuid-1"));
+    assertEquals("OK", first.join());
+    assertEquals(1, outbox.getSentCount());
+    assertEquals(2, outbox.getCoalescedCount());
+  }
+
+  @Test
+  void testForgottenShownIsSentAgain() {
+    when(connection.sendShown(any())).thenReturn(CompletableFuture.completedFuture("OK"));
+
+    outbox.offerShown(new NotifyShownParams("uuid-1"));
+    outbox.flush();
+    outbox.forgetShown(List.of("uuid-1"));
+    outbox.offerShown(new NotifyShownParams("uuid-1"));
+    outbox.flush();
+
+    verify(connection, times(2)).sendShown(new NotifyShownParams("uuid-1"));
+    assertEquals(0, outbox.getCoalescedCount());
+  }
+
+  @Test
+  void testRejectionsOfABatchAreSentInOneNotification() {
+    when(connection.sendAccepted(any())).thenReturn(CompletableFuture.completedFuture("OK"));
+    when(connection.sendRejected(any())).thenReturn(CompletableFuture.completedFuture("OK"));
+
+    outbox.offerRejected(new NotifyRejectedParams(List.of("uuid-1")));
+    outbox.offerAccepted(new NotifyAcceptedParams("uuid-2"));
+    outbox.offerRejected(new NotifyRejectedParams(List.of("uuid-3", "uuid-4")));
+    outbox.flush();
+
+    verify(connection, times(1)).sendAccepted(new NotifyAcceptedParams("uuid-2"));
+    verify(connection, times(1)).sendRejected(new NotifyRejectedParams(List.of("uuid-1", "uuid-3", "uuid-4")));
+    assertEquals(2, outbox.getSentCount());
+    assertEquals(1, outbox.getCoalescedCount());
+  }
+
+  @Test
+  void testBatchWaitsForPendingCompletion() {
+    when(connection.hasPendingCompletions()).thenReturn(true, false);
+    when(connection.sendAccepted(any())).thenReturn(CompletableFuture.completedFuture("OK"));
+
+    outbox.offerAccepted(new NotifyAcceptedParams("uuid-1"));
+
+    assertFalse(outbox.flushIfIdle());
+    verify(connection, never()).sendAccepted(any());
+    assertTrue(outbox.flushIfIdle());
+    verify(connection, times(1)).sendAccepted(any());
+  }
+
+  @Test
+  void testOldestNotificationsAreDroppedWhenTooManyAreQueued() {
+    when(connection.sendAccepted(any())).thenReturn(CompletableFuture.completedFuture("OK"));
+
+    CompletableFuture<String> oldest = outbox.offerAccepted(new NotifyAcceptedParams("uuid-0"));
+    for (int i = 1; i <= TelemetryOutbox.MAX_PENDING_EVENTS; i++) {
+      outbox.offerAccepted(new NotifyAcceptedParams("uuid-" + i));
+    }
+
+    assertTrue(oldest.isDone());
+    assertEquals(1, outbox.getDroppedCount());
+    outbox.flush();
+    verify(connection, never()).sendAccepted(new NotifyAcceptedParams("uuid-0"));
+    assertEquals(TelemetryOutbox.MAX_PENDING_EVENTS, outbox.getSentCount());
+  }
+}
@@ -146,6 +146,16 @@ public class AuthStatusManager {
     });
   }
 
+  /**
+   * Check the user's quota usage, ignoring the quota kept from a previous check.
+   *
+   * @return CompletableFuture containing the check quota result
+   */
+  public CompletableFuture<CheckQuotaResult> refreshQuota() {
+    this.connection.invalidateQuota();
+    return checkQuota();
+  }
+
   /**
    * Set the user for Copilot.
    */
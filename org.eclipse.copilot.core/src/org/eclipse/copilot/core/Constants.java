@@ -27,6 +27,11 @@ public class Constants {
 
   public static final String PLUGIN_ID = "org.eclipse.copilot";
   public static final String AUTO_SHOW_COMPLETION = "enableAutoCompletions";
+  public static final String ENABLE_COMPLETION_PREFETCH = "enableCompletionPrefetch";
+  public static final String MAX_CONNECTED_DOCUMENTS = "maxConnectedDocuments";
+  public static final String MAX_CONNECTED_FILE_SIZE_KB = "maxConnectedFileSizeKb";
+  public static final String COMPLETION_TRIGGER_RULES = "completionTriggerRules";
+  public static final String LANGUAGE_SERVER_TIMEOUTS = "languageServerTimeouts";
   public static final String ENABLE_STRICT_SSL = "enableStrictSsl";
   public static final String PROXY_KERBEROS_SP = "proxyKerberosSp";
   public static final String GITHUB_ENTERPRISE = "githubEnterprise";
@@ -9,7 +9,10 @@
 
 package org.eclipse.copilot.core;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -26,13 +29,20 @@ import org.eclipse.lsp4e.LanguageServersRegistry;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
 import org.osgi.framework.BundleContext;
 
+import org.eclipse.copilot.core.chat.ChatCatalogStore;
 import org.eclipse.copilot.core.chat.ChatEventsManager;
 import org.eclipse.copilot.core.chat.service.IChatServiceManager;
+import org.eclipse.copilot.core.completion.CompletionListener;
 import org.eclipse.copilot.core.completion.CompletionProvider;
+import org.eclipse.copilot.core.completion.LocalSuggestionProvider;
 import org.eclipse.copilot.core.format.FormatOptionProvider;
 import org.eclipse.copilot.core.logger.CopilotForEclipseLogger;
 import org.eclipse.copilot.core.logger.GithubPanicErrorReport;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
+import org.eclipse.copilot.core.lsp.LsStreamConnectionProvider;
+import org.eclipse.copilot.core.lsp.RuntimeDiscoveryCache;
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
+import org.eclipse.copilot.core.lsp.protocol.CopilotStatusResult;
 
 /**
  * The plug-in runtime class for the Copilot plug-in containing the core (UI-free) support, like the completion,
@@ -44,6 +54,11 @@ public class CopilotCore extends Plugin {
   private AuthStatusManager authStatusManager;
   private CompletionProvider completionProvider;
   private FormatOptionProvider formatOptionProvider;
+  private ChatCatalogStore chatCatalogStore;
+  private RuntimeDiscoveryCache runtimeDiscoveryCache;
+  private final StartupTimeline startupTimeline = new StartupTimeline();
+  private final CompletableFuture<CopilotLanguageServerConnection> languageServerStarted = new CompletableFuture<>();
+  private final CompletableFuture<CopilotStatusResult> authStatusChecked = new CompletableFuture<>();
   private GithubPanicErrorReport githubPanicErrorReport;
   private ChatEventsManager chatEventsManager;
   private IChatServiceManager chatServiceManager;
@@ -57,6 +72,21 @@ public class CopilotCore extends Plugin {
    */
   public static final String INIT_JOB_FAMILY = "org.eclipse.copilot.core.initJob";
 
+  /**
+   * The file in the state location where the latency of the inline completion stages is written.
+   */
+  public static final String COMPLETION_LATENCY_FILE = "completion-latency.txt";
+
+  /**
+   * The file in the state location where the last chat catalog is persisted.
+   */
+  public static final String CHAT_CATALOG_FILE = "chat-catalog.json";
+
+  /**
+   * The file in the state location where the discovered language server runtime is persisted.
+   */
+  public static final String RUNTIME_DISCOVERY_FILE = "runtime-discovery.json";
+
   // TODO: Remove these 2 constants after several releases since the migration will be completed in the next.
   private static final String LEGACY_PREF_NODE_NAME = "com.microsoft.copilot.eclipse.ui";
   private static final String HAS_MIGRATED_PREF_FROM_LEGACY_PLUGIN = "hasMigratedPrefFromLegacyPlugin";
@@ -82,40 +112,47 @@ public class CopilotCore extends Plugin {
 
   @Override
   public void stop(BundleContext context) throws Exception {
+    if (startupTimeline.getStage(StartupTimeline.FIRST_COMPLETION) == null) {
+      LOGGER.info(startupTimeline.toString());
+    }
     if (copilotLanguageServer != null) {
       copilotLanguageServer.stop();
     }
+    if (formatOptionProvider != null) {
+      formatOptionProvider.dispose();
+    }
+    if (completionProvider != null && completionProvider.getLatencyTracer().hasSamples()) {
+      LOGGER.info(completionProvider.getLatencyTracer().toString());
+      dumpCompletionLatency();
+    }
   }
 
-  @SuppressWarnings("restriction")
-  void init(BundleContext context) {
-    final Runnable initRunnable = () -> {
-      addPlatformLogListener();
-      LanguageServersRegistry.LanguageServerDefinition serverDef = LanguageServersRegistry.getInstance()
-          .getDefinition(CopilotLanguageServerConnection.SERVER_ID);
-      if (serverDef == null) {
-        var ex = new IllegalStateException(
-            "Language server definition not found for " + CopilotLanguageServerConnection.SERVER_ID);
-        CopilotCore.LOGGER.error(ex);
-        throw ex;
-      }
-
-      LanguageServerWrapper wrapper = LanguageServiceAccessor.startLanguageServer(serverDef);
-      this.copilotLanguageServer = new CopilotLanguageServerConnection(wrapper);
-      this.authStatusManager = new AuthStatusManager(this.copilotLanguageServer);
-      this.completionProvider = new CompletionProvider(this.copilotLanguageServer, authStatusManager);
-      this.githubPanicErrorReport = new GithubPanicErrorReport();
-      this.featureFlags = new FeatureFlags();
-      try {
-        this.authStatusManager.checkStatus().get();
-      } catch (InterruptedException | ExecutionException e) {
-        CopilotCore.LOGGER.error("Failed to check authentication status", e);
-      }
-    };
+  /**
+   * Write the latency of the inline completion stages to the state location of the plugin, so that it can be attached
+   * to a report about slow completions.
+   */
+  public void dumpCompletionLatency() {
+    if (completionProvider == null) {
+      return;
+    }
+    try {
+      completionProvider.getLatencyTracer().dump(getStateLocation().append(COMPLETION_LATENCY_FILE).toPath());
+    } catch (IOException e) {
+      LOGGER.error("Failed to write the completion latency", e);
+    }
+  }
 
+  void init(BundleContext context) {
     Job initJob = new Job("GitHub Copilot Initialization...") {
       protected IStatus run(IProgressMonitor monitor) {
-        initRunnable.run();
+        try {
+          // the job ends with the last stage, so joining its family still waits for the whole initialization.
+          startStages().get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          CopilotCore.LOGGER.error("Failed to initialize GitHub Copilot", e);
+        }
         return Status.OK_STATUS;
       }
 
@@ -128,6 +165,101 @@ public class CopilotCore extends Plugin {
     initJob.schedule();
   }
 
+  /**
+   * Start the stages of the initialization, recorded in the {@link StartupTimeline}. When the JavaScript agent started
+   * last time, its runtime is discovered while the language server definition is looked up, and the language server is
+   * started once the runtime is known. Otherwise the native binary is started at once, since it needs no runtime. The
+   * authentication status is checked once the language server is initialized. The UI only awaits
+   * {@link #whenLanguageServerStarted()}, so its services are created while the language server initializes.
+   *
+   * @return the future of the last stage.
+   */
+  @SuppressWarnings("restriction")
+  private CompletableFuture<CopilotStatusResult> startStages() {
+    CompletableFuture<Void> discovery = LsStreamConnectionProvider.isRuntimeDiscoveryNeeded()
+        ? this.startupTimeline.stage(StartupTimeline.RUNTIME_DISCOVERY,
+            () -> CompletableFuture.runAsync(LsStreamConnectionProvider::discoverRuntime))
+        : CompletableFuture.completedFuture(null);
+    addPlatformLogListener();
+    LanguageServersRegistry.LanguageServerDefinition serverDef = LanguageServersRegistry.getInstance()
+        .getDefinition(CopilotLanguageServerConnection.SERVER_ID);
+    if (serverDef == null) {
+      var ex = new IllegalStateException(
+          "Language server definition not found for " + CopilotLanguageServerConnection.SERVER_ID);
+      CopilotCore.LOGGER.error(ex);
+      this.languageServerStarted.completeExceptionally(ex);
+      this.authStatusChecked.completeExceptionally(ex);
+      return CompletableFuture.failedFuture(ex);
+    }
+    this.githubPanicErrorReport = new GithubPanicErrorReport();
+    this.featureFlags = new FeatureFlags();
+
+    // a failed discovery is not fatal, the start of the language server discovers the runtime again.
+    CompletableFuture<CopilotLanguageServerConnection> started = discovery.exceptionally(ex -> null)
+        .thenCompose(v -> this.startupTimeline.stage(StartupTimeline.LANGUAGE_SERVER_START, () -> {
+          LanguageServerWrapper wrapper = LanguageServiceAccessor.startLanguageServer(serverDef);
+          this.copilotLanguageServer = new CopilotLanguageServerConnection(wrapper);
+          this.authStatusManager = new AuthStatusManager(this.copilotLanguageServer);
+          this.completionProvider = new CompletionProvider(this.copilotLanguageServer, authStatusManager);
+          this.completionProvider.addCompletionListener(new FirstCompletionListener());
+          return CompletableFuture.completedFuture(this.copilotLanguageServer);
+        }));
+    complete(this.languageServerStarted, started);
+
+    CompletableFuture<CopilotStatusResult> authStatus = started
+        .thenCompose(connection -> this.startupTimeline.stage(StartupTimeline.INITIALIZE, connection::whenInitialized))
+        // bounded by the timeout of checkStatus, see ResiliencePolicy.
+        .thenCompose(v -> this.startupTimeline.stage(StartupTimeline.AUTH_STATUS, this.authStatusManager::checkStatus));
+    complete(this.authStatusChecked, authStatus);
+    return authStatus;
+  }
+
+  private static <T> void complete(CompletableFuture<T> target, CompletableFuture<T> source) {
+    source.whenComplete((result, ex) -> {
+      if (ex != null) {
+        target.completeExceptionally(ex);
+      } else {
+        target.complete(result);
+      }
+    });
+  }
+
+  /**
+   * Records the first completion answered by the language server in the startup timeline, and logs the timeline. The
+   * {@link LocalSuggestionProvider local suggestions} are ignored, since they do not need the language server.
+   */
+  private class FirstCompletionListener implements CompletionListener {
+    @Override
+    public void onCompletionResolved(String uriString, List<CompletionItem> completions) {
+      if (completions.isEmpty() || LocalSuggestionProvider.isLocal(completions.get(0).getUuid())) {
+        return;
+      }
+      completionProvider.removeCompletionListener(this);
+      if (startupTimeline.mark(StartupTimeline.FIRST_COMPLETION)) {
+        LOGGER.info(startupTimeline.toString());
+      }
+    }
+  }
+
+  /**
+   * Get a future which completes once the language server is started, i.e. once the connection, the authentication
+   * status manager and the completion provider are created. The language server may still be initializing.
+   */
+  public CompletableFuture<CopilotLanguageServerConnection> whenLanguageServerStarted() {
+    return languageServerStarted.copy();
+  }
+
+  /**
+   * Get a future which completes once the authentication status is checked after the start of the language server.
+   */
+  public CompletableFuture<CopilotStatusResult> whenAuthStatusChecked() {
+    return authStatusChecked.copy();
+  }
+
+  public StartupTimeline getStartupTimeline() {
+    return startupTimeline;
+  }
+
   /**
    * Add platform level log listener to catch the uncaught exceptions.
    */
@@ -185,6 +317,27 @@ public class CopilotCore extends Plugin {
     return formatOptionProvider;
   }
 
+  /**
+   * Get the store of the last chat catalog in lazy-load manner.
+   */
+  public synchronized ChatCatalogStore getChatCatalogStore() {
+    if (this.chatCatalogStore == null) {
+      this.chatCatalogStore = new ChatCatalogStore(getStateLocation().append(CHAT_CATALOG_FILE).toPath());
+    }
+    return chatCatalogStore;
+  }
+
+  /**
+   * Get the cache of the discovered language server runtime in lazy-load manner.
+   */
+  public synchronized RuntimeDiscoveryCache getRuntimeDiscoveryCache() {
+    if (this.runtimeDiscoveryCache == null) {
+      this.runtimeDiscoveryCache = new RuntimeDiscoveryCache(
+          getStateLocation().append(RUNTIME_DISCOVERY_FILE).toPath(), getBundle().getVersion().toString());
+    }
+    return runtimeDiscoveryCache;
+  }
+
   /**
    * Report the exception to the telemetry.
    *
@@ -12,6 +12,9 @@ package org.eclipse.copilot.core;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
+import org.eclipse.copilot.core.completion.CompletionTriggerPolicy;
+import org.eclipse.copilot.core.lsp.ResiliencePolicy;
+
 /**
  * Class to manage feature flags for the Copilot plugin.
  * This class allows enabling or disabling features.
@@ -53,4 +56,43 @@ public class FeatureFlags {
 
     return false;
   }
+
+  /**
+   * Checks if the speculative completion prefetch is enabled.
+   *
+   * @return true if the speculative completion prefetch is enabled, false otherwise.
+   */
+  public static boolean isCompletionPrefetchEnabled() {
+    IEclipsePreferences uiPrefs = InstanceScope.INSTANCE.getNode("org.eclipse.copilot.ui");
+    if (uiPrefs != null) {
+      return uiPrefs.getBoolean(Constants.ENABLE_COMPLETION_PREFETCH, false);
+    }
+
+    return false;
+  }
+
+  /**
+   * Get the rules deciding which automatic completion triggers are delayed or suppressed, see
+   * {@link CompletionTriggerPolicy}.
+   */
+  public static String getCompletionTriggerRules() {
+    IEclipsePreferences uiPrefs = InstanceScope.INSTANCE.getNode("org.eclipse.copilot.ui");
+    if (uiPrefs != null) {
+      return uiPrefs.get(Constants.COMPLETION_TRIGGER_RULES, CompletionTriggerPolicy.DEFAULT_RULES);
+    }
+
+    return CompletionTriggerPolicy.DEFAULT_RULES;
+  }
+
+  /**
+   * Get the timeouts of the requests to the language server, see {@link ResiliencePolicy}.
+   */
+  public static String getLanguageServerTimeouts() {
+    IEclipsePreferences uiPrefs = InstanceScope.INSTANCE.getNode("org.eclipse.copilot.ui");
+    if (uiPrefs != null) {
+      return uiPrefs.get(Constants.LANGUAGE_SERVER_TIMEOUTS, ResiliencePolicy.DEFAULT_TIMEOUTS);
+    }
+
+    return ResiliencePolicy.DEFAULT_TIMEOUTS;
+  }
 }
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Records when each stage of the startup of the plugin began and ended, relative to the start of the plugin, so that
+ * the time until the first completion can be measured and the stages on its critical path can be told apart. The
+ * stages run as futures: a stage begins when it is started, which is when the stages it depends on completed, and ends
+ * when its future completes.
+ */
+public class StartupTimeline {
+
+  /**
+   * The discovery of the language server runtime, see {@link org.eclipse.copilot.core.lsp.RuntimeDiscoveryCache}. It
+   * only runs when the JavaScript agent started last time.
+   */
+  public static final String RUNTIME_DISCOVERY = "runtimeDiscovery";
+
+  /**
+   * The start of the language server and the creation of the connection and the services bound to it.
+   */
+  public static final String LANGUAGE_SERVER_START = "languageServerStart";
+
+  /**
+   * The spawn of the language server process and the <code>initialize</code> handshake.
+   */
+  public static final String INITIALIZE = "initialize";
+
+  /**
+   * The check of the authentication status.
+   */
+  public static final String AUTH_STATUS = "authStatus";
+
+  /**
+   * The services of the editors, i.e. the inline completion.
+   */
+  public static final String UI_SERVICES = "uiServices";
+
+  /**
+   * The services of the chat.
+   */
+  public static final String CHAT_SERVICES = "chatServices";
+
+  /**
+   * The first completion answered by the language server and dispatched to an editor.
+   */
+  public static final String FIRST_COMPLETION = "firstCompletion";
+
+  /**
+   * A stage of the startup.
+   *
+   * @param name the name of the stage.
+   * @param startMillis when the stage began, relative to the start of the plugin.
+   * @param endMillis when the stage ended, relative to the start of the plugin, or <code>-1</code> if it is running.
+   * @param failed whether the stage failed.
+   */
+  public record Stage(String name, long startMillis, long endMillis, boolean failed) {
+
+    /**
+     * Get the duration of the stage, or <code>-1</code> if it is running.
+     */
+    public long durationMillis() {
+      return endMillis < 0 ? -1 : endMillis - startMillis;
+    }
+  }
+
+  private final LongSupplier clock;
+  private final long origin;
+  private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+  /**
+   * Creates a new StartupTimeline which starts now.
+   */
+  public StartupTimeline() {
+    this(System::nanoTime);
+  }
+
+  /**
+   * Creates a new StartupTimeline with the given clock in nanoseconds.
+   */
+  StartupTimeline(LongSupplier clock) {
+    this.clock = clock;
+    this.origin = clock.getAsLong();
+  }
+
+  /**
+   * Run a stage which completes asynchronously.
+   *
+   * @param name the name of the stage.
+   * @param body starts the stage, and returns the future which completes when the stage ends.
+   * @return the future of the stage, which fails if the body throws.
+   */
+  public <T> CompletableFuture<T> stage(String name, Supplier<CompletableFuture<T>> body) {
+    begin(name);
+    CompletableFuture<T> result;
+    try {
+      result = body.get();
+    } catch (RuntimeException e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+    return result.whenComplete((r, ex) -> end(name, ex != null));
+  }
+
+  /**
+   * Run a stage which completes synchronously.
+   *
+   * @param name the name of the stage.
+   * @param body runs the stage.
+   */
+  public void run(String name, Runnable body) {
+    begin(name);
+    boolean failed = true;
+    try {
+      body.run();
+      failed = false;
+    } finally {
+      end(name, failed);
+    }
+  }
+
+  /**
+   * Record an instant of the startup, e.g. the first completion. Only the first occurrence is recorded.
+   *
+   * @return <code>true</code> if this is the first occurrence.
+   */
+  public synchronized boolean mark(String name) {
+    if (this.stages.containsKey(name)) {
+      return false;
+    }
+    long now = now();
+    this.stages.put(name, new Stage(name, now, now, false));
+    return true;
+  }
+
+  private synchronized void begin(String name) {
+    this.stages.put(name, new Stage(name, now(), -1, false));
+  }
+
+  private synchronized void end(String name, boolean failed) {
+    Stage stage = this.stages.get(name);
+    if (stage != null) {
+      this.stages.put(name, new Stage(name, stage.startMillis(), now(), failed));
+    }
+  }
+
+  private long now() {
+    return TimeUnit.NANOSECONDS.toMillis(this.clock.getAsLong() - this.origin);
+  }
+
+  /**
+   * Get the stage of the given name.
+   *
+   * @return the stage, or <code>null</code> if it has not begun.
+   */
+  public synchronized @Nullable Stage getStage(String name) {
+    return this.stages.get(name);
+  }
+
+  /**
+   * Get the stages in the order they began.
+   */
+  public synchronized List<Stage> getStages() {
+    return new ArrayList<>(this.stages.values());
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder builder = new StringBuilder("Startup timeline:");
+    for (Stage stage : this.stages.values()) {
+      builder.append(String.format(Locale.ROOT, "%n  %-20s %6d ms -> %s", stage.name(), stage.startMillis(),
+          stage.endMillis() < 0 ? "running" : stage.endMillis() + " ms" + (stage.failed() ? " (failed)" : "")));
+    }
+    return builder.toString();
+  }
+}
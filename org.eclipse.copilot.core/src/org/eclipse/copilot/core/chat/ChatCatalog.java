@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.chat;
+
+import org.eclipse.lsp4j.jsonrpc.util.ToStringBuilder;
+
+import org.eclipse.copilot.core.lsp.protocol.ConversationAgent;
+import org.eclipse.copilot.core.lsp.protocol.ConversationTemplate;
+import org.eclipse.copilot.core.lsp.protocol.CopilotModel;
+
+/**
+ * The last chat catalog answered by the language server for a GitHub user, i.e. the models, the conversation templates
+ * and agents, and the last selected model and chat mode. It is persisted by the {@link ChatCatalogStore} so the chat
+ * can be rendered at startup before the language server is ready.
+ */
+public class ChatCatalog {
+
+  private int schemaVersion;
+  private String user;
+  private CopilotModel[] models;
+  private ConversationTemplate[] templates;
+  private ConversationAgent[] agents;
+  private String chatModel;
+  private String chatModeName;
+
+  public int getSchemaVersion() {
+    return schemaVersion;
+  }
+
+  public void setSchemaVersion(int schemaVersion) {
+    this.schemaVersion = schemaVersion;
+  }
+
+  public String getUser() {
+    return user;
+  }
+
+  public void setUser(String user) {
+    this.user = user;
+  }
+
+  public CopilotModel[] getModels() {
+    return models;
+  }
+
+  public void setModels(CopilotModel[] models) {
+    this.models = models;
+  }
+
+  public ConversationTemplate[] getTemplates() {
+    return templates;
+  }
+
+  public void setTemplates(ConversationTemplate[] templates) {
+    this.templates = templates;
+  }
+
+  public ConversationAgent[] getAgents() {
+    return agents;
+  }
+
+  public void setAgents(ConversationAgent[] agents) {
+    this.agents = agents;
+  }
+
+  /**
+   * Gets the id of the last selected chat model.
+   */
+  public String getChatModel() {
+    return chatModel;
+  }
+
+  public void setChatModel(String chatModel) {
+    this.chatModel = chatModel;
+  }
+
+  /**
+   * Gets the name of the last selected chat mode.
+   */
+  public String getChatModeName() {
+    return chatModeName;
+  }
+
+  public void setChatModeName(String chatModeName) {
+    this.chatModeName = chatModeName;
+  }
+
+  @Override
+  public String toString() {
+    ToStringBuilder builder = new ToStringBuilder(this);
+    builder.add("schemaVersion", schemaVersion);
+    builder.add("user", user);
+    builder.add("models", models);
+    builder.add("templates", templates);
+    builder.add("agents", agents);
+    builder.add("chatModel", chatModel);
+    builder.add("chatModeName", chatModeName);
+    return builder.toString();
+  }
+}
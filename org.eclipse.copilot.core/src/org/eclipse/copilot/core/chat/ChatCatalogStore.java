@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.chat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.Nullable;
+
+import org.eclipse.copilot.core.CopilotCore;
+
+/**
+ * Persists the last {@link ChatCatalog} answered by the language server, so the chat view can render the model picker
+ * and the slash commands at startup and reconcile them when the live answer arrives. The catalog is kept for a single
+ * GitHub user, and a catalog written with another schema version is ignored.
+ */
+public class ChatCatalogStore {
+
+  /**
+   * The version of the persisted catalog, to be increased when its format changes incompatibly.
+   */
+  public static final int SCHEMA_VERSION = 1;
+
+  private static final Gson GSON = new GsonBuilder().create();
+
+  private final Path file;
+  private ChatCatalog catalog;
+  private boolean loaded;
+
+  /**
+   * Creates a new ChatCatalogStore.
+   *
+   * @param file the file where the catalog is persisted.
+   */
+  public ChatCatalogStore(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Get the persisted catalog.
+   *
+   * @param user the signed in user, or <code>null</code> if not known yet, in which case the catalog of the last user
+   *     is returned.
+   * @return a copy of the catalog, which the caller is free to update, or <code>null</code> if there is none for the
+   *     user.
+   */
+  public synchronized @Nullable ChatCatalog load(@Nullable String user) {
+    if (!this.loaded) {
+      this.catalog = read();
+      this.loaded = true;
+    }
+    if (this.catalog == null || (StringUtils.isNotBlank(user) && !Objects.equals(user, this.catalog.getUser()))) {
+      return null;
+    }
+    return GSON.fromJson(GSON.toJson(this.catalog), ChatCatalog.class);
+  }
+
+  private @Nullable ChatCatalog read() {
+    if (!Files.isReadable(this.file)) {
+      return null;
+    }
+    try {
+      ChatCatalog result = GSON.fromJson(Files.readString(this.file, StandardCharsets.UTF_8), ChatCatalog.class);
+      if (result == null || result.getSchemaVersion() != SCHEMA_VERSION) {
+        return null;
+      }
+      return result;
+    } catch (IOException | JsonParseException e) {
+      CopilotCore.LOGGER.error("Failed to read the chat catalog, it will be fetched again.", e);
+      return null;
+    }
+  }
+
+  /**
+   * Update the catalog of the user and persist it. The catalog of another user is replaced.
+   *
+   * @param user the signed in user.
+   * @param updater updates the catalog.
+   */
+  public synchronized void update(String user, Consumer<ChatCatalog> updater) {
+    if (StringUtils.isBlank(user)) {
+      return;
+    }
+    ChatCatalog current = load(user);
+    if (current == null) {
+      current = new ChatCatalog();
+    }
+    updater.accept(current);
+    current.setSchemaVersion(SCHEMA_VERSION);
+    current.setUser(user);
+    // keep a copy, so the objects of the caller can be updated afterwards.
+    String json = GSON.toJson(current);
+    this.catalog = GSON.fromJson(json, ChatCatalog.class);
+    write(json);
+  }
+
+  private void write(String json) {
+    Path tempFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(this.file.getParent());
+      Files.writeString(tempFile, json, StandardCharsets.UTF_8);
+      try {
+        Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      CopilotCore.LOGGER.error("Failed to write the chat catalog", e);
+    }
+  }
+
+  /**
+   * Forget the persisted catalog, e.g. when the user signs out.
+   */
+  public synchronized void clear() {
+    this.catalog = null;
+    this.loaded = true;
+    try {
+      Files.deleteIfExists(this.file);
+    } catch (IOException e) {
+      CopilotCore.LOGGER.error("Failed to delete the chat catalog", e);
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
+
+/**
+ * A bounded LRU cache of completion results. Entries are keyed by the document uri, the trigger position and a hash of
+ * the text around the trigger position, so that typing, deleting and retyping the same characters, or coming back to
+ * a line, is served without another round trip to the language server.
+ */
+public class CompletionCache {
+
+  static final int DEFAULT_MAX_ENTRIES = 64;
+
+  /**
+   * The maximum number of characters held by all cached completion items.
+   */
+  static final long DEFAULT_MAX_CHARS = 256 * 1024L;
+
+  /**
+   * The number of characters before the trigger position that take part in the context hash. The text after the
+   * trigger position is taken until the end of the line.
+   */
+  static final int CONTEXT_PREFIX_CHARS = 512;
+
+  private final int maxEntries;
+  private final long maxChars;
+  private final LinkedHashMap<Key, Entry> entries;
+  private long totalChars;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * Creates a new completion cache with the default bounds.
+   */
+  public CompletionCache() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_CHARS);
+  }
+
+  /**
+   * Creates a new completion cache.
+   *
+   * @param maxEntries the maximum number of cached completion results.
+   * @param maxChars the maximum number of characters held by all cached completion items.
+   */
+  public CompletionCache(int maxEntries, long maxChars) {
+    this.maxEntries = maxEntries;
+    this.maxChars = maxChars;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Create the cache key for the given trigger position. Returns <code>null</code> if the position is not valid in the
+   * document.
+   */
+  @Nullable
+  public static Key createKey(String uri, IDocument document, Position position) {
+    if (uri == null || document == null || position == null) {
+      return null;
+    }
+    try {
+      int offset = LSPEclipseUtils.toOffset(position, document);
+      IRegion line = document.getLineInformationOfOffset(offset);
+      int start = Math.max(0, offset - CONTEXT_PREFIX_CHARS);
+      int end = line.getOffset() + line.getLength();
+      String window = document.get(start, end - start);
+      int contextHash = 31 * window.hashCode() + (offset - start);
+      return new Key(uri, position.getLine(), position.getCharacter(), contextHash);
+    } catch (BadLocationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Get the cached completions for the given key, rebased onto the given document version. Returns <code>null</code>
+   * on a cache miss. The returned items are copies and can be modified by the caller.
+   */
+  @Nullable
+  public synchronized List<CompletionItem> get(Key key, int documentVersion) {
+    Entry entry = key == null ? null : entries.get(key);
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    return copyOf(entry.items, documentVersion);
+  }
+
+  /**
+   * Put the completions resolved for the given key into the cache, evicting the least recently used entries when the
+   * cache is over its bounds.
+   */
+  public synchronized void put(Key key, List<CompletionItem> items) {
+    if (key == null || items == null || items.isEmpty()) {
+      return;
+    }
+    List<CompletionItem> copies = copyOf(items, items.get(0).getDocVersion());
+    long chars = countChars(copies);
+    if (chars > maxChars) {
+      return;
+    }
+    Entry previous = entries.put(key, new Entry(copies, chars));
+    if (previous != null) {
+      totalChars -= previous.chars;
+    }
+    totalChars += chars;
+    Iterator<Entry> iterator = entries.values().iterator();
+    while ((entries.size() > maxEntries || totalChars > maxChars) && iterator.hasNext()) {
+      Entry eldest = iterator.next();
+      iterator.remove();
+      totalChars -= eldest.chars;
+      evictionCount++;
+    }
+  }
+
+  /**
+   * Remove all the cached completions of the given document.
+   */
+  public synchronized void invalidate(String uri) {
+    Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Key, Entry> entry = iterator.next();
+      if (Objects.equals(entry.getKey().uri(), uri)) {
+        totalChars -= entry.getValue().chars;
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Remove all the cached completions.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    totalChars = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getTotalChars() {
+    return totalChars;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Get the ratio of lookups served from the cache, or <code>0</code> if there was no lookup yet.
+   */
+  public synchronized double getHitRate() {
+    long lookups = hitCount + missCount;
+    return lookups == 0 ? 0 : (double) hitCount / lookups;
+  }
+
+  private static List<CompletionItem> copyOf(List<CompletionItem> items, int documentVersion) {
+    List<CompletionItem> copies = new ArrayList<>(items.size());
+    for (CompletionItem item : items) {
+      copies.add(new CompletionItem(item.getUuid(), item.getText(), copyOf(item.getRange()), item.getDisplayText(),
+          copyOf(item.getPosition()), documentVersion));
+    }
+    return copies;
+  }
+
+  private static Range copyOf(Range range) {
+    return range == null ? null : new Range(copyOf(range.getStart()), copyOf(range.getEnd()));
+  }
+
+  private static Position copyOf(Position position) {
+    return position == null ? null : new Position(position.getLine(), position.getCharacter());
+  }
+
+  private static long countChars(List<CompletionItem> items) {
+    long chars = 0;
+    for (CompletionItem item : items) {
+      chars += StringUtils.length(item.getText()) + StringUtils.length(item.getDisplayText());
+    }
+    return chars;
+  }
+
+  /**
+   * The key of a cached completion result.
+   */
+  public record Key(String uri, int line, int character, int contextHash) {
+  }
+
+  private record Entry(List<CompletionItem> items, long chars) {
+  }
+}
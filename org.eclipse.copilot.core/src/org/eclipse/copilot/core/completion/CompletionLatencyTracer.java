@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
+
+/**
+ * Traces the latency of the stages of the inline completion pipeline, from the trigger to the rendering of the ghost
+ * text. The spans of a completion request are correlated by a request id, which the resolved items are bound to so the
+ * editor can report the spans it measures after the completion is dispatched. Spans measured in the editor before the
+ * request is triggered are attached to the next request of the document. Each stage keeps a rolling window of the most
+ * recent samples to report the p50, p95 and p99 latencies.
+ */
+public class CompletionLatencyTracer {
+
+  static final int WINDOW_SIZE = 256;
+  static final int MAX_TRACES = 64;
+  static final int MAX_BOUND_ITEMS = 256;
+
+  /**
+   * A stage of the inline completion pipeline.
+   */
+  public enum Stage {
+    /**
+     * The look up of the document version before the trigger.
+     */
+    DOCUMENT_VERSION,
+    /**
+     * The time between the trigger and the start of the completion job, i.e. the debounce and the job scheduling.
+     */
+    DEBOUNCE,
+    /**
+     * The JSON-RPC round trip of the completion request.
+     */
+    ROUND_TRIP,
+    /**
+     * The setup of the suggestion state once the completion is dispatched to the editor.
+     */
+    SUGGESTION_SETUP,
+    /**
+     * The rendering of the ghost text, until the editor is painted with it.
+     */
+    RENDER,
+    /**
+     * The time between the trigger and the end of the rendering.
+     */
+    TOTAL
+  }
+
+  private final AtomicLong nextRequestId = new AtomicLong();
+  private final Map<Stage, SampleWindow> windows = new EnumMap<>(Stage.class);
+  private final Map<String, Map<Stage, Long>> pendingSpans = new HashMap<>();
+  private final Map<Long, Trace> traces = new LinkedHashMap<>() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, Trace> eldest) {
+      return size() > MAX_TRACES;
+    }
+  };
+  private final Map<String, Long> itemRequests = new LinkedHashMap<>() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+      return size() > MAX_BOUND_ITEMS;
+    }
+  };
+
+  /**
+   * Creates a new CompletionLatencyTracer.
+   */
+  public CompletionLatencyTracer() {
+    for (Stage stage : Stage.values()) {
+      this.windows.put(stage, new SampleWindow());
+    }
+  }
+
+  /**
+   * Start the trace of a completion request. The spans recorded for the document before the request are attached to
+   * it.
+   *
+   * @return the id of the request.
+   */
+  public synchronized long beginRequest(String uriString) {
+    long requestId = this.nextRequestId.incrementAndGet();
+    Trace trace = new Trace(requestId, uriString, System.currentTimeMillis(), System.nanoTime());
+    Map<Stage, Long> spans = this.pendingSpans.remove(uriString);
+    if (spans != null) {
+      trace.spans.putAll(spans);
+    }
+    this.traces.put(requestId, trace);
+    return requestId;
+  }
+
+  /**
+   * Record the duration of a stage of a request.
+   */
+  public void record(long requestId, Stage stage, long nanos) {
+    this.windows.get(stage).add(nanos);
+    synchronized (this) {
+      Trace trace = this.traces.get(requestId);
+      if (trace != null) {
+        trace.spans.put(stage, nanos);
+      }
+    }
+  }
+
+  /**
+   * Record the duration of a stage measured before the next request of the document is triggered.
+   */
+  public void recordBeforeRequest(String uriString, Stage stage, long nanos) {
+    this.windows.get(stage).add(nanos);
+    synchronized (this) {
+      this.pendingSpans.computeIfAbsent(uriString, k -> new EnumMap<>(Stage.class)).put(stage, nanos);
+    }
+  }
+
+  /**
+   * Bind the resolved items to their request, so the spans measured by the editor for an item are attached to it.
+   */
+  public synchronized void bindItems(long requestId, List<CompletionItem> items) {
+    for (CompletionItem item : items) {
+      if (item.getUuid() != null) {
+        this.itemRequests.put(item.getUuid(), requestId);
+      }
+    }
+  }
+
+  /**
+   * Record the duration of a stage measured for a resolved item. When the rendering is recorded, the total latency of
+   * the request is recorded as well.
+   */
+  public void recordForItem(@Nullable String uuid, Stage stage, long nanos) {
+    this.windows.get(stage).add(nanos);
+    long totalNanos;
+    synchronized (this) {
+      Long requestId = uuid == null ? null : this.itemRequests.get(uuid);
+      Trace trace = requestId == null ? null : this.traces.get(requestId);
+      if (trace == null) {
+        return;
+      }
+      trace.spans.put(stage, nanos);
+      if (stage != Stage.RENDER || trace.spans.containsKey(Stage.TOTAL)) {
+        return;
+      }
+      totalNanos = System.nanoTime() - trace.startNanos;
+      trace.spans.put(Stage.TOTAL, totalNanos);
+    }
+    this.windows.get(Stage.TOTAL).add(totalNanos);
+  }
+
+  /**
+   * Forget the spans recorded for a closed document which has no request yet.
+   */
+  public synchronized void removeDocument(String uriString) {
+    this.pendingSpans.remove(uriString);
+  }
+
+  /**
+   * Get the given percentile of the recent durations of a stage.
+   *
+   * @param percentile the percentile, between 0 and 100.
+   * @return the duration in milliseconds, or <code>0</code> if there is no sample.
+   */
+  public double getPercentileMillis(Stage stage, double percentile) {
+    return toMillis(this.windows.get(stage).percentile(percentile));
+  }
+
+  /**
+   * Get the number of durations recorded for a stage since the start.
+   */
+  public long getSampleCount(Stage stage) {
+    return this.windows.get(stage).getCount();
+  }
+
+  /**
+   * Get the durations in milliseconds recorded for the stages of a request, or an empty map if the request is no longer
+   * traced.
+   */
+  public synchronized Map<Stage, Double> getTrace(long requestId) {
+    Map<Stage, Double> result = new EnumMap<>(Stage.class);
+    Trace trace = this.traces.get(requestId);
+    if (trace != null) {
+      trace.spans.forEach((stage, nanos) -> result.put(stage, toMillis(nanos)));
+    }
+    return result;
+  }
+
+  /**
+   * Write the latency percentiles of each stage and the most recent traces to the given file.
+   */
+  public void dump(Path file) throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add(toString());
+    lines.add("");
+    lines.add("Recent requests (ms):");
+    synchronized (this) {
+      for (Trace trace : this.traces.values()) {
+        StringBuilder line = new StringBuilder().append('#').append(trace.requestId).append(' ')
+            .append(Instant.ofEpochMilli(trace.startedAt)).append(' ').append(trace.uriString);
+        trace.spans.forEach((stage, nanos) -> line.append(' ').append(stage.name().toLowerCase(Locale.ROOT))
+            .append('=').append(String.format(Locale.ROOT, "%.1f", toMillis(nanos))));
+        lines.add(line.toString());
+      }
+    }
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Check if any duration has been recorded.
+   */
+  public boolean hasSamples() {
+    return this.windows.values().stream().anyMatch(window -> window.getCount() > 0);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("Completion latency (ms, p50/p95/p99):");
+    for (Stage stage : Stage.values()) {
+      if (getSampleCount(stage) == 0) {
+        continue;
+      }
+      builder.append(String.format(Locale.ROOT, " %s %.1f/%.1f/%.1f", stage.name().toLowerCase(Locale.ROOT),
+          getPercentileMillis(stage, 50), getPercentileMillis(stage, 95), getPercentileMillis(stage, 99)));
+    }
+    return builder.toString();
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * The most recent durations of a stage.
+   */
+  private static final class SampleWindow {
+    private final long[] samples = new long[WINDOW_SIZE];
+    private long count;
+
+    synchronized void add(long nanos) {
+      this.samples[(int) (this.count % WINDOW_SIZE)] = Math.max(0, nanos);
+      this.count++;
+    }
+
+    synchronized long getCount() {
+      return this.count;
+    }
+
+    synchronized long percentile(double percentile) {
+      int size = (int) Math.min(this.count, WINDOW_SIZE);
+      if (size == 0) {
+        return 0;
+      }
+      long[] sorted = Arrays.copyOf(this.samples, size);
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(percentile / 100 * size);
+      return sorted[Math.min(size - 1, Math.max(0, rank - 1))];
+    }
+  }
+
+  /**
+   * The spans of a completion request.
+   */
+  private static final class Trace {
+    private final long requestId;
+    private final String uriString;
+    private final long startedAt;
+    private final long startNanos;
+    private final Map<Stage, Long> spans = new EnumMap<>(Stage.class);
+
+    Trace(long requestId, String uriString, long startedAt, long startNanos) {
+      this.requestId = requestId;
+      this.uriString = uriString;
+      this.startedAt = startedAt;
+      this.startNanos = startNanos;
+    }
+  }
+}
@@ -19,7 +19,9 @@ import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
 public interface CompletionListener {
 
   /**
-   * Notifies to the listeners when the completion is resolved.
+   * Notifies to the listeners when the completion is resolved. An empty list tells that the request of a displayed
+   * {@link LocalSuggestionProvider local suggestion} ended without a suggestion of the language server, so the local
+   * suggestion is withdrawn.
    */
   void onCompletionResolved(String uriString, List<CompletionItem> completions);
 
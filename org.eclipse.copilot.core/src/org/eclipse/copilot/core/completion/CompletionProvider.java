@@ -9,13 +9,19 @@
 
 package org.eclipse.copilot.core.completion;
 
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -23,12 +29,15 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4j.Position;
 
 import org.eclipse.copilot.core.AuthStatusManager;
 import org.eclipse.copilot.core.Constants;
 import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.FeatureFlags;
 import org.eclipse.copilot.core.format.FormatOptionProvider;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.core.lsp.protocol.CompletionDocument;
@@ -39,7 +48,9 @@ import org.eclipse.copilot.core.lsp.protocol.CopilotStatusResult;
 import org.eclipse.copilot.core.utils.FileUtils;
 
 /**
- * Provider for inline completion.
+ * Provider for inline completion. Each connected document owns its own completion pipeline, so that a trigger in one
+ * editor never cancels the pending completion of another one, and results are only dispatched to the listeners of the
+ * document they belong to.
  */
 public class CompletionProvider {
 
@@ -48,33 +59,358 @@ public class CompletionProvider {
    */
   public static final String COMPLETION_JOB_FAMILY = "org.eclipse.copilot.completionJobFamily";
 
-  private CompletionJob completionJob;
+  /**
+   * How long a speculative completion stays valid after it is resolved.
+   */
+  static final long PREFETCH_TTL_MILLIS = 5000L;
+
+  /**
+   * How long a suggestion is displayed before its alternatives are requested.
+   */
+  static final long ALTERNATIVES_DWELL_MILLIS = 750L;
+
+  /**
+   * The longest time a job waits for the answer of its request, in case the connection does not time it out, e.g.
+   * because a longer timeout is configured.
+   */
+  static final long MAX_REQUEST_MILLIS = 30000L;
+
+  private CopilotLanguageServerConnection lsConnection;
+  private Map<String, CompletionJob> completionJobs;
+  private Map<String, Set<CompletionListener>> documentListeners;
   private Set<CompletionListener> completionListeners;
   private FormatOptionProvider formatOptionProvider;
   private AuthStatusManager statusManager;
+  private CompletionScheduler scheduler;
+  private CompletionCache cache;
+  private boolean revalidateCachedCompletions;
+  private Map<String, CompletionJob> prefetchJobs;
+  private Map<String, PrefetchedCompletion> prefetchedCompletions;
+  private PrefetchStatistics prefetchStatistics;
+  private final Object prefetchLock = new Object();
+  private LocalSuggestionProvider localSuggestionProvider;
+  private Map<String, Long> localSuggestionShownAt;
+  private CompletionTriggerPolicy triggerPolicy;
+  private Map<String, AlternativesJob> alternativesJobs;
+  private CompletionLatencyTracer latencyTracer;
 
   /**
    * Creates a new completion provider.
    */
   public CompletionProvider(CopilotLanguageServerConnection lsConnection, AuthStatusManager statusManager) {
+    this.lsConnection = lsConnection;
     this.statusManager = statusManager;
-    this.completionJob = new CompletionJob(lsConnection);
-    this.completionListeners = new LinkedHashSet<>();
+    this.completionJobs = new ConcurrentHashMap<>();
+    this.documentListeners = new ConcurrentHashMap<>();
+    this.completionListeners = new CopyOnWriteArraySet<>();
     this.formatOptionProvider = CopilotCore.getPlugin().getFormatOptionProvider();
+    this.scheduler = new CompletionScheduler();
+    this.cache = new CompletionCache();
+    this.prefetchJobs = new ConcurrentHashMap<>();
+    this.prefetchedCompletions = new ConcurrentHashMap<>();
+    this.prefetchStatistics = new PrefetchStatistics();
+    this.localSuggestionProvider = new LocalSuggestionProvider();
+    this.localSuggestionShownAt = new ConcurrentHashMap<>();
+    this.triggerPolicy = new CompletionTriggerPolicy(FeatureFlags::getCompletionTriggerRules);
+    this.alternativesJobs = new ConcurrentHashMap<>();
+    this.latencyTracer = new CompletionLatencyTracer();
   }
 
   /**
-   * Trigger an inline completion.
+   * Trigger an inline completion. The request is debounced according to the typing rhythm of the document.
    *
    * @param position the position of the cursor.
    * @param documentVersion the version of the document.
    */
   public void triggerCompletion(IFile file, Position position, int documentVersion) {
+    triggerCompletion(file, position, documentVersion, false);
+  }
+
+  /**
+   * Trigger an inline completion.
+   *
+   * @param position the position of the cursor.
+   * @param documentVersion the version of the document.
+   * @param immediate whether to skip the debounce, e.g. for high-signal keys or an explicit invocation.
+   */
+  public void triggerCompletion(IFile file, Position position, int documentVersion, boolean immediate) {
+    triggerCompletion(file, null, position, documentVersion, immediate);
+  }
+
+  /**
+   * Trigger an inline completion. When the document is given, a completion resolved earlier for the same text around
+   * the position is served from the cache at once, without a round trip to the language server. Otherwise a confident
+   * {@link LocalSuggestionProvider local suggestion} is dispatched at once, and replaced by the completion of the
+   * language server when it is resolved, or withdrawn with an empty resolution if the request ends without one. No
+   * request is sent, and no local suggestion shown, while the circuit of the connection is open, i.e. the language
+   * server stopped answering.
+   *
+   * @param document the document of the file, or <code>null</code> to bypass the completion cache.
+   * @param position the position of the cursor.
+   * @param documentVersion the version of the document.
+   * @param immediate whether to skip the debounce, e.g. for high-signal keys or an explicit invocation.
+   */
+  public void triggerCompletion(IFile file, IDocument document, Position position, int documentVersion,
+      boolean immediate) {
     if (statusManager.isNotSignedInOrNotAuthorized()) {
       return;
     }
-    this.completionJob.cancel();
     String uriString = FileUtils.getResourceUri(file);
+    if (uriString == null) {
+      return;
+    }
+    CompletionJob completionJob = this.completionJobs.computeIfAbsent(uriString,
+        k -> new CompletionJob(this.lsConnection));
+    // a sleeping job is still in its debounce window, so its request has never been sent to the language server.
+    boolean pending = completionJob.getState() == Job.SLEEPING;
+    if (completionJob.cancel() && pending) {
+      this.scheduler.recordSuppressed();
+    }
+    long delay = this.scheduler.nextDelay(uriString, immediate);
+    if (consumePrefetch(uriString, position, documentVersion)) {
+      return;
+    }
+    boolean circuitOpen = this.lsConnection.isCircuitOpen("getCompletions");
+
+    CompletionCache.Key cacheKey = document == null ? null
+        : CompletionCache.createKey(uriString, document, position);
+    if (cacheKey != null) {
+      List<CompletionItem> cachedCompletions = this.cache.get(cacheKey, documentVersion);
+      if (cachedCompletions != null) {
+        // a cached completion keeps its uuid, but each time it is served it is a new display of the suggestion.
+        this.lsConnection.forgetShown(cachedCompletions.stream().map(CompletionItem::getUuid).toList());
+        traceServedCompletions(uriString, cachedCompletions);
+        notifyCompletionResolved(uriString, cachedCompletions);
+        if (!this.revalidateCachedCompletions) {
+          return;
+        }
+      } else if (!circuitOpen) {
+        showLocalSuggestion(uriString, document, position, documentVersion);
+      }
+    }
+    if (circuitOpen) {
+      // the language server stopped answering, the request would fail at once.
+      withdrawLocalSuggestion(uriString);
+      return;
+    }
+    completionJob.setCompletionParams(createCompletionParams(file, uriString, position, documentVersion));
+    completionJob.setFile(file);
+    completionJob.setCacheKey(cacheKey);
+    completionJob.requestId = this.latencyTracer.beginRequest(uriString);
+    completionJob.scheduledAt = System.nanoTime();
+    completionJob.schedule(delay);
+  }
+
+  /**
+   * Speculatively request the completion at the position where the next trigger is expected, e.g. the caret after an
+   * accepted suggestion. The result is parked for a short time and served at once if the next trigger lands on the same
+   * position of the same document version. Any other trigger or edit of the document discards it. Does nothing unless
+   * the prefetch is enabled in the preferences.
+   *
+   * @param position the predicted position of the next trigger.
+   * @param documentVersion the version of the document.
+   */
+  public void prefetchCompletion(IFile file, Position position, int documentVersion) {
+    if (!FeatureFlags.isCompletionPrefetchEnabled() || statusManager.isNotSignedInOrNotAuthorized()
+        || this.lsConnection.isCircuitOpen("getCompletions")) {
+      return;
+    }
+    String uriString = FileUtils.getResourceUri(file);
+    if (uriString == null) {
+      return;
+    }
+    CompletionJob prefetchJob = this.prefetchJobs.computeIfAbsent(uriString, k -> {
+      CompletionJob job = new CompletionJob(this.lsConnection);
+      job.setPriority(Job.DECORATE);
+      return job;
+    });
+    synchronized (this.prefetchLock) {
+      this.prefetchedCompletions.remove(uriString);
+      prefetchJob.cancel();
+      prefetchJob.adopted = false;
+      prefetchJob.speculative = true;
+      prefetchJob.requestId = 0;
+    }
+    prefetchJob.setCompletionParams(createCompletionParams(file, uriString, position, documentVersion));
+    prefetchJob.setFile(file);
+    prefetchJob.requestedAt = System.currentTimeMillis();
+    this.prefetchStatistics.recordIssued();
+    prefetchJob.schedule();
+  }
+
+  /**
+   * Discard the speculative completion of the given document, if any. A speculative request which was adopted by a
+   * trigger is cancelled as well, since it was requested for the position the caret is leaving.
+   */
+  public void cancelPrefetch(String uriString) {
+    synchronized (this.prefetchLock) {
+      this.prefetchedCompletions.remove(uriString);
+      CompletionJob prefetchJob = this.prefetchJobs.get(uriString);
+      if (prefetchJob != null && (prefetchJob.speculative || prefetchJob.adopted)) {
+        prefetchJob.speculative = false;
+        prefetchJob.adopted = false;
+        prefetchJob.cancel();
+      }
+    }
+  }
+
+  /**
+   * Serve the trigger from the speculative completion of the document if it was requested for the same position and
+   * document version, and discard it otherwise. A speculative request which is still in flight is adopted, so that its
+   * result is dispatched to the listeners once resolved. Like the completion job it stands in for, an adopted request
+   * is cancelled by the next trigger.
+   *
+   * @return <code>true</code> if the trigger is served by the speculative completion.
+   */
+  private boolean consumePrefetch(String uriString, Position position, int documentVersion) {
+    PrefetchedCompletion prefetched;
+    synchronized (this.prefetchLock) {
+      prefetched = this.prefetchedCompletions.remove(uriString);
+      CompletionJob prefetchJob = this.prefetchJobs.get(uriString);
+      if (prefetchJob != null && prefetchJob.adopted) {
+        prefetchJob.adopted = false;
+        prefetchJob.cancel();
+      }
+      if (prefetched == null && prefetchJob != null && prefetchJob.speculative) {
+        prefetchJob.speculative = false;
+        CompletionDocument doc = prefetchJob.params.getDoc();
+        if (doc.getVersion() == documentVersion && Objects.equals(doc.getPosition(), position)) {
+          prefetchJob.adopted = true;
+          // the adopted request is traced from this trigger on, it binds its items once resolved.
+          prefetchJob.scheduledAt = System.nanoTime();
+          prefetchJob.requestId = this.latencyTracer.beginRequest(uriString);
+          this.prefetchStatistics.recordHit(System.currentTimeMillis() - prefetchJob.requestedAt);
+          return true;
+        }
+        prefetchJob.cancel();
+        return false;
+      }
+    }
+    if (prefetched == null || prefetched.version() != documentVersion
+        || !Objects.equals(prefetched.position(), position)
+        || System.currentTimeMillis() - prefetched.resolvedAt() > PREFETCH_TTL_MILLIS) {
+      return false;
+    }
+    this.prefetchStatistics.recordHit(prefetched.latencyMillis());
+    if (!prefetched.completions().isEmpty()) {
+      traceServedCompletions(uriString, prefetched.completions());
+      notifyCompletionResolved(uriString, prefetched.completions());
+    }
+    return true;
+  }
+
+  /**
+   * Request the alternatives of a displayed suggestion in the background, once it has been displayed for the dwell
+   * time, so that the user can cycle through them without waiting. The alternatives of a suggestion are only requested
+   * once, and a request for another suggestion of the document replaces the pending one. The local suggestions have no
+   * alternatives.
+   *
+   * @param item the displayed suggestion, as resolved for its trigger.
+   * @param immediate whether to skip the dwell time, e.g. when the user asks for the next suggestion.
+   * @param callback receives the alternatives, on a background thread.
+   */
+  public void requestAlternatives(IFile file, CompletionItem item, boolean immediate,
+      Consumer<List<CompletionItem>> callback) {
+    if (statusManager.isNotSignedInOrNotAuthorized() || item.getPosition() == null
+        || LocalSuggestionProvider.isLocal(item.getUuid()) || this.lsConnection.isCircuitOpen("getCompletionsCycling")) {
+      return;
+    }
+    String uriString = FileUtils.getResourceUri(file);
+    if (uriString == null) {
+      return;
+    }
+    AlternativesJob pendingJob = this.alternativesJobs.get(uriString);
+    if (pendingJob != null && pendingJob.uuid.equals(item.getUuid())) {
+      if (immediate && pendingJob.getState() == Job.SLEEPING) {
+        pendingJob.wakeUp();
+      }
+      return;
+    }
+    AlternativesJob alternativesJob = new AlternativesJob(item.getUuid(),
+        createCompletionParams(file, uriString, item.getPosition(), item.getDocVersion()), callback);
+    pendingJob = this.alternativesJobs.put(uriString, alternativesJob);
+    if (pendingJob != null) {
+      pendingJob.cancel();
+    }
+    alternativesJob.schedule(immediate ? 0 : ALTERNATIVES_DWELL_MILLIS);
+  }
+
+  /**
+   * Cancel the alternatives request of the given document, if any, e.g. when its suggestion is no longer displayed.
+   */
+  public void cancelAlternatives(String uriString) {
+    AlternativesJob alternativesJob = this.alternativesJobs.remove(uriString);
+    if (alternativesJob != null) {
+      alternativesJob.cancel();
+    }
+  }
+
+  /**
+   * Trace the completions served without a request of their own, i.e. from the cache or a speculative request, as a
+   * request which starts at the trigger, so the spans the editor measures for them do not overwrite the trace of the
+   * request which resolved them.
+   */
+  private void traceServedCompletions(String uriString, List<CompletionItem> completions) {
+    this.latencyTracer.bindItems(this.latencyTracer.beginRequest(uriString), completions);
+  }
+
+  private void showLocalSuggestion(String uriString, IDocument document, Position position, int documentVersion) {
+    List<CompletionItem> localCompletions = this.localSuggestionProvider.suggest(document, position, documentVersion);
+    if (localCompletions == null) {
+      withdrawLocalSuggestion(uriString);
+      return;
+    }
+    this.localSuggestionShownAt.put(uriString, System.currentTimeMillis());
+    notifyCompletionResolved(uriString, localCompletions);
+  }
+
+  /**
+   * Withdraw the local suggestion of the document, if one is shown, with an empty resolution.
+   */
+  private void withdrawLocalSuggestion(String uriString) {
+    if (this.localSuggestionShownAt.remove(uriString) != null) {
+      notifyCompletionResolved(uriString, List.of());
+    }
+  }
+
+  /**
+   * Learn the text of an accepted suggestion, so that the local suggestions can offer it again.
+   */
+  public void recordAcceptedText(String text) {
+    this.localSuggestionProvider.learn(text);
+  }
+
+  public LocalSuggestionProvider getLocalSuggestionProvider() {
+    return localSuggestionProvider;
+  }
+
+  public CompletionTriggerPolicy getTriggerPolicy() {
+    return triggerPolicy;
+  }
+
+  public CompletionLatencyTracer getLatencyTracer() {
+    return latencyTracer;
+  }
+
+  /**
+   * Record the latency of a stage of the completion pipeline measured by the editor.
+   *
+   * @param uriString the uri of the document.
+   * @param uuid the uuid of the suggestion the stage is measured for, or <code>null</code> if the stage precedes the
+   *     next completion request of the document.
+   * @param nanos the duration of the stage.
+   */
+  public void recordLatency(String uriString, @Nullable String uuid, CompletionLatencyTracer.Stage stage,
+      long nanos) {
+    if (uuid == null) {
+      this.latencyTracer.recordBeforeRequest(uriString, stage, nanos);
+    } else {
+      this.latencyTracer.recordForItem(uuid, stage, nanos);
+    }
+  }
+
+  private CompletionParams createCompletionParams(IFile file, String uriString, Position position,
+      int documentVersion) {
     CompletionDocument completionDoc = new CompletionDocument(uriString, position);
     completionDoc.setVersion(documentVersion);
 
@@ -83,38 +419,131 @@ public class CompletionProvider {
 
     completionDoc.setInsertSpaces(insertSpaces);
     completionDoc.setTabSize(tabSize);
-    CompletionParams params = new CompletionParams(completionDoc);
+    return new CompletionParams(completionDoc);
+  }
+
+  /**
+   * Cancel the pending completion of the given document, if any.
+   */
+  public void cancelCompletion(String uriString) {
+    CompletionJob completionJob = this.completionJobs.get(uriString);
+    if (completionJob != null) {
+      completionJob.cancel();
+    }
+  }
+
+  /**
+   * Cancel and release the completion pipeline of the given document.
+   */
+  public void disposeDocument(String uriString) {
+    CompletionJob completionJob = this.completionJobs.remove(uriString);
+    if (completionJob != null) {
+      completionJob.cancel();
+    }
+    cancelPrefetch(uriString);
+    this.prefetchJobs.remove(uriString);
+    cancelAlternatives(uriString);
+    this.scheduler.removeDocument(uriString);
+    this.triggerPolicy.removeDocument(uriString);
+    this.latencyTracer.removeDocument(uriString);
+    this.cache.invalidate(uriString);
+    this.localSuggestionShownAt.remove(uriString);
+    if (this.prefetchStatistics.getIssuedCount() > 0) {
+      CopilotCore.LOGGER.info(this.prefetchStatistics.toString());
+    }
+  }
+
+  public CompletionScheduler getScheduler() {
+    return scheduler;
+  }
+
+  public CompletionCache getCompletionCache() {
+    return cache;
+  }
+
+  public PrefetchStatistics getPrefetchStatistics() {
+    return prefetchStatistics;
+  }
+
+  /**
+   * Set whether a completion served from the cache is still requested from the language server in the background, to
+   * replace the cached suggestion with a fresh one.
+   */
+  public void setRevalidateCachedCompletions(boolean revalidateCachedCompletions) {
+    this.revalidateCachedCompletions = revalidateCachedCompletions;
+  }
 
-    this.completionJob.setCompletionParams(params);
-    this.completionJob.setFile(file);
-    this.completionJob.schedule();
+  /**
+   * Check if a completion request failed because the language server did not answer in time, or was not sent at all
+   * because it stopped answering. Such a request is dropped without marking Copilot as erroneous.
+   */
+  private static boolean isNotAnswered(ExecutionException e) {
+    return e.getCause() instanceof TimeoutException || e.getCause() instanceof RejectedExecutionException;
+  }
+
+  private void notifyCompletionResolved(String uriString, List<CompletionItem> completions) {
+    Set<CompletionListener> listeners = this.documentListeners.get(uriString);
+    if (listeners != null) {
+      for (CompletionListener listener : listeners) {
+        listener.onCompletionResolved(uriString, completions);
+      }
+    }
+    for (CompletionListener listener : this.completionListeners) {
+      listener.onCompletionResolved(uriString, completions);
+    }
   }
 
   /**
-   * Add a completion listener.
+   * Add a completion listener which is notified for the completions of all documents.
    */
   public void addCompletionListener(CompletionListener listener) {
     this.completionListeners.add(listener);
   }
 
   /**
-   * Remove a completion listener.
+   * Remove a completion listener which is notified for the completions of all documents.
    */
   public void removeCompletionListener(CompletionListener listener) {
     this.completionListeners.remove(listener);
   }
 
+  /**
+   * Add a completion listener which is only notified for the completions of the given document.
+   */
+  public void addCompletionListener(String uriString, CompletionListener listener) {
+    this.documentListeners.computeIfAbsent(uriString, k -> new CopyOnWriteArraySet<>()).add(listener);
+  }
+
+  /**
+   * Remove a completion listener of the given document. The completion pipeline of the document is released when its
+   * last listener is removed.
+   */
+  public void removeCompletionListener(String uriString, CompletionListener listener) {
+    Set<CompletionListener> listeners = this.documentListeners.computeIfPresent(uriString, (k, v) -> {
+      v.remove(listener);
+      return v.isEmpty() ? null : v;
+    });
+    if (listeners == null) {
+      disposeDocument(uriString);
+    }
+  }
+
   /**
    * TODO: public for testing.
    */
   public class CompletionJob extends Job {
 
-    private static final int COMPLETION_TIMEOUT_MILLIS = 5000;
-
     private CopilotLanguageServerConnection lsConnection;
     private CompletionParams params;
     private IResource file;
+    private CompletionCache.Key cacheKey;
     private List<CompletionItem> completions;
+    private volatile CompletableFuture<CompletionResult> pendingRequest;
+    private volatile boolean speculative;
+    private volatile boolean adopted;
+    private volatile long requestedAt;
+    private volatile long requestId;
+    private volatile long scheduledAt;
 
     /**
      * Creates a new completion job.
@@ -134,16 +563,59 @@ public class CompletionProvider {
       this.file = file;
     }
 
+    public void setCacheKey(CompletionCache.Key cacheKey) {
+      this.cacheKey = cacheKey;
+    }
+
     @Override
     protected IStatus run(IProgressMonitor monitor) {
       this.completions = null;
+      if (this.requestId > 0) {
+        latencyTracer.record(this.requestId, CompletionLatencyTracer.Stage.DEBOUNCE,
+            System.nanoTime() - this.scheduledAt);
+      }
       IStatus status = runCompletion(monitor);
+      if (this.speculative && parkSpeculativeCompletion(status)) {
+        return status;
+      }
+      this.adopted = false;
+      // a job cancelled by the next trigger leaves the local suggestion to that trigger.
+      Long localShownAt = monitor.isCanceled() || localSuggestionShownAt == null || this.params == null ? null
+          : localSuggestionShownAt.remove(this.params.getDoc().getUri());
+      if (status.isOK() && localShownAt != null) {
+        // an answer without suggestion is recorded as well, so the statistic is not biased towards the successful
+        // requests.
+        localSuggestionProvider.recordHiddenLatency(System.currentTimeMillis() - localShownAt);
+      }
       if (status.isOK() && this.completions != null) {
         notifyCompletionResolved();
+      } else if (localShownAt != null) {
+        // the language server answered no suggestion, or did not answer.
+        CompletionProvider.this.notifyCompletionResolved(this.params.getDoc().getUri(), List.of());
       }
       return status;
     }
 
+    /**
+     * Park the result of a speculative request until a trigger consumes it. Returns <code>false</code> if the request
+     * was adopted by a trigger in the meantime, in which case the result is dispatched as usual.
+     */
+    private boolean parkSpeculativeCompletion(IStatus status) {
+      synchronized (prefetchLock) {
+        if (!this.speculative) {
+          return false;
+        }
+        this.speculative = false;
+        if (status.isOK()) {
+          CompletionDocument doc = this.params.getDoc();
+          prefetchedCompletions.put(doc.getUri(), new PrefetchedCompletion(doc.getPosition(), doc.getVersion(),
+              this.completions == null ? List.of() : this.completions, System.currentTimeMillis(),
+              System.currentTimeMillis() - this.requestedAt));
+        }
+        return true;
+      }
+    }
+
     private IStatus runCompletion(IProgressMonitor monitor) {
       if (params == null) {
         CopilotCore.LOGGER.error(new IllegalStateException("Invalid completion parameters"));
@@ -160,23 +632,52 @@ public class CompletionProvider {
         return Status.CANCEL_STATUS;
       }
 
+      long start = System.currentTimeMillis();
+      long startNanos = System.nanoTime();
+      CompletableFuture<CompletionResult> request = this.lsConnection.getCompletions(params);
+      this.pendingRequest = request;
       try {
-        CompletionResult result = this.lsConnection.getCompletions(params).get(COMPLETION_TIMEOUT_MILLIS,
-            TimeUnit.MILLISECONDS);
+        if (monitor.isCanceled()) {
+          // the job was cancelled before the request was published to canceling().
+          request.cancel(true);
+          return Status.CANCEL_STATUS;
+        }
+        // the connection times the request out, see ResiliencePolicy.
+        CompletionResult result = request.get(MAX_REQUEST_MILLIS, TimeUnit.MILLISECONDS);
+        if (scheduler != null) {
+          scheduler.recordLatency(System.currentTimeMillis() - start);
+        }
+        if (this.requestId > 0) {
+          latencyTracer.record(this.requestId, CompletionLatencyTracer.Stage.ROUND_TRIP,
+              System.nanoTime() - startNanos);
+        }
         if (result == null || result.getCompletions() == null || result.getCompletions().isEmpty()) {
           return Status.OK_STATUS;
         }
 
         this.completions = result.getCompletions();
-      } catch (InterruptedException e) {
+        if (this.requestId > 0) {
+          latencyTracer.bindItems(this.requestId, this.completions);
+        }
+        if (this.cacheKey != null && cache != null) {
+          cache.put(this.cacheKey, this.completions);
+        }
+      } catch (InterruptedException | CancellationException e) {
+        return Status.CANCEL_STATUS;
+      } catch (TimeoutException e) {
+        request.cancel(true);
+        CopilotCore.LOGGER.info("Completion request not answered after " + MAX_REQUEST_MILLIS + " milliseconds");
         return Status.CANCEL_STATUS;
       } catch (ExecutionException e) {
+        if (isNotAnswered(e)) {
+          CopilotCore.LOGGER.info("Completion request not answered by the language server");
+          return Status.CANCEL_STATUS;
+        }
         statusManager.setCopilotStatus(CopilotStatusResult.ERROR);
         CopilotCore.LOGGER.error(e);
         return Status.OK_STATUS;
-      } catch (TimeoutException e) {
-        CopilotCore.LOGGER.info("Completion request timed out after " + COMPLETION_TIMEOUT_MILLIS + " milliseconds");
-        return Status.CANCEL_STATUS;
+      } finally {
+        this.pendingRequest = null;
       }
       if (monitor.isCanceled()) {
         return Status.CANCEL_STATUS;
@@ -184,19 +685,93 @@ public class CompletionProvider {
       return Status.OK_STATUS;
     }
 
+    /**
+     * Cancel the in-flight request so that the job thread returns at once instead of waiting for the timeout, and the
+     * language server is told to stop computing the completion.
+     */
+    @Override
+    protected void canceling() {
+      CompletableFuture<CompletionResult> request = this.pendingRequest;
+      if (request != null) {
+        request.cancel(true);
+      }
+    }
+
     @Override
     public boolean belongsTo(Object family) {
       return Objects.equals(family, COMPLETION_JOB_FAMILY);
     }
 
     private void notifyCompletionResolved() {
-      for (CompletionListener listener : CompletionProvider.this.completionListeners) {
-        // TODO: notify the listener according to the listen uri?
-        listener.onCompletionResolved(this.params.getDoc().getUri(), this.completions);
-      }
+      CompletionProvider.this.notifyCompletionResolved(this.params.getDoc().getUri(), this.completions);
       // If the completion can be resolved, it means the Copilot is working. Set the status to OK to resolve the
       // potential invalid status.
       statusManager.setCopilotStatus(CopilotStatusResult.OK);
     }
   }
+
+  /**
+   * Requests the alternatives of a displayed suggestion.
+   */
+  private class AlternativesJob extends Job {
+
+    private final String uuid;
+    private final CompletionParams params;
+    private final Consumer<List<CompletionItem>> callback;
+    private volatile CompletableFuture<CompletionResult> pendingRequest;
+
+    AlternativesJob(String uuid, CompletionParams params, Consumer<List<CompletionItem>> callback) {
+      super("Requesting alternative completions...");
+      this.uuid = uuid;
+      this.params = params;
+      this.callback = callback;
+      this.setSystem(true);
+      this.setPriority(Job.DECORATE);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      if (monitor.isCanceled()) {
+        return Status.CANCEL_STATUS;
+      }
+      CompletableFuture<CompletionResult> request = lsConnection.getCompletionsCycling(this.params);
+      this.pendingRequest = request;
+      try {
+        if (monitor.isCanceled()) {
+          request.cancel(true);
+          return Status.CANCEL_STATUS;
+        }
+        CompletionResult result = request.get(MAX_REQUEST_MILLIS, TimeUnit.MILLISECONDS);
+        if (result != null && result.getCompletions() != null && !monitor.isCanceled()) {
+          this.callback.accept(result.getCompletions());
+        }
+      } catch (InterruptedException | CancellationException | TimeoutException e) {
+        request.cancel(true);
+        return Status.CANCEL_STATUS;
+      } catch (ExecutionException e) {
+        if (isNotAnswered(e)) {
+          return Status.CANCEL_STATUS;
+        }
+        CopilotCore.LOGGER.error(e);
+      } finally {
+        this.pendingRequest = null;
+      }
+      return Status.OK_STATUS;
+    }
+
+    @Override
+    protected void canceling() {
+      CompletableFuture<CompletionResult> request = this.pendingRequest;
+      if (request != null) {
+        request.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * A speculative completion waiting for the trigger it was requested for.
+   */
+  private record PrefetchedCompletion(Position position, int version, List<CompletionItem> completions,
+      long resolvedAt, long latencyMillis) {
+  }
 }
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Computes the debounce delay for inline completion requests. The delay adapts per document to the measured
+ * inter-keystroke interval, so that a completion is only requested once the user pauses, and to the recent language
+ * server latency, so that a slow server is not flooded with requests that will be thrown away.
+ */
+public class CompletionScheduler {
+
+  /**
+   * The delay used before any keystroke rhythm has been measured for a document.
+   */
+  static final long DEFAULT_DELAY_MILLIS = 75L;
+
+  static final long MIN_DELAY_MILLIS = 25L;
+
+  static final long MAX_DELAY_MILLIS = 300L;
+
+  /**
+   * Gaps longer than this are pauses rather than typing rhythm, so they are not used to update the interval.
+   */
+  static final long IDLE_GAP_MILLIS = 1000L;
+
+  private static final double SMOOTHING_FACTOR = 0.3;
+
+  private static final double TYPING_FACTOR = 1.2;
+
+  private static final double LATENCY_FACTOR = 0.1;
+
+  private final LongSupplier clock;
+  private final Map<String, DocumentRhythm> rhythms;
+  private volatile double averageLatencyMillis;
+  private final AtomicLong scheduledCount;
+  private final AtomicLong suppressedCount;
+
+  /**
+   * Creates a new completion scheduler.
+   */
+  public CompletionScheduler() {
+    this(System::nanoTime);
+  }
+
+  /**
+   * Creates a new completion scheduler with the given nano time clock. (for testing purpose)
+   */
+  CompletionScheduler(LongSupplier clock) {
+    this.clock = clock;
+    this.rhythms = new ConcurrentHashMap<>();
+    this.averageLatencyMillis = -1;
+    this.scheduledCount = new AtomicLong();
+    this.suppressedCount = new AtomicLong();
+  }
+
+  /**
+   * Record a completion trigger for the given document and compute how long the request should be delayed.
+   *
+   * @param uri the uri of the document.
+   * @param immediate whether the trigger comes from a high-signal key or an explicit invocation, in which case the
+   *     request is sent at once.
+   * @return the delay in milliseconds before the completion request should be sent.
+   */
+  public long nextDelay(String uri, boolean immediate) {
+    scheduledCount.incrementAndGet();
+    DocumentRhythm rhythm = rhythms.computeIfAbsent(uri, k -> new DocumentRhythm());
+    long interval = rhythm.recordKeystroke(clock.getAsLong());
+    if (immediate) {
+      return 0L;
+    }
+    if (interval < 0) {
+      return DEFAULT_DELAY_MILLIS;
+    }
+    double latency = Math.max(0, averageLatencyMillis);
+    long delay = Math.round(interval * TYPING_FACTOR + latency * LATENCY_FACTOR);
+    return Math.max(MIN_DELAY_MILLIS, Math.min(MAX_DELAY_MILLIS, delay));
+  }
+
+  /**
+   * Record the round trip time of a completed completion request.
+   */
+  public void recordLatency(long latencyMillis) {
+    if (latencyMillis < 0) {
+      return;
+    }
+    double current = averageLatencyMillis;
+    averageLatencyMillis = current < 0 ? latencyMillis
+        : current + SMOOTHING_FACTOR * (latencyMillis - current);
+  }
+
+  /**
+   * Record that a pending request was replaced by a newer trigger before it was sent to the language server.
+   */
+  public void recordSuppressed() {
+    suppressedCount.incrementAndGet();
+  }
+
+  /**
+   * Forget the keystroke rhythm of the given document.
+   */
+  public void removeDocument(String uri) {
+    rhythms.remove(uri);
+  }
+
+  /**
+   * Whether the typed character is a strong hint that the user wants a suggestion right away, for example a new line
+   * or an opening bracket.
+   */
+  public static boolean isHighSignalCharacter(char c) {
+    return c == '\r' || c == '\n' || c == '{' || c == '(';
+  }
+
+  /**
+   * Get the number of completion triggers received.
+   */
+  public long getScheduledCount() {
+    return scheduledCount.get();
+  }
+
+  /**
+   * Get the number of completion requests that were never sent because a newer trigger replaced them.
+   */
+  public long getSuppressedCount() {
+    return suppressedCount.get();
+  }
+
+  /**
+   * Get the smoothed language server latency in milliseconds, or <code>-1</code> if nothing has been measured yet.
+   */
+  public long getAverageLatencyMillis() {
+    return Math.round(averageLatencyMillis);
+  }
+
+  /**
+   * Get the smoothed inter-keystroke interval of the given document in milliseconds, or <code>-1</code> if nothing has
+   * been measured yet.
+   */
+  public long getTypingIntervalMillis(String uri) {
+    DocumentRhythm rhythm = rhythms.get(uri);
+    return rhythm == null ? -1 : rhythm.getAverageIntervalMillis();
+  }
+
+  /**
+   * The keystroke rhythm of a single document.
+   */
+  private static class DocumentRhythm {
+    private long lastKeystrokeNanos = -1;
+    private double averageIntervalMillis = -1;
+
+    /**
+     * Record a keystroke and return the smoothed interval, or <code>-1</code> if it is unknown.
+     */
+    synchronized long recordKeystroke(long nowNanos) {
+      if (lastKeystrokeNanos >= 0) {
+        long gap = TimeUnit.NANOSECONDS.toMillis(nowNanos - lastKeystrokeNanos);
+        if (gap <= IDLE_GAP_MILLIS) {
+          averageIntervalMillis = averageIntervalMillis < 0 ? gap
+              : averageIntervalMillis + SMOOTHING_FACTOR * (gap - averageIntervalMillis);
+        }
+      }
+      lastKeystrokeNanos = nowNanos;
+      return getAverageIntervalMillis();
+    }
+
+    synchronized long getAverageIntervalMillis() {
+      return Math.round(averageIntervalMillis);
+    }
+  }
+}
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPartitioningException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension3;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+
+import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.utils.FileUtils;
+
+/**
+ * Decides whether an automatic completion trigger is worth a request to the language server, from the partition of
+ * the document at the caret and a rule table keyed by language id. Triggers in low-value contexts, e.g. comments or
+ * string literals, can be delayed until the user pauses typing or suppressed entirely, and triggers on a line where
+ * the user has just dismissed a suggestion are suppressed until the caret leaves the line. Explicit triggers are not
+ * subject to this policy.
+ *
+ * <p>The rules have the form <code>language:context=decision,...;...</code>, where the language is a language id or
+ * <code>*</code> for all languages. The language id of a document is resolved from the content type of its file, as
+ * the format options are, and from its file extension when the content type is unknown. The context is
+ * <code>comment</code> or <code>string</code>, and the decision is <code>trigger</code>, <code>delay</code> or
+ * <code>suppress</code>. The rules of a language override the ones of <code>*</code>.
+ */
+public class CompletionTriggerPolicy {
+
+  /**
+   * The rules used when none are configured.
+   */
+  public static final String DEFAULT_RULES = "*:comment=delay,string=delay;properties:comment=suppress";
+
+  private static final String ANY_LANGUAGE = "*";
+
+  private static final Map<String, String> CONTENT_TYPE_LANGUAGE_IDS = Map.of(
+      "org.eclipse.jdt.core.javaSource", "java",
+      "org.eclipse.core.runtime.properties", "properties",
+      "org.eclipse.cdt.core.cSource", "c",
+      "org.eclipse.cdt.core.cHeader", "c",
+      "org.eclipse.cdt.core.cxxSource", "cpp",
+      "org.eclipse.cdt.core.cxxHeader", "cpp",
+      "org.eclipse.core.runtime.xml", "xml");
+
+  private static final Map<String, String> LANGUAGE_IDS = Map.of("h", "c", "cc", "cpp", "cxx", "cpp", "hpp", "cpp",
+      "js", "javascript", "mjs", "javascript", "ts", "typescript", "py", "python", "md", "markdown", "yml", "yaml");
+
+  /**
+   * The decision for an automatic completion trigger.
+   */
+  public enum Decision {
+    /**
+     * Request the completion as usual.
+     */
+    TRIGGER,
+    /**
+     * Request the completion with the typing debounce, even after a high-signal key.
+     */
+    DELAY,
+    /**
+     * Do not request the completion.
+     */
+    SUPPRESS
+  }
+
+  /**
+   * The kind of the partition at the caret.
+   */
+  enum Context {
+    CODE, COMMENT, STRING
+  }
+
+  private final Supplier<String> rulesSupplier;
+  private final Map<String, Integer> dismissedLines = new ConcurrentHashMap<>();
+  private final Map<String, String> languageIds = new ConcurrentHashMap<>();
+  private final AtomicLong evaluatedCount = new AtomicLong();
+  private final AtomicLong delayedCount = new AtomicLong();
+  private final AtomicLong suppressedCount = new AtomicLong();
+
+  private String rulesSource;
+  private Map<String, Map<Context, Decision>> rules = Collections.emptyMap();
+
+  /**
+   * Creates a new CompletionTriggerPolicy.
+   *
+   * @param rulesSupplier supplies the configured rules, read on each evaluation so a preference change applies at once.
+   */
+  public CompletionTriggerPolicy(Supplier<String> rulesSupplier) {
+    this.rulesSupplier = rulesSupplier;
+  }
+
+  /**
+   * Evaluate an automatic completion trigger.
+   *
+   * @param uriString the uri of the document.
+   * @param document the document.
+   * @param offset the offset of the caret.
+   * @param line the line of the caret.
+   * @return the decision for the trigger.
+   */
+  public Decision evaluate(String uriString, IDocument document, int offset, int line) {
+    this.evaluatedCount.incrementAndGet();
+    Integer dismissedLine = this.dismissedLines.get(uriString);
+    if (dismissedLine != null) {
+      if (dismissedLine == line) {
+        this.suppressedCount.incrementAndGet();
+        return Decision.SUPPRESS;
+      }
+      this.dismissedLines.remove(uriString, dismissedLine);
+    }
+    Context context = getContext(document, offset);
+    if (context == Context.CODE) {
+      return Decision.TRIGGER;
+    }
+    Decision decision = getDecision(
+        this.languageIds.computeIfAbsent(uriString, CompletionTriggerPolicy::resolveLanguageId), context);
+    if (decision == Decision.DELAY) {
+      this.delayedCount.incrementAndGet();
+    } else if (decision == Decision.SUPPRESS) {
+      this.suppressedCount.incrementAndGet();
+    }
+    return decision;
+  }
+
+  /**
+   * Record that the user dismissed a suggestion, so the automatic triggers are suppressed until the caret leaves the
+   * line.
+   */
+  public void recordDismissed(String uriString, int line) {
+    this.dismissedLines.put(uriString, line);
+  }
+
+  /**
+   * Forget the dismissed line of the document once the caret is on another line, even if no trigger is evaluated
+   * there, e.g. when the caret is moved without typing.
+   *
+   * @param line the line of the caret.
+   */
+  public void caretMoved(String uriString, int line) {
+    Integer dismissedLine = this.dismissedLines.get(uriString);
+    if (dismissedLine != null && dismissedLine != line) {
+      this.dismissedLines.remove(uriString, dismissedLine);
+    }
+  }
+
+  /**
+   * Forget the state of a closed document.
+   */
+  public void removeDocument(String uriString) {
+    this.dismissedLines.remove(uriString);
+    this.languageIds.remove(uriString);
+  }
+
+  private Decision getDecision(String languageId, Context context) {
+    Map<String, Map<Context, Decision>> currentRules = getRules();
+    Map<Context, Decision> languageRules = currentRules.get(languageId);
+    if (languageRules != null && languageRules.containsKey(context)) {
+      return languageRules.get(context);
+    }
+    Map<Context, Decision> defaultRules = currentRules.get(ANY_LANGUAGE);
+    if (defaultRules != null && defaultRules.containsKey(context)) {
+      return defaultRules.get(context);
+    }
+    return Decision.TRIGGER;
+  }
+
+  private synchronized Map<String, Map<Context, Decision>> getRules() {
+    String source = this.rulesSupplier.get();
+    if (!StringUtils.equals(source, this.rulesSource)) {
+      this.rules = parseRules(source);
+      this.rulesSource = source;
+    }
+    return this.rules;
+  }
+
+  /**
+   * Parse the rule table. Malformed entries are logged and ignored.
+   */
+  static Map<String, Map<Context, Decision>> parseRules(String source) {
+    Map<String, Map<Context, Decision>> result = new HashMap<>();
+    if (StringUtils.isBlank(source)) {
+      return result;
+    }
+    for (String languageEntry : source.split(";")) {
+      if (StringUtils.isBlank(languageEntry)) {
+        continue;
+      }
+      String[] languageAndRules = languageEntry.split(":", 2);
+      if (languageAndRules.length != 2) {
+        CopilotCore.LOGGER.info("Ignoring malformed completion trigger rule: " + languageEntry);
+        continue;
+      }
+      Map<Context, Decision> languageRules = result.computeIfAbsent(
+          languageAndRules[0].strip().toLowerCase(Locale.ROOT), key -> new EnumMap<>(Context.class));
+      for (String rule : languageAndRules[1].split(",")) {
+        String[] contextAndDecision = rule.split("=", 2);
+        try {
+          languageRules.put(Context.valueOf(contextAndDecision[0].strip().toUpperCase(Locale.ROOT)),
+              Decision.valueOf(contextAndDecision[1].strip().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+          CopilotCore.LOGGER.info("Ignoring malformed completion trigger rule: " + rule);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the kind of the partition the caret is in. At the end of a line the partition of the previous character is
+   * used, since a line comment or an unterminated string does not cover the line delimiter.
+   */
+  static Context getContext(IDocument document, int offset) {
+    if (!(document instanceof IDocumentExtension3 extension) || offset <= 0) {
+      return Context.CODE;
+    }
+    try {
+      int probeOffset = offset;
+      if (offset >= document.getLength() || isLineDelimiter(document.getChar(offset))) {
+        probeOffset = offset - 1;
+      }
+      for (String partitioning : extension.getPartitionings()) {
+        Context context = toContext(extension.getContentType(partitioning, probeOffset, false));
+        if (context != Context.CODE) {
+          return context;
+        }
+      }
+    } catch (BadLocationException | BadPartitioningException e) {
+      // the document changed in the meantime, treat it as code.
+    }
+    return Context.CODE;
+  }
+
+  private static boolean isLineDelimiter(char c) {
+    return c == '\n' || c == '\r';
+  }
+
+  /**
+   * Map a partition content type to a context. The content types are defined by each editor, e.g.
+   * <code>__java_singleline_comment</code> or <code>__pf_roperty_value</code>, so they are matched by name.
+   */
+  static Context toContext(String contentType) {
+    if (contentType == null) {
+      return Context.CODE;
+    }
+    String type = contentType.toLowerCase(Locale.ROOT);
+    if (type.contains("comment") || type.contains("javadoc")) {
+      return Context.COMMENT;
+    }
+    if (type.contains("string") || type.contains("character") || type.contains("roperty_value")) {
+      return Context.STRING;
+    }
+    return Context.CODE;
+  }
+
+  /**
+   * Resolve the language id of a document from the content type of its file, or from its file extension if the file is
+   * not in the workspace or its content type has no known language.
+   */
+  private static String resolveLanguageId(String uriString) {
+    if (LSPEclipseUtils.findResourceFor(uriString) instanceof IFile file) {
+      String languageId = getLanguageId(FileUtils.getContentType(file));
+      if (languageId != null) {
+        return languageId;
+      }
+    }
+    return getLanguageId(uriString);
+  }
+
+  /**
+   * Get the language id of a content type, or of the nearest of its base types which has one.
+   */
+  @Nullable
+  static String getLanguageId(@Nullable IContentType contentType) {
+    for (IContentType type = contentType; type != null; type = type.getBaseType()) {
+      String languageId = CONTENT_TYPE_LANGUAGE_IDS.get(type.getId());
+      if (languageId != null) {
+        return languageId;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Get the language id of a document from its file extension.
+   */
+  static String getLanguageId(String uriString) {
+    String extension = StringUtils.substringAfterLast(StringUtils.substringAfterLast(uriString, "/"), ".")
+        .toLowerCase(Locale.ROOT);
+    return LANGUAGE_IDS.getOrDefault(extension, extension);
+  }
+
+  /**
+   * Get the number of evaluated triggers.
+   */
+  public long getEvaluatedCount() {
+    return this.evaluatedCount.get();
+  }
+
+  /**
+   * Get the number of triggers delayed until the user pauses typing.
+   */
+  public long getDelayedCount() {
+    return this.delayedCount.get();
+  }
+
+  /**
+   * Get the number of suppressed triggers, i.e. the requests saved.
+   */
+  public long getSuppressedCount() {
+    return this.suppressedCount.get();
+  }
+}
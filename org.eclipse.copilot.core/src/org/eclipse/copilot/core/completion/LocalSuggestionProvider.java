@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
+
+/**
+ * An in-process suggestion source which completes the current line from the lines of recently accepted suggestions and
+ * the lines above the caret. It answers synchronously, so its suggestion can be shown as provisional ghost text while
+ * the language server computes the real one, which replaces it when it arrives. A suggestion is only made when the
+ * typed part of the line is long enough and every line it matches continues it the same way. The accepted lines are
+ * kept in a bounded history indexed by their first characters, so a lookup on the keystroke path only visits the
+ * accepted lines which can match. The document lines are read at lookup time, at most
+ * {@value #RECENT_DOCUMENT_LINES} of them.
+ */
+public class LocalSuggestionProvider {
+
+  /**
+   * The prefix of the uuids of the local suggestions, which are unknown to the language server.
+   */
+  public static final String UUID_PREFIX = "local-";
+
+  static final int MAX_ACCEPTED_LINES = 256;
+  static final int MAX_LINE_LENGTH = 200;
+  static final int RECENT_DOCUMENT_LINES = 100;
+  static final int MIN_PREFIX_LENGTH = 6;
+
+  private final Deque<String> acceptedLines = new ArrayDeque<>();
+  private final Map<String, Set<String>> acceptedLinesByKey = new HashMap<>();
+  private long suggestionCount;
+  private long lookupCount;
+  private long hitCount;
+  private long hiddenLatencyMillis;
+  private long hiddenLatencyCount;
+
+  /**
+   * Check if the given uuid belongs to a local suggestion.
+   */
+  public static boolean isLocal(String uuid) {
+    return uuid != null && uuid.startsWith(UUID_PREFIX);
+  }
+
+  /**
+   * Learn the lines of an accepted suggestion.
+   */
+  public synchronized void learn(String acceptedText) {
+    if (acceptedText == null) {
+      return;
+    }
+    for (String line : acceptedText.split("\\R")) {
+      String stripped = line.strip();
+      if (stripped.length() <= MIN_PREFIX_LENGTH || stripped.length() > MAX_LINE_LENGTH) {
+        continue;
+      }
+      if (!this.acceptedLines.remove(stripped)) {
+        this.acceptedLinesByKey.computeIfAbsent(key(stripped), k -> new HashSet<>()).add(stripped);
+      }
+      this.acceptedLines.addFirst(stripped);
+      if (this.acceptedLines.size() > MAX_ACCEPTED_LINES) {
+        String evicted = this.acceptedLines.removeLast();
+        this.acceptedLinesByKey.computeIfPresent(key(evicted), (k, v) -> {
+          v.remove(evicted);
+          return v.isEmpty() ? null : v;
+        });
+      }
+    }
+  }
+
+  /**
+   * Get the key of the accepted lines which can continue a prefix starting like the given line.
+   */
+  private static String key(String line) {
+    return line.substring(0, MIN_PREFIX_LENGTH);
+  }
+
+  /**
+   * Suggest the rest of the line at the given position, if the typed part of the line is continued the same way by all
+   * the accepted and recent document lines it matches.
+   *
+   * @return the suggestion, or <code>null</code> if there is no confident one.
+   */
+  @Nullable
+  public synchronized List<CompletionItem> suggest(IDocument document, Position position, int documentVersion) {
+    this.lookupCount++;
+    try {
+      IRegion line = document.getLineInformation(position.getLine());
+      int offset = line.getOffset() + position.getCharacter();
+      if (offset > line.getOffset() + line.getLength()
+          || !document.get(offset, line.getOffset() + line.getLength() - offset).isBlank()) {
+        // only complete at the end of a line.
+        return null;
+      }
+      String prefix = document.get(line.getOffset(), position.getCharacter()).stripLeading();
+      if (prefix.length() < MIN_PREFIX_LENGTH || prefix.length() > MAX_LINE_LENGTH) {
+        return null;
+      }
+      Continuation continuation = new Continuation(prefix);
+      for (String candidate : this.acceptedLinesByKey.getOrDefault(key(prefix), Set.of())) {
+        if (!continuation.add(candidate)) {
+          return null;
+        }
+      }
+      int firstLine = Math.max(0, position.getLine() - RECENT_DOCUMENT_LINES);
+      for (int i = position.getLine() - 1; i >= firstLine; i--) {
+        IRegion candidateLine = document.getLineInformation(i);
+        if (candidateLine.getLength() <= MAX_LINE_LENGTH
+            && !continuation.add(document.get(candidateLine.getOffset(), candidateLine.getLength()).strip())) {
+          return null;
+        }
+      }
+      String remainder = continuation.remainder;
+      if (remainder == null) {
+        return null;
+      }
+      this.hitCount++;
+      String uuid = UUID_PREFIX + (++this.suggestionCount);
+      Range range = new Range(new Position(position.getLine(), 0), position);
+      String text = document.get(line.getOffset(), position.getCharacter()) + remainder;
+      return List.of(new CompletionItem(uuid, text, range, remainder, position, documentVersion));
+    } catch (BadLocationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Record how long the language server took to answer after a local suggestion was shown, whether it answered with a
+   * suggestion or without one.
+   */
+  public synchronized void recordHiddenLatency(long millis) {
+    this.hiddenLatencyMillis += millis;
+    this.hiddenLatencyCount++;
+  }
+
+  public synchronized long getLookupCount() {
+    return lookupCount;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Get the ratio of lookups answered with a local suggestion, or <code>0</code> if there was no lookup yet.
+   */
+  public synchronized double getHitRate() {
+    return this.lookupCount == 0 ? 0 : (double) this.hitCount / this.lookupCount;
+  }
+
+  /**
+   * Get the total time the local suggestions were shown before the language server answered.
+   */
+  public synchronized long getHiddenLatencyMillis() {
+    return hiddenLatencyMillis;
+  }
+
+  /**
+   * Get the number of answers of the language server recorded in the hidden latency.
+   */
+  public synchronized long getHiddenLatencyCount() {
+    return hiddenLatencyCount;
+  }
+
+  /**
+   * The rest of the line shared by all the candidate lines starting with the typed prefix.
+   */
+  private static final class Continuation {
+    private final String prefix;
+    private String remainder;
+
+    Continuation(String prefix) {
+      this.prefix = prefix;
+    }
+
+    /**
+     * Add a candidate line. Returns <code>false</code> if it continues the prefix differently than the previous ones.
+     */
+    boolean add(String candidate) {
+      if (candidate.length() <= this.prefix.length() || !candidate.startsWith(this.prefix)) {
+        return true;
+      }
+      String candidateRemainder = candidate.substring(this.prefix.length());
+      if (this.remainder == null) {
+        this.remainder = candidateRemainder;
+        return true;
+      }
+      return this.remainder.equals(candidateRemainder);
+    }
+  }
+}
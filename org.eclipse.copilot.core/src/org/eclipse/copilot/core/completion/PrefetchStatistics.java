@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.completion;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the speculative completion prefetch, used to weigh the requests spent on prefetching against the
+ * latency it saves.
+ */
+public class PrefetchStatistics {
+
+  private final AtomicLong issuedCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong latencySavedMillis = new AtomicLong();
+
+  /**
+   * Record that a speculative request was issued.
+   */
+  public void recordIssued() {
+    issuedCount.incrementAndGet();
+  }
+
+  /**
+   * Record that a speculative request was used by a completion trigger.
+   *
+   * @param savedMillis the time the user did not have to wait for the completion.
+   */
+  public void recordHit(long savedMillis) {
+    hitCount.incrementAndGet();
+    latencySavedMillis.addAndGet(Math.max(0, savedMillis));
+  }
+
+  public long getIssuedCount() {
+    return issuedCount.get();
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getLatencySavedMillis() {
+    return latencySavedMillis.get();
+  }
+
+  /**
+   * Get the ratio of speculative requests that were never used, or <code>0</code> if none was issued yet.
+   */
+  public double getWasteRatio() {
+    long issued = issuedCount.get();
+    return issued == 0 ? 0 : (double) (issued - Math.min(issued, hitCount.get())) / issued;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Completion prefetch: %d issued, %d used, %.0f%% wasted, %d ms saved", getIssuedCount(),
+        getHitCount(), getWasteRatio() * 100, getLatencySavedMillis());
+  }
+}
@@ -10,18 +10,25 @@
 package org.eclipse.copilot.core.completion;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 
 import org.eclipse.copilot.core.CopilotCore;
 import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
 
 /**
  * Manage the suggestion updates. For example, when the user types a character, the suggestion list should be updated.
+ * The state is kept as the original completion items plus the number of characters typed into the suggestion, so that
+ * typing through a suggestion does not convert positions or copy items. The updated {@link CompletionItem} is only
+ * created when it is requested, e.g. to accept it. Alternative items fetched later for the same trigger are added to
+ * the same state, so the user can cycle through them while typing through.
  */
 public class SuggestionUpdateManager {
 
@@ -36,28 +43,42 @@ public class SuggestionUpdateManager {
   private List<CompletionItem> originalItems;
 
   /**
-   * Updated items based on the original items and the user input.
+   * For each original item, the length of the common prefix of its display text and the text typed since the items
+   * got displayed. An item is still valid when the whole typed text is its prefix.
    */
-  private List<CompletionItem> updatedItems;
+  private int[] matchedLengths;
+
+  /**
+   * The number of valid items.
+   */
+  private int size;
+
   /**
-   * Current index that is being displayed in the completion list.
+   * Current index that is being displayed in the completion list, counted among the valid items.
    */
   private int index;
 
   /**
-   * The offset of the current completion item since it gets displayed.
+   * The number of characters typed since the items got displayed.
    */
   private int offset;
 
+  /**
+   * The current item updated to the typed text, created on demand.
+   */
+  private CompletionItem currentItem;
+
+  /**
+   * Incremented whenever the items are replaced or cleared, so results requested for earlier items can be told apart.
+   */
+  private int generation;
+
   /**
    * Creates a new SuggestionUpdateManager.
    */
   public SuggestionUpdateManager(IDocument document) {
     this.document = document;
-    this.originalItems = new ArrayList<>();
-    this.updatedItems = new ArrayList<>();
-    this.index = 0;
-    this.offset = 0;
+    this.reset();
   }
 
   /**
@@ -66,38 +87,32 @@ public class SuggestionUpdateManager {
    * @return <code>true</code> if the update is accepted, <code>false</code> otherwise.
    */
   public boolean insert(String text) {
-    if (this.updatedItems == null || this.updatedItems.isEmpty()) {
+    if (this.size == 0) {
       throw new IllegalStateException("Cannot insert text when there are no items");
     }
-    List<CompletionItem> newItems = new ArrayList<>();
-    for (CompletionItem item : this.updatedItems) {
-      if (item.getDisplayText().startsWith(text)) {
-        String newDisplayText = item.getDisplayText().substring(text.length());
-        if (newDisplayText.isEmpty()) {
-          continue;
-        }
-        try {
-          // the following update might be wrong especially for the replacement range. Another request should be
-          // triggered to get the correct items.
-          Position newTriggerPosition = LSPEclipseUtils
-              .toPosition(LSPEclipseUtils.toOffset(item.getPosition(), this.document) + text.length(), this.document);
-          item.getRange().setEnd(newTriggerPosition);
-          newItems.add(new CompletionItem(item.getUuid(), item.getText(), item.getRange(), newDisplayText,
-              newTriggerPosition, item.getDocVersion()));
-        } catch (BadLocationException e) {
-          CopilotCore.LOGGER.error("Could not update the trigger position", e);
-        }
+    int current = getOriginalIndex(this.index);
+    int newOffset = this.offset + text.length();
+    int newSize = 0;
+    for (int i = 0; i < this.originalItems.size(); i++) {
+      if (this.matchedLengths[i] != this.offset) {
+        continue;
+      }
+      String displayText = this.originalItems.get(i).getDisplayText();
+      int matched = this.offset + commonPrefixLength(displayText, this.offset, text);
+      this.matchedLengths[i] = matched;
+      if (matched == newOffset && displayText.length() > newOffset) {
+        newSize++;
       }
     }
-    boolean accepted = !newItems.isEmpty();
-    if (accepted) {
-      this.updatedItems = newItems;
-      this.offset += text.length();
-    } else {
+    if (newSize == 0) {
       this.reset();
+      return false;
     }
-    return accepted;
-
+    this.offset = newOffset;
+    this.size = newSize;
+    this.index = isValid(current) ? getValidIndex(current) : 0;
+    this.currentItem = null;
+    return true;
   }
 
   /**
@@ -106,48 +121,50 @@ public class SuggestionUpdateManager {
    * @return true if the update is accepted, false otherwise
    */
   public boolean delete(int deletedCount) {
-    if (this.updatedItems == null || this.updatedItems.isEmpty()) {
+    if (this.size == 0) {
       throw new IllegalStateException("Cannot delete text when there are no items");
     }
     if (this.offset == 0 || this.offset < deletedCount) {
       this.reset();
       return false;
     }
-    List<CompletionItem> newItems = new ArrayList<>();
-    for (CompletionItem item : this.originalItems) {
-      String newDisplayText = item.getDisplayText().substring(this.offset - deletedCount);
-      try {
-        // the following update might be wrong especially for the replacement range. Another request should be
-        // triggered to get the correct items.
-        Position newTriggerPosition = LSPEclipseUtils
-            .toPosition(LSPEclipseUtils.toOffset(item.getPosition(), this.document) - deletedCount, this.document);
-        item.getRange().setEnd(newTriggerPosition);
-        newItems.add(new CompletionItem(item.getUuid(), item.getText(), item.getRange(), newDisplayText,
-            newTriggerPosition, item.getDocVersion()));
-      } catch (BadLocationException e) {
-        CopilotCore.LOGGER.error("Could not update the trigger position", e);
+    int current = getOriginalIndex(this.index);
+    int newOffset = this.offset - deletedCount;
+    int newSize = 0;
+    for (int i = 0; i < this.originalItems.size(); i++) {
+      this.matchedLengths[i] = Math.min(this.matchedLengths[i], newOffset);
+      if (this.matchedLengths[i] == newOffset && this.originalItems.get(i).getDisplayText().length() > newOffset) {
+        newSize++;
       }
     }
-
-    boolean accepted = !newItems.isEmpty();
-    if (accepted) {
-      this.updatedItems = newItems;
-      this.offset -= deletedCount;
-    } else {
+    if (newSize == 0) {
       this.reset();
+      return false;
     }
-    return accepted;
+    this.offset = newOffset;
+    this.size = newSize;
+    this.index = isValid(current) ? getValidIndex(current) : 0;
+    this.currentItem = null;
+    return true;
+  }
+
+  private static int commonPrefixLength(String displayText, int start, String text) {
+    int length = Math.min(displayText.length() - start, text.length());
+    int i = 0;
+    while (i < length && displayText.charAt(start + i) == text.charAt(i)) {
+      i++;
+    }
+    return i;
   }
 
   /**
    * Get the next word for the current active completion item.
    */
   public String getNextWord() {
-    CompletionItem item = getCurrentItem();
-    if (item == null) {
+    if (this.size == 0) {
       throw new IllegalStateException("Cannot get text when there are no items");
     }
-    String fullCompletion = item.getDisplayText();
+    String fullCompletion = getText();
     int whitespaceBlock = findContinuousBlock(fullCompletion, Character::isWhitespace);
     if (whitespaceBlock != -1) {
       return fullCompletion.substring(0, whitespaceBlock);
@@ -186,17 +203,88 @@ public class SuggestionUpdateManager {
   }
 
   /**
-   * Initialize the completion items when the suggestion is resolved. It will do a entire flush when the original items
-   * are empty. Otherwise, it will only update the updated items as a correction.
+   * Add the alternative items resolved for the same trigger as the current items. The alternatives are matched against
+   * the text typed since the items got displayed, the ones for another trigger or already present are ignored, and the
+   * current item stays the displayed one.
+   *
+   * @param itemsGeneration the {@link #getGeneration() generation} of the items the alternatives were requested for.
+   * @return the number of added alternatives.
+   */
+  public int addAlternatives(int itemsGeneration, List<CompletionItem> alternatives) {
+    if (this.size == 0 || itemsGeneration != this.generation) {
+      return 0;
+    }
+    int current = getOriginalIndex(this.index);
+    CompletionItem currentOriginal = this.originalItems.get(current);
+    String typedText = currentOriginal.getDisplayText().substring(0, this.offset);
+    List<CompletionItem> items = new ArrayList<>(this.originalItems);
+    int[] lengths = Arrays.copyOf(this.matchedLengths, items.size() + alternatives.size());
+    for (CompletionItem alternative : alternatives) {
+      String displayText = alternative.getDisplayText();
+      if (displayText == null || alternative.getDocVersion() != currentOriginal.getDocVersion()
+          || !Objects.equals(alternative.getPosition(), currentOriginal.getPosition())
+          || items.stream().anyMatch(item -> displayText.equals(item.getDisplayText()))) {
+        continue;
+      }
+      lengths[items.size()] = commonPrefixLength(displayText, 0, typedText);
+      items.add(alternative);
+    }
+    int added = items.size() - this.originalItems.size();
+    this.originalItems = items;
+    this.matchedLengths = Arrays.copyOf(lengths, items.size());
+    this.size = 0;
+    for (int i = 0; i < items.size(); i++) {
+      if (isValid(i)) {
+        this.size++;
+      }
+    }
+    this.index = getValidIndex(current);
+    return added;
+  }
+
+  /**
+   * Display the next valid item, wrapping around after the last one.
+   *
+   * @return <code>true</code> if another item is displayed, <code>false</code> if there is no alternative.
+   */
+  public boolean next() {
+    return select(this.index + 1);
+  }
+
+  /**
+   * Display the previous valid item, wrapping around before the first one.
+   *
+   * @return <code>true</code> if another item is displayed, <code>false</code> if there is no alternative.
+   */
+  public boolean previous() {
+    return select(this.index - 1);
+  }
+
+  private boolean select(int newIndex) {
+    if (this.size < 2) {
+      return false;
+    }
+    this.index = Math.floorMod(newIndex, this.size);
+    this.currentItem = null;
+    return true;
+  }
+
+  /**
+   * Initialize the completion items when the suggestion is resolved. The typed text is counted from the positions of
+   * the given items.
    */
   public void setCompletionItems(List<CompletionItem> items) {
-    if (originalItems == null || originalItems.isEmpty()) {
-      this.originalItems = items;
-      this.updatedItems = items;
-      this.offset = 0;
-      this.index = 0;
-    } else {
-      this.updatedItems = items;
+    this.originalItems = items;
+    this.matchedLengths = new int[items.size()];
+    this.generation++;
+    this.offset = 0;
+    this.index = 0;
+    this.currentItem = null;
+    this.size = 0;
+    for (int i = 0; i < items.size(); i++) {
+      if (isValid(i)) {
+        this.size++;
+      }
     }
   }
 
@@ -205,33 +293,105 @@ public class SuggestionUpdateManager {
    */
   public void reset() {
     this.originalItems = new ArrayList<>();
-    this.updatedItems = new ArrayList<>();
+    this.matchedLengths = new int[0];
+    this.generation++;
+    this.size = 0;
     this.index = 0;
     this.offset = 0;
+    this.currentItem = null;
   }
 
   /**
-   * Get the current active completion item. return null if there is no active item.
+   * Get the current active completion item, updated to the typed text. return null if there is no active item.
    */
   public CompletionItem getCurrentItem() {
-    if (this.updatedItems.isEmpty()) {
+    if (this.size == 0) {
+      return null;
+    }
+    if (this.currentItem == null) {
+      this.currentItem = createUpdatedItem(getOriginalItem(this.index));
+    }
+    return this.currentItem;
+  }
+
+  /**
+   * Get the uuid of the current active completion item, or <code>null</code> if there is no active item.
+   */
+  public String getCurrentUuid() {
+    if (this.size == 0) {
+      return null;
+    }
+    return getOriginalItem(this.index).getUuid();
+  }
+
+  /**
+   * Get the current active completion item as resolved for the trigger, i.e. not updated to the typed text, or
+   * <code>null</code> if there is no active item.
+   */
+  public CompletionItem getCurrentOriginalItem() {
+    if (this.size == 0) {
       return null;
     }
-    if (index < 0 || index >= updatedItems.size()) {
+    return getOriginalItem(this.index);
+  }
+
+  private CompletionItem getOriginalItem(int validIndex) {
+    return this.originalItems.get(getOriginalIndex(validIndex));
+  }
+
+  private int getOriginalIndex(int validIndex) {
+    if (validIndex < 0 || validIndex >= this.size) {
       throw new IllegalStateException("index out of range to get updated completion item.");
     }
-    return this.updatedItems.get(index);
+    int count = 0;
+    for (int i = 0; i < this.originalItems.size(); i++) {
+      if (isValid(i) && count++ == validIndex) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("index out of range to get updated completion item.");
+  }
+
+  private int getValidIndex(int originalIndex) {
+    int count = 0;
+    for (int i = 0; i < originalIndex; i++) {
+      if (isValid(i)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private boolean isValid(int i) {
+    return this.matchedLengths[i] == this.offset && this.originalItems.get(i).getDisplayText().length() > this.offset;
+  }
+
+  private CompletionItem createUpdatedItem(CompletionItem item) {
+    if (this.offset == 0 || this.document == null || item.getPosition() == null) {
+      return item;
+    }
+    try {
+      // the following update might be wrong especially for the replacement range. Another request should be
+      // triggered to get the correct items.
+      Position newTriggerPosition = LSPEclipseUtils
+          .toPosition(LSPEclipseUtils.toOffset(item.getPosition(), this.document) + this.offset, this.document);
+      Range range = item.getRange() == null ? null : new Range(item.getRange().getStart(), newTriggerPosition);
+      return new CompletionItem(item.getUuid(), item.getText(), range, item.getDisplayText().substring(this.offset),
+          newTriggerPosition, item.getDocVersion());
+    } catch (BadLocationException e) {
+      CopilotCore.LOGGER.error("Could not update the trigger position", e);
+      return item;
+    }
   }
 
   /**
    * Get the text of the current active completion item.
    */
   public String getText() {
-    CompletionItem item = getCurrentItem();
-    if (item == null) {
+    if (this.size == 0) {
       return "";
     }
-    return item.getDisplayText();
+    return getOriginalItem(this.index).getDisplayText().substring(this.offset);
   }
 
   /**
@@ -239,10 +399,12 @@ public class SuggestionUpdateManager {
    */
   public String getFirstLine() {
     String text = getText();
-    if (text == null) {
-      return "";
+    int lineBreakIdx = text.indexOf('\n');
+    if (lineBreakIdx < 0) {
+      return text;
     }
-    return text.split("\r?\n")[0];
+    int end = lineBreakIdx > 0 && text.charAt(lineBreakIdx - 1) == '\r' ? lineBreakIdx - 1 : lineBreakIdx;
+    return text.substring(0, end);
   }
 
   /**
@@ -250,21 +412,35 @@ public class SuggestionUpdateManager {
    */
   public String getRemainingLines() {
     String text = getText();
-    if (text == null) {
-      return "";
-    }
-    int lineBreakIdx = text.indexOf("\n");
+    int lineBreakIdx = text.indexOf('\n');
     if (lineBreakIdx < 0) {
       return "";
     }
     return text.substring(lineBreakIdx + 1);
   }
 
+  /**
+   * Get the uuids of the valid completion items.
+   */
   public List<String> getUuids() {
-    return this.updatedItems.stream().map(CompletionItem::getUuid).toList();
+    List<String> uuids = new ArrayList<>(this.size);
+    for (int i = 0; i < this.originalItems.size(); i++) {
+      if (isValid(i)) {
+        uuids.add(this.originalItems.get(i).getUuid());
+      }
+    }
+    return uuids;
   }
 
   public int getSize() {
-    return this.updatedItems.size();
+    return this.size;
+  }
+
+  public int getIndex() {
+    return this.index;
+  }
+
+  public int getGeneration() {
+    return this.generation;
   }
 }
@@ -11,20 +11,30 @@ package org.eclipse.copilot.core.format;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.core.runtime.content.IContentTypeManager;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.lsp4j.FormattingOptions;
 
-import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.utils.FileUtils;
 
 /**
- * A class to provide the format options for the completion job.
+ * A class to provide the format options for the completion job. The format readers are cached per project and content
+ * type, and each reader keeps a snapshot of its settings that is refreshed when the preferences change, so lookups are
+ * cheap and safe from any thread. The readers of a project are released when the project is closed or deleted.
  */
 public class FormatOptionProvider {
-  private Map<String, String> languageExtensionToIdMap;
-  private Map<String, Map<IProject, LanguageFormatReader>> languageIdToProjectToLanguageFormatReaderMap;
+  private final Map<String, String> languageExtensionToIdMap;
+  private final Map<FormatKey, LanguageFormatReader> formatReaders;
+  private final IResourceChangeListener projectListener;
 
   private static final String JAVA_LANGUAGE_ID = "java";
   private static final String C_LANGUAGE_ID = "c";
@@ -32,6 +42,14 @@ public class FormatOptionProvider {
   private static final String CPP_LANGUAGE_ID = "cpp";
   private static final String[] CPP_LANGUAGE_EXTENSIONS = new String[] { "cpp", "c++", "cc", "cp", "cxx", "h", "h++",
       "hh", ".hpp", ".hxx", ".inc", ".inl", ".ipp", ".tcc", ".tpp" };
+  private static final String TEXT_LANGUAGE_ID = "text";
+  private static final Map<String, String> CONTENT_TYPE_TO_LANGUAGE_ID = Map.of(
+      "org.eclipse.jdt.core.javaSource", JAVA_LANGUAGE_ID,
+      "org.eclipse.cdt.core.cSource", C_LANGUAGE_ID,
+      "org.eclipse.cdt.core.cHeader", C_LANGUAGE_ID,
+      "org.eclipse.cdt.core.cxxSource", CPP_LANGUAGE_ID,
+      "org.eclipse.cdt.core.cxxHeader", CPP_LANGUAGE_ID,
+      IContentTypeManager.CT_TEXT, TEXT_LANGUAGE_ID);
   private static final boolean DEFAULT_USE_SPACE = LanguageFormatReader.PREFERENCE_DEFAULT_TAB_CHAR.equals("space");
   private static final int DEFAULT_TAB_SIZE = LanguageFormatReader.PREFERENCE_DEFAULT_TAB_SIZE;
 
@@ -39,11 +57,6 @@ public class FormatOptionProvider {
    * Creates a new FormatOptionProvider.
    */
   public FormatOptionProvider() {
-    initializeLanguageExtensionToIdMap();
-    languageIdToProjectToLanguageFormatReaderMap = new HashMap<>();
-  }
-
-  private void initializeLanguageExtensionToIdMap() {
     languageExtensionToIdMap = new HashMap<>();
     languageExtensionToIdMap.put("java", JAVA_LANGUAGE_ID);
     for (String extension : C_LANGUAGE_EXTENSIONS) {
@@ -52,6 +65,36 @@ public class FormatOptionProvider {
     for (String extension : CPP_LANGUAGE_EXTENSIONS) {
       languageExtensionToIdMap.put(extension, CPP_LANGUAGE_ID);
     }
+    formatReaders = new ConcurrentHashMap<>();
+    projectListener = event -> {
+      if (event.getResource() instanceof IProject project) {
+        removeProject(project);
+      }
+    };
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(projectListener,
+        IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+  }
+
+  /**
+   * Release the format readers of a project, and stop listening to its preferences.
+   */
+  void removeProject(IProject project) {
+    formatReaders.entrySet().removeIf(entry -> {
+      if (!entry.getKey().project().equals(project)) {
+        return false;
+      }
+      entry.getValue().dispose();
+      return true;
+    });
+  }
+
+  /**
+   * Release all the format readers and stop listening to the projects.
+   */
+  public void dispose() {
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectListener);
+    formatReaders.values().forEach(LanguageFormatReader::dispose);
+    formatReaders.clear();
   }
 
   /**
@@ -75,64 +118,69 @@ public class FormatOptionProvider {
   }
 
   /**
-   * Helper method to get the LanguageFormat for a given file.
+   * Helper method to get the LanguageFormat for a given file, or <code>null</code> if the default format applies.
    */
+  @Nullable
   private FormattingOptions getLanguageFormat(IFile file) {
-    if (file == null) {
-      CopilotCore.LOGGER.info("File is null");
-      return null;
-    }
-
-    if (!file.exists() || !file.isAccessible()) {
-      CopilotCore.LOGGER.info("File is not valid: " + file.getName());
+    if (file == null || !file.exists() || !file.isAccessible()) {
       return null;
     }
 
     IProject project = file.getProject();
     if (project == null) {
-      CopilotCore.LOGGER.info("Project is null for file: " + file.getName() + "default format will be applied.");
       return null;
     }
 
-    String fileExtension = file.getFileExtension();
-    if (StringUtils.isEmpty(fileExtension)) {
-      CopilotCore.LOGGER.info("File extension is null or empty for file: " + file.getName());
+    FormatKey key = getFormatKey(project, file);
+    if (key == null) {
       return null;
-    } else {
-      fileExtension = fileExtension.toLowerCase();
-    }
-
-    String languageId = languageExtensionToIdMap.get(fileExtension);
-    if (languageId == null) {
-      languageId = "unknown";
-      languageExtensionToIdMap.put(fileExtension, languageId);
-      CopilotCore.LOGGER.info("Language ID not found for extension: " + fileExtension);
     }
+    return formatReaders.computeIfAbsent(key, FormatOptionProvider::createFormatReader).getFormattingOptions();
+  }
 
-    Map<IProject, LanguageFormatReader> projectToLanguageFormatReaderMap = languageIdToProjectToLanguageFormatReaderMap
-        .computeIfAbsent(languageId, k -> new HashMap<>());
-
-    LanguageFormatReader languageFormatReaderForProject = projectToLanguageFormatReaderMap.get(project);
-    if (languageFormatReaderForProject == null) {
-      languageFormatReaderForProject = loadFormatReaderForTheProject(languageId, project);
-      if (languageFormatReaderForProject == null) {
-        return new FormattingOptions(DEFAULT_TAB_SIZE, DEFAULT_USE_SPACE);
+  /**
+   * Get the key of the format reader for the given file. The content type of the file is preferred, so that files of
+   * editors contributed by other plugins are resolved too. The file extension is used when no content type is
+   * registered for the file.
+   */
+  @Nullable
+  private FormatKey getFormatKey(IProject project, IFile file) {
+    IContentType contentType = FileUtils.getContentType(file);
+    for (IContentType type = contentType; type != null; type = type.getBaseType()) {
+      String languageId = CONTENT_TYPE_TO_LANGUAGE_ID.get(type.getId());
+      if (languageId != null) {
+        return new FormatKey(project, contentType.getId(), languageId);
       }
-      projectToLanguageFormatReaderMap.put(project, languageFormatReaderForProject);
     }
 
-    return languageFormatReaderForProject.getFormattingOptions();
+    String fileExtension = file.getFileExtension();
+    if (StringUtils.isEmpty(fileExtension)) {
+      return null;
+    }
+    String languageId = languageExtensionToIdMap.get(fileExtension.toLowerCase());
+    return languageId == null ? null : new FormatKey(project, null, languageId);
   }
 
-  private LanguageFormatReader loadFormatReaderForTheProject(String languageId, IProject project) {
-    switch (languageId) {
+  private static LanguageFormatReader createFormatReader(FormatKey key) {
+    switch (key.languageId()) {
       case JAVA_LANGUAGE_ID:
-        return new JavaFormatReader(project);
+        return new JavaFormatReader(key.project());
       case C_LANGUAGE_ID:
       case CPP_LANGUAGE_ID:
-        return new CdtFormatReader(project);
+        return new CdtFormatReader(key.project());
       default:
-        return null;
+        return new TextEditorFormatReader(key.project());
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * The key of a format reader.
+   *
+   * @param project the project of the file.
+   * @param contentTypeId the id of the content type of the file, or <code>null</code> if it is resolved from the file
+   *     extension.
+   * @param languageId the language whose formatter settings are read.
+   */
+  private record FormatKey(IProject project, @Nullable String contentTypeId, String languageId) {
+  }
+}
@@ -15,25 +15,117 @@ import org.eclipse.core.runtime.preferences.ConfigurationScope;
 import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.lsp4j.FormattingOptions;
 
 /**
- * Interface for Copilot Language Format.
+ * Reads the indentation settings of a language from its formatter preferences. The settings are kept as a snapshot
+ * that is never modified; it is dropped when the preferences change and read again on the next lookup, so readers on
+ * any thread see consistent settings.
  */
 abstract class LanguageFormatReader implements IPreferenceChangeListener {
   public static final int PREFERENCE_DEFAULT_TAB_SIZE = 4;
   public static final String PREFERENCE_DEFAULT_TAB_CHAR = "space";
-  
+
   protected final IPreferenceChangeListener preferencesChangeListener = this;
   protected static final IScopeContext[] DEFAULT_SCOPE_CONTEXTS = new IScopeContext[] { InstanceScope.INSTANCE,
       ConfigurationScope.INSTANCE, DefaultScope.INSTANCE };
 
+  private final IProject project;
+  private final String qualifier;
+  private final String tabCharKey;
+  private final String tabSizeKey;
+  private volatile FormattingOptions formattingOptions;
+  private boolean listenerRegistered;
+
   /**
-   * Get the language format options.
+   * Creates a new LanguageFormatReader.
+   *
+   * @param project the project whose settings are read, or <code>null</code> for the workspace settings.
+   * @param qualifier the qualifier of the preference node holding the settings.
+   * @param tabCharKey the key of the setting telling whether spaces are used for indentation.
+   * @param tabSizeKey the key of the tab size setting.
    */
-  public abstract FormattingOptions getFormattingOptions();
+  protected LanguageFormatReader(IProject project, String qualifier, String tabCharKey, String tabSizeKey) {
+    this.project = project;
+    this.qualifier = qualifier;
+    this.tabCharKey = tabCharKey;
+    this.tabSizeKey = tabSizeKey;
+  }
+
+  /**
+   * Get the language format options. The returned options must not be modified.
+   */
+  public FormattingOptions getFormattingOptions() {
+    FormattingOptions options = this.formattingOptions;
+    if (options != null) {
+      return options;
+    }
+    synchronized (this) {
+      if (this.formattingOptions == null) {
+        if (!this.listenerRegistered) {
+          registerPreferencesChangeListener(this.project, this.qualifier);
+          this.listenerRegistered = true;
+        }
+        this.formattingOptions = readFormattingOptions();
+      }
+      return this.formattingOptions;
+    }
+  }
+
+  private FormattingOptions readFormattingOptions() {
+    IScopeContext[] scopeContexts = getScopeContexts(this.project);
+    String tabCharString = getFormatValue(scopeContexts, this.qualifier, this.tabCharKey);
+    boolean insertSpaces = tabCharString != null ? isInsertSpaces(tabCharString)
+        : PREFERENCE_DEFAULT_TAB_CHAR.equalsIgnoreCase("space");
+    String tabSizeString = getFormatValue(scopeContexts, this.qualifier, this.tabSizeKey);
+    int tabSize = PREFERENCE_DEFAULT_TAB_SIZE;
+    if (tabSizeString != null) {
+      try {
+        tabSize = Integer.parseInt(tabSizeString);
+      } catch (NumberFormatException e) {
+        // keep the default tab size
+      }
+    }
+    return new FormattingOptions(tabSize, insertSpaces);
+  }
+
+  /**
+   * Check whether the value of the tab char setting means that spaces are used for indentation.
+   */
+  protected boolean isInsertSpaces(String tabCharValue) {
+    return tabCharValue.equalsIgnoreCase("space");
+  }
+
+  @Override
+  public void preferenceChange(PreferenceChangeEvent event) {
+    if (event == null) {
+      return;
+    }
+
+    String key = event.getKey();
+    if (this.tabCharKey.equals(key) || this.tabSizeKey.equals(key)) {
+      synchronized (this) {
+        this.formattingOptions = null;
+      }
+    }
+  }
+
+  /**
+   * Stop listening to the preferences, e.g. when the project is closed. The settings are read again, along with the
+   * listener, if the reader is used afterwards.
+   */
+  public synchronized void dispose() {
+    if (this.listenerRegistered) {
+      for (IScopeContext context : getScopeContexts(this.project)) {
+        context.getNode(this.qualifier).removePreferenceChangeListener(this.preferencesChangeListener);
+      }
+      this.listenerRegistered = false;
+    }
+    this.formattingOptions = null;
+  }
 
   /**
    * Fetch the language specific scope contexts based on if the project specific settings is enabled.
@@ -46,7 +138,7 @@ abstract class LanguageFormatReader implements IPreferenceChangeListener {
           DefaultScope.INSTANCE };
     }
   }
-  
+
   /**
    * Register a preference change listener for the given project.
    *
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.format;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Text editor format, used for text files without language specific formatter settings, e.g. files opened in the
+ * generic, TM4E or LSP4E based editors.
+ */
+public class TextEditorFormatReader extends LanguageFormatReader {
+  // The following constants are copied from org.eclipse.ui.texteditor.AbstractDecoratedTextEditorPreferenceConstants
+  private static final String EditorsUI_PLUGIN_ID = "org.eclipse.ui.editors";
+  private static final String AbstractDecoratedTextEditorPreferenceConstants_EDITOR_SPACES_FOR_TABS = "spacesForTabs";
+  private static final String AbstractDecoratedTextEditorPreferenceConstants_EDITOR_TAB_WIDTH = "tabWidth";
+
+  /**
+   * Creates a new TextEditorFormatReader for the given project.
+   */
+  public TextEditorFormatReader(IProject project) {
+    super(project, EditorsUI_PLUGIN_ID, AbstractDecoratedTextEditorPreferenceConstants_EDITOR_SPACES_FOR_TABS,
+        AbstractDecoratedTextEditorPreferenceConstants_EDITOR_TAB_WIDTH);
+  }
+
+  @Override
+  protected boolean isInsertSpaces(String tabCharValue) {
+    return Boolean.parseBoolean(tabCharValue);
+  }
+}
@@ -47,6 +47,7 @@ import org.eclipse.copilot.core.lsp.protocol.ConversationCapabilities;
 import org.eclipse.copilot.core.lsp.protocol.ConversationContextParams;
 import org.eclipse.copilot.core.lsp.protocol.CurrentEditorContext;
 import org.eclipse.copilot.core.lsp.protocol.DidChangeFeatureFlagsParams;
+import org.eclipse.copilot.core.lsp.protocol.DidChangeStatusParams;
 import org.eclipse.copilot.core.lsp.protocol.GetWatchedFilesRequest;
 import org.eclipse.copilot.core.lsp.protocol.GetWatchedFilesResponse;
 import org.eclipse.copilot.core.lsp.protocol.InvokeClientToolConfirmationParams;
@@ -230,12 +231,28 @@ public class CopilotLanguageClient extends LanguageClientImpl {
       flags.setAgentModeEnabled(params.isAgentModeEnabled());
       flags.setMcpEnabled(params.isMcpEnabled());
     }
+    CopilotLanguageServerConnection connection = CopilotCore.getPlugin().getCopilotLanguageServer();
+    if (connection != null) {
+      connection.didChangeFeatureFlags();
+    }
 
     if (eventBroker != null) {
       eventBroker.post(CopilotEventConstants.TOPIC_CHAT_DID_CHANGE_FEATURE_FLAGS, params);
     }
   }
 
+  /**
+   * Notify when the status of the language server changes. This is used to forget the results of the queries which
+   * depend on the status, e.g. the sign in status or the quota.
+   */
+  @JsonNotification("didChangeStatus")
+  public void onDidChangeStatus(DidChangeStatusParams params) {
+    CopilotLanguageServerConnection connection = CopilotCore.getPlugin().getCopilotLanguageServer();
+    if (connection != null) {
+      connection.didChangeStatus(params);
+    }
+  }
+
   /**
    * Handles the progress notification for chat replies.
    */
@@ -66,6 +66,12 @@ public interface CopilotLanguageServer extends LanguageServer {
   @JsonRequest
   CompletableFuture<CompletionResult> getCompletions(CompletionParams params);
 
+  /**
+   * Get alternative completions for the given parameters, in addition to the one returned by getCompletions.
+   */
+  @JsonRequest
+  CompletableFuture<CompletionResult> getCompletionsCycling(CompletionParams params);
+
   /**
    * Initiate the sign in process.
    */
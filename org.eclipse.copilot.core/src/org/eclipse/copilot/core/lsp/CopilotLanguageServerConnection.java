@@ -11,7 +11,15 @@ package org.eclipse.copilot.core.lsp;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import org.eclipse.core.resources.IFile;
@@ -26,6 +34,7 @@ import org.eclipse.lsp4j.services.LanguageServer;
 
 import org.eclipse.copilot.core.AuthStatusManager;
 import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.FeatureFlags;
 import org.eclipse.copilot.core.lsp.protocol.ChatCompletionContentPart;
 import org.eclipse.copilot.core.lsp.protocol.ChatCreateResult;
 import org.eclipse.copilot.core.lsp.protocol.ChatPersistence;
@@ -41,6 +50,7 @@ import org.eclipse.copilot.core.lsp.protocol.ConversationTurnParams;
 import org.eclipse.copilot.core.lsp.protocol.CopilotModel;
 import org.eclipse.copilot.core.lsp.protocol.CopilotStatusResult;
 import org.eclipse.copilot.core.lsp.protocol.DidChangeCopilotWatchedFilesParams;
+import org.eclipse.copilot.core.lsp.protocol.DidChangeStatusParams;
 import org.eclipse.copilot.core.lsp.protocol.McpServerToolsCollection;
 import org.eclipse.copilot.core.lsp.protocol.NotifyAcceptedParams;
 import org.eclipse.copilot.core.lsp.protocol.NotifyCodeAcceptanceParams;
@@ -67,7 +77,21 @@ public class CopilotLanguageServerConnection {
 
   public static final String SERVER_ID = "org.eclipse.copilot.ls";
 
+  static final String CHECK_STATUS = "checkStatus";
+  static final String CHECK_QUOTA = "checkQuota";
+  static final String LIST_MODELS = "listModels";
+  static final String LIST_TEMPLATES = "listTemplates";
+
+  static final long CHECK_STATUS_TTL_MILLIS = 10_000L;
+  static final long CHECK_QUOTA_TTL_MILLIS = 30_000L;
+  static final long LIST_TTL_MILLIS = 300_000L;
+
   private LanguageServerWrapper languageServerWrapper;
+  private TelemetryOutbox telemetryOutbox;
+  private AtomicInteger pendingCompletions;
+  private SingleFlightCache queryCache;
+  private DidChangeStatusParams lastStatus;
+  private ResiliencePolicy resiliencePolicy;
 
   /**
    * Constructor for the CopilotLanguageServer.
@@ -75,7 +99,67 @@ public class CopilotLanguageServerConnection {
    * @param languageServerWrapper the language server wrapper.
    */
   public CopilotLanguageServerConnection(LanguageServerWrapper languageServerWrapper) {
+    this(languageServerWrapper, new ResiliencePolicy(FeatureFlags::getLanguageServerTimeouts));
+  }
+
+  /**
+   * Constructor for the CopilotLanguageServer with the given resilience policy.
+   */
+  CopilotLanguageServerConnection(LanguageServerWrapper languageServerWrapper, ResiliencePolicy resiliencePolicy) {
     this.languageServerWrapper = languageServerWrapper;
+    this.telemetryOutbox = new TelemetryOutbox(this);
+    this.pendingCompletions = new AtomicInteger();
+    this.queryCache = new SingleFlightCache();
+    this.resiliencePolicy = resiliencePolicy;
+  }
+
+  /**
+   * Send a request to the language server under the {@link ResiliencePolicy}. The returned future fails with a
+   * {@link TimeoutException} if the language server does not answer within the timeout of the method, and fails at once
+   * with a {@link RejectedExecutionException} while the circuit is open.
+   *
+   * @param method the name of the method of this connection, used to look up its timeout.
+   */
+  private <T> CompletableFuture<T> execute(String method, Function<LanguageServer, CompletableFuture<T>> fn) {
+    if (!this.resiliencePolicy.tryAcquire(method)) {
+      return CompletableFuture.failedFuture(
+          new RejectedExecutionException("The language server is not responding, " + method + " is not sent"));
+    }
+    CompletableFuture<T> result = this.languageServerWrapper.execute(fn);
+    long timeoutMillis = this.resiliencePolicy.getTimeoutMillis(method);
+    if (timeoutMillis > 0) {
+      result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    result.whenComplete((r, ex) -> {
+      if (isTimeout(ex)) {
+        this.resiliencePolicy.recordTimeout(method);
+      } else if (result.isCancelled()) {
+        this.resiliencePolicy.recordCancelled(method);
+      } else {
+        // an error answered by the language server still shows that it is responsive.
+        this.resiliencePolicy.recordSuccess();
+      }
+    });
+    return result;
+  }
+
+  private static boolean isTimeout(Throwable ex) {
+    Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+    return cause instanceof TimeoutException;
+  }
+
+  /**
+   * Check if the requests of the method currently fail at once because the language server stopped answering, e.g. so
+   * that the completions are not triggered.
+   *
+   * @param method the name of the method of this connection.
+   */
+  public boolean isCircuitOpen(String method) {
+    return this.resiliencePolicy.isOpen(method);
+  }
+
+  public ResiliencePolicy getResiliencePolicy() {
+    return resiliencePolicy;
   }
 
   /**
@@ -91,6 +175,15 @@ public class CopilotLanguageServerConnection {
     }
   }
 
+  /**
+   * Get a future which completes once the language server process is started and has answered the
+   * <code>initialize</code> request.
+   */
+  public CompletableFuture<Void> whenInitialized() {
+    Function<LanguageServer, CompletableFuture<Void>> fn = server -> CompletableFuture.completedFuture(null);
+    return this.languageServerWrapper.execute(fn);
+  }
+
   /**
    * Disconnect the document from the language server.
    */
@@ -106,7 +199,8 @@ public class CopilotLanguageServerConnection {
   }
 
   /**
-   * Check the login status for current machine.
+   * Check the login status for current machine. Concurrent checks share one request, and the result is kept for a few
+   * seconds or until the language server notifies a status change.
    */
   public CompletableFuture<CopilotStatusResult> checkStatus(Boolean localCheckOnly) {
     Function<LanguageServer, CompletableFuture<CopilotStatusResult>> fn = server -> {
@@ -114,31 +208,102 @@ public class CopilotLanguageServerConnection {
       param.setLocalChecksOnly(localCheckOnly);
       return ((CopilotLanguageServer) server).checkStatus(param);
     };
-    return this.languageServerWrapper.execute(fn);
+    return this.queryCache.get(SingleFlightCache.key(CHECK_STATUS, localCheckOnly), CHECK_STATUS_TTL_MILLIS,
+        () -> execute("checkStatus", fn));
   }
 
   /**
-   * Check the user's quota status.
+   * Check the user's quota status. Concurrent checks share one request, and the result is kept for a few seconds or
+   * until a chat turn or a status change may have changed it.
    */
   public CompletableFuture<CheckQuotaResult> checkQuota() {
     Function<LanguageServer, CompletableFuture<CheckQuotaResult>> fn = server -> ((CopilotLanguageServer) server)
         .checkQuota(new NullParams());
-    return this.languageServerWrapper.execute(fn);
+    return this.queryCache.get(CHECK_QUOTA, CHECK_QUOTA_TTL_MILLIS, () -> execute("checkQuota", fn));
+  }
+
+  /**
+   * Forget the kept quota, so the next check asks the language server.
+   */
+  public void invalidateQuota() {
+    this.queryCache.invalidate(CHECK_QUOTA);
+  }
+
+  /**
+   * Handle a status change notified by the language server. The kept results of the queries are forgotten when the
+   * kind or the message of the status changes, e.g. when the user is signed out, but not when only the busy state
+   * changes, which happens on each request.
+   */
+  synchronized void didChangeStatus(DidChangeStatusParams params) {
+    DidChangeStatusParams previous = this.lastStatus;
+    this.lastStatus = params;
+    if (previous == null || !Objects.equals(previous.getKind(), params.getKind())
+        || !Objects.equals(previous.getMessage(), params.getMessage())) {
+      this.queryCache.invalidateAll();
+    }
+  }
+
+  /**
+   * Forget the kept lists which depend on the feature flags, i.e. the models and the templates.
+   */
+  void didChangeFeatureFlags() {
+    this.queryCache.invalidate(LIST_MODELS, LIST_TEMPLATES);
+  }
+
+  public SingleFlightCache getQueryCache() {
+    return queryCache;
   }
 
   /**
-   * Get single completion for the given parameters.
+   * Get single completion for the given parameters. Cancelling the returned future cancels the underlying JSON-RPC
+   * request, so that LSP4J sends <code>$/cancelRequest</code> and the server stops computing a stale completion.
    */
   public CompletableFuture<CompletionResult> getCompletions(CompletionParams params) {
-    Function<LanguageServer, CompletableFuture<CompletionResult>> fn = server -> ((CopilotLanguageServer) server)
-        .getCompletions(params);
-    return this.languageServerWrapper.execute(fn);
+    return requestCompletions("getCompletions", server -> server.getCompletions(params));
+  }
+
+  /**
+   * Get alternative completions for the given parameters. Like {@link #getCompletions(CompletionParams)}, cancelling
+   * the returned future cancels the underlying JSON-RPC request.
+   */
+  public CompletableFuture<CompletionResult> getCompletionsCycling(CompletionParams params) {
+    return requestCompletions("getCompletionsCycling", server -> server.getCompletionsCycling(params));
+  }
+
+  private CompletableFuture<CompletionResult> requestCompletions(String method,
+      Function<CopilotLanguageServer, CompletableFuture<CompletionResult>> completionRequest) {
+    AtomicReference<CompletableFuture<CompletionResult>> request = new AtomicReference<>();
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Function<LanguageServer, CompletableFuture<CompletionResult>> fn = server -> {
+      CompletableFuture<CompletionResult> future = completionRequest.apply((CopilotLanguageServer) server);
+      request.set(future);
+      if (cancelled.get()) {
+        future.cancel(true);
+      }
+      return future;
+    };
+    this.pendingCompletions.incrementAndGet();
+    CompletableFuture<CompletionResult> result = execute(method, fn);
+    // the future returned by the wrapper is composed on top of the server initialization, so cancelling it does not
+    // reach the request future created by LSP4J. Forward the cancellation explicitly, and on timeout as well.
+    result.whenComplete((r, ex) -> {
+      this.pendingCompletions.decrementAndGet();
+      if (result.isCancelled() || isTimeout(ex)) {
+        cancelled.set(true);
+        CompletableFuture<CompletionResult> future = request.get();
+        if (future != null) {
+          future.cancel(true);
+        }
+      }
+    });
+    return result;
   }
 
   /**
    * Update the configuration for the language server.
    */
   public void updateConfig(DidChangeConfigurationParams params) {
+    this.queryCache.invalidateAll();
     this.languageServerWrapper.sendNotification(server -> server.getWorkspaceService().didChangeConfiguration(params));
   }
 
@@ -150,7 +315,7 @@ public class CopilotLanguageServerConnection {
   public CompletableFuture<SignInInitiateResult> signInInitiate() {
     Function<LanguageServer, CompletableFuture<SignInInitiateResult>> fn = (server) -> ((CopilotLanguageServer) server)
         .signInInitiate(new NullParams());
-    return this.languageServerWrapper.execute(fn);
+    return execute("signInInitiate", fn);
   }
 
   /**
@@ -163,7 +328,7 @@ public class CopilotLanguageServerConnection {
       SignInConfirmParams param = new SignInConfirmParams(userCode);
       return ((CopilotLanguageServer) server).signInConfirm(param);
     };
-    return this.languageServerWrapper.execute(fn);
+    return execute("signInConfirm", fn).whenComplete((result, ex) -> this.queryCache.invalidateAll());
   }
 
   /**
@@ -174,40 +339,74 @@ public class CopilotLanguageServerConnection {
   public CompletableFuture<CopilotStatusResult> signOut() {
     Function<LanguageServer, CompletableFuture<CopilotStatusResult>> fn = (server) -> ((CopilotLanguageServer) server)
         .signOut(new NullParams());
-    return this.languageServerWrapper.execute(fn);
+    return execute("signOut", fn).whenComplete((result, ex) -> this.queryCache.invalidateAll());
   }
 
   /**
-   * Notify the language server that the completion was shown.
+   * Check if a completion request is waiting for the response of the language server.
+   */
+  boolean hasPendingCompletions() {
+    return this.pendingCompletions.get() > 0;
+  }
+
+  /**
+   * Notify the language server that the completion was shown. The notification is queued in the
+   * {@link TelemetryOutbox} and sent with its next batch.
    */
   public CompletableFuture<String> notifyShown(NotifyShownParams params) {
+    return this.telemetryOutbox.offerShown(params);
+  }
+
+  /**
+   * Report the next display of the given completions as shown again, since they are displayed anew, e.g. served from
+   * the completion cache. See {@link TelemetryOutbox#forgetShown(java.util.Collection)}.
+   */
+  public void forgetShown(List<String> uuids) {
+    this.telemetryOutbox.forgetShown(uuids);
+  }
+
+  /**
+   * Notify the language server that the completion was accepted. The notification is queued in the
+   * {@link TelemetryOutbox} and sent with its next batch.
+   */
+  public CompletableFuture<String> notifyAccepted(NotifyAcceptedParams params) {
+    return this.telemetryOutbox.offerAccepted(params);
+  }
+
+  /**
+   * Notify the language server that the completion was rejected. The notification is queued in the
+   * {@link TelemetryOutbox} and sent with its next batch.
+   */
+  public CompletableFuture<String> notifyRejected(NotifyRejectedParams params) {
+    return this.telemetryOutbox.offerRejected(params);
+  }
+
+  public TelemetryOutbox getTelemetryOutbox() {
+    return telemetryOutbox;
+  }
+
+  CompletableFuture<String> sendShown(NotifyShownParams params) {
     Function<LanguageServer, CompletableFuture<String>> fn = server -> ((CopilotLanguageServer) server)
         .notifyShown(params);
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("notifyShown", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
   }
 
-  /**
-   * Notify the language server that the completion was accepted.
-   */
-  public CompletableFuture<String> notifyAccepted(NotifyAcceptedParams params) {
+  CompletableFuture<String> sendAccepted(NotifyAcceptedParams params) {
     Function<LanguageServer, CompletableFuture<String>> fn = server -> ((CopilotLanguageServer) server)
         .notifyAccepted(params);
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("notifyAccepted", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
   }
 
-  /**
-   * Notify the language server that the completion was rejected.
-   */
-  public CompletableFuture<String> notifyRejected(NotifyRejectedParams params) {
+  CompletableFuture<String> sendRejected(NotifyRejectedParams params) {
     Function<LanguageServer, CompletableFuture<String>> fn = server -> ((CopilotLanguageServer) server)
         .notifyRejected(params);
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("notifyRejected", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
@@ -220,7 +419,7 @@ public class CopilotLanguageServerConnection {
     TelemetryExceptionParams telemParams = new TelemetryExceptionParams(ex);
     Function<LanguageServer, CompletableFuture<Object>> fn = server -> ((CopilotLanguageServer) server)
         .sendExceptionTelemetry(telemParams);
-    return this.languageServerWrapper.execute(fn).exceptionally(exception -> {
+    return execute("sendExceptionTelemetry", fn).exceptionally(exception -> {
       // Ignore exceptions to avoid infinite loop.
       return null;
     });
@@ -248,7 +447,10 @@ public class CopilotLanguageServerConnection {
       }
       return ((CopilotLanguageServer) server).create(param);
     };
-    return this.languageServerWrapper.execute(fn);
+    CompletableFuture<ChatCreateResult> result = execute("createConversation", fn);
+    // a chat turn consumes the quota.
+    result.whenComplete((r, ex) -> invalidateQuota());
+    return result;
   }
 
   /**
@@ -273,21 +475,26 @@ public class CopilotLanguageServerConnection {
       }
       return ((CopilotLanguageServer) server).addTurn(param);
     };
-    return this.languageServerWrapper.execute(fn);
+    CompletableFuture<ChatTurnResult> result = execute("addConversationTurn", fn);
+    // a chat turn consumes the quota.
+    result.whenComplete((r, ex) -> invalidateQuota());
+    return result;
   }
 
   /**
-   * List the conversation templates.
+   * List the conversation templates. Concurrent calls share one request, and the result is kept for a few minutes or
+   * until the feature flags change.
    */
   public CompletableFuture<ConversationTemplate[]> listConversationTemplates() {
     Function<LanguageServer, CompletableFuture<ConversationTemplate[]>> fn = server -> {
       return ((CopilotLanguageServer) server).listTemplates(new NullParams());
     };
-    return this.languageServerWrapper.execute(fn);
+    return this.queryCache.get(LIST_TEMPLATES, LIST_TTL_MILLIS, () -> execute("listConversationTemplates", fn));
   }
 
   /**
-   * List the conversation agents.
+   * List the conversation agents. The agents are created on each call since the callers update them, so they are not
+   * kept like the other lists.
    */
   public CompletableFuture<ConversationAgent[]> listConversationAgents() {
     Function<LanguageServer, CompletableFuture<ConversationAgent[]>> fn = server -> {
@@ -301,7 +508,7 @@ public class CopilotLanguageServerConnection {
 
       return CompletableFuture.completedFuture(new ConversationAgent[] { project });
     };
-    return this.languageServerWrapper.execute(fn);
+    return execute("listConversationAgents", fn);
   }
 
   /**
@@ -310,7 +517,7 @@ public class CopilotLanguageServerConnection {
   public CompletableFuture<String> codeCopy(ConversationCodeCopyParams params) {
     Function<LanguageServer, CompletableFuture<String>> fn = server -> ((CopilotLanguageServer) server)
         .copyCode(params);
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("codeCopy", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
@@ -322,7 +529,7 @@ public class CopilotLanguageServerConnection {
   public CompletableFuture<ChatPersistence> persistence() {
     Function<LanguageServer, CompletableFuture<ChatPersistence>> fn = server -> ((CopilotLanguageServer) server)
         .persistence(new NullParams());
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("persistence", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
@@ -334,20 +541,21 @@ public class CopilotLanguageServerConnection {
   public CompletableFuture<String> registerTools(RegisterToolsParams params) {
     Function<LanguageServer, CompletableFuture<String>> fn = server -> ((CopilotLanguageServer) server)
         .registerTools(params);
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("registerTools", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
   }
 
   /**
-   * List the copilot models.
+   * List the copilot models. Concurrent calls share one request, and the result is kept for a few minutes or until the
+   * feature flags change.
    */
   public CompletableFuture<CopilotModel[]> listModels() {
     Function<LanguageServer, CompletableFuture<CopilotModel[]>> fn = server -> {
       return ((CopilotLanguageServer) server).listModels(new NullParams());
     };
-    return this.languageServerWrapper.execute(fn);
+    return this.queryCache.get(LIST_MODELS, LIST_TTL_MILLIS, () -> execute("listModels", fn));
   }
 
   /**
@@ -358,7 +566,7 @@ public class CopilotLanguageServerConnection {
     Function<LanguageServer, CompletableFuture<List<McpServerToolsCollection>>> fn = 
         server -> ((CopilotLanguageServer) server).updateMcpToolsStatus(params);
     // @formatter:on
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("updateMcpToolsStatus", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
@@ -377,7 +585,7 @@ public class CopilotLanguageServerConnection {
   public CompletableFuture<String> notifyCodeAcceptance(NotifyCodeAcceptanceParams params) {
     Function<LanguageServer, CompletableFuture<String>> fn = server -> ((CopilotLanguageServer) server)
         .notifyCodeAcceptance(params);
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("notifyCodeAcceptance", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
@@ -391,7 +599,7 @@ public class CopilotLanguageServerConnection {
     Function<LanguageServer, CompletableFuture<GenerateCommitMessageResult>> fn =
         server -> ((CopilotLanguageServer) server).generateCommitMessage(params);
     // @formatter:on
-    return this.languageServerWrapper.execute(fn).exceptionally(ex -> {
+    return execute("generateCommitMessage", fn).exceptionally(ex -> {
       CopilotCore.LOGGER.error(ex);
       return null;
     });
@@ -401,6 +609,14 @@ public class CopilotLanguageServerConnection {
    * Stop the language server.
    */
   public void stop() {
+    this.telemetryOutbox.close();
+    if (this.queryCache.getSharedCount() > 0) {
+      CopilotCore.LOGGER.info(this.queryCache.toString());
+    }
+    this.queryCache.invalidateAll();
+    if (this.resiliencePolicy.getTimeoutCount() > 0) {
+      CopilotCore.LOGGER.info(this.resiliencePolicy.toString());
+    }
     this.languageServerWrapper.stop();
   }
 
@@ -9,7 +9,11 @@
 
 package org.eclipse.copilot.core.lsp;
 
+import java.util.function.Function;
+
 import org.eclipse.lsp4j.jsonrpc.Launcher;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.json.StreamMessageConsumer;
 import org.eclipse.lsp4j.services.LanguageServer;
 
 import org.eclipse.copilot.core.lsp.protocol.ChatProgressParamsAdapter;
@@ -26,6 +30,22 @@ public class CopilotLauncherBuilder<T extends LanguageServer> extends Launcher.B
   public CopilotLauncherBuilder() {
     this.configureGson(gsonBuilder -> gsonBuilder.registerTypeAdapterFactory(new ChatProgressParamsAdapter.Factory())
         .registerTypeAdapterFactory(new ChatReferenceTypeAdapter.Factory()));
+    super.wrapMessages(CopilotLauncherBuilder::coalesceDocumentChanges);
+  }
+
+  /**
+   * {@inheritDoc} The outgoing document changes are still coalesced when another wrapper is installed, e.g. by LSP4E
+   * to trace the messages.
+   */
+  @Override
+  public Launcher.Builder<T> wrapMessages(Function<MessageConsumer, MessageConsumer> wrapper) {
+    Function<MessageConsumer, MessageConsumer> coalescing = CopilotLauncherBuilder::coalesceDocumentChanges;
+    return super.wrapMessages(wrapper == null ? coalescing : wrapper.compose(coalescing));
   }
 
+  private static MessageConsumer coalesceDocumentChanges(MessageConsumer consumer) {
+    // the wrapper is applied to both the incoming and the outgoing messages, only the outgoing ones are written to the
+    // stream.
+    return consumer instanceof StreamMessageConsumer ? new DocumentChangeCoalescer(consumer) : consumer;
+  }
 }
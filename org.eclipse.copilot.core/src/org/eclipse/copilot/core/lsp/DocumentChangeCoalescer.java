@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+
+import org.eclipse.copilot.core.CopilotCore;
+
+/**
+ * Coalesces the <code>textDocument/didChange</code> notifications sent to the language server. LSP4E sends one
+ * notification per document change, so bulk edits like formatting, refactoring or agent file edits produce storms of
+ * notifications. Contiguous changes of the same document are merged into one notification, whose content changes are
+ * applied in order by the server, and sent after a short window. Any other message, e.g. a completion request, first
+ * flushes the pending changes, so the server always sees the document in the state the message was created for. The
+ * messages are queued in order and written outside the lock of the pending changes, so a slow write to the language
+ * server does not hold back the threads changing the documents.
+ */
+public class DocumentChangeCoalescer implements MessageConsumer {
+
+  static final String DID_CHANGE_METHOD = "textDocument/didChange";
+  static final long COALESCE_WINDOW_MILLIS = 50L;
+
+  private final MessageConsumer delegate;
+  private final Object lock = new Object();
+  private final Object writeLock = new Object();
+  private final Job flushJob;
+
+  private final Deque<Message> outgoingMessages = new ArrayDeque<>();
+
+  private NotificationMessage pendingMessage;
+  private DidChangeTextDocumentParams pendingParams;
+  private long receivedChangeCount;
+  private long sentChangeCount;
+
+  /**
+   * Creates a new DocumentChangeCoalescer.
+   *
+   * @param delegate the consumer writing the messages to the language server.
+   */
+  public DocumentChangeCoalescer(MessageConsumer delegate) {
+    this.delegate = delegate;
+    this.flushJob = Job.createSystem("Send document changes to Copilot", monitor -> flush());
+  }
+
+  @Override
+  public void consume(Message message) {
+    synchronized (lock) {
+      if (message instanceof NotificationMessage notification && DID_CHANGE_METHOD.equals(notification.getMethod())
+          && notification.getParams() instanceof DidChangeTextDocumentParams params) {
+        receivedChangeCount++;
+        if (pendingParams != null && !isSameDocument(pendingParams, params)) {
+          enqueuePendingChanges();
+        } else if (pendingParams != null) {
+          // merging does not write anything, so it never waits for a write in progress.
+          merge(pendingParams, params);
+          return;
+        }
+        pendingMessage = notification;
+        pendingParams = copy(params);
+        flushJob.schedule(COALESCE_WINDOW_MILLIS);
+        if (outgoingMessages.isEmpty()) {
+          return;
+        }
+      } else {
+        enqueuePendingChanges();
+        outgoingMessages.addLast(message);
+      }
+    }
+    writeOutgoingMessages();
+  }
+
+  /**
+   * Send the pending document changes now.
+   */
+  public void flush() {
+    synchronized (lock) {
+      enqueuePendingChanges();
+    }
+    writeOutgoingMessages();
+  }
+
+  private void enqueuePendingChanges() {
+    if (pendingParams == null) {
+      return;
+    }
+    NotificationMessage message = pendingMessage;
+    message.setParams(pendingParams);
+    pendingMessage = null;
+    pendingParams = null;
+    sentChangeCount++;
+    outgoingMessages.addLast(message);
+  }
+
+  /**
+   * Write the queued messages in order. A thread whose message is being written by another thread waits until it is
+   * written, so the message is sent when {@link #consume(Message)} returns.
+   */
+  private void writeOutgoingMessages() {
+    synchronized (writeLock) {
+      while (true) {
+        Message message;
+        synchronized (lock) {
+          message = outgoingMessages.pollFirst();
+        }
+        if (message == null) {
+          return;
+        }
+        write(message);
+      }
+    }
+  }
+
+  private void write(Message message) {
+    try {
+      delegate.consume(message);
+    } catch (RuntimeException e) {
+      if (!(message instanceof NotificationMessage notification)
+          || !DID_CHANGE_METHOD.equals(notification.getMethod())) {
+        throw e;
+      }
+      // the connection is closed, the language server will get the document again when it is reconnected.
+      CopilotCore.LOGGER.error("Failed to send the document changes", e);
+    }
+  }
+
+  private static boolean isSameDocument(DidChangeTextDocumentParams a, DidChangeTextDocumentParams b) {
+    return Objects.equals(a.getTextDocument().getUri(), b.getTextDocument().getUri());
+  }
+
+  private static DidChangeTextDocumentParams copy(DidChangeTextDocumentParams params) {
+    VersionedTextDocumentIdentifier identifier = new VersionedTextDocumentIdentifier(params.getTextDocument().getUri(),
+        params.getTextDocument().getVersion());
+    return new DidChangeTextDocumentParams(identifier, new ArrayList<>(params.getContentChanges()));
+  }
+
+  private static void merge(DidChangeTextDocumentParams pending, DidChangeTextDocumentParams params) {
+    pending.getTextDocument().setVersion(params.getTextDocument().getVersion());
+    List<TextDocumentContentChangeEvent> changes = pending.getContentChanges();
+    for (TextDocumentContentChangeEvent change : params.getContentChanges()) {
+      if (change.getRange() == null) {
+        // a full content change replaces everything sent before it.
+        changes.clear();
+      }
+      changes.add(change);
+    }
+  }
+
+  /**
+   * Get the number of <code>textDocument/didChange</code> notifications received from LSP4E.
+   */
+  public long getReceivedChangeCount() {
+    synchronized (lock) {
+      return receivedChangeCount;
+    }
+  }
+
+  /**
+   * Get the number of <code>textDocument/didChange</code> notifications sent to the language server.
+   */
+  public long getSentChangeCount() {
+    synchronized (lock) {
+      return sentChangeCount;
+    }
+  }
+}
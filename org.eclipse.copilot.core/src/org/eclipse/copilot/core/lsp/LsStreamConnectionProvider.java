@@ -39,6 +39,7 @@ import org.eclipse.lsp4e.server.ProcessStreamConnectionProvider;
 
 import org.eclipse.copilot.core.CopilotCore;
 import org.eclipse.copilot.core.FeatureFlags;
+import org.eclipse.copilot.core.lsp.RuntimeDiscoveryCache.AgentMode;
 import org.eclipse.copilot.core.lsp.protocol.CopilotCapabilities;
 import org.eclipse.copilot.core.lsp.protocol.InitializationOptions;
 import org.eclipse.copilot.core.lsp.protocol.NameAndVersion;
@@ -52,6 +53,12 @@ public class LsStreamConnectionProvider extends ProcessStreamConnectionProvider
   public static final String EDITOR_NAME = "Eclipse";
   public static final String EDITOR_PLUGIN_NAME = "copilot-eclipse";
 
+  /**
+   * The login shell environment, harvested once per session since it spawns a login shell. It is not persisted, since
+   * it may hold secrets and changes with the shell profile.
+   */
+  private static Map<String, String> loginShellEnvironment;
+
   @Override
   public Object getInitializationOptions(@Nullable URI rootUri) {
     NameAndVersion editorInfo = new NameAndVersion(EDITOR_NAME, PlatformUtils.getEclipseVersion());
@@ -61,31 +68,81 @@ public class LsStreamConnectionProvider extends ProcessStreamConnectionProvider
     return new InitializationOptions(editorInfo, editorPluginInfo, capabilities);
   }
 
+  /**
+   * Start the language server. The agent which started last time is tried first, so the native binary is not spawned
+   * again when it failed to start before, see {@link RuntimeDiscoveryCache}.
+   */
   @Override
   public void start() throws IOException {
+    RuntimeDiscoveryCache cache = CopilotCore.getPlugin().getRuntimeDiscoveryCache();
+    if (cache.getAgentMode() == AgentMode.JS) {
+      try {
+        startJsLspAgent();
+        CopilotCore.LOGGER.info("Lsp agent started successfully.");
+        return;
+      } catch (IOException e) {
+        CopilotCore.LOGGER.error("Cached JS agent start failed. Discovering the runtime again.", e);
+        cache.invalidate();
+      }
+    }
     try {
       startBinaryLspAgent();
+      cache.putAgentMode(AgentMode.BINARY);
     } catch (Exception e) {
-      startJsLspAgent(e);
+      CopilotCore.LOGGER.error("Binary LSP agent start failed. Retrying with JS agent.", e);
+      startJsLspAgent();
+      cache.putAgentMode(AgentMode.JS);
     }
     CopilotCore.LOGGER.info("Lsp agent started successfully.");
   }
 
+  /**
+   * Discover the runtime of the agent ahead of the start of the language server, so that the start only revalidates
+   * the {@link RuntimeDiscoveryCache}. Only the JavaScript agent needs a runtime, i.e. Node.js, which is discovered if
+   * that agent started last time.
+   */
+  public static void discoverRuntime() {
+    if (isRuntimeDiscoveryNeeded()) {
+      NodeJsManager.getNodeJsLocation();
+    }
+  }
+
+  /**
+   * Check if the runtime of the agent has to be discovered before the language server is started, i.e. if the
+   * JavaScript agent started last time. Otherwise the native binary is started first, which needs no runtime.
+   */
+  public static boolean isRuntimeDiscoveryNeeded() {
+    RuntimeDiscoveryCache cache = CopilotCore.getPlugin().getRuntimeDiscoveryCache();
+    return cache.getAgentMode() == AgentMode.JS && isNodeJsManagerAvailable();
+  }
+
   @Override
   protected ProcessBuilder createProcessBuilder() {
     ProcessBuilder pb = super.createProcessBuilder();
-    pb.environment().putAll(getLoginShellEnvironment());
+    pb.environment().putAll(getCachedLoginShellEnvironment());
     return pb;
   }
 
+  private static synchronized Map<String, String> getCachedLoginShellEnvironment() {
+    if (loginShellEnvironment != null) {
+      return loginShellEnvironment;
+    }
+    Map<String, String> env = getLoginShellEnvironment();
+    // a failed harvest is tried again on the next start.
+    if (!env.isEmpty()) {
+      loginShellEnvironment = env;
+    }
+    return env;
+  }
+
   private void startBinaryLspAgent() throws IOException {
     CopilotCore.LOGGER.info("Starting language server with binary lsp agent.");
     this.setCommands(getBinaryLspCommands());
     super.start();
   }
 
-  private void startJsLspAgent(Exception e) throws IOException {
-    CopilotCore.LOGGER.error("Binary LSP agent start failed. Retrying with JS agent.", e);
+  private void startJsLspAgent() throws IOException {
+    CopilotCore.LOGGER.info("Starting language server with JS lsp agent.");
     this.setCommands(getJavaScriptCommands());
     super.start();
   }
@@ -150,10 +207,7 @@ public class LsStreamConnectionProvider extends ProcessStreamConnectionProvider
   }
 
   private @Nullable String findNodeAbsolutePath() throws IOException {
-    try {
-      // The 'wildwebdeveloper' bundle is optional for Eclipse. Ensure it is available before attempting to use it.
-      Class.forName("org.eclipse.wildwebdeveloper.embedder.node.NodeJSManager");
-    } catch (ClassNotFoundException | NoClassDefFoundError e) {
+    if (!isNodeJsManagerAvailable()) {
       CopilotCore.LOGGER
           .info("Get JavaScript commands aborted. org.eclipse.wildwebdeveloper.embedder.node.NodeJSManager not found.");
       return null;
@@ -165,6 +219,16 @@ public class LsStreamConnectionProvider extends ProcessStreamConnectionProvider
     return nodeJsLocation.getAbsolutePath();
   }
 
+  private static boolean isNodeJsManagerAvailable() {
+    try {
+      // The 'wildwebdeveloper' bundle is optional for Eclipse. Ensure it is available before attempting to use it.
+      Class.forName("org.eclipse.wildwebdeveloper.embedder.node.NodeJSManager");
+      return true;
+    } catch (ClassNotFoundException | NoClassDefFoundError e) {
+      return false;
+    }
+  }
+
   private @Nullable String findJavaScriptLanguageServerPath() throws IOException {
     Path distPath = findAgentDistDirectoryPath();
 
@@ -241,7 +305,7 @@ public class LsStreamConnectionProvider extends ProcessStreamConnectionProvider
    * Get the login shell environment variables on MacOS. Otherwise, some of the mcp server cannot be started due to
    * missing environment variables.
    */
-  private Map<String, String> getLoginShellEnvironment() {
+  private static Map<String, String> getLoginShellEnvironment() {
     Map<String, String> env = new HashMap<>();
     if (!PlatformUtils.isMac()) {
       return env;
@@ -277,7 +341,7 @@ public class LsStreamConnectionProvider extends ProcessStreamConnectionProvider
     return env;
   }
 
-  private Map<String, String> getEnvironmentVariables(Process process) throws InterruptedException {
+  private static Map<String, String> getEnvironmentVariables(Process process) throws InterruptedException {
     // Create a separate thread to read the process output with a timeout, this avoids blocking the original thread
     ExecutorService executor = Executors.newSingleThreadExecutor();
     Future<Map<String, String>> future = executor.submit(() -> {
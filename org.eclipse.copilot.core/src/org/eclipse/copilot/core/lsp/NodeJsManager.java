@@ -27,6 +27,8 @@ import org.eclipse.osgi.service.datalocation.Location;
 import org.eclipse.wildwebdeveloper.embedder.node.Activator;
 import org.eclipse.wildwebdeveloper.embedder.node.CompressUtils;
 
+import org.eclipse.copilot.core.CopilotCore;
+
 /**
  * Utility class to manage Node.js installation.
  */
@@ -47,6 +49,8 @@ public class NodeJsManager {
 
   private static final String NODE_NAME = "node";
 
+  private static final String NODE_JS_LOCATION_PROPERTY = "org.eclipse.wildwebdeveloper.nodeJSLocation";
+
   private static Properties cachedNodeJsInfoProperties;
   private static final Object EXPAND_LOCK = new Object();
 
@@ -59,41 +63,61 @@ public class NodeJsManager {
    * <li>WWD Node bundle configuration location</li>
    * <li>OS dependent default installation path</li>
    * </ul>
+   * The executable found by a previous start is used at once if it did not change, see {@link RuntimeDiscoveryCache}.
    *
    * @return The file for Node.js executable or null if it cannot be installed.
    */
   public static File getNodeJsLocation() {
-    File nodeJsLocation = getNodeJsFromSystemProperty();
-    if (nodeJsLocation != null) {
-      return nodeJsLocation;
+    CopilotCore plugin = CopilotCore.getPlugin();
+    return getNodeJsLocation(plugin == null ? null : plugin.getRuntimeDiscoveryCache());
+  }
+
+  static File getNodeJsLocation(RuntimeDiscoveryCache cache) {
+    String nodeJsLocationProperty = System.getProperty(NODE_JS_LOCATION_PROPERTY);
+    if (cache != null) {
+      File cached = cache.getNodeJs(nodeJsLocationProperty);
+      if (cached != null) {
+        CopilotCore.LOGGER.info("Using the cached Node.js " + cache.getNodeJsVersion() + ": " + cached);
+        return cached;
+      }
+    }
+    NodeJs nodeJs = discoverNodeJs(nodeJsLocationProperty);
+    if (nodeJs == null) {
+      return null;
+    }
+    if (cache != null) {
+      cache.putNodeJs(nodeJs.location(), nodeJs.version(), nodeJsLocationProperty);
     }
+    return nodeJs.location();
+  }
 
-    nodeJsLocation = getNodeJsFromInfoProperties();
-    if (nodeJsLocation != null) {
-      return nodeJsLocation;
+  private static NodeJs discoverNodeJs(String nodeJsLocationProperty) {
+    NodeJs nodeJs = getNodeJsFromSystemProperty(nodeJsLocationProperty);
+    if (nodeJs != null) {
+      return nodeJs;
     }
 
-    nodeJsLocation = getNodeJsFromWhich();
-    if (nodeJsLocation != null) {
-      return nodeJsLocation;
+    nodeJs = getNodeJsFromInfoProperties();
+    if (nodeJs != null) {
+      return nodeJs;
     }
 
-    return getNodeFromDefaultLocation();
+    nodeJs = getNodeJsFromWhich();
+    if (nodeJs != null) {
+      return nodeJs;
+    }
 
+    return getNodeFromDefaultLocation();
   }
 
-  private static File getNodeJsFromSystemProperty() {
-    String nodeJsLocation = System.getProperty("org.eclipse.wildwebdeveloper.nodeJSLocation");
+  private static NodeJs getNodeJsFromSystemProperty(String nodeJsLocation) {
     if (nodeJsLocation != null) {
-      File nodejs = new File(nodeJsLocation);
-      if (validateNodeVersion(nodejs)) {
-        return nodejs;
-      }
+      return validateNodeVersion(new File(nodeJsLocation));
     }
     return null;
   }
 
-  private static File getNodeJsFromInfoProperties() {
+  private static NodeJs getNodeJsFromInfoProperties() {
     Properties properties = getNodeJsInfoProperties();
     File nodeJsLocation = null;
     if (properties != null) {
@@ -127,18 +151,15 @@ public class NodeJsManager {
       }
     }
 
-    if (validateNodeVersion(nodeJsLocation)) {
-      return nodeJsLocation;
-    }
-    return null;
+    return validateNodeVersion(nodeJsLocation);
   }
 
-  private static File getNodeJsFromWhich() {
+  private static NodeJs getNodeJsFromWhich() {
     String[] paths = System.getenv("PATH").split(System.getProperty("path.separator"));
     for (String path : paths) {
-      File exe = new File(path, NODE_NAME);
-      if (validateNodeVersion(exe)) {
-        return exe;
+      NodeJs nodeJs = validateNodeVersion(new File(path, NODE_NAME));
+      if (nodeJs != null) {
+        return nodeJs;
       }
     }
 
@@ -150,19 +171,11 @@ public class NodeJsManager {
     }
     String res = executeCommand(command);
     File nodeJsLocation = res != null ? new File(res) : null;
-    if (validateNodeVersion(nodeJsLocation)) {
-      return nodeJsLocation;
-    }
-
-    return null;
+    return validateNodeVersion(nodeJsLocation);
   }
 
-  private static File getNodeFromDefaultLocation() {
-    File nodeJsLocation = getDefaultNodePath();
-    if (validateNodeVersion(nodeJsLocation)) {
-      return nodeJsLocation;
-    }
-    return null;
+  private static NodeJs getNodeFromDefaultLocation() {
+    return validateNodeVersion(getDefaultNodePath());
   }
 
   private static Properties getNodeJsInfoProperties() {
@@ -265,18 +278,24 @@ public class NodeJsManager {
     //@formatter:on
   }
 
-  private static boolean validateNodeVersion(File nodeJsLocation) {
+  /**
+   * Check that the executable is a Node.js of the required version.
+   *
+   * @return the executable and its version, or null if it is not valid.
+   */
+  private static NodeJs validateNodeVersion(File nodeJsLocation) {
     if (nodeJsLocation == null || !nodeJsLocation.exists() || !nodeJsLocation.canExecute()) {
-      return false;
+      return null;
     }
     String[] nodeVersionCommand = { nodeJsLocation.getAbsolutePath(), "-v" };
     String nodeVersion = executeCommand(nodeVersionCommand);
 
     if (nodeVersion == null) {
-      return false;
+      return null;
     }
 
     // Parse version string (format is typically "v12.18.3")
+    String version = nodeVersion;
     if (nodeVersion.startsWith("v")) {
       nodeVersion = nodeVersion.substring(1); // Remove 'v' prefix
     }
@@ -284,11 +303,11 @@ public class NodeJsManager {
     try {
       String majorVersionStr = nodeVersion.split("\\.")[0];
       int majorVersion = Integer.parseInt(majorVersionStr);
-      return majorVersion >= REQUIRED_MINIMUM_VERSION;
+      return majorVersion >= REQUIRED_MINIMUM_VERSION ? new NodeJs(nodeJsLocation, version) : null;
     } catch (Exception e) {
       Activator.getDefault().getLog().log(new Status(IStatus.ERROR,
           Activator.getDefault().getBundle().getSymbolicName(), "Failed to parse Node.js version: " + nodeVersion, e));
-      return false;
+      return null;
     }
   }
 
@@ -309,4 +328,10 @@ public class NodeJsManager {
     }
     return result;
   }
+
+  /**
+   * A Node.js executable and the version it reported.
+   */
+  private record NodeJs(File location, String version) {
+  }
 }
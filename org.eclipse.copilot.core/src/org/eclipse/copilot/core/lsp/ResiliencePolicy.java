@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.eclipse.copilot.core.CopilotCore;
+
+/**
+ * The resilience policy of the requests to the language server. Each method can have a timeout, after which its
+ * request fails, so that no thread stays blocked on a wedged or restarting language server. A circuit breaker opens
+ * after consecutive timeouts, and the requests with a timeout then fail at once instead of piling up. Once the backoff
+ * elapses, a single request of each method is let through as a probe, so that a slow probe of another method does not
+ * hold back e.g. the completions: the circuit closes if a probe is answered, and opens again with a doubled backoff if
+ * one times out. The requests without a timeout, e.g. the chat turns, are not subject to the circuit, but their answers
+ * close it.
+ *
+ * <p>The timeouts have the form <code>method=millis,...</code>, where the method is the name of the method of the
+ * {@link CopilotLanguageServerConnection}. A method which is missing from the configured timeouts, or configured with a
+ * timeout of <code>0</code> or a malformed one, falls back to its timeout in {@link #DEFAULT_TIMEOUTS}. A method
+ * without a default timeout waits for the answer.
+ */
+public class ResiliencePolicy {
+
+  /**
+   * The timeouts used when none are configured.
+   */
+  public static final String DEFAULT_TIMEOUTS = "getCompletions=5000,getCompletionsCycling=5000,checkStatus=30000,"
+      + "checkQuota=30000,listModels=30000,listConversationTemplates=30000,persistence=30000,registerTools=30000";
+
+  static final int FAILURE_THRESHOLD = 3;
+  static final long INITIAL_BACKOFF_MILLIS = 2000L;
+  static final long MAX_BACKOFF_MILLIS = 60000L;
+
+  private static final Map<String, Long> DEFAULT_TIMEOUT_MILLIS = parseTimeouts(DEFAULT_TIMEOUTS);
+
+  /**
+   * The state of the circuit.
+   */
+  public enum State {
+    /**
+     * The requests are sent.
+     */
+    CLOSED,
+    /**
+     * The requests with a timeout fail at once until the backoff elapses.
+     */
+    OPEN,
+    /**
+     * Probes are in flight, the other requests with a timeout of their methods fail at once.
+     */
+    HALF_OPEN
+  }
+
+  private final Supplier<String> timeoutsSupplier;
+  private final LongSupplier clock;
+
+  private String timeoutsSource;
+  private Map<String, Long> timeouts = Collections.emptyMap();
+
+  private State state = State.CLOSED;
+  private final Set<String> probingMethods = new HashSet<>();
+  private int consecutiveTimeouts;
+  private long backoffMillis = INITIAL_BACKOFF_MILLIS;
+  private long openUntil;
+  private long timeoutCount;
+  private long rejectedCount;
+  private long openedCount;
+
+  /**
+   * Creates a new ResiliencePolicy.
+   *
+   * @param timeoutsSupplier supplies the configured timeouts, read on each request so a preference change applies at
+   *     once.
+   */
+  public ResiliencePolicy(Supplier<String> timeoutsSupplier) {
+    this(timeoutsSupplier, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+  }
+
+  /**
+   * Creates a new ResiliencePolicy with the given clock in milliseconds.
+   */
+  ResiliencePolicy(Supplier<String> timeoutsSupplier, LongSupplier clock) {
+    this.timeoutsSupplier = timeoutsSupplier;
+    this.clock = clock;
+  }
+
+  /**
+   * Get the timeout of a method.
+   *
+   * @return the timeout in milliseconds, or <code>0</code> if the method has no timeout, configured or default, and
+   *     waits for the answer.
+   */
+  public synchronized long getTimeoutMillis(String method) {
+    String source = this.timeoutsSupplier.get();
+    if (!StringUtils.equals(source, this.timeoutsSource)) {
+      this.timeouts = parseTimeouts(source);
+      this.timeoutsSource = source;
+    }
+    long timeout = this.timeouts.getOrDefault(method, 0L);
+    return timeout > 0 ? timeout : DEFAULT_TIMEOUT_MILLIS.getOrDefault(method, 0L);
+  }
+
+  /**
+   * Parse the timeouts. Malformed entries are logged and ignored.
+   */
+  static Map<String, Long> parseTimeouts(String source) {
+    Map<String, Long> result = new HashMap<>();
+    if (StringUtils.isBlank(source)) {
+      return result;
+    }
+    for (String entry : source.split(",")) {
+      String[] methodAndTimeout = entry.split("=", 2);
+      try {
+        result.put(methodAndTimeout[0].strip(), Math.max(0, Long.parseLong(methodAndTimeout[1].strip())));
+      } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+        CopilotCore.LOGGER.info("Ignoring malformed language server timeout: " + entry);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Check if a request of the method can be sent. While the circuit is open, the requests with a timeout are rejected,
+   * except the first one of each method after the backoff, which is sent as a probe.
+   *
+   * @return <code>false</code> if the request must fail at once.
+   */
+  public synchronized boolean tryAcquire(String method) {
+    if (this.state == State.CLOSED || getTimeoutMillis(method) == 0) {
+      return true;
+    }
+    if (this.state == State.OPEN && this.clock.getAsLong() >= this.openUntil) {
+      this.state = State.HALF_OPEN;
+    }
+    if (this.state == State.HALF_OPEN && this.probingMethods.add(method)) {
+      return true;
+    }
+    this.rejectedCount++;
+    return false;
+  }
+
+  /**
+   * Record that a request was answered, with a result or an error. The language server is responsive, so the circuit
+   * closes.
+   */
+  public synchronized void recordSuccess() {
+    this.consecutiveTimeouts = 0;
+    this.backoffMillis = INITIAL_BACKOFF_MILLIS;
+    this.probingMethods.clear();
+    if (this.state != State.CLOSED) {
+      this.state = State.CLOSED;
+      CopilotCore.LOGGER.info("The language server is responding again, the requests are sent again");
+    }
+  }
+
+  /**
+   * Record that a request timed out. The circuit opens after consecutive timeouts, or again with a doubled backoff if
+   * the request was a probe.
+   */
+  public synchronized void recordTimeout(String method) {
+    this.timeoutCount++;
+    if (this.state == State.HALF_OPEN) {
+      open(Math.min(this.backoffMillis * 2, MAX_BACKOFF_MILLIS), method);
+    } else if (this.state == State.CLOSED && ++this.consecutiveTimeouts >= FAILURE_THRESHOLD) {
+      open(INITIAL_BACKOFF_MILLIS, method);
+    }
+  }
+
+  /**
+   * Record that a request of the method was cancelled before it was answered. A cancelled probe tells nothing about the
+   * language server, so the next request of the method is sent as a probe.
+   */
+  public synchronized void recordCancelled(String method) {
+    if (this.state == State.HALF_OPEN && this.probingMethods.remove(method) && this.probingMethods.isEmpty()) {
+      this.state = State.OPEN;
+      this.openUntil = this.clock.getAsLong();
+    }
+  }
+
+  private void open(long backoff, String method) {
+    this.state = State.OPEN;
+    this.probingMethods.clear();
+    this.backoffMillis = backoff;
+    this.openUntil = this.clock.getAsLong() + backoff;
+    this.openedCount++;
+    CopilotCore.LOGGER.info("The language server did not answer " + method + " in time, the requests fail for "
+        + backoff + " milliseconds");
+  }
+
+  /**
+   * Check if a request of the method would fail at once, i.e. the circuit is open and its backoff has not elapsed, or a
+   * probe of the method is in flight. A probe of another method does not hold back the requests of this one, which are
+   * sent as probes themselves.
+   */
+  public synchronized boolean isOpen(String method) {
+    if (getTimeoutMillis(method) == 0) {
+      return false;
+    }
+    return (this.state == State.HALF_OPEN && this.probingMethods.contains(method))
+        || (this.state == State.OPEN && this.clock.getAsLong() < this.openUntil);
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * Get the number of requests which timed out.
+   */
+  public synchronized long getTimeoutCount() {
+    return timeoutCount;
+  }
+
+  /**
+   * Get the number of requests which failed at once because the circuit was open.
+   */
+  public synchronized long getRejectedCount() {
+    return rejectedCount;
+  }
+
+  /**
+   * Get the number of times the circuit opened.
+   */
+  public synchronized long getOpenedCount() {
+    return openedCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Language server requests: %d timed out, %d rejected, circuit opened %d times",
+        getTimeoutCount(), getRejectedCount(), getOpenedCount());
+  }
+}
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.eclipse.jdt.annotation.Nullable;
+
+import org.eclipse.copilot.core.CopilotCore;
+
+/**
+ * Persists the outcome of the discovery of the language server runtime across restarts, i.e. the Node.js executable
+ * and its version, and whether the native or the JavaScript agent was started. Finding Node.js spawns a process per
+ * candidate, which dominates the cold start on machines where each process spawn is scanned. A cached Node.js is
+ * revalidated by a stat of the executable instead: it is used only if it still exists with the same modification time
+ * and size. The cache is dropped when the plugin is updated, since the agents are shipped with it.
+ */
+public class RuntimeDiscoveryCache {
+
+  /**
+   * The version of the persisted cache, to be increased when its format changes incompatibly.
+   */
+  public static final int SCHEMA_VERSION = 1;
+
+  private static final Gson GSON = new GsonBuilder().create();
+
+  /**
+   * The agent started for the language server.
+   */
+  public enum AgentMode {
+    /**
+     * The native binary of the language server.
+     */
+    BINARY,
+    /**
+     * The JavaScript language server run by Node.js.
+     */
+    JS
+  }
+
+  private final Path file;
+  private final String pluginVersion;
+  private Entry entry;
+  private boolean loaded;
+
+  /**
+   * Creates a new RuntimeDiscoveryCache.
+   *
+   * @param file the file where the cache is persisted.
+   * @param pluginVersion the version of the plugin, the cache of another version is ignored.
+   */
+  public RuntimeDiscoveryCache(Path file, String pluginVersion) {
+    this.file = file;
+    this.pluginVersion = pluginVersion;
+  }
+
+  /**
+   * Get the cached Node.js executable.
+   *
+   * @param nodeJsLocationProperty the Node.js location configured by system property, if any. The cached executable
+   *     is not used if it was discovered with another configured location.
+   * @return the executable, or <code>null</code> if none is cached or the executable changed since.
+   */
+  public synchronized @Nullable File getNodeJs(@Nullable String nodeJsLocationProperty) {
+    Entry current = load();
+    if (current == null || current.nodePath == null
+        || !Objects.equals(current.nodeJsLocationProperty, nodeJsLocationProperty)) {
+      return null;
+    }
+    File node = new File(current.nodePath);
+    if (!node.isFile() || !node.canExecute() || node.lastModified() != current.nodeModified
+        || node.length() != current.nodeSize) {
+      CopilotCore.LOGGER.info("The cached Node.js changed, discovering it again: " + current.nodePath);
+      return null;
+    }
+    return node;
+  }
+
+  /**
+   * Get the version of the cached Node.js executable.
+   */
+  public synchronized @Nullable String getNodeJsVersion() {
+    Entry current = load();
+    return current == null ? null : current.nodeVersion;
+  }
+
+  /**
+   * Cache the discovered Node.js executable.
+   *
+   * @param node the executable.
+   * @param version the version reported by the executable.
+   * @param nodeJsLocationProperty the Node.js location configured by system property when it was discovered.
+   */
+  public synchronized void putNodeJs(File node, String version, @Nullable String nodeJsLocationProperty) {
+    Entry current = loadOrCreate();
+    current.nodePath = node.getAbsolutePath();
+    current.nodeVersion = version;
+    current.nodeModified = node.lastModified();
+    current.nodeSize = node.length();
+    current.nodeJsLocationProperty = nodeJsLocationProperty;
+    write(current);
+  }
+
+  /**
+   * Get the agent started last time.
+   *
+   * @return the agent, or <code>null</code> if not known for this version of the plugin.
+   */
+  public synchronized @Nullable AgentMode getAgentMode() {
+    Entry current = load();
+    return current == null ? null : current.agentMode;
+  }
+
+  /**
+   * Cache the started agent.
+   */
+  public synchronized void putAgentMode(AgentMode agentMode) {
+    Entry current = loadOrCreate();
+    if (current.agentMode == agentMode) {
+      return;
+    }
+    current.agentMode = agentMode;
+    write(current);
+  }
+
+  /**
+   * Forget the cache, e.g. when the cached runtime fails to start, so the next start discovers it again.
+   */
+  public synchronized void invalidate() {
+    this.entry = null;
+    this.loaded = true;
+    try {
+      Files.deleteIfExists(this.file);
+    } catch (IOException e) {
+      CopilotCore.LOGGER.error("Failed to delete the runtime discovery cache", e);
+    }
+  }
+
+  private @Nullable Entry load() {
+    if (!this.loaded) {
+      this.entry = read();
+      this.loaded = true;
+    }
+    return this.entry;
+  }
+
+  private Entry loadOrCreate() {
+    Entry current = load();
+    if (current == null) {
+      current = new Entry();
+      current.schemaVersion = SCHEMA_VERSION;
+      current.pluginVersion = this.pluginVersion;
+      this.entry = current;
+    }
+    return current;
+  }
+
+  private @Nullable Entry read() {
+    if (!Files.isReadable(this.file)) {
+      return null;
+    }
+    try {
+      Entry result = GSON.fromJson(Files.readString(this.file, StandardCharsets.UTF_8), Entry.class);
+      if (result == null || result.schemaVersion != SCHEMA_VERSION
+          || !Objects.equals(result.pluginVersion, this.pluginVersion)) {
+        return null;
+      }
+      return result;
+    } catch (IOException | JsonParseException e) {
+      CopilotCore.LOGGER.error("Failed to read the runtime discovery cache, the runtime will be discovered again.", e);
+      return null;
+    }
+  }
+
+  private void write(Entry current) {
+    Path tempFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(this.file.getParent());
+      Files.writeString(tempFile, GSON.toJson(current), StandardCharsets.UTF_8);
+      try {
+        Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      CopilotCore.LOGGER.error("Failed to write the runtime discovery cache", e);
+    }
+  }
+
+  /**
+   * The persisted content of the cache.
+   */
+  private static class Entry {
+    private int schemaVersion;
+    private String pluginVersion;
+    private String nodePath;
+    private String nodeVersion;
+    private long nodeModified;
+    private long nodeSize;
+    private String nodeJsLocationProperty;
+    private AgentMode agentMode;
+  }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of idempotent language server queries. Concurrent callers of a query share its in-flight request
+ * instead of sending their own, and the result is kept for a time to live given per query, so the repeated checks of
+ * the UI, e.g. the status or the quota when a menu opens, are answered without a round trip. Failed requests are not
+ * kept, and a query can be invalidated when the language server notifies a change.
+ *
+ * <p>The callers get a copy of the shared future, so cancelling it does not cancel the request of the other callers.
+ */
+public class SingleFlightCache {
+
+  /**
+   * The separator between the query name and its arguments in a key.
+   */
+  public static final String KEY_SEPARATOR = ":";
+
+  private final LongSupplier clock;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private long loadCount;
+  private long sharedCount;
+
+  /**
+   * Creates a new SingleFlightCache.
+   */
+  public SingleFlightCache() {
+    this(() -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+  }
+
+  /**
+   * Creates a new SingleFlightCache with the given clock in milliseconds.
+   */
+  SingleFlightCache(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Get the key of a query with arguments.
+   */
+  public static String key(String query, Object... args) {
+    StringBuilder builder = new StringBuilder(query);
+    for (Object arg : args) {
+      builder.append(KEY_SEPARATOR).append(arg);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Get the result of a query, from the in-flight request or the kept result if any, or from a new request otherwise.
+   *
+   * @param key the key of the query, see {@link #key(String, Object...)}.
+   * @param ttlMillis how long the result is kept after the request completes, <code>0</code> to only share the
+   *     in-flight request.
+   * @param loader sends the request to the language server.
+   * @return a copy of the future of the shared request.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> get(String key, long ttlMillis, Supplier<CompletableFuture<T>> loader) {
+    Entry entry;
+    synchronized (this) {
+      entry = this.entries.get(key);
+      if (entry != null && isValid(entry, ttlMillis)) {
+        this.sharedCount++;
+        return ((CompletableFuture<T>) entry.future).copy();
+      }
+      entry = new Entry(new CompletableFuture<T>());
+      this.entries.put(key, entry);
+      this.loadCount++;
+    }
+    CompletableFuture<T> request;
+    try {
+      request = loader.get();
+    } catch (RuntimeException e) {
+      request = CompletableFuture.failedFuture(e);
+    }
+    Entry loadingEntry = entry;
+    CompletableFuture<T> future = (CompletableFuture<T>) entry.future;
+    request.whenComplete((result, ex) -> {
+      // the entry is updated before the future completes, so a caller never sees a completed future without the time
+      // it completed at.
+      synchronized (this) {
+        if (this.entries.get(key) == loadingEntry) {
+          if (ex != null) {
+            this.entries.remove(key);
+          } else {
+            loadingEntry.completedAt = this.clock.getAsLong();
+          }
+        }
+      }
+      if (ex != null) {
+        future.completeExceptionally(ex);
+      } else {
+        future.complete(result);
+      }
+    });
+    return future.copy();
+  }
+
+  private boolean isValid(Entry entry, long ttlMillis) {
+    if (!entry.future.isDone()) {
+      return true;
+    }
+    return entry.completedAt >= 0 && this.clock.getAsLong() - entry.completedAt < ttlMillis;
+  }
+
+  /**
+   * Forget the results of the given queries, whatever their arguments. A request in flight still completes for its
+   * callers, but the next caller sends a new request.
+   */
+  public synchronized void invalidate(String... queries) {
+    for (String query : queries) {
+      this.entries.keySet().removeIf(key -> key.equals(query) || key.startsWith(query + KEY_SEPARATOR));
+    }
+  }
+
+  /**
+   * Forget the results of all the queries.
+   */
+  public synchronized void invalidateAll() {
+    this.entries.clear();
+  }
+
+  /**
+   * Get the number of requests sent to the language server.
+   */
+  public synchronized long getLoadCount() {
+    return this.loadCount;
+  }
+
+  /**
+   * Get the number of queries answered from an in-flight request or a kept result.
+   */
+  public synchronized long getSharedCount() {
+    return this.sharedCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Language server query cache: %d sent, %d shared", getLoadCount(), getSharedCount());
+  }
+
+  /**
+   * The shared request of a query.
+   */
+  private static final class Entry {
+    private final CompletableFuture<?> future;
+    private long completedAt = -1;
+
+    Entry(CompletableFuture<?> future) {
+      this.future = future;
+    }
+  }
+}
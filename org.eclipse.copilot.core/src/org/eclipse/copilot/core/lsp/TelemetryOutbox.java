@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.lsp.protocol.NotifyAcceptedParams;
+import org.eclipse.copilot.core.lsp.protocol.NotifyRejectedParams;
+import org.eclipse.copilot.core.lsp.protocol.NotifyShownParams;
+
+/**
+ * Queues the completion telemetry, i.e. the shown, accepted and rejected notifications, and sends it to the language
+ * server in periodic batches from a background job. A suggestion that is shown again is only reported once, unless it
+ * is displayed anew, e.g. served again from the completion cache, see {@link #forgetShown(Collection)}. The rejected
+ * suggestions of a batch are reported with one notification, and a batch waits while a completion request is pending
+ * so the telemetry does not delay the completion on the pipe. When too many notifications are queued, the oldest ones
+ * are dropped.
+ */
+public class TelemetryOutbox {
+
+  static final long FLUSH_INTERVAL_MILLIS = 1000L;
+  static final long BUSY_RETRY_MILLIS = 100L;
+  static final int MAX_PENDING_EVENTS = 256;
+  static final int SHOWN_HISTORY_SIZE = 64;
+  static final long CLOSE_TIMEOUT_MILLIS = 1000L;
+
+  private final CopilotLanguageServerConnection connection;
+  private final Object lock = new Object();
+  private final Job flushJob;
+
+  private final Deque<Event> pendingEvents = new ArrayDeque<>();
+  private final Set<String> shownUuids = new LinkedHashSet<>();
+  private long sentCount;
+  private long coalescedCount;
+  private long droppedCount;
+
+  /**
+   * Creates a new TelemetryOutbox.
+   *
+   * @param connection the connection sending the notifications to the language server.
+   */
+  public TelemetryOutbox(CopilotLanguageServerConnection connection) {
+    this.connection = connection;
+    this.flushJob = Job.createSystem("Send completion telemetry to Copilot", monitor -> runFlushJob());
+  }
+
+  private void runFlushJob() {
+    if (!flushIfIdle()) {
+      this.flushJob.schedule(BUSY_RETRY_MILLIS);
+    }
+  }
+
+  /**
+   * Queue the notification that a suggestion is shown. It is ignored if the suggestion has already been reported.
+   *
+   * @return the future completed when the notification is sent.
+   */
+  public CompletableFuture<String> offerShown(NotifyShownParams params) {
+    synchronized (this.lock) {
+      if (!this.shownUuids.add(params.getUuid())) {
+        this.coalescedCount++;
+        return CompletableFuture.completedFuture(null);
+      }
+      if (this.shownUuids.size() > SHOWN_HISTORY_SIZE) {
+        Iterator<String> iterator = this.shownUuids.iterator();
+        iterator.next();
+        iterator.remove();
+      }
+      return enqueue(params);
+    }
+  }
+
+  /**
+   * Forget that the given suggestions were reported as shown. They are displayed anew, e.g. served again from the
+   * completion cache after the user typed away from them, so their next display is reported again rather than ignored
+   * as a repetition.
+   */
+  public void forgetShown(Collection<String> uuids) {
+    synchronized (this.lock) {
+      this.shownUuids.removeAll(uuids);
+    }
+  }
+
+  /**
+   * Queue the notification that a suggestion is accepted.
+   *
+   * @return the future completed when the notification is sent.
+   */
+  public CompletableFuture<String> offerAccepted(NotifyAcceptedParams params) {
+    synchronized (this.lock) {
+      return enqueue(params);
+    }
+  }
+
+  /**
+   * Queue the notification that suggestions are rejected.
+   *
+   * @return the future completed when the notification is sent.
+   */
+  public CompletableFuture<String> offerRejected(NotifyRejectedParams params) {
+    synchronized (this.lock) {
+      return enqueue(params);
+    }
+  }
+
+  private CompletableFuture<String> enqueue(Object params) {
+    if (this.pendingEvents.size() >= MAX_PENDING_EVENTS) {
+      this.pendingEvents.removeFirst().result().complete(null);
+      this.droppedCount++;
+    }
+    Event event = new Event(params, new CompletableFuture<>());
+    this.pendingEvents.addLast(event);
+    if (this.pendingEvents.size() == 1) {
+      this.flushJob.schedule(FLUSH_INTERVAL_MILLIS);
+    }
+    return event.result();
+  }
+
+  /**
+   * Send the queued notifications unless a completion request is pending.
+   *
+   * @return <code>false</code> if the notifications are kept for later because a completion request is pending.
+   */
+  boolean flushIfIdle() {
+    if (this.connection.hasPendingCompletions()) {
+      return false;
+    }
+    flush();
+    return true;
+  }
+
+  /**
+   * Send the queued notifications now.
+   *
+   * @return the future completed when the language server has received the sent notifications.
+   */
+  public CompletableFuture<Void> flush() {
+    List<Event> events;
+    synchronized (this.lock) {
+      events = new ArrayList<>(this.pendingEvents);
+      this.pendingEvents.clear();
+    }
+    List<String> rejectedUuids = new ArrayList<>();
+    List<CompletableFuture<String>> rejectedResults = new ArrayList<>();
+    List<CompletableFuture<String>> requests = new ArrayList<>();
+    for (Event event : events) {
+      if (event.params() instanceof NotifyRejectedParams rejected) {
+        // the rejections are sent after the other notifications of the batch, so a suggestion is still reported as
+        // shown before it is reported as rejected.
+        rejectedUuids.addAll(rejected.getUuids());
+        rejectedResults.add(event.result());
+      } else if (event.params() instanceof NotifyShownParams shown) {
+        requests.add(send(this.connection.sendShown(shown), List.of(event.result())));
+      } else if (event.params() instanceof NotifyAcceptedParams accepted) {
+        requests.add(send(this.connection.sendAccepted(accepted), List.of(event.result())));
+      }
+    }
+    if (!rejectedResults.isEmpty()) {
+      synchronized (this.lock) {
+        this.coalescedCount += rejectedResults.size() - 1;
+      }
+      requests.add(send(this.connection.sendRejected(new NotifyRejectedParams(rejectedUuids)), rejectedResults));
+    }
+    return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new));
+  }
+
+  private CompletableFuture<String> send(CompletableFuture<String> request,
+      List<CompletableFuture<String>> results) {
+    synchronized (this.lock) {
+      this.sentCount++;
+    }
+    return request.whenComplete((result, ex) -> results.forEach(r -> r.complete(result)));
+  }
+
+  /**
+   * Send the queued notifications and stop the periodic flushes. Used when the language server is stopped, so the
+   * last batch is awaited for a short time before the connection goes away.
+   */
+  public void close() {
+    this.flushJob.cancel();
+    try {
+      flush().get(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      CopilotCore.LOGGER.info("The last completion telemetry was not confirmed by the language server");
+    }
+    if (getSentCount() > 0) {
+      CopilotCore.LOGGER.info(toString());
+    }
+  }
+
+  /**
+   * Get the number of notifications sent to the language server.
+   */
+  public long getSentCount() {
+    synchronized (this.lock) {
+      return this.sentCount;
+    }
+  }
+
+  /**
+   * Get the number of notifications that were merged into another one or ignored as a repetition.
+   */
+  public long getCoalescedCount() {
+    synchronized (this.lock) {
+      return this.coalescedCount;
+    }
+  }
+
+  /**
+   * Get the number of notifications dropped because too many were queued.
+   */
+  public long getDroppedCount() {
+    synchronized (this.lock) {
+      return this.droppedCount;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Completion telemetry: %d sent, %d coalesced, %d dropped", getSentCount(),
+        getCoalescedCount(), getDroppedCount());
+  }
+
+  private record Event(Object params, CompletableFuture<String> result) {
+  }
+}
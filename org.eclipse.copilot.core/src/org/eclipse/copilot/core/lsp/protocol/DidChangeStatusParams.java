@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.core.lsp.protocol;
+
+import java.util.Objects;
+
+import org.eclipse.lsp4j.jsonrpc.util.ToStringBuilder;
+
+/**
+ * Parameters for the "didChangeStatus" notification, sent by the language server when its status changes, e.g. when
+ * the user is signed out or a request is in progress.
+ */
+public class DidChangeStatusParams {
+  /**
+   * The kind of the status: <code>Normal</code>, <code>Warning</code>, <code>Error</code> or <code>Inactive</code>.
+   */
+  private String kind;
+  private String message;
+  private boolean busy;
+
+  public String getKind() {
+    return kind;
+  }
+
+  public void setKind(String kind) {
+    this.kind = kind;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+  public boolean isBusy() {
+    return busy;
+  }
+
+  public void setBusy(boolean busy) {
+    this.busy = busy;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(busy, kind, message);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    DidChangeStatusParams other = (DidChangeStatusParams) obj;
+    return busy == other.busy && Objects.equals(kind, other.kind) && Objects.equals(message, other.message);
+  }
+
+  @Override
+  public String toString() {
+    ToStringBuilder builder = new ToStringBuilder(this);
+    builder.add("kind", kind);
+    builder.add("message", message);
+    builder.add("busy", busy);
+    return builder.toString();
+  }
+}
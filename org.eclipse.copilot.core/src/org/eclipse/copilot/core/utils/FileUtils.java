@@ -17,6 +17,10 @@ import java.util.stream.Collectors;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.content.IContentDescription;
+import org.eclipse.core.runtime.content.IContentType;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 
@@ -92,6 +96,27 @@ public class FileUtils {
     }).filter(Objects::nonNull).collect(Collectors.toList());
   }
 
+  /**
+   * Get the content type of a file. The content description of the file is preferred, so that the project specific
+   * and content based associations apply. The content type registered for the file name is used when the file has no
+   * description, e.g. because it cannot be read.
+   *
+   * @return the content type, or <code>null</code> if none is registered for the file.
+   */
+  @Nullable
+  public static IContentType getContentType(IFile file) {
+    try {
+      IContentDescription description = file.getContentDescription();
+      if (description != null && description.getContentType() != null) {
+        return description.getContentType();
+      }
+    } catch (CoreException e) {
+      // the file does not exist or is out of sync, fall back to its name.
+    }
+    String fileName = file.getName();
+    return fileName == null ? null : Platform.getContentTypeManager().findContentTypeFor(fileName);
+  }
+
   /**
    * Returns true if the file needs to be excluded from the referenced files.
    */
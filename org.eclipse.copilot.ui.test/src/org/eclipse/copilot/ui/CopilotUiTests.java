@@ -11,6 +11,9 @@ package org.eclipse.copilot.ui;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.jobs.Job;
@@ -18,6 +21,8 @@ import org.junit.jupiter.api.Test;
 import org.osgi.framework.Bundle;
 
 import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.StartupTimeline;
+import org.eclipse.copilot.core.StartupTimeline.Stage;
 
 class CopilotUiTests {
 
@@ -33,4 +38,25 @@ class CopilotUiTests {
     assertNotNull(bundle);
     assertEquals(Bundle.ACTIVE, bundle.getState());
   }
+
+  @Test
+  void testStartupTimelineFollowsTheDependenciesOfTheStages() throws Exception {
+    CopilotCore.getPlugin().whenAuthStatusChecked().get(60, TimeUnit.SECONDS);
+    StartupTimeline timeline = CopilotCore.getPlugin().getStartupTimeline();
+
+    Stage discovery = timeline.getStage(StartupTimeline.RUNTIME_DISCOVERY);
+    Stage start = timeline.getStage(StartupTimeline.LANGUAGE_SERVER_START);
+    Stage initialize = timeline.getStage(StartupTimeline.INITIALIZE);
+    Stage authStatus = timeline.getStage(StartupTimeline.AUTH_STATUS);
+    assertNotNull(start);
+    assertNotNull(initialize);
+    assertNotNull(authStatus);
+    // the runtime is only discovered for the JavaScript agent, which is started once it is known.
+    if (discovery != null) {
+      assertTrue(start.startMillis() >= discovery.endMillis());
+    }
+    assertTrue(initialize.startMillis() >= start.endMillis());
+    assertTrue(authStatus.startMillis() >= initialize.endMillis());
+    assertTrue(authStatus.endMillis() >= authStatus.startMillis());
+  }
 }
@@ -12,9 +12,11 @@ package org.eclipse.copilot.ui.chat.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Field;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -26,6 +28,7 @@ import org.mockito.Mockito;
 
 import org.eclipse.copilot.core.AuthStatusManager;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
+import org.eclipse.copilot.core.lsp.protocol.ConversationAgent;
 import org.eclipse.copilot.core.lsp.protocol.ConversationTemplate;
 import org.eclipse.copilot.core.lsp.protocol.CopilotScope;
 import org.eclipse.copilot.core.lsp.protocol.CopilotStatusResult;
@@ -55,6 +58,10 @@ class ChatCompletionServiceTest {
     when(mockTemplate.getId()).thenReturn("test");
     when(mockAuthStatusManager.getCopilotStatus()).thenReturn(CopilotStatusResult.OK);
     chatCompletionService = new ChatCompletionService(mockLsConnection, mockAuthStatusManager);
+    joinInitJobs();
+  }
+
+  private static void joinInitJobs() {
     Job[] jobs = Job.getJobManager().find(ChatCompletionService.INIT_JOB_FAMILY);
     for (Job job : jobs) {
       try {
@@ -92,4 +99,40 @@ class ChatCompletionServiceTest {
   void testGetTemplates() {
     assertNotNull(chatCompletionService.getTemplates());
   }
+
+  @Test
+  void testSameTemplatesAndAgentsDoNotRebuildTheCommands() throws Exception {
+    CopilotLanguageServerConnection lsConnection = Mockito.mock(CopilotLanguageServerConnection.class);
+    AuthStatusManager authStatusManager = Mockito.mock(AuthStatusManager.class);
+    when(lsConnection.listConversationTemplates())
+        .thenReturn(CompletableFuture.completedFuture(new ConversationTemplate[] { mockTemplate }));
+    when(lsConnection.listConversationAgents()).thenAnswer(invocation -> {
+      // the agents are answered as new objects each time, equal to the previous ones.
+      ConversationAgent agent = new ConversationAgent();
+      agent.setSlug("agent");
+      agent.setName("Agent");
+      return CompletableFuture.completedFuture(new ConversationAgent[] { agent });
+    });
+    when(authStatusManager.getCopilotStatus()).thenReturn(CopilotStatusResult.OK);
+    ChatCompletionService service = new ChatCompletionService(lsConnection, authStatusManager);
+    joinInitJobs();
+    Object commands = getAllCommands(service);
+    assertTrue(service.isCommand("/test"));
+    assertTrue(service.isCommand("@agent"));
+
+    CopilotStatusResult status = new CopilotStatusResult();
+    status.setStatus(CopilotStatusResult.OK);
+    service.onDidCopilotStatusChange(status);
+    joinInitJobs();
+
+    Mockito.verify(lsConnection, Mockito.times(2)).listConversationAgents();
+    assertSame(commands, getAllCommands(service));
+    service.dispose();
+  }
+
+  private static Object getAllCommands(ChatCompletionService service) throws Exception {
+    Field field = ChatCompletionService.class.getDeclaredField("allCommands");
+    field.setAccessible(true);
+    return field.get(service);
+  }
 }
\ No newline at end of file
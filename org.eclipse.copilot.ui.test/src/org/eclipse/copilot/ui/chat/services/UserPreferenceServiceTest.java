@@ -12,28 +12,49 @@ package org.eclipse.copilot.ui.chat.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.jface.databinding.swt.DisplayRealm;
+import org.eclipse.swt.widgets.Display;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 
 import org.eclipse.copilot.core.AuthStatusManager;
+import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.chat.ChatCatalog;
+import org.eclipse.copilot.core.chat.ChatCatalogStore;
 import org.eclipse.copilot.core.chat.InputNavigation;
 import org.eclipse.copilot.core.events.CopilotEventConstants;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
+import org.eclipse.copilot.core.lsp.protocol.ChatMode;
+import org.eclipse.copilot.core.lsp.protocol.CopilotModel;
+import org.eclipse.copilot.core.lsp.protocol.CopilotScope;
 import org.eclipse.copilot.core.lsp.protocol.CopilotStatusResult;
+import org.eclipse.copilot.ui.utils.SwtUtils;
 
 @ExtendWith(MockitoExtension.class)
 class UserPreferenceServiceTest {
@@ -105,6 +126,79 @@ class UserPreferenceServiceTest {
     assertEquals("input2", getInputNavigationFromService().getLatestInput(), "Input navigation should be restored");
   }
 
+  @Test
+  void testRestoringTheSameModelsDoesNotRebuildOrPersistTheSelection() throws Exception {
+    ChatCatalogStore mockCatalogStore = mock(ChatCatalogStore.class);
+    CopilotCore mockCopilotCore = mock(CopilotCore.class);
+    when(mockCopilotCore.getChatCatalogStore()).thenReturn(mockCatalogStore);
+    ChatCatalog catalog = new ChatCatalog();
+    catalog.setModels(new CopilotModel[] { createModel("gpt") });
+    catalog.setChatModeName(ChatMode.Agent.toString());
+    catalog.setChatModel("gpt");
+    when(mockCatalogStore.load(any())).thenReturn(catalog);
+    when(mockAuthStatusManager.getCopilotStatus()).thenReturn(CopilotStatusResult.OK);
+
+    try (MockedStatic<CopilotCore> mockedStaticCore = mockStatic(CopilotCore.class)) {
+      mockedStaticCore.when(CopilotCore::getPlugin).thenReturn(mockCopilotCore);
+      userPreferenceService = new UserPreferenceService(mockLsConnection, mockAuthStatusManager);
+      Object restoredModels = getObservableValue("modelObservable");
+      Object restoredModel = getObservableValue("activeModelObservable");
+      assertEquals("gpt", ((CopilotModel) restoredModel).getId());
+
+      // the language server answers the same models as the catalog.
+      invoke("applyModels", new Class<?>[] { CopilotModel[].class },
+          (Object) new CopilotModel[] { createModel("gpt") });
+      invoke("restoreFromUserPreference", new Class<?>[0]);
+
+      assertSame(restoredModels, getObservableValue("modelObservable"));
+      assertSame(restoredModel, getObservableValue("activeModelObservable"));
+      verify(mockCatalogStore, never()).update(any(), any());
+
+      invoke("restoreSelection", new Class<?>[] { String.class, String.class, boolean.class },
+          ChatMode.Ask.toString(), "gpt", true);
+      verify(mockCatalogStore, times(1)).update(any(), any());
+
+      userPreferenceService.dispose();
+      userPreferenceService = null;
+    }
+  }
+
+  private CopilotModel createModel(String id) {
+    CopilotModel model = new CopilotModel();
+    model.setId(id);
+    model.setModelName(id);
+    model.setScopes(List.of(CopilotScope.CHAT_PANEL, CopilotScope.AGENT_PANEL));
+    model.setChatDefault(true);
+    return model;
+  }
+
+  /**
+   * Helper method to read a private observable field of the service in its realm
+   */
+  private Object getObservableValue(String fieldName) {
+    AtomicReference<Object> value = new AtomicReference<>();
+    SwtUtils.invokeOnDisplayThread(() -> {
+      try {
+        Field field = UserPreferenceService.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        IObservableValue<?> observable = (IObservableValue<?>) field.get(userPreferenceService);
+        Realm.runWithDefault(DisplayRealm.getRealm(Display.getDefault()), () -> value.set(observable.getValue()));
+      } catch (Exception e) {
+        throw new RuntimeException("Failed to access " + fieldName + " field", e);
+      }
+    });
+    return value.get();
+  }
+
+  /**
+   * Helper method to invoke a private method of the service
+   */
+  private void invoke(String methodName, Class<?>[] parameterTypes, Object... args) throws Exception {
+    Method method = UserPreferenceService.class.getDeclaredMethod(methodName, parameterTypes);
+    method.setAccessible(true);
+    method.invoke(userPreferenceService, args);
+  }
+
   /**
    * Helper method to create an auth status changed event
    */
@@ -10,7 +10,12 @@
 package org.eclipse.copilot.ui.completion;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -18,13 +23,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.util.List;
+import java.util.function.Consumer;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.events.MouseEvent;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.texteditor.ITextEditor;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,10 +45,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.eclipse.copilot.core.completion.CompletionLatencyTracer.Stage;
 import org.eclipse.copilot.core.completion.CompletionProvider;
+import org.eclipse.copilot.core.completion.CompletionTriggerPolicy;
+import org.eclipse.copilot.core.completion.CompletionTriggerPolicy.Decision;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
+import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
 import org.eclipse.copilot.core.lsp.protocol.CopilotLanguageServerSettings;
 import org.eclipse.copilot.ui.preferences.LanguageServerSettingManager;
+import org.eclipse.copilot.ui.utils.SwtUtils;
 
 @ExtendWith(MockitoExtension.class)
 class BaseCompletionManagerTests extends CompletionBaseTests {
@@ -88,6 +104,7 @@ class BaseCompletionManagerTests extends CompletionBaseTests {
   void testCaretPositionChangeAndUpdatesDocumentVersion() throws Exception {
     // Initial setup - simulate document version changes
     when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1, 2);
+    when(mockCompletionProvider.getTriggerPolicy()).thenReturn(new CompletionTriggerPolicy(() -> ""));
 
     // First handleCaretPositionChange call - should initialize document version but
     // not trigger completion
@@ -95,7 +112,8 @@ class BaseCompletionManagerTests extends CompletionBaseTests {
     completionManager.mouseDown(mouseEvent);
 
     // Verify no completion triggered on first mouse down (only initializes version)
-    verify(mockCompletionProvider, never()).triggerCompletion(any(), any(), any(Integer.class));
+    verify(mockCompletionProvider, never()).triggerCompletion(any(), any(), any(), any(Integer.class),
+        anyBoolean());
     assertEquals(1, completionManager.getDocumentVersion());
 
     // Second handleCaretPositionChange call with updated document version - should
@@ -105,7 +123,8 @@ class BaseCompletionManagerTests extends CompletionBaseTests {
 
     // Verify completion was triggered with correct document version
     ArgumentCaptor<Integer> versionCaptor = ArgumentCaptor.forClass(Integer.class);
-    verify(mockCompletionProvider, times(1)).triggerCompletion(any(), any(Position.class), versionCaptor.capture());
+    verify(mockCompletionProvider, times(1)).triggerCompletion(any(), any(), any(Position.class),
+        versionCaptor.capture(), eq(false));
 
     assertEquals(2, versionCaptor.getValue().intValue());
     assertEquals(2, completionManager.getDocumentVersion());
@@ -125,7 +144,8 @@ class BaseCompletionManagerTests extends CompletionBaseTests {
     completionManager.mouseDown(mouseEvent);
 
     // Verify completion was never triggered since version didn't change
-    verify(mockCompletionProvider, never()).triggerCompletion(any(), any(), any(Integer.class));
+    verify(mockCompletionProvider, never()).triggerCompletion(any(), any(), any(), any(Integer.class),
+        anyBoolean());
     assertEquals(1, completionManager.getDocumentVersion());
   }
 
@@ -148,7 +168,223 @@ class BaseCompletionManagerTests extends CompletionBaseTests {
     completionManager.mouseDown(mouseEvent); // Should not trigger due to disabled auto completion
 
     // Verify completion was never triggered
-    verify(mockCompletionProvider, never()).triggerCompletion(any(), any(), any(Integer.class));
+    verify(mockCompletionProvider, never()).triggerCompletion(any(), any(), any(), any(Integer.class),
+        anyBoolean());
+  }
+
+  @Test
+  void testCaretNavigationDoesNotLookUpDocumentVersion() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+    CompletionTriggerPolicy triggerPolicy = new CompletionTriggerPolicy(() -> "");
+    triggerPolicy.recordDismissed(documentUri.toASCIIString(), 1);
+    when(mockCompletionProvider.getTriggerPolicy()).thenReturn(triggerPolicy);
+
+    MouseEvent mouseEvent = createMockMouseEvent();
+    SwtUtils.invokeOnDisplayThread(() -> {
+      completionManager.mouseDown(mouseEvent);
+      completionManager.setModelOffset(10);
+      completionManager.mouseDown(mouseEvent);
+    });
+
+    verify(mockLsConnection, times(1)).getDocumentVersion(documentUri);
+    verify(mockCompletionProvider, never()).triggerCompletion(any(), any(), any(), any(Integer.class),
+        anyBoolean());
+    // the caret is on the first line, so the dismissed line is forgotten although no trigger was evaluated.
+    assertEquals(Decision.TRIGGER,
+        triggerPolicy.evaluate(documentUri.toASCIIString(), LSPEclipseUtils.getDocument(textEditor), 24, 1));
+  }
+
+  @Test
+  void testDocumentChangeLooksUpDocumentVersionAgain() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1, 2);
+    when(mockCompletionProvider.getTriggerPolicy()).thenReturn(new CompletionTriggerPolicy(() -> ""));
+    IDocument document = LSPEclipseUtils.getDocument(textEditor);
+
+    MouseEvent mouseEvent = createMockMouseEvent();
+    SwtUtils.invokeOnDisplayThread(() -> {
+      completionManager.mouseDown(mouseEvent);
+      try {
+        document.replace(0, 0, " ");
+      } catch (BadLocationException e) {
+        fail(e);
+      }
+      completionManager.setModelOffset(10);
+      completionManager.mouseDown(mouseEvent);
+    });
+
+    verify(mockCompletionProvider, times(1)).triggerCompletion(any(), any(), any(Position.class), eq(2), eq(false));
+  }
+
+  @Test
+  void testStaleCompletionIsRebasedOntoTypedAheadText() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(5);
+    // "cla" was typed at offset 7 after the completion was requested at version 2
+    completionManager.setTypeAhead(7, 10, 2);
+
+    completionManager.onCompletionResolved(documentUri.toASCIIString(), List.of(createItem("class TestFile {", 2)));
+
+    assertEquals("ss TestFile {", completionManager.getSuggestionUpdateManager().getText());
+  }
+
+  @Test
+  void testStaleCompletionConflictingWithTypedAheadTextIsDropped() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(5);
+    completionManager.setTypeAhead(7, 10, 2);
+
+    completionManager.onCompletionResolved(documentUri.toASCIIString(), List.of(createItem("interface Foo {", 2)));
+
+    assertEquals(0, completionManager.getSuggestionUpdateManager().getSize());
+  }
+
+  @Test
+  void testStaleCompletionRequestedBeforeTypeAheadIsDropped() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(5);
+    completionManager.setTypeAhead(7, 10, 3);
+
+    completionManager.onCompletionResolved(documentUri.toASCIIString(), List.of(createItem("class TestFile {", 2)));
+
+    assertEquals(0, completionManager.getSuggestionUpdateManager().getSize());
+  }
+
+  @Test
+  void testServerItemIdenticalToLocalSuggestionReplacesIt() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+    completionManager.onCompletionResolved(documentUri.toASCIIString(),
+        List.of(createItem("local-1", "class TestFile {", 1)));
+
+    completionManager.onCompletionResolved(documentUri.toASCIIString(),
+        List.of(createItem("uuid", "class TestFile {", 1)));
+
+    assertEquals("uuid", completionManager.getSuggestionUpdateManager().getCurrentUuid());
+    verify(mockCompletionProvider).requestAlternatives(any(), argThat(item -> "uuid".equals(item.getUuid())),
+        eq(false), any());
+  }
+
+  @Test
+  void testEmptyResolutionWithdrawsTheLocalSuggestion() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+
+    SwtUtils.invokeOnDisplayThread(() -> {
+      completionManager.onCompletionResolved(documentUri.toASCIIString(),
+          List.of(createItem("local-1", "class TestFile {", 1)));
+
+      completionManager.onCompletionResolved(documentUri.toASCIIString(), List.of());
+
+      assertEquals(0, completionManager.getSuggestionUpdateManager().getSize());
+    });
+    // the local suggestions are unknown to the language server.
+    verify(mockLsConnection, never()).notifyShown(any());
+  }
+
+  @Test
+  void testEmptyResolutionKeepsTheServerSuggestion() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+
+    SwtUtils.invokeOnDisplayThread(() -> {
+      completionManager.onCompletionResolved(documentUri.toASCIIString(),
+          List.of(createItem("uuid1", "class TestFile {", 1)));
+
+      completionManager.onCompletionResolved(documentUri.toASCIIString(), List.of());
+
+      assertEquals("uuid1", completionManager.getSuggestionUpdateManager().getCurrentUuid());
+    });
+    verify(mockLsConnection).notifyShown(any());
+  }
+
+  @Test
+  void testServerItemIdenticalToDisplayedServerItemIsIgnored() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+    completionManager.onCompletionResolved(documentUri.toASCIIString(),
+        List.of(createItem("uuid1", "class TestFile {", 1)));
+
+    completionManager.onCompletionResolved(documentUri.toASCIIString(),
+        List.of(createItem("uuid2", "class TestFile {", 1)));
+
+    assertEquals("uuid1", completionManager.getSuggestionUpdateManager().getCurrentUuid());
+  }
+
+  @Test
+  void testCycleSuggestionWaitsForTheAlternatives() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+    CompletionItem item = createItem("uuid1", "class TestFile {", 1);
+    CompletionItem alternative = createItem("uuid2", "class TestFile extends Object {", 1);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Consumer<List<CompletionItem>>> callback = ArgumentCaptor.forClass(Consumer.class);
+
+    SwtUtils.invokeOnDisplayThread(() -> {
+      completionManager.onCompletionResolved(documentUri.toASCIIString(), List.of(item));
+      verify(mockCompletionProvider).requestAlternatives(any(), eq(item), eq(false), any());
+
+      // there is no alternative yet, so they are requested at once and the suggestion is cycled when they arrive.
+      completionManager.cycleSuggestion(true);
+      assertEquals("uuid1", completionManager.getSuggestionUpdateManager().getCurrentUuid());
+      verify(mockCompletionProvider).requestAlternatives(any(), eq(item), eq(true), callback.capture());
+
+      callback.getValue().accept(List.of(item, alternative));
+      processUiEvents();
+      assertEquals("uuid2", completionManager.getSuggestionUpdateManager().getCurrentUuid());
+
+      completionManager.cycleSuggestion(false);
+      assertEquals("uuid1", completionManager.getSuggestionUpdateManager().getCurrentUuid());
+    });
+  }
+
+  @Test
+  void testLateAlternativesOfAnotherSuggestionAreIgnored() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+    CompletionItem item = createItem("uuid1", "class TestFile {", 1);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Consumer<List<CompletionItem>>> callback = ArgumentCaptor.forClass(Consumer.class);
+
+    SwtUtils.invokeOnDisplayThread(() -> {
+      completionManager.onCompletionResolved(documentUri.toASCIIString(), List.of(item));
+      completionManager.cycleSuggestion(true);
+      verify(mockCompletionProvider).requestAlternatives(any(), eq(item), eq(true), callback.capture());
+
+      completionManager.onCompletionResolved(documentUri.toASCIIString(),
+          List.of(createItem("uuid3", "class Other {", 1)));
+      callback.getValue().accept(List.of(item, createItem("uuid2", "class TestFile extends Object {", 1)));
+      processUiEvents();
+
+      assertEquals(1, completionManager.getSuggestionUpdateManager().getSize());
+      assertEquals("uuid3", completionManager.getSuggestionUpdateManager().getCurrentUuid());
+    });
+  }
+
+  @Test
+  void testRenderIsRecordedWhenTheEditorIsPainted() {
+    when(mockLsConnection.getDocumentVersion(documentUri)).thenReturn(1);
+
+    SwtUtils.invokeOnDisplayThread(() -> {
+      completionManager.onCompletionResolved(documentUri.toASCIIString(),
+          List.of(createItem("uuid1", "class TestFile {", 1)));
+      verify(mockCompletionProvider, never()).recordLatency(any(), any(), eq(Stage.RENDER), anyLong());
+
+      StyledText styledText = completionManager.getStyledText();
+      styledText.redraw();
+      styledText.update();
+      styledText.redraw();
+      styledText.update();
+      verify(mockCompletionProvider, times(1)).recordLatency(eq(documentUri.toASCIIString()), eq("uuid1"),
+          eq(Stage.RENDER), anyLong());
+    });
+  }
+
+  private void processUiEvents() {
+    Display display = completionManager.getStyledText().getDisplay();
+    while (display.readAndDispatch()) {
+      // process the queued ui events
+    }
+  }
+
+  private CompletionItem createItem(String displayText, int version) {
+    return createItem("uuid", displayText, version);
+  }
+
+  private CompletionItem createItem(String uuid, String displayText, int version) {
+    Position position = new Position(0, 7);
+    return new CompletionItem(uuid, "public " + displayText, new Range(new Position(0, 0), position), displayText,
+        position, version);
   }
 
   private MouseEvent createMockMouseEvent() {
@@ -177,7 +413,7 @@ class BaseCompletionManagerTests extends CompletionBaseTests {
 
     @Override
     public void clearGhostTexts() {
-      // Mock implementation for testing
+      this.suggestionUpdateManager.reset();
     }
 
     // Expose protected/package-private fields for testing
@@ -197,5 +433,12 @@ class BaseCompletionManagerTests extends CompletionBaseTests {
     public void setModelOffset(int modelOffset) {
       this.modelOffset = modelOffset;
     }
+
+    public void setTypeAhead(int startOffset, int endOffset, int startVersion) {
+      this.typeAheadStartOffset = startOffset;
+      this.typeAheadEndOffset = endOffset;
+      this.typeAheadStartVersion = startVersion;
+      this.triggerPosition = new org.eclipse.jface.text.Position(endOffset);
+    }
   }
 }
\ No newline at end of file
@@ -9,18 +9,24 @@
 
 package org.eclipse.copilot.ui.completion;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.codemining.ICodeMining;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
@@ -31,14 +37,19 @@ import org.eclipse.ui.texteditor.ITextEditor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.eclipse.copilot.core.CopilotCore;
 import org.eclipse.copilot.core.completion.AcceptSuggestionType;
 import org.eclipse.copilot.core.completion.CompletionProvider;
+import org.eclipse.copilot.core.format.FormatOptionProvider;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
 import org.eclipse.copilot.core.lsp.protocol.CopilotLanguageServerSettings;
+import org.eclipse.copilot.ui.completion.codemining.BlockGhostText;
 import org.eclipse.copilot.ui.preferences.LanguageServerSettingManager;
+import org.eclipse.copilot.ui.utils.SwtUtils;
 
 @ExtendWith(MockitoExtension.class)
 class CompletionManagerTests extends CompletionBaseTests {
@@ -83,6 +94,115 @@ class CompletionManagerTests extends CompletionBaseTests {
     assertTrue(document.get().contains("  System.out.println(\"hi\");\n"));
   }
 
+  @Test
+  void testTypingThroughSuggestionUpdatesMiningsInPlace() throws Exception {
+    IFile file = project.getFile("Test3.java");
+    String content = """
+        public class Test3 {
+          public void hi() {
+            foo(
+          }
+        }
+        """;
+    file.create(content.getBytes(), IResource.FORCE, null);
+    int documentVersion = 1;
+
+    ITextEditor textEditor = (ITextEditor) getEditorPartFor(file);
+    IDocument document = textEditor.getDocumentProvider().getDocument(textEditor.getEditorInput());
+    int triggerOffset = document.getLineOffset(2) + document.getLineLength(2) - 1;
+
+    when(mockLsConnection.getDocumentVersion(any())).thenReturn(documentVersion);
+    CopilotLanguageServerSettings settings = new CopilotLanguageServerSettings();
+    LanguageServerSettingManager languageServerSettingManager = mock(LanguageServerSettingManager.class);
+    when(languageServerSettingManager.getSettings()).thenReturn(settings);
+    TestableCompletionManager manager = new TestableCompletionManager(mockLsConnection,
+        mock(CompletionProvider.class), textEditor, languageServerSettingManager);
+    manager.setTriggerPosition(triggerOffset);
+
+    List<CompletionItem> completions = List.of(new CompletionItem("uuid", "    foo(bar);",
+        new Range(new Position(2, 0), new Position(2, 8)), "bar);", new Position(2, 8), documentVersion));
+    manager.onCompletionResolved(LSPEclipseUtils.toUri(file.getLocation().toFile()).toASCIIString(), completions);
+    assertEquals(1, manager.getRefreshCount());
+    ICodeMining mining = manager.getCodeMinings().get(0);
+    assertEquals("bar);", mining.getLabel());
+
+    for (String typed : List.of("b", "a")) {
+      int offset = triggerOffset++;
+      SwtUtils.invokeOnDisplayThread(() -> {
+        try {
+          document.replace(offset, 0, typed);
+        } catch (BadLocationException e) {
+          throw new IllegalStateException(e);
+        }
+      });
+    }
+
+    // the displayed mining follows the typed text, so the minings of the editor are not recomputed.
+    assertEquals(1, manager.getRefreshCount());
+    assertEquals(1, manager.getCodeMinings().size());
+    assertSame(mining, manager.getCodeMinings().get(0));
+    assertEquals("r);", mining.getLabel());
+    assertEquals(triggerOffset, mining.getPosition().getOffset());
+  }
+
+  @Test
+  void testGhostTextLabelsExpandTabsWithTabSize() throws Exception {
+    IFile file = project.getFile("Test4.java");
+    String content = """
+        public class Test4 {
+          public void hi() {
+          }
+        }
+        """;
+    file.create(content.getBytes(), IResource.FORCE, null);
+    int documentVersion = 1;
+
+    ITextEditor textEditor = (ITextEditor) getEditorPartFor(file);
+    IDocument document = textEditor.getDocumentProvider().getDocument(textEditor.getEditorInput());
+    int triggerOffset = document.getLineOffset(1) + document.getLineLength(1) - 1;
+
+    when(mockLsConnection.getDocumentVersion(any())).thenReturn(documentVersion);
+    CopilotLanguageServerSettings settings = new CopilotLanguageServerSettings();
+    LanguageServerSettingManager languageServerSettingManager = mock(LanguageServerSettingManager.class);
+    when(languageServerSettingManager.getSettings()).thenReturn(settings);
+    CopilotCore copilotCore = mock(CopilotCore.class);
+    FormatOptionProvider formatOptionProvider = mock(FormatOptionProvider.class);
+    when(copilotCore.getFormatOptionProvider()).thenReturn(formatOptionProvider);
+    when(formatOptionProvider.useSpace(any())).thenReturn(false);
+    when(formatOptionProvider.getTabSize(any())).thenReturn(2);
+    String uri = LSPEclipseUtils.toUri(file.getLocation().toFile()).toASCIIString();
+
+    try (MockedStatic<CopilotCore> mockedStaticCore = mockStatic(CopilotCore.class)) {
+      mockedStaticCore.when(CopilotCore::getPlugin).thenReturn(copilotCore);
+      TestableCompletionManager manager = new TestableCompletionManager(mockLsConnection,
+          mock(CompletionProvider.class), textEditor, languageServerSettingManager);
+      manager.setTriggerPosition(triggerOffset);
+
+      manager.onCompletionResolved(uri, List.of(createItem("uuid1", "\n\t\tfoo\n\tbar", documentVersion)));
+      assertEquals("    foo\n  bar", getBlockLabel(manager));
+
+      // the labels rendered for the suggestion are not reused once the tab size changes.
+      when(formatOptionProvider.getTabSize(any())).thenReturn(4);
+      manager.refreshGhostTexts();
+      assertEquals("        foo\n    bar", getBlockLabel(manager));
+
+      // nor for another suggestion, which is rendered with the format options of the file at that time.
+      when(formatOptionProvider.useSpace(any())).thenReturn(true);
+      manager.onCompletionResolved(uri, List.of(createItem("uuid2", "\n\t\tfoo\n\tbaz", documentVersion)));
+      assertEquals("\t\tfoo\n\tbaz", getBlockLabel(manager));
+    }
+  }
+
+  private static CompletionItem createItem(String uuid, String displayText, int documentVersion) {
+    return new CompletionItem(uuid, "  public void hi() {" + displayText,
+        new Range(new Position(1, 0), new Position(1, 20)), displayText, new Position(1, 20), documentVersion);
+  }
+
+  private static String getBlockLabel(CompletionManager manager) {
+    return manager.getCodeMinings().stream().filter(BlockGhostText.class::isInstance).findFirst().orElseThrow()
+        .getLabel();
+  }
+
   @Test
   void testEnableCompletionContext() throws Exception {
     IFile file = project.getFile("Test2.java");
@@ -118,4 +238,35 @@ class CompletionManagerTests extends CompletionBaseTests {
     assertTrue(activeContexts.contains("org.eclipse.copilot.completionAvailableContext"));
   }
 
+  /**
+   * Testable subclass of CompletionManager that counts the refreshes of the code minings and provides access to the
+   * trigger position and the update of the ghost texts.
+   */
+  private static class TestableCompletionManager extends CompletionManager {
+
+    private final AtomicInteger refreshCount = new AtomicInteger();
+
+    public TestableCompletionManager(CopilotLanguageServerConnection lsConnection, CompletionProvider provider,
+        ITextEditor editor, LanguageServerSettingManager settingsManager) {
+      super(lsConnection, provider, editor, settingsManager);
+    }
+
+    @Override
+    protected void updateCodeMinings() {
+      refreshCount.incrementAndGet();
+      super.updateCodeMinings();
+    }
+
+    public int getRefreshCount() {
+      return refreshCount.get();
+    }
+
+    public void setTriggerPosition(int offset) {
+      this.triggerPosition = new org.eclipse.jface.text.Position(offset);
+    }
+
+    public void refreshGhostTexts() {
+      updateGhostTexts(this.triggerPosition);
+    }
+  }
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.ui.completion;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.preference.PreferenceStore;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.eclipse.copilot.core.Constants;
+import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentConnectionBudgetTests {
+
+  private static final URI URI_A = URI.create("file:///a.txt");
+  private static final URI URI_B = URI.create("file:///b.txt");
+  private static final URI URI_C = URI.create("file:///c.txt");
+
+  @Mock
+  private CopilotLanguageServerConnection languageServer;
+
+  @Mock
+  private IFile file;
+
+  private PreferenceStore preferenceStore;
+  private DocumentConnectionBudget budget;
+
+  @BeforeEach
+  void setUp() {
+    preferenceStore = new PreferenceStore();
+    preferenceStore.setDefault(Constants.MAX_CONNECTED_DOCUMENTS, 2);
+    preferenceStore.setDefault(Constants.MAX_CONNECTED_FILE_SIZE_KB, 1);
+    budget = new DocumentConnectionBudget(languageServer, preferenceStore);
+  }
+
+  @Test
+  void testLargeDocumentIsNotConnected() {
+    assertFalse(budget.register(URI_A, new Document("x".repeat(2000)), file));
+
+    verify(languageServer, never()).connectDocument(any(), any());
+  }
+
+  @Test
+  void testDocumentIsConnectedOnFirstEdit() throws Exception {
+    when(languageServer.connectDocument(any(), any())).thenReturn(new CompletableFuture<LanguageServerWrapper>());
+    Document document = new Document("hello");
+
+    assertTrue(budget.register(URI_A, document, file));
+    budget.activate(URI_A);
+    verify(languageServer, never()).connectDocument(any(), any());
+
+    document.replace(5, 0, " world");
+    document.replace(11, 0, "!");
+
+    assertTrue(budget.isConnected(URI_A));
+    verify(languageServer, times(1)).connectDocument(document, file);
+  }
+
+  @Test
+  void testLeastRecentlyUsedDocumentIsDisconnectedAndReconnectedOnActivation() {
+    when(languageServer.connectDocument(any(), any())).thenReturn(new CompletableFuture<LanguageServerWrapper>());
+    budget.register(URI_A, new Document("a"), file);
+    budget.register(URI_B, new Document("b"), file);
+    budget.register(URI_C, new Document("c"), file);
+
+    for (URI uri : new URI[] { URI_A, URI_B, URI_C }) {
+      budget.activate(uri);
+      budget.connect(uri);
+    }
+
+    verify(languageServer, times(1)).disconnectDocument(URI_A);
+    assertFalse(budget.isConnected(URI_A));
+    assertTrue(budget.isConnected(URI_C));
+
+    budget.activate(URI_A);
+
+    assertTrue(budget.isConnected(URI_A));
+    verify(languageServer, times(1)).disconnectDocument(URI_B);
+    verify(languageServer, times(4)).connectDocument(any(), any());
+  }
+}
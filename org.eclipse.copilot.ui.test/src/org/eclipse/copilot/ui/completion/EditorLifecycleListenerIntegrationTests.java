@@ -29,6 +29,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IWorkbench;
@@ -41,6 +42,7 @@ import org.eclipse.ui.editors.text.TextEditor;
 import org.eclipse.ui.ide.IDE;
 import org.eclipse.ui.intro.IIntroManager;
 import org.eclipse.ui.intro.IIntroPart;
+import org.eclipse.ui.texteditor.ITextEditor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -79,7 +81,11 @@ public class EditorLifecycleListenerIntegrationTests {
       IWorkbenchPage page = workbench.getActiveWorkbenchWindow().getActivePage();
       try {
         editor = IDE.openEditor(page, file, "editorForRefactorRenameTests", true);
-      } catch (PartInitException e) {
+        // the document is connected to the language server on its first edit.
+        ITextEditor textEditor = (ITextEditor) editor;
+        textEditor.getDocumentProvider().getDocument(editor.getEditorInput()).replace(0, 0, "Say ");
+        textEditor.doSave(new NullProgressMonitor());
+      } catch (PartInitException | BadLocationException e) {
       }
     });
     assertNotNull(editor, "Failed to open editor for file: " + file);
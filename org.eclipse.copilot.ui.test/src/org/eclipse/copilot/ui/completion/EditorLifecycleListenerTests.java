@@ -11,6 +11,7 @@ package org.eclipse.copilot.ui.completion;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -19,7 +20,9 @@ import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.preference.PreferenceStore;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.ui.IEditorPart;
@@ -29,10 +32,12 @@ import org.eclipse.ui.texteditor.ITextEditor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.eclipse.copilot.core.Constants;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.ui.utils.UiUtils;
 
@@ -70,7 +75,10 @@ class EditorLifecycleListenerTests {
 		when(partRef.getPart(anyBoolean())).thenReturn(part);
 		when(part.getAdapter(IEditorPart.class)).thenReturn(editorPart);
 		when(editorPart.getAdapter(ITextEditor.class)).thenReturn(textEditor);
-		listener = new EditorLifecycleListener(languageServer, manager);
+		PreferenceStore preferenceStore = new PreferenceStore();
+		preferenceStore.setDefault(Constants.MAX_CONNECTED_DOCUMENTS, 20);
+		preferenceStore.setDefault(Constants.MAX_CONNECTED_FILE_SIZE_KB, 1024);
+		listener = new EditorLifecycleListener(manager, new DocumentConnectionBudget(languageServer, preferenceStore));
 	}
 
 	@Test
@@ -92,6 +100,12 @@ class EditorLifecycleListenerTests {
 			listener.partActivated(partRef);
 			listener.partActivated(partRef);
 
+			// Assert: The document is connected lazily, on its first edit
+			verify(languageServer, never()).connectDocument(any(IDocument.class), any(IFile.class));
+			ArgumentCaptor<IDocumentListener> documentListener = ArgumentCaptor.forClass(IDocumentListener.class);
+			verify(mockDocument).addDocumentListener(documentListener.capture());
+			documentListener.getValue().documentChanged(null);
+
 			// Assert: Verify that connectDocument is called only once
 			// This is because EditorLifecycleListener maintains a set of editors
 			// and only adds each editor once
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.ui.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.jupiter.api.Test;
+
+class GhostTextLayoutTests {
+
+  @Test
+  void testLayoutReadsOnlyTheTriggerLine() throws Exception {
+    IDocument document = new Document("void sort(\n) {\n}\n");
+
+    List<GhostTextLayout.Segment> segments = GhostTextLayout.layout(document, 10, "int[] arr");
+
+    assertEquals(List.of(new GhostTextLayout.Segment(10, "int[] arr", true)), segments);
+  }
+
+  @Test
+  void testLayoutInterleavesInlineAndEndOfLineSegments() throws Exception {
+    IDocument document = new Document("foo(a, )\n");
+
+    List<GhostTextLayout.Segment> segments = GhostTextLayout.layout(document, 4, "a, b);");
+
+    assertEquals(List.of(new GhostTextLayout.Segment(7, "b", false), new GhostTextLayout.Segment(8, ";", true)),
+        segments);
+  }
+
+  @Test
+  void testLayoutOnBlankLineIsInline() {
+    List<GhostTextLayout.Segment> segments = GhostTextLayout.layout("  \t", "return;", 3);
+
+    assertEquals(List.of(new GhostTextLayout.Segment(3, "return;", false)), segments);
+  }
+
+  @Test
+  void testLayoutOfLongLineKeepsSuggestionText() {
+    String completionLine = "x".repeat(10000) + ")";
+
+    List<GhostTextLayout.Segment> segments = GhostTextLayout.layout(")", completionLine, 0);
+
+    assertEquals(List.of(new GhostTextLayout.Segment(0, "x".repeat(10000), false)), segments);
+  }
+}
@@ -10,18 +10,28 @@
 package org.eclipse.copilot.ui.completion;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.jface.resource.ColorRegistry;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.ui.IEditorPart;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.eclipse.copilot.ui.utils.SwtUtils;
+
 @ExtendWith(MockitoExtension.class)
 class RenderingManagerTests extends CompletionBaseTests {
 
@@ -40,4 +50,28 @@ class RenderingManagerTests extends CompletionBaseTests {
     Color color = colorRegistry.get("org.eclipse.ui.editors.inlineAnnotationColor");
     assertFalse(color.isDisposed());
   }
+
+  @Test
+  void testRedrawReservesInlineGhostTextSpaceOutsideOfPainting() throws Exception {
+    IFile file = project.getFile("Inline.txt");
+    file.create("foo()".getBytes(), IResource.FORCE, null);
+
+    IEditorPart editorPart = getEditorPartFor(file);
+    ITextViewer textViewer = (ITextViewer) editorPart.getAdapter(ITextViewer.class);
+    StyledText styledText = textViewer.getTextWidget();
+
+    RenderingManager manager = new RenderingManager(textViewer);
+    manager.setGhostTexts(new ArrayList<>(List.of(new InlineGhostText("bar", 4))));
+    manager.redraw();
+
+    AtomicReference<StyleRange> style = new AtomicReference<>();
+    SwtUtils.invokeOnDisplayThread(() -> style.set(styledText.getStyleRangeAtOffset(4)), styledText);
+    assertNotNull(style.get());
+    assertNotNull(style.get().metrics);
+
+    SwtUtils.invokeOnDisplayThread(manager::clearGhostText, styledText);
+    SwtUtils.invokeOnDisplayThread(() -> style.set(styledText.getStyleRangeAtOffset(4)), styledText);
+    assertTrue(style.get() == null || style.get().metrics == null);
+    manager.dispose();
+  }
 }
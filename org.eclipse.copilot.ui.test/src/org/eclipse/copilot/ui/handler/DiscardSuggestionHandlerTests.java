@@ -62,6 +62,7 @@ class DiscardSuggestionHandlerTests {
       handler.execute(null);
 
       verify(mockedConnection).notifyRejected(any());
+      verify(mockedCompletionManager).recordDismissed();
     }
   }
 
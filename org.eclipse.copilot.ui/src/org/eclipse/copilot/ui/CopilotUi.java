@@ -11,11 +11,11 @@ package org.eclipse.copilot.ui;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 
 import org.eclipse.core.net.proxy.IProxyService;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
@@ -32,6 +32,7 @@ import org.osgi.framework.Version;
 
 import org.eclipse.copilot.core.Constants;
 import org.eclipse.copilot.core.CopilotCore;
+import org.eclipse.copilot.core.StartupTimeline;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.ui.chat.services.ChatServiceManager;
 import org.eclipse.copilot.ui.completion.EditorLifecycleListener;
@@ -73,42 +74,47 @@ public class CopilotUi extends AbstractUIPlugin {
     Job initJob = new Job("Copilot initialization") {
       @Override
       protected IStatus run(IProgressMonitor monitor) {
+        CopilotLanguageServerConnection connection;
         try {
-          // wait until Core is initialized.
-          Job.getJobManager().join(CopilotCore.INIT_JOB_FAMILY, null);
-        } catch (OperationCanceledException | InterruptedException e) {
+          // wait until the language server is started only, it initializes while the services are created.
+          connection = CopilotCore.getPlugin().whenLanguageServerStarted().get();
+        } catch (InterruptedException | ExecutionException e) {
           CopilotCore.LOGGER.error(e);
           return Status.error("Failed to initialize GitHub Copilot plugin.", e);
         }
 
-        CopilotLanguageServerConnection connection = CopilotCore.getPlugin().getCopilotLanguageServer();
         if (connection == null) {
           var ex = new IllegalStateException("Failed to start copilot language server.");
           CopilotCore.LOGGER.error(ex);
           throw ex;
         }
 
-        // init the settings manager
-        ServiceReference<?> serviceReference = context.getServiceReference(IProxyService.class.getName());
-        LanguageServerSettingManager mgr = new LanguageServerSettingManager(
-            CopilotCore.getPlugin().getCopilotLanguageServer(), (IProxyService) context.getService(serviceReference),
-            getPreferenceStore());
-        CopilotUi.this.settingMgr = mgr;
-        CopilotUi.this.editorsManager = new EditorsManager(connection, CopilotCore.getPlugin().getCompletionProvider(),
-            mgr);
-        CopilotUi.this.editorLifecycleListener = new EditorLifecycleListener(connection, editorsManager);
-        CopilotUi.this.chatServiceManager = new ChatServiceManager();
-        // inject the chat service manager into the core plugin, so that it can be used to handle
-        // some server to client request that needs to be handled with UI logics.
-        CopilotCore.getPlugin().setChatServiceManager(chatServiceManager);
-        CopilotUi.this.copilotStatusManager = new CopilotStatusManager();
-        // sync to language server on load
-        mgr.syncConfiguration();
-
-        registerPartListener();
-        // Initialize the completion handler for the active editor in case we miss the event
-        // to initialize it.
-        initCompletionHandlerForActiveEditor();
+        StartupTimeline timeline = CopilotCore.getPlugin().getStartupTimeline();
+        // the services of the editors come first, since they are on the path to the first completion.
+        timeline.run(StartupTimeline.UI_SERVICES, () -> {
+          CopilotUi.this.copilotStatusManager = new CopilotStatusManager();
+          // init the settings manager
+          ServiceReference<?> serviceReference = context.getServiceReference(IProxyService.class.getName());
+          LanguageServerSettingManager mgr = new LanguageServerSettingManager(connection,
+              (IProxyService) context.getService(serviceReference), getPreferenceStore());
+          CopilotUi.this.settingMgr = mgr;
+          CopilotUi.this.editorsManager = new EditorsManager(connection,
+              CopilotCore.getPlugin().getCompletionProvider(), mgr);
+          CopilotUi.this.editorLifecycleListener = new EditorLifecycleListener(connection, editorsManager);
+          // sync to language server on load
+          mgr.syncConfiguration();
+
+          registerPartListener();
+          // Initialize the completion handler for the active editor in case we miss the event
+          // to initialize it.
+          initCompletionHandlerForActiveEditor();
+        });
+        timeline.run(StartupTimeline.CHAT_SERVICES, () -> {
+          CopilotUi.this.chatServiceManager = new ChatServiceManager();
+          // inject the chat service manager into the core plugin, so that it can be used to handle
+          // some server to client request that needs to be handled with UI logics.
+          CopilotCore.getPlugin().setChatServiceManager(chatServiceManager);
+        });
 
         showHintIfNecessary(context);
         return Status.OK_STATUS;
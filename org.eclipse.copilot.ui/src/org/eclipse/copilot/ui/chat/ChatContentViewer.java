@@ -205,7 +205,7 @@ public class ChatContentViewer extends ScrolledComposite {
         if (value.getCode() == 402
             && this.serviceManager.getAuthStatusManager().getQuotaStatus().getCopilotPlan() != CopilotPlan.free) {
           this.serviceManager.getUserPreferenceService().setFallBackModelAsActiveModel();
-          this.serviceManager.getAuthStatusManager().checkQuota();
+          this.serviceManager.getAuthStatusManager().refreshQuota();
 
           String previousInput = this.serviceManager.getUserPreferenceService().getPreviousInput(StringUtils.EMPTY);
           if (StringUtils.isNotEmpty(previousInput)) {
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -25,6 +26,7 @@ import org.eclipse.copilot.core.AuthStatusManager;
 import org.eclipse.copilot.core.CopilotAuthStatusListener;
 import org.eclipse.copilot.core.CopilotCore;
 import org.eclipse.copilot.core.FeatureFlags;
+import org.eclipse.copilot.core.chat.ChatCatalog;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.core.lsp.protocol.ConversationAgent;
 import org.eclipse.copilot.core.lsp.protocol.ConversationTemplate;
@@ -38,9 +40,9 @@ public class ChatCompletionService implements CopilotAuthStatusListener {
   public static final String AGENT_MARK = "@";
   public static final String TEMPLATE_MARK = "/";
 
-  private List<ConversationTemplate> templates = new ArrayList<>();
-  private List<ConversationAgent> agents = new ArrayList<>();
-  private HashSet<String> allCommands = new HashSet<>();
+  private volatile List<ConversationTemplate> templates = new ArrayList<>();
+  private volatile List<ConversationAgent> agents = new ArrayList<>();
+  private volatile Set<String> allCommands = new HashSet<>();
   // Exclude intelliJ sepcific slash commands
   private static final Set<String> EXCLUDED_COMMANDS = Set.of("help", "feedback");
   public static final String INIT_JOB_FAMILY = 
@@ -55,7 +57,22 @@ public class ChatCompletionService implements CopilotAuthStatusListener {
     this.authStatusManager = authStatusManager;
     this.lsConnection = lsConnection;
     this.authStatusManager.addCopilotAuthStatusListener(this);
-    syncCommands(this.authStatusManager.getCopilotStatus());
+    String status = this.authStatusManager.getCopilotStatus();
+    if (CopilotStatusResult.LOADING.equals(status) || CopilotStatusResult.OK.equals(status)) {
+      restoreFromCatalog();
+    }
+    syncCommands(status);
+  }
+
+  /**
+   * Render the commands of the last persisted catalog until the language server answers.
+   */
+  private void restoreFromCatalog() {
+    ChatCatalog catalog = CopilotCore.getPlugin().getChatCatalogStore().load(this.authStatusManager.getUserName());
+    if (catalog != null) {
+      applyTemplates(catalog.getTemplates());
+      applyAgents(catalog.getAgents());
+    }
   }
 
   private void initAsync() {
@@ -80,19 +97,11 @@ public class ChatCompletionService implements CopilotAuthStatusListener {
   }
 
   private void initConversationTemplates() {
-    if (isTempaltesReady() && isAgentsReady()) {
-      return;
-    }
-
     // Command: /***
     try {
       ConversationTemplate[] rawTemplates = this.lsConnection.listConversationTemplates().get();
-      for (ConversationTemplate template : rawTemplates) {
-        if (template.getScopes().contains(CopilotScope.CHAT_PANEL) && !EXCLUDED_COMMANDS.contains(template.getId())) {
-          templates.add(template);
-          allCommands.add(TEMPLATE_MARK + template.getId());
-        }
-      }
+      persistCatalog(catalog -> catalog.setTemplates(rawTemplates));
+      applyTemplates(rawTemplates);
     } catch (InterruptedException | ExecutionException e) {
       CopilotCore.LOGGER.error(e);
     }
@@ -100,24 +109,74 @@ public class ChatCompletionService implements CopilotAuthStatusListener {
     // Command: @***
     try {
       ConversationAgent[] rawAgents = this.lsConnection.listConversationAgents().get();
-      for (ConversationAgent agent : rawAgents) {
-        String agentSlug = agent.getSlug();
-        // @see ui.chat.ChatView#replaceWorkspaceCommand(String)
-        if (agentSlug.equals("project")) {
-          if (!FeatureFlags.isWorkspaceContextEnabled()) {
-            continue;
-          }
-
-          agent.setSlug("workspace");
-        }
-        agents.add(agent);
-        allCommands.add(AGENT_MARK + agent.getSlug());
-      }
+      // persisted before the agents are updated for the UI.
+      persistCatalog(catalog -> catalog.setAgents(rawAgents));
+      applyAgents(rawAgents);
     } catch (InterruptedException | ExecutionException e) {
       CopilotCore.LOGGER.error(e);
     }
   }
 
+  private void persistCatalog(Consumer<ChatCatalog> updater) {
+    CopilotCore.getPlugin().getChatCatalogStore().update(this.authStatusManager.getUserName(), updater);
+  }
+
+  /**
+   * Replace the templates, unless they did not change since the last answer.
+   */
+  private void applyTemplates(ConversationTemplate[] rawTemplates) {
+    if (rawTemplates == null) {
+      return;
+    }
+    List<ConversationTemplate> newTemplates = new ArrayList<>();
+    for (ConversationTemplate template : rawTemplates) {
+      if (template.getScopes().contains(CopilotScope.CHAT_PANEL) && !EXCLUDED_COMMANDS.contains(template.getId())) {
+        newTemplates.add(template);
+      }
+    }
+    if (!newTemplates.equals(templates)) {
+      templates = newTemplates;
+      updateAllCommands();
+    }
+  }
+
+  /**
+   * Replace the agents, unless they did not change since the last answer.
+   */
+  private void applyAgents(ConversationAgent[] rawAgents) {
+    if (rawAgents == null) {
+      return;
+    }
+    List<ConversationAgent> newAgents = new ArrayList<>();
+    for (ConversationAgent agent : rawAgents) {
+      String agentSlug = agent.getSlug();
+      // @see ui.chat.ChatView#replaceWorkspaceCommand(String)
+      if (agentSlug.equals("project")) {
+        if (!FeatureFlags.isWorkspaceContextEnabled()) {
+          continue;
+        }
+
+        agent.setSlug("workspace");
+      }
+      newAgents.add(agent);
+    }
+    if (!newAgents.equals(agents)) {
+      agents = newAgents;
+      updateAllCommands();
+    }
+  }
+
+  private synchronized void updateAllCommands() {
+    Set<String> newCommands = new HashSet<>();
+    for (ConversationTemplate template : templates) {
+      newCommands.add(TEMPLATE_MARK + template.getId());
+    }
+    for (ConversationAgent agent : agents) {
+      newCommands.add(AGENT_MARK + agent.getSlug());
+    }
+    allCommands = newCommands;
+  }
+
   /**
    * Find a broken slash command in the given text.
    *
@@ -194,10 +253,13 @@ public class ChatCompletionService implements CopilotAuthStatusListener {
       case CopilotStatusResult.OK:
         initAsync();
         break;
+      case CopilotStatusResult.LOADING:
+        // keep the commands restored from the catalog until the status is known.
+        break;
       default:
-        allCommands.clear();
-        templates.clear();
-        agents.clear();
+        allCommands = new HashSet<>();
+        templates = new ArrayList<>();
+        agents = new ArrayList<>();
         break;
     }
   }
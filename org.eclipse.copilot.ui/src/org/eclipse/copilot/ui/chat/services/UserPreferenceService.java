@@ -15,7 +15,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.databinding.observable.sideeffect.ISideEffect;
@@ -39,6 +42,7 @@ import org.eclipse.copilot.core.AuthStatusManager;
 import org.eclipse.copilot.core.CopilotAuthStatusListener;
 import org.eclipse.copilot.core.CopilotCore;
 import org.eclipse.copilot.core.FeatureFlags;
+import org.eclipse.copilot.core.chat.ChatCatalog;
 import org.eclipse.copilot.core.chat.InputNavigation;
 import org.eclipse.copilot.core.chat.UserPreference;
 import org.eclipse.copilot.core.events.CopilotEventConstants;
@@ -124,6 +128,7 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
         // the next sign in account.
         if (statusResult.isNotSignedIn()) {
           clearUserPreferenceCache();
+          CopilotCore.getPlugin().getChatCatalogStore().clear();
           this.inputNavigation = null;
         }
       }
@@ -152,9 +157,36 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
       CopilotCore.LOGGER.error(new IllegalStateException("Event broker is null"));
     }
 
+    String status = authStatusManager.getCopilotStatus();
+    if (CopilotStatusResult.LOADING.equals(status) || CopilotStatusResult.OK.equals(status)) {
+      restoreFromCatalog();
+    }
     init();
   }
 
+  /**
+   * Render the models and the selection of the last persisted catalog until the language server answers, so the model
+   * picker is usable at startup.
+   */
+  private void restoreFromCatalog() {
+    ChatCatalog catalog = CopilotCore.getPlugin().getChatCatalogStore().load(authStatusManager.getUserName());
+    if (catalog == null || catalog.getModels() == null) {
+      return;
+    }
+    applyModels(catalog.getModels());
+    if (defaultModel == null) {
+      return;
+    }
+    String chatModeName = catalog.getChatModeName() != null ? catalog.getChatModeName() : ChatMode.Agent.toString();
+    String modelId = catalog.getChatModel() != null ? catalog.getChatModel() : defaultModel.getId();
+    try {
+      // the selection comes from the catalog, so it is not persisted again.
+      restoreSelection(chatModeName, modelId, false);
+    } catch (IllegalArgumentException e) {
+      CopilotCore.LOGGER.error("Failed to restore the chat mode from the catalog", e);
+    }
+  }
+
   private void init() {
     if (authStatusManager.isSignedIn()) {
       Job job = new Job("Fetching model list...") {
@@ -163,21 +195,8 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
           try {
             // fetch the models
             CopilotModel[] modelArray = lsConnection.listModels().get();
-            Map<String, CopilotModel> newModels = new HashMap<>();
-            for (CopilotModel model : modelArray) {
-              boolean supportsChat = model.getScopes().contains(CopilotScope.CHAT_PANEL);
-              boolean supportsAgent = model.getScopes().contains(CopilotScope.AGENT_PANEL);
-              if (supportsChat || supportsAgent) {
-                newModels.put(model.getId(), model);
-              }
-              if (defaultModel == null && model.isChatDefault()) {
-                defaultModel = model;
-              }
-              if (fallbackModel == null && model.isChatFallback()) {
-                fallbackModel = model;
-              }
-            }
-            models = newModels;
+            persistCatalog(catalog -> catalog.setModels(modelArray));
+            applyModels(modelArray);
 
             restoreFromUserPreference();
           } catch (InterruptedException | ExecutionException e) {
@@ -200,15 +219,59 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
     return Arrays.stream(ChatMode.values()).map(ChatMode::displayName).toArray(String[]::new);
   }
 
+  /**
+   * Replace the models with the ones answered by the language server.
+   */
+  private void applyModels(CopilotModel[] modelArray) {
+    Map<String, CopilotModel> newModels = new HashMap<>();
+    CopilotModel newDefaultModel = null;
+    CopilotModel newFallbackModel = null;
+    for (CopilotModel model : modelArray) {
+      boolean supportsChat = model.getScopes().contains(CopilotScope.CHAT_PANEL);
+      boolean supportsAgent = model.getScopes().contains(CopilotScope.AGENT_PANEL);
+      if (supportsChat || supportsAgent) {
+        newModels.put(model.getId(), model);
+      }
+      if (newDefaultModel == null && model.isChatDefault()) {
+        newDefaultModel = model;
+      }
+      if (newFallbackModel == null && model.isChatFallback()) {
+        newFallbackModel = model;
+      }
+    }
+    defaultModel = newDefaultModel;
+    fallbackModel = newFallbackModel;
+    models = newModels;
+  }
+
   private void restoreFromUserPreference() {
-    String chatModeName = restoreChatModeName();
+    restoreSelection(restoreChatModeName(), restoreModelId(), true);
+
+    // restore the input history
+    inputNavigation = new InputNavigation(restoreUserInputs());
+  }
+
+  /**
+   * Restore the chat mode, the model list for the mode and the active model. The observables are only updated when
+   * their value changes, so reconciling the models of the catalog with the live ones does not rebuild the pickers.
+   *
+   * @param persist whether to remember the selection in the catalog. It is only written when the chat mode or the
+   *     active model changed.
+   */
+  private void restoreSelection(String chatModeName, String modelId, boolean persist) {
     ChatMode chatMode = ChatMode.valueOf(chatModeName);
     FeatureFlags flags = CopilotCore.getPlugin().getFeatureFlags();
     if (flags != null && !flags.isAgentModeEnabled()) {
       chatMode = ChatMode.Ask; // Only Ask mode is available
     }
     final ChatMode finalChatMode = chatMode;
-    ensureRealm(() -> activeChatModeObservable.setValue(finalChatMode));
+    AtomicReference<ChatMode> previousChatMode = new AtomicReference<>();
+    AtomicReference<CopilotModel> previousModel = new AtomicReference<>();
+    ensureRealm(() -> {
+      previousChatMode.set(activeChatModeObservable.getValue());
+      previousModel.set(activeModelObservable.getValue());
+      setIfChanged(activeChatModeObservable, finalChatMode);
+    });
 
     // restore the model list for current chat mode
     final Map<String, CopilotModel> modelsForCurrentMode = new HashMap<>();
@@ -218,19 +281,39 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
         modelsForCurrentMode.put(model.getId(), model);
       }
     }
-    ensureRealm(() -> modelObservable.setValue(modelsForCurrentMode));
+    ensureRealm(() -> setIfChanged(modelObservable, modelsForCurrentMode));
 
     // restore the active model
-    final String modelId = restoreModelId();
     CopilotModel model = models.get(modelId);
     if (!ensureModelCanBeEnabled(model, chatMode)) {
       model = defaultModel;
     }
     final CopilotModel finalModel = model;
-    ensureRealm(() -> activeModelObservable.setValue(finalModel));
+    ensureRealm(() -> setIfChanged(activeModelObservable, finalModel));
+    if (persist && (!Objects.equals(previousChatMode.get(), chatMode)
+        || !Objects.equals(previousModel.get(), finalModel))) {
+      persistCatalogSelection(chatMode, finalModel);
+    }
+  }
 
-    // restore the input history
-    inputNavigation = new InputNavigation(restoreUserInputs());
+  private static <T> void setIfChanged(IObservableValue<T> observable, T value) {
+    if (!Objects.equals(observable.getValue(), value)) {
+      observable.setValue(value);
+    }
+  }
+
+  private void persistCatalog(Consumer<ChatCatalog> updater) {
+    CopilotCore.getPlugin().getChatCatalogStore().update(authStatusManager.getUserName(), updater);
+  }
+
+  /**
+   * Remember the selected chat mode and model in the catalog, so they are restored at startup.
+   */
+  private void persistCatalogSelection(ChatMode chatMode, CopilotModel model) {
+    persistCatalog(catalog -> {
+      catalog.setChatModeName(chatMode == null ? null : chatMode.toString());
+      catalog.setChatModel(model == null ? null : model.getId());
+    });
   }
 
   private String restoreModelId() {
@@ -320,6 +403,7 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
     UserPreference preference = getUserPreference();
     preference.setChatModeName(chatModeName);
     persistUserPreference();
+    persistCatalog(catalog -> catalog.setChatModeName(chatModeName));
 
     ensureRealm(() -> activeChatModeObservable.setValue(ChatMode.valueOf(chatModeName)));
   }
@@ -380,6 +464,7 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
     UserPreference preference = getUserPreference();
     preference.setChatModel(model.getId());
     persistUserPreference();
+    persistCatalog(catalog -> catalog.setChatModel(model.getId()));
 
     ensureRealm(() -> activeModelObservable.setValue(model));
   }
@@ -424,7 +509,7 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
         return this.chatModeObservable.getValue();
       }, (String[] chatModes) -> {
         if (!combo.isDisposed()) {
-          combo.setItems(chatModes);
+          setItemsIfChanged(combo, chatModes);
           if (chatModes.length == 1) {
             combo.select(0);
           }
@@ -543,7 +628,7 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
         }
       }, (String[] modelNames) -> {
         if (!combo.isDisposed()) {
-          combo.setItems(modelNames);
+          setItemsIfChanged(combo, modelNames);
           updateSelectionForActiveModel(combo);
         }
       });
@@ -737,6 +822,16 @@ public class UserPreferenceService extends ChatBaseService implements CopilotAut
     }
   }
 
+  /**
+   * Set the items of a combo unless they are the same, e.g. when the live models match the ones of the catalog, so the
+   * combo is not rebuilt and its selection does not flicker.
+   */
+  private void setItemsIfChanged(Combo combo, String[] items) {
+    if (!Arrays.equals(combo.getItems(), items)) {
+      combo.setItems(items);
+    }
+  }
+
   private void dismissComboSelection(SelectionEvent e, Combo combo) {
     // Prevent selection of header items
     e.doit = false;
@@ -13,12 +13,15 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.DefaultPositionUpdater;
@@ -34,12 +37,14 @@ import org.eclipse.jface.text.codemining.ICodeMining;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.events.KeyEvent;
 import org.eclipse.swt.events.KeyListener;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.events.MouseListener;
+import org.eclipse.swt.events.PaintListener;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.contexts.IContextActivation;
 import org.eclipse.ui.contexts.IContextService;
@@ -49,8 +54,12 @@ import org.eclipse.ui.texteditor.ITextEditor;
 import org.eclipse.copilot.core.Constants;
 import org.eclipse.copilot.core.CopilotCore;
 import org.eclipse.copilot.core.completion.AcceptSuggestionType;
+import org.eclipse.copilot.core.completion.CompletionLatencyTracer.Stage;
 import org.eclipse.copilot.core.completion.CompletionListener;
 import org.eclipse.copilot.core.completion.CompletionProvider;
+import org.eclipse.copilot.core.completion.CompletionScheduler;
+import org.eclipse.copilot.core.completion.CompletionTriggerPolicy.Decision;
+import org.eclipse.copilot.core.completion.LocalSuggestionProvider;
 import org.eclipse.copilot.core.completion.SuggestionUpdateManager;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
@@ -81,11 +90,34 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
   protected org.eclipse.jface.text.Position triggerPosition;
   protected List<ICodeMining> codeMinings;
   protected int cachedModelOffset;
+  protected boolean highSignalKeyReleased;
+
+  /**
+   * The contiguous run of insertions typed at the caret since the last edit of any other kind. Stale completion
+   * responses requested within this run can be rebased onto the current document. The start version is
+   * <code>-1</code> until the first document version of the run is known.
+   */
+  protected int typeAheadStartOffset;
+  protected int typeAheadEndOffset;
+  protected int typeAheadStartVersion;
 
   protected DefaultPositionUpdater positionUpdater;
+  protected CaretTracker caretTracker;
+  protected Supplier<CompletableFuture<LanguageServerWrapper>> connectionRequester;
   protected boolean autoShowCompletion;
   protected LanguageServerSettingManager settingsManager;
 
+  /**
+   * The generation of the suggestion the user asked to cycle before its alternatives arrived, or <code>-1</code>.
+   */
+  private int pendingCycleGeneration = -1;
+  private boolean pendingCycleForward;
+
+  /**
+   * Records the rendering of the last resolved suggestion once it is painted, or <code>null</code> if it is recorded.
+   */
+  private PaintListener renderPaintListener;
+
   /**
    * Creates a new completion manager. The manager is responsible for trigger the completion, apply suggestions to the
    * document. And schedule the rendering of ghost text.
@@ -119,20 +151,20 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     }
     this.settingsManager = settingsManager;
     this.provider = provider;
-    this.provider.addCompletionListener(this);
+    this.provider.addCompletionListener(this.documentUri.toASCIIString(), this);
     this.documentVersion = -1;
     this.triggerPosition = new Position(0);
+    resetTypeAhead(0);
+    this.caretTracker = new CaretTracker(this.textViewer, this.document, this::lookUpDocumentVersion);
 
     // initialize the auto show completion preference and add listener to update it.
     this.autoShowCompletion = settingsManager.getSettings().isEnableAutoCompletions();
 
+    registerListeners();
+
     // Cache the model offset to clear line vertical offset when the line is out of the visible range.
     // We cache the model offset here because the caret offset won't update when code blocks are collapsed.
-    SwtUtils.invokeOnDisplayThread(() -> {
-      this.cachedModelOffset = UiUtils.widgetOffset2ModelOffset(textViewer, this.styledText.getCaretOffset());
-    }, this.styledText);
-
-    registerListeners();
+    this.cachedModelOffset = this.caretTracker.getModelOffset();
   }
 
   private boolean initializeDocument() {
@@ -157,6 +189,7 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
   }
 
   private void registerListeners() {
+    this.caretTracker.install();
     SwtUtils.invokeOnDisplayThread(() -> {
       this.styledText.addKeyListener(this);
       this.styledText.addMouseListener(this);
@@ -179,6 +212,10 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     }
 
     this.cachedModelOffset = UiUtils.widgetOffset2ModelOffset(textViewer, event.getOffset());
+    if (this.documentUri != null) {
+      this.provider.cancelPrefetch(this.documentUri.toASCIIString());
+    }
+    updateTypeAhead(event);
     if (isReplacement(event)) {
       clearGhostTexts();
     } else if (isDeletion(event)) {
@@ -219,23 +256,188 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     return StringUtils.isEmpty(event.getReplacedText()) && StringUtils.isNotEmpty(event.getText());
   }
 
+  /**
+   * Track the run of contiguous insertions at the caret. Any other edit starts a new run after the edited region.
+   */
+  protected void updateTypeAhead(TextEvent event) {
+    if (isInsertion(event) && this.typeAheadStartVersion >= 0 && this.cachedModelOffset == this.typeAheadEndOffset) {
+      this.typeAheadEndOffset += event.getText().length();
+    } else {
+      resetTypeAhead(this.cachedModelOffset + StringUtils.length(event.getText()));
+    }
+  }
+
+  private void resetTypeAhead(int offset) {
+    this.typeAheadStartOffset = offset;
+    this.typeAheadEndOffset = offset;
+    this.typeAheadStartVersion = -1;
+  }
+
+  /**
+   * Get the text typed after the given completion was requested, or <code>null</code> if the document has changed in
+   * any other way since then, in which case the completion cannot be rebased onto the current document.
+   */
+  @Nullable
+  protected String getTypedAheadText(CompletionItem item) {
+    if (this.typeAheadStartVersion < 0 || item.getDocVersion() < this.typeAheadStartVersion
+        || this.triggerPosition.getOffset() != this.typeAheadEndOffset) {
+      return null;
+    }
+    try {
+      int requestOffset = LSPEclipseUtils.toOffset(item.getPosition(), this.document);
+      if (requestOffset < this.typeAheadStartOffset || requestOffset >= this.typeAheadEndOffset) {
+        return null;
+      }
+      return this.document.get(requestOffset, this.typeAheadEndOffset - requestOffset);
+    } catch (BadLocationException e) {
+      return null;
+    }
+  }
+
+  private int lookUpDocumentVersion() {
+    long start = System.nanoTime();
+    int version = this.lsConnection.getDocumentVersion(this.documentUri);
+    this.provider.recordLatency(this.documentUri.toASCIIString(), null, Stage.DOCUMENT_VERSION,
+        System.nanoTime() - start);
+    return version;
+  }
+
   @Override
   public void onCompletionResolved(String uriString, List<CompletionItem> completions) {
-    if (!Objects.equals(uriString, this.documentUri.toASCIIString())) {
+    if (completions.isEmpty()) {
+      withdrawLocalSuggestion();
       return;
     }
+    long start = System.nanoTime();
 
-    if (completions.isEmpty()) {
-      return;
+    if (completions.get(0).getDocVersion() != this.caretTracker.getDocumentVersion()) {
+      // the response is stale, salvage it if the user has only typed ahead along the suggestion since the request.
+      if (this.suggestionUpdateManager.getSize() > 0) {
+        return;
+      }
+      String typedAhead = getTypedAheadText(completions.get(0));
+      if (typedAhead == null) {
+        return;
+      }
+      this.suggestionUpdateManager.setCompletionItems(completions);
+      if (!this.suggestionUpdateManager.insert(typedAhead)) {
+        return;
+      }
+    } else {
+      if (isDisplayed(completions.get(0))) {
+        // typing through the displayed suggestion resolved it again, keep it along with its alternatives.
+        return;
+      }
+      // a local suggestion is replaced even by the identical server item, which is reported to the language server and
+      // has alternatives. The trigger position is kept, so the suggestion stays where it was typed.
+      this.suggestionUpdateManager.setCompletionItems(completions);
     }
+    String uuid = completions.get(0).getUuid();
+    long setupEnd = System.nanoTime();
+    this.provider.recordLatency(uriString, uuid, Stage.SUGGESTION_SETUP, setupEnd - start);
+    enableContext();
+    this.updateGhostTexts(this.triggerPosition);
+    recordRenderOnPaint(uriString, uuid, setupEnd);
+    this.notifyShown();
+    requestAlternatives(false);
+  }
+
+  /**
+   * Record the rendering of the suggestion when the editor is painted next. The ghost texts are laid out and painted
+   * asynchronously by the code minings, so updating them does not mean they are visible yet.
+   *
+   * @param start when the rendering started, in nanoseconds.
+   */
+  private void recordRenderOnPaint(String uriString, String uuid, long start) {
+    SwtUtils.invokeOnDisplayThread(() -> {
+      if (this.styledText == null || this.styledText.isDisposed()) {
+        return;
+      }
+      if (this.renderPaintListener != null) {
+        // the previous suggestion was replaced before it got painted.
+        this.styledText.removePaintListener(this.renderPaintListener);
+      }
+      this.renderPaintListener = event -> {
+        this.styledText.removePaintListener(this.renderPaintListener);
+        this.renderPaintListener = null;
+        this.provider.recordLatency(uriString, uuid, Stage.RENDER, System.nanoTime() - start);
+      };
+      this.styledText.addPaintListener(this.renderPaintListener);
+    }, this.styledText);
+  }
 
-    if (completions.get(0).getDocVersion() != this.lsConnection.getDocumentVersion(this.documentUri)) {
+  /**
+   * Clear the displayed local suggestion, if any, when its request ended without a suggestion of the language server.
+   */
+  private void withdrawLocalSuggestion() {
+    SwtUtils.invokeOnDisplayThreadAsync(() -> {
+      CompletionItem displayedItem = this.suggestionUpdateManager.getCurrentItem();
+      if (displayedItem != null && LocalSuggestionProvider.isLocal(displayedItem.getUuid())) {
+        clearGhostTexts();
+      }
+    }, this.styledText);
+  }
+
+  private boolean isDisplayed(CompletionItem item) {
+    CompletionItem displayedItem = this.suggestionUpdateManager.getCurrentItem();
+    return displayedItem != null && !LocalSuggestionProvider.isLocal(displayedItem.getUuid())
+        && Objects.equals(displayedItem.getDisplayText(), item.getDisplayText())
+        && Objects.equals(displayedItem.getPosition(), item.getPosition());
+  }
+
+  /**
+   * Request the alternatives of the displayed suggestion in the background. They are added to the suggestion once
+   * resolved, unless another suggestion is displayed by then.
+   *
+   * @param immediate whether to skip the dwell time of the request.
+   */
+  protected void requestAlternatives(boolean immediate) {
+    CompletionItem item = this.suggestionUpdateManager.getCurrentOriginalItem();
+    IFile file = LSPEclipseUtils.getFile(this.document);
+    if (item == null || file == null) {
       return;
     }
+    int generation = this.suggestionUpdateManager.getGeneration();
+    this.provider.requestAlternatives(file, item, immediate, alternatives -> SwtUtils
+        .invokeOnDisplayThreadAsync(() -> onAlternativesResolved(generation, alternatives), this.styledText));
+  }
 
-    this.suggestionUpdateManager.setCompletionItems(completions);
-    enableContext();
-    this.updateGhostTexts(this.triggerPosition);
+  private void onAlternativesResolved(int generation, List<CompletionItem> alternatives) {
+    boolean cycle = this.pendingCycleGeneration == generation;
+    this.pendingCycleGeneration = -1;
+    if (this.suggestionUpdateManager.addAlternatives(generation, alternatives) > 0 && cycle) {
+      cycleSuggestion(this.pendingCycleForward);
+    }
+  }
+
+  /**
+   * Cancel the alternatives request of the displayed suggestion, e.g. when it is cleared.
+   */
+  protected void cancelAlternatives() {
+    this.pendingCycleGeneration = -1;
+    if (this.provider != null && this.documentUri != null) {
+      this.provider.cancelAlternatives(this.documentUri.toASCIIString());
+    }
+  }
+
+  /**
+   * Display the next or previous alternative of the suggestion. When the alternatives have not been resolved yet, they
+   * are requested at once and the suggestion is cycled when they arrive, so this never waits for the language server.
+   *
+   * @param forward whether to display the next alternative, or the previous one.
+   */
+  public void cycleSuggestion(boolean forward) {
+    if (this.suggestionUpdateManager.getSize() == 0) {
+      return;
+    }
+    boolean cycled = forward ? this.suggestionUpdateManager.next() : this.suggestionUpdateManager.previous();
+    if (!cycled) {
+      this.pendingCycleGeneration = this.suggestionUpdateManager.getGeneration();
+      this.pendingCycleForward = forward;
+      requestAlternatives(true);
+      return;
+    }
+    this.updateGhostTexts(new Position(getModelOffsetFromCaretPosition()));
     this.notifyShown();
   }
 
@@ -246,8 +448,20 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
 
   @Override
   public void inputDocumentChanged(IDocument oldInput, IDocument newInput) {
+    URI oldUri = this.documentUri;
     this.document = newInput;
+    if (this.caretTracker != null && newInput != null) {
+      this.caretTracker.setDocument(newInput);
+    }
     initializeDocument();
+    if (this.provider != null && !Objects.equals(oldUri, this.documentUri)) {
+      if (oldUri != null) {
+        this.provider.removeCompletionListener(oldUri.toASCIIString(), this);
+      }
+      if (this.documentUri != null) {
+        this.provider.addCompletionListener(this.documentUri.toASCIIString(), this);
+      }
+    }
     CopilotCore.LOGGER.info("Completion handler is refreshed for the document: " + this.documentUri);
   }
 
@@ -263,69 +477,75 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
    */
   public abstract void clearGhostTexts();
 
-  /**
-   * Get the current document line based on the trigger position. This is used to get the current line of text where the
-   * completion is triggered.
-   *
-   * @return the current document line as a string.
-   * @throws BadLocationException if the trigger position is invalid.
-   */
-  protected String getCurrentLine(Position position) throws BadLocationException {
-    String documentContent = this.document.get();
-    int triggerOffset = position.getOffset();
-    String documentLine = "";
-    int lineOffset = this.document.getLineOfOffset(triggerOffset);
-    if (lineOffset == this.document.getNumberOfLines() - 1) {
-      // this is the last line
-      documentLine = documentContent.substring(triggerOffset);
-    } else {
-      for (int i = triggerOffset; i < this.document.getLength(); i++) {
-        if (isNewLineCharacter(documentContent, i)) {
-          documentLine = documentContent.substring(triggerOffset, i);
-          break;
-        }
-      }
+  @Override
+  public void propertyChange(PropertyChangeEvent event) {
+    if (event.getProperty().equals(Constants.AUTO_SHOW_COMPLETION)) {
+      this.autoShowCompletion = Boolean.parseBoolean(event.getNewValue().toString());
     }
-    return documentLine;
   }
 
   /**
-   * Check if the character at the given index in the document content is a new line character.
-   *
-   * @param documentContent The content of the document.
-   * @param index The index to check.
-   * @return true if the character is a new line character, false otherwise.
-   */
-  protected boolean isNewLineCharacter(String documentContent, int index) {
-    char currentChar = documentContent.charAt(index);
-    boolean isLineFeed = currentChar == '\n';
-    if (isLineFeed) {
-      return true;
-    } else {
-      return currentChar == '\r' && index + 1 < this.document.getLength() && documentContent.charAt(index + 1) == '\n';
+   * Trigger the inline completion explicitly. The request is sent without debouncing.
+   */
+  public void triggerCompletion() {
+    CompletableFuture<LanguageServerWrapper> connection = this.connectionRequester == null ? null
+        : this.connectionRequester.get();
+    if (connection == null) {
+      triggerCompletion(true);
+      return;
     }
+    // the document is connected lazily, so the completion is requested once the language server has opened it.
+    connection.thenRun(() -> SwtUtils.invokeOnDisplayThreadAsync(() -> {
+      this.caretTracker.invalidateDocumentVersion();
+      this.documentVersion = this.caretTracker.getDocumentVersion();
+      triggerCompletion(true);
+    }, this.styledText));
   }
 
-  @Override
-  public void propertyChange(PropertyChangeEvent event) {
-    if (event.getProperty().equals(Constants.AUTO_SHOW_COMPLETION)) {
-      this.autoShowCompletion = Boolean.parseBoolean(event.getNewValue().toString());
-    }
+  /**
+   * Record that the user dismissed the suggestion, so no completion is triggered automatically until the caret leaves
+   * the current line.
+   */
+  public void recordDismissed() {
+    this.provider.getTriggerPolicy().recordDismissed(this.documentUri.toASCIIString(), this.caretTracker.getLine());
+  }
+
+  /**
+   * Set how the document is connected to the language server when a completion is explicitly triggered before the
+   * document is connected. The supplier returns <code>null</code> when the document is already connected.
+   */
+  public void setConnectionRequester(Supplier<CompletableFuture<LanguageServerWrapper>> connectionRequester) {
+    this.connectionRequester = connectionRequester;
   }
 
   /**
    * Trigger the inline completion.
+   *
+   * @param immediate whether to skip the debounce of the completion provider.
    */
-  public void triggerCompletion() {
+  protected void triggerCompletion(boolean immediate) {
     try {
       IFile file = LSPEclipseUtils.getFile(document);
-      this.provider.triggerCompletion(file, LSPEclipseUtils.toPosition(this.triggerPosition.getOffset(), this.document),
-          documentVersion);
+      this.provider.triggerCompletion(file, this.document,
+          LSPEclipseUtils.toPosition(this.triggerPosition.getOffset(), this.document), documentVersion, immediate);
     } catch (BadLocationException e) {
       CopilotCore.LOGGER.error(e);
     }
   }
 
+  /**
+   * Speculatively request the next completion at the trigger position, which is where the caret lands after a
+   * suggestion is accepted.
+   */
+  protected void prefetchCompletion() throws BadLocationException {
+    if (!this.autoShowCompletion) {
+      return;
+    }
+    IFile file = LSPEclipseUtils.getFile(document);
+    this.provider.prefetchCompletion(file, LSPEclipseUtils.toPosition(this.triggerPosition.getOffset(), this.document),
+        this.caretTracker.getDocumentVersion());
+  }
+
   /**
    * Accept completion suggestion.
    */
@@ -343,6 +563,9 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
           break;
       }
       this.document.removePosition(this.triggerPosition);
+      if (type == AcceptSuggestionType.FULL) {
+        prefetchCompletion();
+      }
     } catch (BadLocationException e) {
       CopilotCore.LOGGER.error(e);
       return;
@@ -374,6 +597,7 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     }
     int endOffset = LSPEclipseUtils.toOffset(item.getRange().getEnd(), this.document);
     this.document.replace(startOffset, endOffset - startOffset, text);
+    this.provider.recordAcceptedText(item.getText());
   }
 
   /**
@@ -411,8 +635,8 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
    * Disposes the resources of this completion handler.
    */
   public void dispose() {
-    if (this.provider != null) {
-      this.provider.removeCompletionListener(this);
+    if (this.provider != null && this.documentUri != null) {
+      this.provider.removeCompletionListener(this.documentUri.toASCIIString(), this);
     }
 
     if (this.settingsManager != null) {
@@ -437,9 +661,16 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
           cm.textViewer.removeTextInputListener(cm);
         }
 
+        if (cm.caretTracker != null) {
+          cm.caretTracker.uninstall();
+        }
+
         if (cm.styledText != null && !cm.styledText.isDisposed()) {
           cm.styledText.removeKeyListener(cm);
           cm.styledText.removeMouseListener(cm);
+          if (cm.renderPaintListener != null) {
+            cm.styledText.removePaintListener(cm.renderPaintListener);
+          }
         }
         return Status.OK_STATUS;
       }
@@ -454,7 +685,8 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
 
   /**
    * Notify the language server that the completion suggestion is shown. This is used to track the usage of the
-   * completion suggestions.
+   * completion suggestions. The {@link LocalSuggestionProvider local suggestions} are unknown to the language server,
+   * so they are not reported.
    */
   protected void notifyShown() {
     if (this.suggestionUpdateManager.getSize() == 0) {
@@ -462,7 +694,7 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     }
 
     CompletionItem item = this.suggestionUpdateManager.getCurrentItem();
-    if (item == null) {
+    if (item == null || LocalSuggestionProvider.isLocal(item.getUuid())) {
       return;
     }
 
@@ -529,7 +761,9 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
   public void keyReleased(KeyEvent e) {
     // Skip completion triggering when the key is ESC
     if (e.character != SWT.ESC) {
+      this.highSignalKeyReleased = CompletionScheduler.isHighSignalCharacter(e.character);
       handleCaretPositionChange();
+      this.highSignalKeyReleased = false;
     }
   }
 
@@ -540,8 +774,12 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     // it's guaranteed that the document change event comes earlier than keyReleased
     // To verify this behavior, set breakpoints in org.eclipse.lsp4e.DocumentContentSynchronizer
     // at the line: changeParamsToSend.getTextDocument().setVersion(++version); and this class's keyReleased method.
-    // Then trigger completion to verify the event.
-    int currentVersion = this.lsConnection.getDocumentVersion(this.documentUri);
+    // Then trigger completion to verify the event. The version is only looked up when the document has changed, so
+    // navigation keys and clicks do not cost a lookup.
+    int currentVersion = this.caretTracker.getDocumentVersion();
+    if (this.typeAheadStartVersion < 0) {
+      this.typeAheadStartVersion = currentVersion;
+    }
     if (this.documentVersion < 0) {
       // initialize the document version and return. This avoids the ghost text
       // being rendered when user opens the editor and just clicks in it.
@@ -554,6 +792,7 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     if (this.triggerPosition.offset == modelOffset) {
       return;
     }
+    this.provider.getTriggerPolicy().caretMoved(this.documentUri.toASCIIString(), this.caretTracker.getLine());
     this.triggerPosition = new Position(modelOffset);
     if (currentVersion == this.documentVersion) {
       // if the caret position is changed without document version change, we should remove the ghost text.
@@ -561,22 +800,22 @@ public abstract class BaseCompletionManager implements KeyListener, MouseListene
     } else {
       this.documentVersion = currentVersion;
       if (this.autoShowCompletion) {
-        triggerCompletion();
+        Decision decision = this.provider.getTriggerPolicy().evaluate(this.documentUri.toASCIIString(), this.document,
+            modelOffset, this.caretTracker.getLine());
+        if (decision != Decision.SUPPRESS) {
+          triggerCompletion(this.highSignalKeyReleased && decision == Decision.TRIGGER);
+        }
       }
     }
     redrawBlockLineAtModelOffset(modelOffset);
   }
 
   /**
-   * Gets the model offset from the current caret position using the display thread. This ensures thread safety when
-   * accessing UI components.
+   * Gets the model offset of the current caret position, as tracked from the caret events. This does not access the UI
+   * components, so it does not block on the display thread.
    */
   protected int getModelOffsetFromCaretPosition() {
-    int[] modelOffsetHolder = new int[1];
-    SwtUtils.invokeOnDisplayThread(() -> {
-      modelOffsetHolder[0] = UiUtils.widgetOffset2ModelOffset(textViewer, styledText.getCaretOffset());
-    }, this.styledText);
-    return modelOffsetHolder[0];
+    return this.caretTracker.getModelOffset();
   }
 
   /**
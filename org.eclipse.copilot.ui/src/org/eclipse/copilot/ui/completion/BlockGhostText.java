@@ -27,6 +27,11 @@ import org.eclipse.copilot.ui.utils.CompletionUtils;
  */
 public class BlockGhostText extends GhostText {
 
+  /**
+   * The height of the rendered text, computed when the ghost text is laid out.
+   */
+  private int height;
+
   /**
    * Creates a new EolGhostText.
    */
@@ -49,6 +54,11 @@ public class BlockGhostText extends GhostText {
     this.text = replacedText;
   }
 
+  @Override
+  public void layout(StyledText styledText, int widgetOffset, GC gc) {
+    this.height = gc.textExtent(this.text).y;
+  }
+
   @Override
   public void draw(StyledText styledText, int widgetOffset, GC gc) {
     if (StringUtils.isNotBlank(this.text)) {
@@ -57,4 +67,8 @@ public class BlockGhostText extends GhostText {
       gc.drawText(this.text, styledText.getLeftMargin(), y, true);
     }
   }
+
+  public int getHeight() {
+    return height;
+  }
 }
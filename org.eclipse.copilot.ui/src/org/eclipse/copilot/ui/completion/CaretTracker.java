@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.ui.completion;
+
+import java.util.function.IntSupplier;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.swt.custom.CaretEvent;
+import org.eclipse.swt.custom.CaretListener;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.copilot.ui.utils.SwtUtils;
+import org.eclipse.copilot.ui.utils.UiUtils;
+
+/**
+ * Tracks the caret and the document version of an editor from the widget and document events. The values are kept in
+ * fields, so the completion triggering logic can read them from any thread without hopping to the display thread. The
+ * document version is looked up from the language server connection only after the document has changed, so moving the
+ * caret around does not cost a lookup.
+ */
+public class CaretTracker implements CaretListener, IDocumentListener {
+
+  private final ITextViewer textViewer;
+  private final StyledText styledText;
+  private final IntSupplier documentVersionSupplier;
+  private IDocument document;
+
+  private volatile int modelOffset;
+  private volatile int line;
+  private volatile int documentVersion = -1;
+  private volatile boolean documentVersionStale = true;
+
+  /**
+   * Creates a new CaretTracker.
+   *
+   * @param textViewer the text viewer of the editor.
+   * @param document the document of the editor.
+   * @param documentVersionSupplier looks up the document version known by the language server.
+   */
+  public CaretTracker(ITextViewer textViewer, IDocument document, IntSupplier documentVersionSupplier) {
+    this.textViewer = textViewer;
+    this.styledText = textViewer.getTextWidget();
+    this.document = document;
+    this.documentVersionSupplier = documentVersionSupplier;
+  }
+
+  /**
+   * Start listening to the caret and the document, and read the current caret position.
+   */
+  public void install() {
+    this.document.addDocumentListener(this);
+    SwtUtils.invokeOnDisplayThread(() -> {
+      this.styledText.addCaretListener(this);
+      updateCaret(this.styledText.getCaretOffset());
+    }, this.styledText);
+  }
+
+  /**
+   * Stop listening to the caret and the document. Must be called on the display thread.
+   */
+  public void uninstall() {
+    this.document.removeDocumentListener(this);
+    if (!this.styledText.isDisposed()) {
+      this.styledText.removeCaretListener(this);
+    }
+  }
+
+  /**
+   * Follow the new input document of the editor.
+   */
+  public void setDocument(IDocument newDocument) {
+    if (this.document == newDocument) {
+      return;
+    }
+    this.document.removeDocumentListener(this);
+    this.document = newDocument;
+    this.document.addDocumentListener(this);
+    this.documentVersionStale = true;
+  }
+
+  @Override
+  public void caretMoved(CaretEvent event) {
+    updateCaret(event.caretOffset);
+  }
+
+  private void updateCaret(int widgetOffset) {
+    int offset = UiUtils.widgetOffset2ModelOffset(this.textViewer, widgetOffset);
+    this.modelOffset = offset;
+    try {
+      this.line = this.document.getLineOfOffset(offset);
+    } catch (BadLocationException e) {
+      this.line = -1;
+    }
+  }
+
+  @Override
+  public void documentAboutToBeChanged(DocumentEvent event) {
+    // do nothing
+  }
+
+  @Override
+  public void documentChanged(DocumentEvent event) {
+    this.documentVersionStale = true;
+  }
+
+  /**
+   * Force the next {@link #getDocumentVersion()} to look up the version, e.g. when the document is reconnected to the
+   * language server without being changed.
+   */
+  public void invalidateDocumentVersion() {
+    this.documentVersionStale = true;
+  }
+
+  /**
+   * Get the model offset of the caret.
+   */
+  public int getModelOffset() {
+    return this.modelOffset;
+  }
+
+  /**
+   * Get the document line of the caret, or <code>-1</code> if it is unknown.
+   */
+  public int getLine() {
+    return this.line;
+  }
+
+  /**
+   * Get the document version known by the language server. It is only looked up when the document has changed since
+   * the last lookup.
+   */
+  public int getDocumentVersion() {
+    if (!this.documentVersionStale) {
+      return this.documentVersion;
+    }
+    if (Display.getCurrent() == null) {
+      // the document is changed on the display thread, and the language server may not have counted the change yet
+      // while it is being notified, so only the lookups made on the display thread are kept.
+      return this.documentVersionSupplier.getAsInt();
+    }
+    this.documentVersionStale = false;
+    this.documentVersion = this.documentVersionSupplier.getAsInt();
+    return this.documentVersion;
+  }
+}
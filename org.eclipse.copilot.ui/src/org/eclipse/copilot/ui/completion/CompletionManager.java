@@ -10,24 +10,34 @@
 package org.eclipse.copilot.ui.completion;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.codemining.AbstractCodeMining;
 import org.eclipse.jface.text.codemining.ICodeMining;
 import org.eclipse.jface.text.source.ISourceViewerExtension5;
+import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import org.eclipse.copilot.core.CopilotCore;
 import org.eclipse.copilot.core.completion.CompletionProvider;
+import org.eclipse.copilot.core.format.FormatOptionProvider;
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
 import org.eclipse.copilot.ui.completion.codemining.BlockGhostText;
 import org.eclipse.copilot.ui.completion.codemining.LineContentGhostText;
 import org.eclipse.copilot.ui.completion.codemining.LineEndGhostText;
 import org.eclipse.copilot.ui.preferences.LanguageServerSettingManager;
+import org.eclipse.copilot.ui.utils.CompletionUtils;
+import org.eclipse.copilot.ui.utils.SwtUtils;
+import org.eclipse.copilot.ui.utils.UiUtils;
 
 /**
  * A class to listen events which are completion related and notify the completion manager to render the ghost text or
@@ -35,6 +45,10 @@ import org.eclipse.copilot.ui.preferences.LanguageServerSettingManager;
  */
 public class CompletionManager extends BaseCompletionManager {
 
+  private final Map<String, String> renderedLabels = new HashMap<>();
+  private String renderedLabelsUuid;
+  private int renderedLabelsTabSize = -1;
+
   /**
    * Creates a new completion manager. The manager is responsible for trigger the completion, apply suggestions to the
    * document. And schedule the rendering of ghost text.
@@ -49,7 +63,19 @@ public class CompletionManager extends BaseCompletionManager {
    */
   @Override
   protected void updateGhostTexts(Position position) {
-    resolveCodeMiningGhostTexts(position);
+    List<ICodeMining> minings = resolveCodeMiningGhostTexts(position);
+    if (minings.isEmpty() && this.codeMinings.isEmpty()) {
+      return;
+    }
+    if (hasSameLayout(this.codeMinings, minings)) {
+      // only the labels changed, e.g. when typing through the suggestion. Update the displayed minings in place and
+      // repaint the trigger line instead of recomputing the minings of all the providers of the editor.
+      if (updateLabels(this.codeMinings, minings)) {
+        redrawLineAtModelOffset(position.getOffset());
+      }
+      return;
+    }
+    setCodeMinings(minings);
     this.updateCodeMinings();
   }
 
@@ -59,34 +85,68 @@ public class CompletionManager extends BaseCompletionManager {
   @Override
   public void clearGhostTexts() {
     disableContext();
+    cancelAlternatives();
     if (this.suggestionUpdateManager != null) {
       this.suggestionUpdateManager.reset();
     }
-    this.codeMinings.clear();
-    this.updateCodeMinings();
+    if (!this.codeMinings.isEmpty()) {
+      setCodeMinings(new ArrayList<>());
+      this.updateCodeMinings();
+    }
 
     // Clear legacy vertical indentation for the block ghost text line when the line is out of the visible range.
     // Fix issue: https://github.com/microsoft/copilot-eclipse/issues/105
     redrawBlockLineAtModelOffset(this.cachedModelOffset);
   }
 
-  private void updateCodeMinings() {
+  /**
+   * Recompute the code minings of all the providers of the editor.
+   */
+  protected void updateCodeMinings() {
     if (textViewer instanceof ISourceViewerExtension5 sve) {
       sve.updateCodeMinings();
     }
   }
 
-  private void resolveCodeMiningGhostTexts(Position position) {
-    if (this.suggestionUpdateManager.getSize() == 0) {
-      this.codeMinings.clear();
-      return;
+  /**
+   * Replace the displayed minings. Their positions are kept up to date with the document, so that they still match the
+   * minings laid out after the user typed through the suggestion.
+   */
+  private void setCodeMinings(List<ICodeMining> minings) {
+    for (ICodeMining mining : this.codeMinings) {
+      try {
+        this.document.removePosition(getCategory(), mining.getPosition());
+      } catch (BadPositionCategoryException e) {
+        // the category is removed when the manager is disposed.
+      }
+    }
+    this.codeMinings = minings;
+    for (ICodeMining mining : minings) {
+      try {
+        this.document.addPosition(getCategory(), mining.getPosition());
+      } catch (BadLocationException | BadPositionCategoryException e) {
+        CopilotCore.LOGGER.error(e);
+      }
     }
+  }
+
+  private List<ICodeMining> resolveCodeMiningGhostTexts(Position position) {
     List<ICodeMining> cm = new ArrayList<>();
+    if (this.suggestionUpdateManager.getSize() == 0) {
+      return cm;
+    }
+    String uuid = this.suggestionUpdateManager.getCurrentUuid();
+    int tabSize = getLabelTabSize();
+    if (!Objects.equals(uuid, this.renderedLabelsUuid) || tabSize != this.renderedLabelsTabSize) {
+      this.renderedLabelsUuid = uuid;
+      this.renderedLabelsTabSize = tabSize;
+      this.renderedLabels.clear();
+    }
     String firstLine = this.suggestionUpdateManager.getFirstLine();
 
     if (StringUtils.isNotEmpty(firstLine)) {
       try {
-        cm.addAll(getCodeMiningGhostTexts(position, this.document, getCurrentLine(position), firstLine));
+        cm.addAll(getCodeMiningGhostTexts(position, this.document, firstLine));
       } catch (BadLocationException e) {
         CopilotCore.LOGGER.error(e);
       }
@@ -96,96 +156,111 @@ public class CompletionManager extends BaseCompletionManager {
     if (StringUtils.isNotEmpty(remainingLines)) {
       try {
         int lineOffset = document.getLineOfOffset(position.offset) + 1;
-        if (lineOffset >= document.getNumberOfLines()) {
-          return;
+        if (lineOffset < document.getNumberOfLines()) {
+          cm.add(new BlockGhostText(lineOffset, document, null, renderLabel(remainingLines)));
         }
-        cm.add(new BlockGhostText(lineOffset, document, null, remainingLines));
       } catch (BadLocationException e) {
         CopilotCore.LOGGER.error(e);
       }
     }
+    return cm;
+  }
 
-    if (cm.size() != this.codeMinings.size()) {
-      this.updateCodeMinings();
-    } else {
-      for (int i = 0; i < cm.size(); i++) {
-        AbstractCodeMining newMining = (AbstractCodeMining) cm.get(i);
-        AbstractCodeMining oldMining = (AbstractCodeMining) this.codeMinings.get(i);
-        if (newMining.getPosition().getOffset() != oldMining.getPosition().getOffset()
-            || newMining.getPosition().getLength() != oldMining.getPosition().getLength()
-            || !newMining.getLabel().equals(oldMining.getLabel())) {
-          this.updateCodeMinings();
-          break;
-        }
-      }
+  /**
+   * Get the tab size used to render the labels, or <code>-1</code> if the file is indented with spaces.
+   */
+  private int getLabelTabSize() {
+    IFile file = LSPEclipseUtils.getFile(this.document);
+    FormatOptionProvider formatOptionProvider = CopilotCore.getPlugin().getFormatOptionProvider();
+    if (file == null || formatOptionProvider == null || formatOptionProvider.useSpace(file)) {
+      return -1;
     }
-    this.codeMinings = cm;
+    return formatOptionProvider.getTabSize(file);
   }
 
-  private List<AbstractCodeMining> getCodeMiningGhostTexts(Position position, IDocument document, String documentLine,
-      String completionLine) throws BadLocationException {
-
-    // LineContentCodeMining for eclipse 2024-12 requires position length > 0, this is a work around.
-    Position lineContentPostion = new Position(position.getOffset(), position.getLength());
-    if (lineContentPostion.getLength() == 0 && position.getOffset() + 1 <= document.getLength()) {
-      lineContentPostion.setLength(1);
+  /**
+   * Get the label rendered by the code mining for the given ghost text. The code mining API does not support tabs
+   * rendering, so the leading tabs of each line are replaced with spaces to correctly render the indentation. See:
+   * AbstractCodeMining.draw() method. The rendered labels are cached for the current suggestion and tab size, since
+   * the minings are rebuilt on each update of the ghost text.
+   */
+  String renderLabel(String text) {
+    if (this.renderedLabelsTabSize < 0 || text.indexOf('\t') < 0) {
+      return text;
     }
+    return this.renderedLabels.computeIfAbsent(text,
+        k -> CompletionUtils.replaceTabsWithSpaces(k, this.renderedLabelsTabSize));
+  }
 
-    List<AbstractCodeMining> ghostTexts = new ArrayList<>();
-    if (documentLine.isEmpty()) {
-      ghostTexts
-          .add(new LineEndGhostText(document, document.getLineOfOffset(position.getOffset()), null, completionLine));
-      return ghostTexts;
-    }
-    if (documentLine.isBlank()) {
-      ghostTexts.add(new LineContentGhostText(position, true, null, completionLine));
-      return ghostTexts;
-    }
-
-    // strip trailing whitespaces, tabs, etc., across all platforms. These characters are not visually considered the
-    // end of document line, so we should ignore them when calculating the starting point offset for ghost text
-    // rendering.
-    int i = Math.max(0, StringUtils.stripEnd(documentLine, null).length() - 1);
-    int j = completionLine.length() - 1;
-    StringBuilder sb = new StringBuilder();
-
-    while (i >= 0 && j >= 0) {
-      if (documentLine.charAt(i) == completionLine.charAt(j)) {
-        if (sb.length() > 0) {
-          // passing i + 1 here because the current char indexed with i are the same, the ghost
-          // text should display the content which is different from the document.
-          // while calculating 'i' here, we use the original document line without stripping trailing whitespaces since
-          // if there are trailing whitespaces, the ghost text should always be the inline ghost text instead of the eol
-          // ghost text.
-          ghostTexts.add(0, createCodeMiningGhostText(document, position.getOffset(), i + 1, sb.toString(),
-              i == documentLine.length() - 1));
-          sb.setLength(0);
-          continue;
-        }
-        i--;
-        j--;
-      } else {
-        sb.insert(0, completionLine.charAt(j--));
+  /**
+   * Check if the new minings are rendered at the same places as the displayed ones, so that only their labels need to
+   * be updated. Labels with tabs or line breaks are excluded since they change the rendered width or height.
+   */
+  private boolean hasSameLayout(List<ICodeMining> oldMinings, List<ICodeMining> newMinings) {
+    if (oldMinings.isEmpty() || oldMinings.size() != newMinings.size()) {
+      return false;
+    }
+    for (int i = 0; i < newMinings.size(); i++) {
+      AbstractCodeMining newMining = (AbstractCodeMining) newMinings.get(i);
+      AbstractCodeMining oldMining = (AbstractCodeMining) oldMinings.get(i);
+      if (newMining.getClass() != oldMining.getClass()
+          || newMining.getPosition().getOffset() != oldMining.getPosition().getOffset()
+          || newMining.getPosition().getLength() != oldMining.getPosition().getLength()) {
+        return false;
+      }
+      if (!Objects.equals(newMining.getLabel(), oldMining.getLabel())
+          && StringUtils.containsAny(newMining.getLabel(), '\t', '\n', '\r')) {
+        return false;
       }
     }
+    return true;
+  }
 
-    String remaining = sb.toString();
-    if (j >= 0) {
-      remaining = completionLine.substring(0, j + 1) + remaining;
-    }
-    if (StringUtils.isNotEmpty(remaining)) {
-      ghostTexts.add(0,
-          createCodeMiningGhostText(document, position.getOffset(), i, remaining, i == documentLine.length() - 1));
+  /**
+   * Copy the labels of the new minings to the displayed ones.
+   *
+   * @return <code>true</code> if any label changed.
+   */
+  private boolean updateLabels(List<ICodeMining> oldMinings, List<ICodeMining> newMinings) {
+    boolean changed = false;
+    for (int i = 0; i < newMinings.size(); i++) {
+      AbstractCodeMining newMining = (AbstractCodeMining) newMinings.get(i);
+      AbstractCodeMining oldMining = (AbstractCodeMining) oldMinings.get(i);
+      if (!Objects.equals(newMining.getLabel(), oldMining.getLabel())) {
+        oldMining.setLabel(newMining.getLabel());
+        changed = true;
+      }
     }
+    return changed;
+  }
 
+  private void redrawLineAtModelOffset(int modelOffset) {
+    SwtUtils.invokeOnDisplayThread(() -> {
+      int widgetOffset = UiUtils.modelOffset2WidgetOffset(textViewer, modelOffset);
+      if (widgetOffset < 0 || widgetOffset > styledText.getCharCount()) {
+        return;
+      }
+      int line = styledText.getLineAtOffset(widgetOffset);
+      int width = styledText.getClientArea().width + styledText.getHorizontalPixel();
+      styledText.redraw(0, styledText.getLinePixel(line), width, styledText.getLineHeight(line), true);
+    }, this.styledText);
+  }
+
+  private List<AbstractCodeMining> getCodeMiningGhostTexts(Position position, IDocument document,
+      String completionLine) throws BadLocationException {
+    List<AbstractCodeMining> ghostTexts = new ArrayList<>();
+    for (GhostTextLayout.Segment segment : GhostTextLayout.layout(document, position.getOffset(), completionLine)) {
+      ghostTexts.add(createCodeMiningGhostText(document, segment));
+    }
     return ghostTexts;
   }
 
-  private AbstractCodeMining createCodeMiningGhostText(IDocument document, int base, int offset, String text,
-      boolean isEol) throws BadLocationException {
-    // use Math.max to avoid negative offset (i may == -1 after the while loop))
-    int position = isEol ? base + offset : Math.max(base + offset, base);
-    return isEol ? new LineEndGhostText(document, document.getLineOfOffset(position), null, text)
-        : new LineContentGhostText(new Position(position, 1), true, null, text);
+  private AbstractCodeMining createCodeMiningGhostText(IDocument document, GhostTextLayout.Segment segment)
+      throws BadLocationException {
+    // LineContentCodeMining for eclipse 2024-12 requires position length > 0.
+    return segment.endOfLine()
+        ? new LineEndGhostText(document, document.getLineOfOffset(segment.modelOffset()), null,
+            renderLabel(segment.text()))
+        : new LineContentGhostText(new Position(segment.modelOffset(), 1), true, null, renderLabel(segment.text()));
   }
 }
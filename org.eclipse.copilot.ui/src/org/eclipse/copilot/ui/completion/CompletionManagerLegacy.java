@@ -64,26 +64,14 @@ public class CompletionManagerLegacy extends BaseCompletionManager {
 
     String firstLine = this.suggestionUpdateManager.getFirstLine();
     if (StringUtils.isNotEmpty(firstLine)) {
-      String documentContent = this.document.get();
-      int triggerOffset = position.getOffset();
-      String documentLine = "";
       try {
-        int lineOffset = document.getLineOfOffset(triggerOffset);
-        if (lineOffset == document.getNumberOfLines() - 1) {
-          // this is the last line
-          documentLine = documentContent.substring(triggerOffset);
-        } else {
-          for (int i = triggerOffset; i < this.document.getLength(); i++) {
-            if (isNewLineCharacter(documentContent, i)) {
-              documentLine = documentContent.substring(triggerOffset, i);
-              break;
-            }
-          }
+        for (GhostTextLayout.Segment segment : GhostTextLayout.layout(this.document, position.getOffset(),
+            firstLine)) {
+          ghostTexts.add(createGhostText(segment));
         }
       } catch (BadLocationException e) {
         CopilotCore.LOGGER.error(e);
       }
-      ghostTexts.addAll(getGhostTexts(documentLine, firstLine, triggerOffset));
     }
 
     String remainingLines = this.suggestionUpdateManager.getRemainingLines();
@@ -103,56 +91,15 @@ public class CompletionManagerLegacy extends BaseCompletionManager {
    */
   public static List<GhostText> getGhostTexts(String documentLine, String completionLine, int triggerOffset) {
     List<GhostText> ghostTexts = new ArrayList<>();
-    if (documentLine.isEmpty()) {
-      ghostTexts.add(new EolGhostText(completionLine, triggerOffset));
-      return ghostTexts;
+    for (GhostTextLayout.Segment segment : GhostTextLayout.layout(documentLine, completionLine, triggerOffset)) {
+      ghostTexts.add(createGhostText(segment));
     }
-    if (documentLine.isBlank()) {
-      ghostTexts.add(new InlineGhostText(completionLine, triggerOffset));
-      return ghostTexts;
-    }
-
-    // strip trailing whitespaces, tabs, etc., across all platforms. These characters are not visually considered the
-    // end of document line, so we should ignore them when calculating the starting point offset for ghost text
-    // rendering.
-    int i = Math.max(0, StringUtils.stripEnd(documentLine, null).length() - 1);
-    int j = completionLine.length() - 1;
-    StringBuilder sb = new StringBuilder();
-
-    while (i >= 0 && j >= 0) {
-      if (documentLine.charAt(i) == completionLine.charAt(j)) {
-        if (sb.length() > 0) {
-          // passing i + 1 here because the current char indexed with i are the same, the ghost
-          // text should display the content which is different from the document.
-          // while calculating 'i' here, we use the original document line without stripping trailing whitespaces since
-          // if there are trailing whitespaces, the ghost text should always be the inline ghost text instead of the eol
-          // ghost text.
-          ghostTexts.add(0, createGhostText(triggerOffset, i + 1, sb.toString(), i == documentLine.length() - 1));
-          sb.setLength(0);
-          continue;
-        }
-        i--;
-        j--;
-      } else {
-        sb.insert(0, completionLine.charAt(j--));
-      }
-    }
-
-    String remaining = sb.toString();
-    if (j >= 0) {
-      remaining = completionLine.substring(0, j + 1) + remaining;
-    }
-    if (StringUtils.isNotEmpty(remaining)) {
-      ghostTexts.add(0, createGhostText(triggerOffset, i, remaining, i == documentLine.length() - 1));
-    }
-
     return ghostTexts;
   }
 
-  private static GhostText createGhostText(int base, int offset, String text, boolean isEol) {
-    // use Math.max to avoid negative offset (i may == -1 after the while loop))
-    int position = isEol ? base + offset : Math.max(base + offset, base);
-    return isEol ? new EolGhostText(text, position) : new InlineGhostText(text, position);
+  private static GhostText createGhostText(GhostTextLayout.Segment segment) {
+    return segment.endOfLine() ? new EolGhostText(segment.text(), segment.modelOffset())
+        : new InlineGhostText(segment.text(), segment.modelOffset());
   }
 
   /**
@@ -161,6 +108,7 @@ public class CompletionManagerLegacy extends BaseCompletionManager {
   @Override
   public void clearGhostTexts() {
     disableContext();
+    cancelAlternatives();
     if (this.renderingManager != null) {
       this.suggestionUpdateManager.reset();
     }
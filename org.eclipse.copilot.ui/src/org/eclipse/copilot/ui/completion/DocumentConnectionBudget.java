@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.ui.completion;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+
+import org.eclipse.copilot.core.Constants;
+import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
+
+/**
+ * Keeps the documents connected to the language server within a budget, since the language server mirrors the full
+ * text of every connected document:
+ * <ul>
+ * <li>a document is connected lazily, on its first edit or when a completion is explicitly triggered in it;</li>
+ * <li>a document longer than {@link Constants#MAX_CONNECTED_FILE_SIZE_KB} is never connected;</li>
+ * <li>when more than {@link Constants#MAX_CONNECTED_DOCUMENTS} documents are connected, the least recently used ones
+ * are disconnected. They are connected again when their editor is activated or edited.</li>
+ * </ul>
+ */
+public class DocumentConnectionBudget {
+
+  private final CopilotLanguageServerConnection languageServer;
+  private final IPreferenceStore preferenceStore;
+
+  /**
+   * The documents of the opened editors, ordered from the least to the most recently used.
+   */
+  private final Map<URI, Entry> entries;
+
+  @Nullable
+  private URI activeUri;
+
+  /**
+   * Creates a new DocumentConnectionBudget.
+   *
+   * @param languageServer the language server connection.
+   * @param preferenceStore the preference store holding the limits.
+   */
+  public DocumentConnectionBudget(CopilotLanguageServerConnection languageServer, IPreferenceStore preferenceStore) {
+    this.languageServer = languageServer;
+    this.preferenceStore = preferenceStore;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Register an editor of the document. The document is connected on its first edit.
+   *
+   * @return <code>true</code> if the document is registered, <code>false</code> if it is too large to be connected.
+   */
+  public synchronized boolean register(URI uri, IDocument document, IFile file) {
+    Entry entry = this.entries.get(uri);
+    if (entry == null) {
+      if (isTooLarge(document)) {
+        return false;
+      }
+      entry = new Entry(uri, document, file);
+      this.entries.put(uri, entry);
+      entry.arm();
+    }
+    entry.editorCount++;
+    return true;
+  }
+
+  /**
+   * Unregister an editor of the document. The document is disconnected when its last editor is unregistered.
+   */
+  public synchronized void unregister(URI uri) {
+    Entry entry = this.entries.get(uri);
+    if (entry == null || --entry.editorCount > 0) {
+      return;
+    }
+    this.entries.remove(uri);
+    entry.disarm();
+    if (entry.connected) {
+      this.languageServer.disconnectDocument(uri);
+    }
+    if (uri.equals(this.activeUri)) {
+      this.activeUri = null;
+    }
+  }
+
+  /**
+   * Mark the document as the one of the active editor. It is reconnected if it was disconnected by the budget.
+   */
+  public synchronized void activate(URI uri) {
+    Entry entry = this.entries.get(uri);
+    if (entry == null) {
+      return;
+    }
+    this.activeUri = uri;
+    if (entry.evicted) {
+      connect(entry);
+    }
+  }
+
+  /**
+   * Connect the document now if it is not connected yet.
+   *
+   * @return the future of the connection, or <code>null</code> if the document is already connected or cannot be
+   *     connected.
+   */
+  @Nullable
+  public synchronized CompletableFuture<LanguageServerWrapper> connect(URI uri) {
+    Entry entry = this.entries.get(uri);
+    if (entry == null || entry.connected) {
+      return null;
+    }
+    return connect(entry);
+  }
+
+  /**
+   * Check if the document is connected to the language server.
+   */
+  public synchronized boolean isConnected(URI uri) {
+    Entry entry = this.entries.get(uri);
+    return entry != null && entry.connected;
+  }
+
+  @Nullable
+  private CompletableFuture<LanguageServerWrapper> connect(Entry entry) {
+    entry.disarm();
+    CompletableFuture<LanguageServerWrapper> future = this.languageServer.connectDocument(entry.document, entry.file);
+    if (future == null) {
+      // try again on the next edit.
+      entry.arm();
+      return null;
+    }
+    entry.connected = true;
+    entry.evicted = false;
+    disconnectLeastRecentlyUsed(entry);
+    return future;
+  }
+
+  private void disconnectLeastRecentlyUsed(Entry keep) {
+    int maxConnected = this.preferenceStore.getInt(Constants.MAX_CONNECTED_DOCUMENTS);
+    if (maxConnected <= 0) {
+      return;
+    }
+    int connectedCount = (int) this.entries.values().stream().filter(e -> e.connected).count();
+    Iterator<Entry> iterator = this.entries.values().iterator();
+    while (connectedCount > maxConnected && iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (!entry.connected || entry == keep || entry.uri.equals(this.activeUri)) {
+        continue;
+      }
+      this.languageServer.disconnectDocument(entry.uri);
+      entry.connected = false;
+      entry.evicted = true;
+      entry.arm();
+      connectedCount--;
+    }
+  }
+
+  private boolean isTooLarge(IDocument document) {
+    long maxLength = this.preferenceStore.getInt(Constants.MAX_CONNECTED_FILE_SIZE_KB) * 1024L;
+    return maxLength > 0 && document.getLength() > maxLength;
+  }
+
+  private synchronized void onFirstEdit(Entry entry) {
+    // the lookup also marks the document as recently used.
+    if (entry.armed && this.entries.get(entry.uri) == entry) {
+      connect(entry);
+    }
+  }
+
+  /**
+   * The document of one or more editors, listening to the document until it is connected.
+   */
+  private class Entry implements IDocumentListener {
+    private final URI uri;
+    private final IDocument document;
+    private final IFile file;
+    private int editorCount;
+    private boolean connected;
+    private boolean evicted;
+    private boolean armed;
+
+    Entry(URI uri, IDocument document, IFile file) {
+      this.uri = uri;
+      this.document = document;
+      this.file = file;
+    }
+
+    void arm() {
+      if (!this.armed) {
+        this.armed = true;
+        this.document.addDocumentListener(this);
+      }
+    }
+
+    void disarm() {
+      if (this.armed) {
+        this.armed = false;
+        this.document.removeDocumentListener(this);
+      }
+    }
+
+    @Override
+    public void documentAboutToBeChanged(DocumentEvent event) {
+      // do nothing
+    }
+
+    @Override
+    public void documentChanged(DocumentEvent event) {
+      // the document is read when it is connected, so the language server gets the content after this change.
+      onFirstEdit(this);
+    }
+  }
+}
@@ -11,7 +11,6 @@ package org.eclipse.copilot.ui.completion;
 
 import java.net.URI;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IFile;
@@ -19,7 +18,6 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
-import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IPartListener2;
 import org.eclipse.ui.IWorkbenchPart;
@@ -27,6 +25,7 @@ import org.eclipse.ui.IWorkbenchPartReference;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import org.eclipse.copilot.core.lsp.CopilotLanguageServerConnection;
+import org.eclipse.copilot.ui.CopilotUi;
 import org.eclipse.copilot.ui.utils.UiUtils;
 
 /**
@@ -37,28 +36,32 @@ public class EditorLifecycleListener implements IPartListener2 {
   /**
    * The map of opened editors to its contained file uri. This is to avoid same editor being treated multiple times.
    * Because each time user double clicks the file, partActivated will be called. This is also used when
-   * partInputChanged is called, the old uri need to be disconnected.
+   * partInputChanged is called, the old uri need to be unregistered.
    */
   private Map<IEditorPart, URI> editorToUriMap;
 
   /**
-   * A map to count how many editors are opened for each file. Because the same file can be opened in multiple editors,
-   * we only need to disconnect the file when all editors are closed.
+   * Decides when the documents of the opened editors are connected to the language server. The same file can be opened
+   * in multiple editors, so it also counts the editors of each document.
    */
-  private Map<URI, Integer> uriActiveCount;
+  private DocumentConnectionBudget connectionBudget;
 
   private EditorsManager manager;
 
-  private CopilotLanguageServerConnection languageServer;
-
   /**
    * Creates a new EditorLifecycleListener.
    */
   public EditorLifecycleListener(CopilotLanguageServerConnection languageServer, EditorsManager manager) {
-    this.languageServer = languageServer;
+    this(manager, new DocumentConnectionBudget(languageServer, CopilotUi.getPlugin().getPreferenceStore()));
+  }
+
+  /**
+   * Creates a new EditorLifecycleListener with the given budget of connected documents.
+   */
+  public EditorLifecycleListener(EditorsManager manager, DocumentConnectionBudget connectionBudget) {
     this.manager = manager;
+    this.connectionBudget = connectionBudget;
     editorToUriMap = new ConcurrentHashMap<>();
-    uriActiveCount = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -76,8 +79,17 @@ public class EditorLifecycleListener implements IPartListener2 {
    */
   public void partActivated(IEditorPart editorPart) {
     ITextEditor textEditor = editorPart.getAdapter(ITextEditor.class);
-    if (connectDocumentIfNecessary(editorPart, textEditor)) {
+    URI uri = registerDocumentIfNecessary(editorPart, textEditor);
+    if (uri != null) {
       createCompletionHandlerFor(textEditor);
+      BaseCompletionManager completionManager = manager.getCompletionManagerFor(textEditor);
+      if (completionManager != null) {
+        completionManager.setConnectionRequester(() -> connectionBudget.connect(uri));
+      }
+    }
+    URI activeUri = editorToUriMap.get(editorPart);
+    if (activeUri != null) {
+      connectionBudget.activate(activeUri);
     }
     if (textEditor != null) {
       manager.setActiveEditor(textEditor);
@@ -97,9 +109,16 @@ public class EditorLifecycleListener implements IPartListener2 {
     if (editorPart == null) {
       return;
     }
-    disconnectDocumentIfNecessary(editorPart);
+    URI oldUri = editorToUriMap.get(editorPart);
+    boolean wasConnected = oldUri != null && connectionBudget.isConnected(oldUri);
+    unregisterDocumentIfNecessary(editorPart);
 
     this.partActivated(partRef);
+    // keep a renamed or moved document connected.
+    URI newUri = editorToUriMap.get(editorPart);
+    if (wasConnected && newUri != null) {
+      connectionBudget.connect(newUri);
+    }
   }
 
   @Override
@@ -109,7 +128,7 @@ public class EditorLifecycleListener implements IPartListener2 {
       return;
     }
 
-    disconnectDocumentIfNecessary(editorPart);
+    unregisterDocumentIfNecessary(editorPart);
 
     ITextEditor textEditor = editorPart.getAdapter(ITextEditor.class);
     disposeCompletionHandlerFor(textEditor);
@@ -124,57 +143,35 @@ public class EditorLifecycleListener implements IPartListener2 {
     return part.getAdapter(IEditorPart.class);
   }
 
-  private boolean connectDocumentIfNecessary(IEditorPart editorPart, ITextEditor textEditor) {
+  /**
+   * Return the uri of the document if the editor is newly registered, otherwise <code>null</code>.
+   */
+  @Nullable
+  private URI registerDocumentIfNecessary(IEditorPart editorPart, ITextEditor textEditor) {
     if (editorToUriMap.containsKey(editorPart)) {
-      return false; // already connected
+      return null; // already registered
     }
 
     IFile file = UiUtils.getFileFromEditorPart(editorPart);
     if (file == null) {
-      return false; // not a file editor, do not connect
+      return null; // not a file editor, do not connect
     }
     URI uri = LSPEclipseUtils.toUri((IResource) file);
     if (uri == null) {
-      return false; // cannot get valid URI, do not connect
+      return null; // cannot get valid URI, do not connect
     }
     IDocument document = LSPEclipseUtils.getDocument(textEditor);
-    boolean connected = connectDocument(document, file, uri);
-    if (connected) {
-      editorToUriMap.put(editorPart, uri);
-    }
-    return connected;
-  }
-
-  /**
-   * Return <code>true</code> if the document is connected successfully, otherwise <code>false</code>.
-   */
-  private boolean connectDocument(IDocument document, IFile file, URI uri) {
-    if (file != null) {
-      int count = uriActiveCount.getOrDefault(uri, 0);
-      CompletableFuture<LanguageServerWrapper> wrapper = this.languageServer.connectDocument(document, file);
-      // if the document is not connected, the wrapper will be null.
-      if (wrapper != null) {
-        uriActiveCount.put(uri, count + 1);
-        return true;
-      }
+    if (document == null || !connectionBudget.register(uri, document, file)) {
+      return null; // no document, or too large to be connected
     }
-    return false;
+    editorToUriMap.put(editorPart, uri);
+    return uri;
   }
 
-  private void disconnectDocumentIfNecessary(IEditorPart editorPart) {
+  private void unregisterDocumentIfNecessary(IEditorPart editorPart) {
     URI uri = editorToUriMap.remove(editorPart);
-    disconnectDocument(uri);
-  }
-
-  private void disconnectDocument(URI uri) {
     if (uri != null) {
-      int count = uriActiveCount.getOrDefault(uri, 0);
-      if (count == 1) {
-        this.languageServer.disconnectDocument(uri);
-        uriActiveCount.remove(uri);
-      } else if (count > 1) {
-        uriActiveCount.put(uri, count - 1);
-      }
+      connectionBudget.unregister(uri);
     }
   }
 
@@ -36,7 +36,22 @@ public abstract class GhostText {
   }
 
   /**
-   * Draws the ghost text.
+   * Computes the metrics of the ghost text and applies what it needs to the widget, e.g. reserving space for it. It is
+   * called once when the ghost text is set, never while painting.
+   */
+  public void layout(StyledText styledText, int widgetOffset, GC gc) {
+    // nothing to lay out by default.
+  }
+
+  /**
+   * Check whether the layout applied to the widget is still in place, since the widget styles may be reset by others.
+   */
+  public boolean isLaidOut(StyledText styledText, int widgetOffset) {
+    return true;
+  }
+
+  /**
+   * Draws the ghost text. The widget must not be changed here since it is called while painting.
    */
   public abstract void draw(StyledText styledText, int widgetOffset, GC gc);
 
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.ui.completion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+
+/**
+ * Computes where the first line of a suggestion is rendered as ghost text. The suggestion is matched against the rest
+ * of the document line after the trigger position from right to left; every run of suggestion characters that is not
+ * in the document becomes one segment, which is either rendered inline before a document character or at the end of
+ * the line. The result is shared by the code mining and the legacy rendering paths.
+ */
+public final class GhostTextLayout {
+
+  private GhostTextLayout() {
+    // prevent instantiation
+  }
+
+  /**
+   * Lay out the first line of a suggestion against the line of the document where the completion is triggered. Only
+   * the text between the trigger offset and the end of that line is read from the document.
+   *
+   * @param document the document.
+   * @param triggerOffset the offset where the completion is triggered in the document.
+   * @param completionLine the first line of the inline suggestion.
+   * @return the segments ordered by their offset.
+   * @throws BadLocationException if the trigger offset is invalid.
+   */
+  public static List<Segment> layout(IDocument document, int triggerOffset, String completionLine)
+      throws BadLocationException {
+    return layout(getLineAfterOffset(document, triggerOffset), completionLine, triggerOffset);
+  }
+
+  /**
+   * Lay out the first line of a suggestion against the given document line.
+   *
+   * @param documentLine the text of the document line after the trigger offset.
+   * @param completionLine the first line of the inline suggestion.
+   * @param triggerOffset the offset where the completion is triggered in the document.
+   * @return the segments ordered by their offset.
+   */
+  public static List<Segment> layout(CharSequence documentLine, String completionLine, int triggerOffset) {
+    int lineLength = documentLine.length();
+    if (lineLength == 0) {
+      return List.of(new Segment(triggerOffset, completionLine, true));
+    }
+    // trailing whitespaces, tabs, etc. are not visually considered the end of document line, so they are ignored when
+    // calculating the starting point offset for ghost text rendering.
+    int strippedLength = lineLength;
+    while (strippedLength > 0 && Character.isWhitespace(documentLine.charAt(strippedLength - 1))) {
+      strippedLength--;
+    }
+    if (strippedLength == 0) {
+      return List.of(new Segment(triggerOffset, completionLine, false));
+    }
+
+    List<Segment> segments = new ArrayList<>();
+    int i = strippedLength - 1;
+    int j = completionLine.length() - 1;
+    // the unmatched suggestion characters are always the range (j, segmentEnd] of the completion line.
+    int segmentEnd = -1;
+    while (i >= 0 && j >= 0) {
+      if (documentLine.charAt(i) == completionLine.charAt(j)) {
+        if (segmentEnd >= 0) {
+          // the current char indexed with i is the same, so the ghost text is displayed after it. The end of line is
+          // checked against the line with trailing whitespaces since the ghost text should always be inline when there
+          // are trailing whitespaces.
+          segments.add(createSegment(triggerOffset, i + 1, completionLine.substring(j + 1, segmentEnd + 1),
+              i == lineLength - 1));
+          segmentEnd = -1;
+        }
+        i--;
+        j--;
+      } else {
+        if (segmentEnd < 0) {
+          segmentEnd = j;
+        }
+        j--;
+      }
+    }
+
+    int remainingEnd = segmentEnd >= 0 ? segmentEnd + 1 : j + 1;
+    if (remainingEnd > 0) {
+      segments.add(createSegment(triggerOffset, i, completionLine.substring(0, remainingEnd), i == lineLength - 1));
+    }
+    Collections.reverse(segments);
+    return segments;
+  }
+
+  private static Segment createSegment(int base, int offset, String text, boolean endOfLine) {
+    // use Math.max to avoid negative offset (i may == -1 after the matching loop)
+    int modelOffset = endOfLine ? base + offset : Math.max(base + offset, base);
+    return new Segment(modelOffset, text, endOfLine);
+  }
+
+  private static String getLineAfterOffset(IDocument document, int offset) throws BadLocationException {
+    IRegion line = document.getLineInformationOfOffset(offset);
+    return document.get(offset, line.getOffset() + line.getLength() - offset);
+  }
+
+  /**
+   * A run of ghost text on the trigger line.
+   *
+   * @param modelOffset the document offset the ghost text is rendered at.
+   * @param text the ghost text.
+   * @param endOfLine whether the ghost text is rendered after the end of the line rather than before the character at
+   *     the offset.
+   */
+  public record Segment(int modelOffset, String text, boolean endOfLine) {
+  }
+}
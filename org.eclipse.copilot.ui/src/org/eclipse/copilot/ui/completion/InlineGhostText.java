@@ -14,7 +14,6 @@ import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.FontMetrics;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.GlyphMetrics;
-import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 
 /**
@@ -23,6 +22,16 @@ import org.eclipse.swt.graphics.Rectangle;
  */
 public class InlineGhostText extends GhostText {
 
+  /**
+   * The width of the host character, i.e. the character the ghost text is rendered before.
+   */
+  private int hostCharacterWidth;
+
+  /**
+   * The width reserved on the host character for the ghost text and the redrawn host character.
+   */
+  private int reservedWidth = -1;
+
   /**
    * Creates a new InlineGhostText.
    */
@@ -30,11 +39,42 @@ public class InlineGhostText extends GhostText {
     super(text, modelOffset, GhostTextType.IN_LINE);
   }
 
+  /**
+   * Reserve the space of the ghost text by setting the glyph metrics of the host character.
+   */
+  @Override
+  public void layout(StyledText styledText, int widgetOffset, GC gc) {
+    String hostCharacter = styledText.getText(widgetOffset, widgetOffset);
+    this.hostCharacterWidth = gc.stringExtent(hostCharacter).x;
+    int redrawnCharacterWidth = hostCharacter.charAt(0) != '\t' ? this.hostCharacterWidth
+        : styledText.getTabs() * gc.stringExtent(" ").x;
+    this.reservedWidth = gc.stringExtent(text).x + redrawnCharacterWidth;
+    StyleRange style = styledText.getStyleRangeAtOffset(widgetOffset);
+    StyleRange newStyle = updateStyle(widgetOffset, text, style, gc.getFontMetrics(), this.reservedWidth);
+    if (newStyle != null) {
+      styledText.setStyleRange(newStyle);
+    }
+  }
+
+  @Override
+  public boolean isLaidOut(StyledText styledText, int widgetOffset) {
+    return isReserved(styledText.getStyleRangeAtOffset(widgetOffset));
+  }
+
+  private boolean isReserved(StyleRange style) {
+    return style != null && style.metrics != null && style.metrics.width == this.reservedWidth;
+  }
+
   /**
    * see {@link org.eclipse.jface.text.source.inlined.InlinedAnnotationDrawingStrategy#drawAsLeftOf1stCharacter}.
    */
   @Override
   public void draw(StyledText styledText, int widgetOffset, GC gc) {
+    StyleRange style = styledText.getStyleRangeAtOffset(widgetOffset);
+    if (!isReserved(style)) {
+      // the space is not reserved yet, the ghost text will be drawn once it is laid out.
+      return;
+    }
     String hostCharacter = styledText.getText(widgetOffset, widgetOffset);
     // Compute the location of the ghost text
     Rectangle bounds = styledText.getTextBounds(widgetOffset, widgetOffset);
@@ -46,16 +86,6 @@ public class InlineGhostText extends GhostText {
 
     gc.drawString(text, x, y, true);
 
-    StyleRange style = styledText.getStyleRangeAtOffset(widgetOffset);
-    int redrawnCharacterWidth = hostCharacter.charAt(0) != '\t' ? gc.stringExtent(hostCharacter).x
-        : styledText.getTabs() * gc.stringExtent(" ").x;
-    int textWidth = gc.stringExtent(text).x;
-    StyleRange newStyle = updateStyle(widgetOffset, text, style, gc.getFontMetrics(), redrawnCharacterWidth, textWidth);
-    if (newStyle != null) {
-      styledText.setStyleRange(newStyle);
-      return;
-    }
-
     // The inline annotation replaces one character by taking a place width
     // GlyphMetrics
     // Here we need to redraw this first character because GlyphMetrics clip this
@@ -65,8 +95,7 @@ public class InlineGhostText extends GhostText {
     gc.setFont(styledText.getFont());
 
     // Get size of the character where GlyphMetrics width is added
-    Point charBounds = gc.stringExtent(hostCharacter);
-    int charWidth = charBounds.x;
+    int charWidth = this.hostCharacterWidth;
     int redrawnHostCharX = x + bounds.width - charWidth;
     int redrawnHostCharY = y;
     if (style != null) {
@@ -92,8 +121,7 @@ public class InlineGhostText extends GhostText {
   }
 
   private static StyleRange updateStyle(int widgetOffset, String text, StyleRange style, FontMetrics fontMetrics,
-      int redrawnCharacterWidth, int textWidth) {
-    int fullWidth = textWidth + redrawnCharacterWidth;
+      int fullWidth) {
     if (style == null) {
       style = new StyleRange();
       style.start = widgetOffset;
@@ -21,7 +21,7 @@ import org.eclipse.swt.events.PaintEvent;
 import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.GC;
-import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Display;
 
 import org.eclipse.copilot.ui.utils.SwtUtils;
@@ -34,6 +34,17 @@ public class RenderingManager implements PaintListener {
 
   private List<GhostText> ghostTexts;
 
+  /**
+   * Whether the ghost texts changed since they were last laid out.
+   */
+  private boolean layoutPending;
+
+  /**
+   * The lines painted with the current ghost texts, or <code>null</code> if nothing is painted.
+   */
+  @Nullable
+  private PaintedLines paintedLines;
+
   private ITextViewer textViewer;
   private Color ghostTextColor;
 
@@ -69,13 +80,90 @@ public class RenderingManager implements PaintListener {
   }
 
   /**
-   * Redraw the canvas(editor).
+   * Lay out the ghost texts and redraw the lines of the canvas(editor) they are painted on.
    */
   public void redraw() {
     StyledText styledText = textViewer.getTextWidget();
     if (styledText != null) {
-      SwtUtils.invokeOnDisplayThread(styledText::redraw, styledText);
+      SwtUtils.invokeOnDisplayThread(() -> layoutAndRedraw(styledText), styledText);
+    }
+  }
+
+  private void layoutAndRedraw(StyledText styledText) {
+    if (styledText.isDisposed()) {
+      return;
+    }
+    PaintedLines oldLines = this.paintedLines;
+    layout(styledText);
+    redrawLines(styledText, PaintedLines.union(oldLines, this.paintedLines));
+  }
+
+  /**
+   * Compute the metrics of the ghost texts and apply them to the widget, so that painting does not need to measure
+   * text or change the widget.
+   */
+  private void layout(StyledText styledText) {
+    this.layoutPending = false;
+    List<GhostText> texts = this.ghostTexts;
+    if (texts.isEmpty()) {
+      this.paintedLines = null;
+      return;
+    }
+
+    int firstBlockLineGhostTextIndex = -1;
+    int blockHeight = 0;
+    GC gc = new GC(styledText);
+    try {
+      for (int i = 0; i < texts.size(); i++) {
+        GhostText ghostText = texts.get(i);
+        ghostText.layout(styledText, getWidgetOffset(styledText, ghostText), gc);
+        if (firstBlockLineGhostTextIndex < 0 && ghostText instanceof BlockGhostText blockGhostText) {
+          firstBlockLineGhostTextIndex = i;
+          blockHeight = blockGhostText.getHeight();
+        }
+      }
+    } finally {
+      gc.dispose();
+    }
+
+    // Set line indentation for the remaining ghost texts if any.
+    if (firstBlockLineGhostTextIndex > 0) {
+      setLineVerticalIndentation(styledText, UiUtils.modelOffset2WidgetOffset(textViewer, texts.get(0).modelOffset),
+          blockHeight);
+    }
+
+    PaintedLines lines = null;
+    for (GhostText ghostText : texts) {
+      int line = styledText.getLineAtOffset(getWidgetOffset(styledText, ghostText));
+      // ghost texts may be drawn on the next line, e.g. the block ghost text or the one at the last empty line.
+      lines = PaintedLines.union(lines, new PaintedLines(line, line + 1, blockHeight));
     }
+    this.paintedLines = lines;
+  }
+
+  private int getWidgetOffset(StyledText styledText, GhostText ghostText) {
+    int widgetOffset = UiUtils.modelOffset2WidgetOffset(textViewer, ghostText.modelOffset);
+    // will get index out of bounds if the cursor is at the end.
+    // Because there is no more text to get bounds at EOF.
+    return Math.max(Math.min(widgetOffset, styledText.getCharCount() - 1), 0);
+  }
+
+  /**
+   * Redraw only the given lines of the widget instead of the whole widget.
+   */
+  private void redrawLines(StyledText styledText, @Nullable PaintedLines lines) {
+    if (lines == null) {
+      return;
+    }
+    int lastLine = styledText.getLineCount() - 1;
+    int top = styledText.getLinePixel(Math.min(lines.firstLine(), lastLine));
+    int bottom = styledText.getLinePixel(Math.min(lines.lastLine(), lastLine)) + styledText.getLineHeight()
+        + lines.extraHeight();
+    Rectangle clientArea = styledText.getClientArea();
+    if (bottom <= 0 || top >= clientArea.height) {
+      return;
+    }
+    styledText.redraw(0, top, clientArea.width, bottom - top, false);
   }
 
   @Override
@@ -90,38 +178,36 @@ public class RenderingManager implements PaintListener {
     }
 
     GC gc = e.gc;
-    // Set line indentation for the remaining ghost texts if any.
-    int firstBlockLineGhostTextIndex = ghostTexts.stream()
-        .filter(ghostText -> ghostText.type == GhostTextType.BLOCK_LINE).findFirst().map(ghostTexts::indexOf)
-        .orElse(-1);
-    if (firstBlockLineGhostTextIndex > 0) {
-      Point ghostTextExtent = gc.textExtent(ghostTexts.get(firstBlockLineGhostTextIndex).text);
-      int height = ghostTextExtent.y;
-      setLineVerticalIndentation(styledText, gc,
-          UiUtils.modelOffset2WidgetOffset(textViewer, ghostTexts.get(0).modelOffset), height);
-    }
-
+    boolean laidOut = true;
     for (GhostText ghostText : this.ghostTexts) {
-      int widgetOffset = UiUtils.modelOffset2WidgetOffset(textViewer, ghostText.modelOffset);
-      // will get index out of bounds if the cursor is at the end.
-      // Because there is no more text to get bounds at EOF.
-      widgetOffset = Math.max(Math.min(widgetOffset, styledText.getCharCount() - 1), 0);
+      int widgetOffset = getWidgetOffset(styledText, ghostText);
       // reset the color to default because the inline ghost text may change the color to the same
       // as the content text color.
       gc.setForeground(this.ghostTextColor);
 
       ghostText.draw(styledText, widgetOffset, gc);
+      laidOut &= ghostText.isLaidOut(styledText, widgetOffset);
+    }
+
+    if (!laidOut && !this.layoutPending) {
+      // the styles reserving the space of the ghost texts were replaced, e.g. by the syntax highlighting. The widget
+      // must not be changed while painting, so lay out the ghost texts again afterwards.
+      this.layoutPending = true;
+      styledText.getDisplay().asyncExec(() -> layoutAndRedraw(styledText));
     }
   }
 
-  private void setLineVerticalIndentation(StyledText styledText, GC gc, int widgetOffset, int height) {
+  private void setLineVerticalIndentation(StyledText styledText, int widgetOffset, int height) {
     if (styledText == null || widgetOffset < 0) {
       return;
     }
 
     int lineIndex = styledText.getLineAtOffset(widgetOffset) + 1;
     lineIndex = Math.min(lineIndex, styledText.getLineCount() - 1);
-    styledText.setLineVerticalIndent(lineIndex, height);
+    // setting the indentation redraws the line, so skip it when nothing changes.
+    if (styledText.getLineVerticalIndent(lineIndex) != height) {
+      styledText.setLineVerticalIndent(lineIndex, height);
+    }
   }
 
   /**
@@ -131,7 +217,7 @@ public class RenderingManager implements PaintListener {
    */
   public void resetLineVerticalIndentationAtWidgetOffset(int widgetOffset) {
     StyledText styledText = textViewer.getTextWidget();
-    setLineVerticalIndentation(styledText, null, widgetOffset, 0);
+    setLineVerticalIndentation(styledText, widgetOffset, 0);
   }
 
   /**
@@ -158,7 +244,9 @@ public class RenderingManager implements PaintListener {
         }
       }
       this.ghostTexts.clear();
-      SwtUtils.invokeOnDisplayThread(styledText::redraw, styledText);
+      PaintedLines lines = this.paintedLines;
+      this.paintedLines = null;
+      SwtUtils.invokeOnDisplayThread(() -> redrawLines(styledText, lines), styledText);
     }
   }
 
@@ -172,8 +260,31 @@ public class RenderingManager implements PaintListener {
     }
   }
 
+  /**
+   * Set the ghost texts to render. They are laid out on the next {@link #redraw()}.
+   */
   public void setGhostTexts(List<GhostText> ghostTexts) {
     this.ghostTexts = ghostTexts;
+    this.layoutPending = true;
+  }
+
+  /**
+   * The range of widget lines the ghost texts are painted on, plus the height painted below the last line. Lines are
+   * kept instead of pixels so that the range stays valid when the editor is scrolled.
+   */
+  private record PaintedLines(int firstLine, int lastLine, int extraHeight) {
+
+    @Nullable
+    static PaintedLines union(@Nullable PaintedLines a, @Nullable PaintedLines b) {
+      if (a == null) {
+        return b;
+      }
+      if (b == null) {
+        return a;
+      }
+      return new PaintedLines(Math.min(a.firstLine, b.firstLine), Math.max(a.lastLine, b.lastLine),
+          Math.max(a.extraHeight, b.extraHeight));
+    }
   }
 
 }
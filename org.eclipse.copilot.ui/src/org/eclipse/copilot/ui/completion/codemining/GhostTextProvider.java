@@ -13,37 +13,23 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.ITextViewer;
-import org.eclipse.jface.text.codemining.AbstractCodeMining;
 import org.eclipse.jface.text.codemining.AbstractCodeMiningProvider;
 import org.eclipse.jface.text.codemining.ICodeMining;
 import org.eclipse.ui.texteditor.ITextEditor;
 
-import org.eclipse.copilot.core.CopilotCore;
-import org.eclipse.copilot.core.format.FormatOptionProvider;
 import org.eclipse.copilot.ui.CopilotUi;
 import org.eclipse.copilot.ui.completion.BaseCompletionManager;
 import org.eclipse.copilot.ui.completion.EditorsManager;
-import org.eclipse.copilot.ui.utils.CompletionUtils;
-import org.eclipse.copilot.ui.utils.UiUtils;
 
 /**
- * A provider for ghost text.
+ * A provider for ghost text. The minings and their labels are prepared by the completion manager of the editor, so
+ * providing them is a lookup only.
  */
 public class GhostTextProvider extends AbstractCodeMiningProvider {
 
-  private FormatOptionProvider formatOptionProvider;
-
-  /**
-   * Creates a new GhostTextProvider.
-   */
-  public GhostTextProvider() {
-    this.formatOptionProvider = CopilotCore.getPlugin().getFormatOptionProvider();
-  }
-
   @Override
   public CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(ITextViewer viewer,
       IProgressMonitor monitor) {
@@ -69,31 +55,11 @@ public class GhostTextProvider extends AbstractCodeMiningProvider {
       return Collections.emptyList();
     }
 
+    // the labels are already rendered by the manager, see CompletionManager.renderLabel().
     List<ICodeMining> codeMinings = manager.getCodeMinings();
-    if (codeMinings == null || codeMinings.isEmpty()) {
+    if (codeMinings == null) {
       return Collections.emptyList();
     }
-    IFile file = UiUtils.getFileFromTextEditor(belongingEditor);
-    if (file == null) {
-      return codeMinings;
-    }
-
-    boolean useSpace = formatOptionProvider.useSpace(file);
-    if (useSpace) {
-      return codeMinings;
-    }
-
-    int tabSize = formatOptionProvider.getTabSize(file);
-    for (ICodeMining codeMining : codeMinings) {
-      // replace the beginning tabs with spaces, this is because the code mining API does not support tabs
-      // rendering, so we need to replace the tabs with spaces to correctly render the indentation. See:
-      // AbstractCodeMining.draw() method.
-      if (codeMining instanceof AbstractCodeMining cm) {
-        String text = cm.getLabel();
-        String replacedText = CompletionUtils.replaceTabsWithSpaces(text, tabSize);
-        cm.setLabel(replacedText);
-      }
-    }
     return codeMinings;
   }
 
@@ -13,6 +13,7 @@ import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 
 import org.eclipse.copilot.core.completion.AcceptSuggestionType;
+import org.eclipse.copilot.core.completion.LocalSuggestionProvider;
 import org.eclipse.copilot.core.completion.SuggestionUpdateManager;
 import org.eclipse.copilot.core.lsp.protocol.CompletionItem;
 import org.eclipse.copilot.core.lsp.protocol.NotifyAcceptedParams;
@@ -54,7 +55,8 @@ public class AcceptFullSuggestionHandler extends CopilotHandler {
     }
 
     CompletionItem item = manager.getCurrentItem();
-    if (item == null) {
+    // the local suggestions are unknown to the language server.
+    if (item == null || LocalSuggestionProvider.isLocal(item.getUuid())) {
       return;
     }
     String uuid = item.getUuid();
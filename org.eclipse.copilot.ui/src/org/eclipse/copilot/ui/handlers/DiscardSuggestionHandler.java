@@ -14,6 +14,7 @@ import java.util.List;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 
+import org.eclipse.copilot.core.completion.LocalSuggestionProvider;
 import org.eclipse.copilot.core.completion.SuggestionUpdateManager;
 import org.eclipse.copilot.core.lsp.protocol.NotifyRejectedParams;
 import org.eclipse.copilot.ui.completion.BaseCompletionManager;
@@ -27,6 +28,7 @@ public class DiscardSuggestionHandler extends CopilotHandler {
     BaseCompletionManager handler = getActiveCompletionManager();
     if (handler != null) {
       notifyRejected(handler.getSuggestionUpdateManager());
+      handler.recordDismissed();
       handler.clearGhostTexts();
     }
     return null;
@@ -37,7 +39,12 @@ public class DiscardSuggestionHandler extends CopilotHandler {
       return;
     }
     List<String> uuids = manager.getUuids();
-    if (uuids == null || uuids.isEmpty()) {
+    if (uuids == null) {
+      return;
+    }
+    // the local suggestions are unknown to the language server.
+    uuids = uuids.stream().filter(uuid -> !LocalSuggestionProvider.isLocal(uuid)).toList();
+    if (uuids.isEmpty()) {
       return;
     }
 
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2025 GitHub, Inc. and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *******************************************************************************/
+
+package org.eclipse.copilot.ui.handlers;
+
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+
+import org.eclipse.copilot.core.completion.SuggestionUpdateManager;
+import org.eclipse.copilot.ui.completion.BaseCompletionManager;
+
+/**
+ * Handler for displaying the next alternative of the completion suggestion.
+ */
+public class ShowNextSuggestionHandler extends CopilotHandler {
+
+  @Override
+  public Object execute(ExecutionEvent event) throws ExecutionException {
+    BaseCompletionManager handler = getActiveCompletionManager();
+    if (handler != null) {
+      handler.cycleSuggestion(true);
+    }
+    return null;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    BaseCompletionManager manager = getActiveCompletionManager();
+    if (manager == null) {
+      return false;
+    }
+    SuggestionUpdateManager suggestionUpdateManager = manager.getSuggestionUpdateManager();
+    return suggestionUpdateManager != null && suggestionUpdateManager.getSize() > 0;
+  }
+
+}
@@ -13,6 +13,8 @@ import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
 import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.copilot.core.Constants;
+import org.eclipse.copilot.core.completion.CompletionTriggerPolicy;
+import org.eclipse.copilot.core.lsp.ResiliencePolicy;
 import org.eclipse.copilot.ui.CopilotUi;
 
 /**
@@ -24,6 +26,11 @@ public class CopilotPreferenceInitializer extends AbstractPreferenceInitializer
   public void initializeDefaultPreferences() {
     IPreferenceStore pref = CopilotUi.getPlugin().getPreferenceStore();
     pref.setDefault(Constants.AUTO_SHOW_COMPLETION, true);
+    pref.setDefault(Constants.ENABLE_COMPLETION_PREFETCH, false);
+    pref.setDefault(Constants.MAX_CONNECTED_DOCUMENTS, 20);
+    pref.setDefault(Constants.MAX_CONNECTED_FILE_SIZE_KB, 1024);
+    pref.setDefault(Constants.COMPLETION_TRIGGER_RULES, CompletionTriggerPolicy.DEFAULT_RULES);
+    pref.setDefault(Constants.LANGUAGE_SERVER_TIMEOUTS, ResiliencePolicy.DEFAULT_TIMEOUTS);
     pref.setDefault(Constants.ENABLE_STRICT_SSL, true);
     pref.setDefault(Constants.PROXY_KERBEROS_SP, "");
     pref.setDefault(Constants.GITHUB_ENTERPRISE, "");